@@ -0,0 +1,86 @@
+package com.cortarelli.repayment.benchmark;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import com.cortarelli.repayment.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the calculation engine, from the single formulas to whole plans
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculationBenchmark {
+
+    private static final CalculationOptions FIXED_POINT = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP);
+
+    @Param({"12", "60", "360", "600"})
+    private int duration;
+
+    private CalculationRepaymentPlanService calculationService;
+    private Loan loan;
+    private RepaymentSchedule schedule;
+    private double value;
+
+    @Setup
+    public void setup() {
+        calculationService = new CalculationRepaymentPlanService();
+        loan = new Loan(250000F, 3.75F, duration, OffsetDateTime.parse("2018-01-01T00:00:01Z"));
+        schedule = new RepaymentSchedule(duration);
+        value = 1234.56789D;
+    }
+
+    @Benchmark
+    public float annuityCalculation() {
+        return calculationService.annuityCalculation(loan.getDuration(), loan.getNominalRate(), loan.getLoanAmount());
+    }
+
+    @Benchmark
+    public float round() {
+        return Utils.round(value);
+    }
+
+    /**
+     * Full plan, reading every {@link Payment} as the JSON serialization does
+     */
+    @Benchmark
+    public void calculateRepaymentPlan(Blackhole blackhole) throws Exception {
+        for (Payment payment : calculationService.calculateRepaymentPlan(loan)) {
+            blackhole.consume(payment);
+        }
+    }
+
+    @Benchmark
+    public RepaymentSchedule calculateRepaymentSchedule() throws Exception {
+        return calculationService.calculateRepaymentSchedule(loan, schedule);
+    }
+
+    @Benchmark
+    public RepaymentSchedule calculateRepaymentScheduleFixedPoint() throws Exception {
+        return calculationService.calculateRepaymentSchedule(loan, FIXED_POINT, schedule);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.cortarelli.repayment.benchmark;
+
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU time of the gzip compression of a plan JSON, as done by the server.compression of the application, against the
+ * bytes on the wire. Level 6 is the default level of the JDK, used by Tomcat and Netty. The sizes are printed at the
+ * end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"60", "360"})
+    private int duration;
+
+    @Param({"1", "6", "9"})
+    private int level;
+
+    private byte[] planJson;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Loan loan = new Loan(250000F, 3.75F, duration, OffsetDateTime.parse("2018-01-01T00:00:01Z"));
+        planJson = mapper.writeValueAsBytes(new CalculationRepaymentPlanService().calculateRepaymentPlan(loan));
+        output = new ByteArrayOutputStream(planJson.length);
+    }
+
+    @Benchmark
+    public int compressPlan() throws IOException {
+        output.reset();
+        try (LevelGZIPOutputStream gzip = new LevelGZIPOutputStream(output, level)) {
+            gzip.write(planJson);
+        }
+        return output.size();
+    }
+
+    @TearDown
+    public void printSizes() throws IOException {
+        int compressed = compressPlan();
+        System.out.printf("%nduration %d, level %d: %d bytes, %d gzip bytes (%.1f%%)%n", duration, level,
+                planJson.length, compressed, 100.0 * compressed / planJson.length);
+    }
+
+    private static final class LevelGZIPOutputStream extends GZIPOutputStream {
+
+        private LevelGZIPOutputStream(ByteArrayOutputStream output, int level) throws IOException {
+            super(output);
+            def.setLevel(level);
+        }
+
+    }
+
+}
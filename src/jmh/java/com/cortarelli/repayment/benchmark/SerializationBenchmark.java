@@ -0,0 +1,105 @@
+package com.cortarelli.repayment.benchmark;
+
+import com.cortarelli.repayment.codec.BinaryPlanCodec;
+import com.cortarelli.repayment.controller.PaymentJsonWriterAccess;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of /generate-plan without the HTTP layer: {@link Loan} JSON to plan JSON, with the same Jackson
+ * configuration of the application. The plan JSON is written both by Jackson, the baseline, and by the
+ * PaymentJsonWriter of the application, which writes the same bytes. The binary format is measured on both sides: the
+ * encoding of the response and the parsing by the consumer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"12", "60", "360", "600"})
+    private int duration;
+
+    private CalculationRepaymentPlanService calculationService;
+    private ObjectMapper mapper;
+    private BinaryPlanCodec codec;
+    private byte[] loanJson;
+    private byte[] planJson;
+    private byte[] planBinary;
+    private ByteArrayOutputStream planOutput;
+
+    @Setup
+    public void setup() {
+        calculationService = new CalculationRepaymentPlanService();
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        loanJson = ("{\"loanAmount\": 250000, \"nominalRate\": 3.75, \"duration\": " + duration +
+                ", \"startDate\": \"2018-01-01T00:00:01Z\"}").getBytes();
+        codec = new BinaryPlanCodec();
+        planOutput = new ByteArrayOutputStream();
+        try {
+            planJson = generatePlan();
+            planBinary = generateBinaryPlan();
+            if (!Arrays.equals(planJson, generatePlanWithWriter())) {
+                throw new IllegalStateException("The writer and Jackson do not write the same plan");
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] generatePlan() throws Exception {
+        Loan loan = mapper.readValue(loanJson, Loan.class);
+        return mapper.writeValueAsBytes(calculationService.calculateRepaymentPlan(loan));
+    }
+
+    @Benchmark
+    public byte[] generatePlanWithWriter() throws Exception {
+        Loan loan = mapper.readValue(loanJson, Loan.class);
+        planOutput.reset();
+        PaymentJsonWriterAccess.writePlan(calculationService.calculateRepaymentPlan(loan), planOutput);
+        return planOutput.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] generateBinaryPlan() throws Exception {
+        Loan loan = mapper.readValue(loanJson, Loan.class);
+        return codec.encode(calculationService.calculateRepaymentPlan(loan));
+    }
+
+    @Benchmark
+    public JsonNode parsePlan() throws Exception {
+        return mapper.readTree(planJson);
+    }
+
+    @Benchmark
+    public List<Payment> parseBinaryPlan() {
+        return codec.decode(planBinary);
+    }
+
+}
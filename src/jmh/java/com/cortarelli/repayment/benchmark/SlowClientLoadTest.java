@@ -0,0 +1,157 @@
+package com.cortarelli.repayment.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent-connection capacity of a running application: slow clients send the headers and half the body of
+ * /generate-plan and hold the connection, so each one takes a request thread while the body is read. Meanwhile fast
+ * clients send whole requests, all at once, and their latency is reported.
+ *
+ * The fast requests wait for the slow clients once they are more than the request threads. On Tomcat 9 a slow client
+ * pins the carrier of its virtual thread, so the virtual threads are bounded by jdk.virtualThreadScheduler.maxPoolSize
+ * as the pool is by server.tomcat.max-threads: compare them with the same concurrency, e.g. maxPoolSize=2000 against
+ * max-threads=2000, otherwise the difference is only the number of threads. Start the application and run:
+ *
+ * <pre>
+ * java -cp target/test-classes com.cortarelli.repayment.benchmark.SlowClientLoadTest [url] [slowClients] [holdSeconds] [fastRequests]
+ * </pre>
+ */
+public class SlowClientLoadTest {
+
+    private static final byte[] LOAN = ("{\"loanAmount\": 5000, \"nominalRate\": 5.0, \"duration\": 24, " +
+            "\"startDate\": \"2018-01-01T00:00:01Z\"}").getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        URL url = new URL((args.length > 0 ? args[0] : "http://localhost:8090") + "/generate-plan");
+        int slowClients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int holdSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int fastRequests = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+        // warm-up, so the latency is not the first calls of the application
+        for (int i = 0; i < 100; i++) {
+            post(url, 10000);
+        }
+        List<Socket> sockets = new ArrayList<>(slowClients);
+        for (int i = 0; i < slowClients; i++) {
+            sockets.add(startSlowRequest(url));
+        }
+        int[] answered = new int[1];
+        Thread slowClientsFinisher = new Thread(() -> {
+            try {
+                TimeUnit.SECONDS.sleep(holdSeconds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (Socket socket : sockets) {
+                answered[0] += finishSlowRequest(socket) ? 1 : 0;
+            }
+        });
+        slowClientsFinisher.start();
+        // the slow requests are dispatched to the request threads
+        TimeUnit.SECONDS.sleep(1);
+
+        ExecutorService fastClients = Executors.newFixedThreadPool(fastRequests);
+        List<Future<Long>> requests = new ArrayList<>(fastRequests);
+        for (int i = 0; i < fastRequests; i++) {
+            requests.add(fastClients.submit(() -> {
+                long start = System.nanoTime();
+                post(url, (holdSeconds + 10) * 1000);
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }));
+        }
+        long[] latencies = new long[fastRequests];
+        int timeouts = 0;
+        for (int i = 0; i < fastRequests; i++) {
+            try {
+                latencies[i] = requests.get(i).get();
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof SocketTimeoutException)) {
+                    throw e;
+                }
+                latencies[i] = (holdSeconds + 10) * 1000L;
+                timeouts++;
+            }
+        }
+        fastClients.shutdown();
+        Arrays.sort(latencies);
+        System.out.printf("slow clients %d, fast requests %d, timeouts %d, latency ms: p50 %d, p90 %d, max %d%n",
+                slowClients, fastRequests, timeouts, latencies[fastRequests / 2],
+                latencies[fastRequests * 9 / 10], latencies[fastRequests - 1]);
+
+        slowClientsFinisher.join();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        System.out.printf("slow requests answered %d of %d%n", answered[0], slowClients);
+    }
+
+    private static Socket startSlowRequest(URL url) throws IOException {
+        Socket socket = new Socket(url.getHost(), url.getPort());
+        OutputStream output = socket.getOutputStream();
+        output.write(("POST " + url.getPath() + " HTTP/1.1\r\n" +
+                "Host: " + url.getHost() + "\r\n" +
+                "Content-Type: application/json\r\n" +
+                "Content-Length: " + LOAN.length + "\r\n" +
+                "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        output.write(LOAN, 0, LOAN.length / 2);
+        output.flush();
+        return socket;
+    }
+
+    /**
+     * @return false if the request was not answered, e.g. the server closed the connection when the body timed out
+     */
+    private static boolean finishSlowRequest(Socket socket) {
+        try {
+            socket.getOutputStream().write(LOAN, LOAN.length / 2, LOAN.length - LOAN.length / 2);
+            socket.getOutputStream().flush();
+            socket.setSoTimeout(1000);
+            byte[] status = new byte[12];
+            int read = 0;
+            InputStream input = socket.getInputStream();
+            for (int n = 0; read < status.length && n >= 0; read += n) {
+                n = input.read(status, read, status.length - read);
+            }
+            return new String(status, StandardCharsets.US_ASCII).startsWith("HTTP/1.1 200");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void post(URL url, int timeoutMillis) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(LOAN);
+        }
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("Unexpected status " + connection.getResponseCode());
+        }
+        try (InputStream input = connection.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            while (input.read(buffer) >= 0) {
+                // the latency includes the whole response
+            }
+        }
+    }
+
+}
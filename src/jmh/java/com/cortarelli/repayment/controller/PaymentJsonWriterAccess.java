@@ -0,0 +1,30 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.domain.Payment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Entry point of the benchmarks to {@link PaymentJsonWriter}, which is package-private to the controllers. It writes
+ * the plan the same way as {@link PaymentPlanHttpMessageConverter}, without the HTTP message and the metrics.
+ */
+public final class PaymentJsonWriterAccess {
+
+    private PaymentJsonWriterAccess() {
+    }
+
+    /**
+     * @param payments
+     * @param outputStream
+     * @throws IOException
+     */
+    public static void writePlan(List<Payment> payments, OutputStream outputStream) throws IOException {
+        try (PaymentJsonWriter writer = new PaymentJsonWriter(outputStream)) {
+            writer.writePlan(payments);
+            writer.flush();
+        }
+    }
+
+}
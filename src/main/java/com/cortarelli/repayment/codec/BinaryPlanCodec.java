@@ -0,0 +1,232 @@
+package com.cortarelli.repayment.codec;
+
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columnar binary representation of a repayment plan, for consumers that do not need JSON. All the values are
+ * little-endian:
+ *
+ * <pre>
+ * magic               4 bytes  "RPL1"
+ * installments        int32    n
+ * offset              int32    offset of the payment dates in seconds
+ * time                int64    time of the payment dates in nanoseconds of the day
+ * dates               n int32  payment dates in epoch days
+ * borrowerPaymentAmount          n int64 cents
+ * initialOutstandingPrincipal    n int64 cents
+ * interest                       n int64 cents
+ * principal                      n int64 cents
+ * remainingOutstandingPrincipal  n int64 cents
+ * </pre>
+ *
+ * All the payment dates of a plan share the time and offset of its start date, so they are written only once. The
+ * codec has no state, so one instance can be shared.
+ */
+public final class BinaryPlanCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-repayment-plan";
+
+    private static final int MAGIC = 'R' | 'P' << 8 | 'L' << 16 | '1' << 24;
+    private static final int HEADER_SIZE = 20;
+    private static final int INSTALLMENT_SIZE = Integer.BYTES + 5 * Long.BYTES;
+    private static final double CENTS = 100D;
+    private static final int BORROWER_PAYMENT_AMOUNT = 0;
+    private static final int INITIAL_OUTSTANDING_PRINCIPAL = 1;
+    private static final int INTEREST = 2;
+    private static final int PRINCIPAL = 3;
+    private static final int REMAINING_OUTSTANDING_PRINCIPAL = 4;
+
+    /**
+     * @param installments
+     * @return size in bytes of an encoded plan
+     */
+    public static int size(int installments) {
+        return HEADER_SIZE + installments * INSTALLMENT_SIZE;
+    }
+
+    /**
+     * Encode the plan, the payments of a {@link RepaymentSchedule} view are read from the schedule without creating
+     * the {@link Payment} objects
+     * @param payments
+     * @return encoded plan
+     * @throws IllegalArgumentException if the payment dates do not share the same time and offset
+     */
+    public byte[] encode(List<Payment> payments) {
+        ByteBuffer buffer = ByteBuffer.allocate(size(payments.size())).order(ByteOrder.LITTLE_ENDIAN);
+        RepaymentSchedule schedule = RepaymentSchedule.of(payments);
+        if (schedule != null) {
+            encode(schedule, buffer);
+        } else {
+            encodePayments(payments, buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decode a plan encoded by {@link #encode(List)}. The cents are converted to the float amounts of {@link Payment},
+     * which keep all the cents only below 131072 (2^24 cents); use {@link #decodeSchedule(byte[])} for larger amounts.
+     * @param bytes
+     * @return List of {@link Payment}
+     * @throws IllegalArgumentException if the bytes are not an encoded plan
+     */
+    public List<Payment> decode(byte[] bytes) {
+        ByteBuffer buffer = header(bytes);
+        int installments = buffer.getInt(4);
+        ZoneOffset offset = ZoneOffset.ofTotalSeconds(buffer.getInt(8));
+        LocalTime time = LocalTime.ofNanoOfDay(buffer.getLong(12));
+
+        List<Payment> payments = new ArrayList<>(installments);
+        for (int i = 0; i < installments; i++) {
+            payments.add(new Payment(
+                    (float) amount(buffer, installments, BORROWER_PAYMENT_AMOUNT, i),
+                    OffsetDateTime.of(LocalDate.ofEpochDay(buffer.getInt(HEADER_SIZE + i * Integer.BYTES)), time, offset),
+                    (float) amount(buffer, installments, INITIAL_OUTSTANDING_PRINCIPAL, i),
+                    (float) amount(buffer, installments, INTEREST, i),
+                    (float) amount(buffer, installments, PRINCIPAL, i),
+                    (float) amount(buffer, installments, REMAINING_OUTSTANDING_PRINCIPAL, i)
+            ));
+        }
+        return payments;
+    }
+
+    /**
+     * Decode a plan encoded by {@link #encode(List)} into a {@link RepaymentSchedule}. Its amounts are doubles, so the
+     * cents written by {@code FIXED_POINT} arithmetic are kept for any amount below ten trillion.
+     * @param bytes
+     * @return schedule of the plan
+     * @throws IllegalArgumentException if the bytes are not an encoded plan, or the payment dates are not monthly
+     *          from the first one
+     */
+    public RepaymentSchedule decodeSchedule(byte[] bytes) {
+        ByteBuffer buffer = header(bytes);
+        int installments = buffer.getInt(4);
+        OffsetDateTime startDate = OffsetDateTime.of(LocalDate.ofEpochDay(installments == 0 ? 0 : buffer.getInt(HEADER_SIZE)),
+                LocalTime.ofNanoOfDay(buffer.getLong(12)), ZoneOffset.ofTotalSeconds(buffer.getInt(8)));
+
+        RepaymentSchedule schedule = new RepaymentSchedule(installments);
+        schedule.reset(startDate, installments);
+        for (int i = 0; i < installments; i++) {
+            // the schedule derives the dates from the start date, so the encoded ones have to be the same
+            if (schedule.getEpochDay(i) != buffer.getInt(HEADER_SIZE + i * Integer.BYTES)) {
+                throw new IllegalArgumentException(String.format("The payment date of the installment %s is not %s months after %s",
+                        i, i, startDate));
+            }
+            schedule.setInstallment(i,
+                    amount(buffer, installments, BORROWER_PAYMENT_AMOUNT, i),
+                    amount(buffer, installments, INITIAL_OUTSTANDING_PRINCIPAL, i),
+                    amount(buffer, installments, INTEREST, i),
+                    amount(buffer, installments, PRINCIPAL, i),
+                    amount(buffer, installments, REMAINING_OUTSTANDING_PRINCIPAL, i));
+        }
+        return schedule;
+    }
+
+    /**
+     * @param bytes
+     * @return little-endian buffer of the bytes
+     * @throws IllegalArgumentException if the bytes are not an encoded plan
+     */
+    private static ByteBuffer header(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The content is not an encoded repayment plan");
+        }
+        int installments = buffer.getInt(4);
+        if (installments < 0 || HEADER_SIZE + (long) installments * INSTALLMENT_SIZE != bytes.length) {
+            throw new IllegalArgumentException(String.format("The encoded repayment plan of %s installments is truncated", installments));
+        }
+        return buffer;
+    }
+
+    private static void encode(RepaymentSchedule schedule, ByteBuffer buffer) {
+        int installments = schedule.size();
+        OffsetDateTime startDate = schedule.getStartDate();
+        writeHeader(buffer, installments, startDate.getOffset().getTotalSeconds(), startDate.toLocalTime().toNanoOfDay());
+        for (int i = 0; i < installments; i++) {
+            buffer.putInt((int) schedule.getEpochDay(i));
+        }
+        for (int i = 0; i < installments; i++) {
+            buffer.putLong(cents(schedule.getBorrowerPaymentAmount(i)));
+        }
+        for (int i = 0; i < installments; i++) {
+            buffer.putLong(cents(schedule.getInitialOutstandingPrincipal(i)));
+        }
+        for (int i = 0; i < installments; i++) {
+            buffer.putLong(cents(schedule.getInterest(i)));
+        }
+        for (int i = 0; i < installments; i++) {
+            buffer.putLong(cents(schedule.getPrincipal(i)));
+        }
+        for (int i = 0; i < installments; i++) {
+            buffer.putLong(cents(schedule.getRemainingOutstandingPrincipal(i)));
+        }
+    }
+
+    private static void encodePayments(List<Payment> payments, ByteBuffer buffer) {
+        if (payments.isEmpty()) {
+            writeHeader(buffer, 0, 0, 0L);
+            return;
+        }
+        OffsetDateTime firstDate = payments.get(0).getDate();
+        if (firstDate == null) {
+            throw new IllegalArgumentException("The payment date cannot be null");
+        }
+        writeHeader(buffer, payments.size(), firstDate.getOffset().getTotalSeconds(), firstDate.toLocalTime().toNanoOfDay());
+        for (Payment payment : payments) {
+            OffsetDateTime date = payment.getDate();
+            if (date == null || !date.toLocalTime().equals(firstDate.toLocalTime()) || !date.getOffset().equals(firstDate.getOffset())) {
+                throw new IllegalArgumentException(String.format("The payment date %s does not have the time and offset of %s", date, firstDate));
+            }
+            buffer.putInt((int) date.toLocalDate().toEpochDay());
+        }
+        for (Payment payment : payments) {
+            buffer.putLong(cents(payment.getBorrowerPaymentAmount()));
+        }
+        for (Payment payment : payments) {
+            buffer.putLong(cents(payment.getInitialOutstandingPrincipal()));
+        }
+        for (Payment payment : payments) {
+            buffer.putLong(cents(payment.getInterest()));
+        }
+        for (Payment payment : payments) {
+            buffer.putLong(cents(payment.getPrincipal()));
+        }
+        for (Payment payment : payments) {
+            buffer.putLong(cents(payment.getRemainingOutstandingPrincipal()));
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int installments, int offsetSeconds, long nanoOfDay) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(installments);
+        buffer.putInt(offsetSeconds);
+        buffer.putLong(nanoOfDay);
+    }
+
+    private static long cents(double value) {
+        return Math.round(value * CENTS);
+    }
+
+    /**
+     * @param buffer
+     * @param installments
+     * @param column
+     *          position of the amount column, after the dates
+     * @param installment
+     * @return amount of the installment, from its cents
+     */
+    private static double amount(ByteBuffer buffer, int installments, int column, int installment) {
+        return buffer.getLong(HEADER_SIZE + installments * (Integer.BYTES + column * Long.BYTES) + installment * Long.BYTES) / CENTS;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.cortarelli.repayment.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class CalculationPoolConfiguration {
+
+    /**
+     * Pool of the parallel calculations of the batch, CSV, portfolio and grid services. The services share it, so
+     * their concurrent requests never run more calculation threads than the processors.
+     * @return
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool calculationPool() {
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.cortarelli.repayment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of the on-disk loan store (prefix repayment.loan-store)
+ */
+@Component
+@ConfigurationProperties(prefix = "repayment.loan-store")
+public class LoanStoreProperties {
+
+    private boolean enabled = false;
+    private String path = "loans.store";
+
+    /**
+     * When disabled, the loan store endpoints are not available
+     * @return
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * File of the store, created when it does not exist
+     * @return
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+}
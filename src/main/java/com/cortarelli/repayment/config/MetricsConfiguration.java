@@ -0,0 +1,24 @@
+package com.cortarelli.repayment.config;
+
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.metrics.TimedMappingJackson2HttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Replace the Jackson converter of Spring Boot by one that also measures the (de)serialization time
+     * @param mapper
+     * @param planMetrics
+     * @return
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper mapper, PlanMetrics planMetrics) {
+        return new TimedMappingJackson2HttpMessageConverter(mapper, planMetrics);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.cortarelli.repayment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the HTTP caching of the plans answered by GET requests (prefix repayment.http-cache)
+ */
+@Component
+@ConfigurationProperties(prefix = "repayment.http-cache")
+public class PlanHttpCacheProperties {
+
+    private Duration maxAge = Duration.ofDays(1);
+
+    /**
+     * Time a client or CDN may keep a plan without asking again, the Cache-Control max-age
+     * @return
+     */
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+}
@@ -0,0 +1,107 @@
+package com.cortarelli.repayment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the asynchronous plan jobs (prefix repayment.plan-jobs)
+ */
+@Component
+@ConfigurationProperties(prefix = "repayment.plan-jobs")
+public class PlanJobProperties {
+
+    private int concurrentJobs = 2;
+    private int queueCapacity = 16;
+    private int maxLoans = 50000;
+    private DataSize spillThreshold = DataSize.ofMegabytes(8);
+    private String spillDirectory = System.getProperty("java.io.tmpdir");
+    private DataSize retainedMemory = DataSize.ofMegabytes(64);
+    private Duration expireAfterWrite = Duration.ofHours(1);
+
+    /**
+     * Number of jobs calculated at the same time, the loans of each job are calculated in parallel
+     * @return
+     */
+    public int getConcurrentJobs() {
+        return concurrentJobs;
+    }
+
+    public void setConcurrentJobs(int concurrentJobs) {
+        this.concurrentJobs = concurrentJobs;
+    }
+
+    /**
+     * Number of jobs waiting to be calculated, over it new jobs are rejected
+     * @return
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Number of loans of a job, a job with more loans is rejected while its loans are read
+     * @return
+     */
+    public int getMaxLoans() {
+        return maxLoans;
+    }
+
+    public void setMaxLoans(int maxLoans) {
+        this.maxLoans = maxLoans;
+    }
+
+    /**
+     * Size of the result of a job kept in memory, over it the result is written to a file
+     * @return
+     */
+    public DataSize getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public void setSpillThreshold(DataSize spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Directory of the result files
+     * @return
+     */
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Size of the results of all the jobs kept in memory, over it the results are written to files
+     * @return
+     */
+    public DataSize getRetainedMemory() {
+        return retainedMemory;
+    }
+
+    public void setRetainedMemory(DataSize retainedMemory) {
+        this.retainedMemory = retainedMemory;
+    }
+
+    /**
+     * Time a finished job is kept, counted from the end of the job
+     * @return
+     */
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cortarelli.repayment.config;
+
+import com.cortarelli.repayment.controller.ReactiveRepaymentPlanHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * Netty server of the reactive plan API (property repayment.reactive.enabled), started on its own port next to the
+ * Tomcat of the servlet API. Its event loops handle all the connections, so a slow client takes no thread. The responses
+ * are compressed with the server.compression settings of the Tomcat.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "repayment.reactive", name = "enabled", havingValue = "true")
+public class ReactiveServerConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public WebServer reactiveWebServer(ReactiveRepaymentPlanHandler handler, ReactiveServerProperties properties,
+                                       ServerProperties serverProperties) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(properties.getPort());
+        factory.setCompression(serverProperties.getCompression());
+        return factory.getWebServer(RouterFunctions.toHttpHandler(handler.routes(), handler.handlerStrategies()));
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.cortarelli.repayment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of the reactive server of the plan API (prefix repayment.reactive)
+ */
+@Component
+@ConfigurationProperties(prefix = "repayment.reactive")
+public class ReactiveServerProperties {
+
+    private boolean enabled = false;
+    private int port = 8091;
+
+    /**
+     * When disabled, the reactive server is not started
+     * @return
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Port of the reactive server, besides the port of the servlet API
+     * @return
+     */
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+}
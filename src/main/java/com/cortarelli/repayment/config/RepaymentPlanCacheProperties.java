@@ -0,0 +1,82 @@
+package com.cortarelli.repayment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the in-process cache of calculated repayment plans (prefix repayment.plan-cache)
+ */
+@Component
+@ConfigurationProperties(prefix = "repayment.plan-cache")
+public class RepaymentPlanCacheProperties {
+
+    /**
+     * What the maximum size of the cache bounds
+     */
+    public enum Bound {
+        /**
+         * Number of cached plans
+         */
+        PLANS,
+        /**
+         * Sum of the installments of the cached plans, so long plans take more room than short ones
+         */
+        INSTALLMENTS
+    }
+
+    private boolean enabled = false;
+    private long maximumSize = 10_000;
+    private Bound bound = Bound.PLANS;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * When disabled, every plan is calculated
+     * @return
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Maximum size of the cache, measured according to the {@link Bound}. Over it, plans are evicted by the
+     * W-TinyLFU policy (the least frequently and recently used ones)
+     * @return
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * What the maximum size bounds
+     * @return
+     */
+    public Bound getBound() {
+        return bound;
+    }
+
+    public void setBound(Bound bound) {
+        this.bound = bound;
+    }
+
+    /**
+     * Time to live of a cached plan
+     * @return
+     */
+    public Duration getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite;
+    }
+}
@@ -0,0 +1,125 @@
+package com.cortarelli.repayment.config;
+
+import org.apache.catalina.util.ServerInfo;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Handle each request, and each asynchronous (streaming) response, on its own virtual thread instead of a thread of
+ * the Tomcat pool (property repayment.virtual-threads.enabled, Java 21 or newer).
+ *
+ * Tomcat 9 waits for the body of a request on a monitor, which pins the carrier thread of the virtual thread until
+ * Java 24, so a slow client still holds a platform thread. The scheduler adds carriers for the pinned threads up to
+ * jdk.virtualThreadScheduler.maxPoolSize (256 by default), which bounds the requests in progress as max-threads bounds
+ * the pool, so the JVM option should be raised to the expected number of slow clients.
+ *
+ * The calculation of batches stays on the shared calculation ForkJoinPool: it does not block, so it is already
+ * parallel on all the cores and virtual threads would only add scheduling on top of it.
+ *
+ * The mode adds no capacity over a Tomcat pool of the same size (max-threads equal to maxPoolSize), it only replaces
+ * the pool by the scheduler of the JVM. The Tomcat 9.0.33 of the default build pins every request and can deadlock the
+ * server, so the application does not start on a Tomcat older than the one of the java21 Maven profile.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "repayment.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfiguration implements WebMvcConfigurer {
+
+    /**
+     * Tomcat of the java21 Maven profile
+     */
+    static final String MINIMUM_TOMCAT_VERSION = "9.0.115";
+
+    private final ExecutorService executor;
+    private final String tomcatVersion;
+
+    public VirtualThreadConfiguration() {
+        this(newVirtualThreadPerTaskExecutor(), ServerInfo.getServerNumber());
+    }
+
+    VirtualThreadConfiguration(ExecutorService executor, String tomcatVersion) {
+        this.executor = executor;
+        this.tomcatVersion = tomcatVersion;
+    }
+
+    /**
+     * @return
+     * @throws IllegalStateException if the runtime has no virtual threads, or the Tomcat is older than
+     *          {@value #MINIMUM_TOMCAT_VERSION}, so the application does not start
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        if (executor == null) {
+            throw new IllegalStateException("Virtual threads need Java 21 or newer, the runtime is Java "
+                    + System.getProperty("java.specification.version"));
+        }
+        if (!isAtLeast(tomcatVersion, MINIMUM_TOMCAT_VERSION)) {
+            throw new IllegalStateException("Virtual threads need Tomcat " + MINIMUM_TOMCAT_VERSION
+                    + " or newer, built with the java21 Maven profile, the server is Tomcat " + tomcatVersion);
+        }
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(executor));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @param version
+     *          dotted version, e.g. 9.0.33.0
+     * @param minimum
+     *          dotted version, e.g. 9.0.115
+     * @return true when the version is not lower than the minimum, the missing numbers are zero
+     */
+    static boolean isAtLeast(String version, String minimum) {
+        String[] numbers = version.split("\\.");
+        String[] minimumNumbers = minimum.split("\\.");
+        for (int i = 0; i < minimumNumbers.length; i++) {
+            int number = i < numbers.length ? Integer.parseInt(numbers[i]) : 0;
+            int minimumNumber = Integer.parseInt(minimumNumbers[i]);
+            if (number != minimumNumber) {
+                return number > minimumNumber;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The project is compiled for Java 8, so the factory of Java 21 is called by reflection
+     * @return executor that starts a virtual thread per task, null when the runtime has no virtual threads
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        return newExecutor("newVirtualThreadPerTaskExecutor");
+    }
+
+    /**
+     * @param factoryMethod
+     *          static method of {@link Executors} without parameters
+     * @return the executor, null when there is no such method
+     */
+    static ExecutorService newExecutor(String factoryMethod) {
+        try {
+            return (ExecutorService) Executors.class.getMethod(factoryMethod).invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.cortarelli.repayment.config;
+
+import com.cortarelli.repayment.controller.BinaryPlanHttpMessageConverter;
+import com.cortarelli.repayment.controller.PaymentPlanHttpMessageConverter;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+public class WebConfiguration {
+
+    /**
+     * Converter of the repayment plans, registered before the Jackson converter
+     * @param planMetrics
+     * @return
+     */
+    @Bean
+    @Order(0)
+    public PaymentPlanHttpMessageConverter paymentPlanHttpMessageConverter(PlanMetrics planMetrics) {
+        return new PaymentPlanHttpMessageConverter(planMetrics);
+    }
+
+    /**
+     * Converter of the repayment plans in binary format, selected by the Accept header. It is ordered after the JSON
+     * converter, so JSON is still the format of requests that accept any media type.
+     * @param planMetrics
+     * @return
+     */
+    @Bean
+    @Order(1)
+    public BinaryPlanHttpMessageConverter binaryPlanHttpMessageConverter(PlanMetrics planMetrics) {
+        return new BinaryPlanHttpMessageConverter(planMetrics);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Base of the converters that only write repayment plans: the {@link RepaymentSchedule} views and the values declared
+ * as {@code List<Payment>}. Other values are left to the next converters.
+ */
+abstract class AbstractPaymentPlanHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<Payment>> {
+
+    AbstractPaymentPlanHttpMessageConverter(MediaType supportedMediaType) {
+        super(supportedMediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RepaymentSchedule.isPaymentView(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (supports(clazz) || isListOfPayments(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    public List<Payment> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Repayment plans are not read by this converter", inputMessage);
+    }
+
+    @Override
+    protected List<Payment> readInternal(Class<? extends List<Payment>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Repayment plans are not read by this converter", inputMessage);
+    }
+
+    private static boolean isListOfPayments(Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        return parameterizedType.getRawType() == List.class && parameterizedType.getActualTypeArguments()[0] == Payment.class;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.codec.BinaryPlanCodec;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Write the repayment plans (lists of {@link Payment}) in the columnar format of {@link BinaryPlanCodec}, selected
+ * by the {@value BinaryPlanCodec#MEDIA_TYPE_VALUE} Accept header
+ */
+public class BinaryPlanHttpMessageConverter extends AbstractPaymentPlanHttpMessageConverter {
+
+    public static final MediaType APPLICATION_REPAYMENT_PLAN = MediaType.parseMediaType(BinaryPlanCodec.MEDIA_TYPE_VALUE);
+
+    private final BinaryPlanCodec codec = new BinaryPlanCodec();
+    private final PlanMetrics planMetrics;
+
+    public BinaryPlanHttpMessageConverter(PlanMetrics planMetrics) {
+        super(APPLICATION_REPAYMENT_PLAN);
+        this.planMetrics = planMetrics;
+    }
+
+    @Override
+    protected Long getContentLength(List<Payment> payments, MediaType contentType) {
+        return (long) BinaryPlanCodec.size(payments.size());
+    }
+
+    @Override
+    protected void writeInternal(List<Payment> payments, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Timer.Sample sample = planMetrics.start();
+        try {
+            outputMessage.getBody().write(codec.encode(payments));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException(e.getMessage(), e);
+        } finally {
+            planMetrics.recordSerialization(sample);
+        }
+    }
+
+}
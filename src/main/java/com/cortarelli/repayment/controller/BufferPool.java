@@ -0,0 +1,42 @@
+package com.cortarelli.repayment.controller;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of byte buffers of one size, shared by the responses, so a buffer is only allocated when all the
+ * pooled ones are in use. A buffer released to a full pool is left to the garbage collector.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<byte[]> buffers;
+
+    BufferPool(int bufferSize, int capacity) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @return a pooled buffer, or a new one when the pool is empty. Its content is not cleared.
+     */
+    byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * Return a buffer of {@link #acquire()} to the pool, it must not be used after that
+     * @param buffer
+     */
+    void release(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+
+    /**
+     * @return number of buffers available in the pool
+     */
+    int size() {
+        return buffers.size();
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.LoanStoreStatistics;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.LoanStoreService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.RoundingMode;
+
+@RestController
+@RequestMapping("/loan-store")
+@ConditionalOnProperty(prefix = "repayment.loan-store", name = "enabled", havingValue = "true")
+public class LoanStoreController {
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+    private LoanStoreService loanStoreService;
+    private PlanMetrics planMetrics;
+    private ObjectMapper mapper;
+
+    public LoanStoreController(LoanStoreService loanStoreService, PlanMetrics planMetrics, ObjectMapper mapper) {
+        this.loanStoreService = loanStoreService;
+        this.planMetrics = planMetrics;
+        this.mapper = mapper;
+    }
+
+    @GetMapping
+    public LoanStoreStatistics getStatistics() {
+        return loanStoreService.getStatistics();
+    }
+
+    @PostMapping(value = "/loans", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public LoanStoreStatistics importJson(InputStream json) throws IOException {
+        loanStoreService.importJson(json);
+        return loanStoreService.getStatistics();
+    }
+
+    @PostMapping(value = "/loans", consumes = RepaymentPlanController.TEXT_CSV_VALUE)
+    public LoanStoreStatistics importCsv(InputStream csv) throws IOException {
+        loanStoreService.importCsv(csv);
+        return loanStoreService.getStatistics();
+    }
+
+    @GetMapping(value = "/plans", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamRepaymentPlans(
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) {
+        CalculationOptions options = new CalculationOptions(arithmetic, roundingMode);
+        return outputStream -> {
+            NdjsonWriter writer = new NdjsonWriter(mapper, outputStream);
+            Timer.Sample sample = planMetrics.start();
+            loanStoreService.calculateRepaymentPlans(options, writer::write);
+            writer.flush();
+            planMetrics.recordCalculation(sample, "store-batch-stream");
+        };
+    }
+
+    @GetMapping("/cash-flows")
+    public PortfolioCashFlow calculateCashFlows(
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) throws IOException {
+        Timer.Sample sample = planMetrics.start();
+        PortfolioCashFlow cashFlow = loanStoreService.calculateCashFlows(new CalculationOptions(arithmetic, roundingMode));
+        planMetrics.recordCalculation(sample, "store-portfolio");
+        return cashFlow;
+    }
+
+    /**
+     * The loans read before the invalid one are kept on the store
+     * @param e
+     * @return
+     */
+    @ExceptionHandler({IllegalArgumentException.class, JsonProcessingException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerInvalidImport(Exception e) {
+        logger.info(e.getMessage());
+        return e.getMessage();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.service.InstallmentSink;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+
+/**
+ * Write values as newline delimited JSON (one JSON document per line) directly on the output stream
+ */
+class NdjsonWriter {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    NdjsonWriter(ObjectMapper mapper, OutputStream outputStream) throws IOException {
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = mapper.getFactory().createGenerator(outputStream);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Write the value as one line
+     * @param value
+     */
+    void write(Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sink that writes each installment as one {@link Payment} line
+     * @param startDate
+     *          date of the first payment of the plan
+     * @return
+     */
+    InstallmentSink paymentSink(OffsetDateTime startDate) {
+        return (installment, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal,
+                remainingOutstandingPrincipal) -> write(new Payment(
+                (float) borrowerPaymentAmount,
+                startDate.plusMonths(installment),
+                (float) initialOutstandingPrincipal,
+                (float) interest,
+                (float) principal,
+                (float) remainingOutstandingPrincipal
+        ));
+    }
+
+    void flush() throws IOException {
+        generator.flush();
+    }
+
+}
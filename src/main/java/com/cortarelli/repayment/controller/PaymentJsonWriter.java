@@ -0,0 +1,278 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.utils.Utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Write a repayment plan as JSON directly on a byte buffer, with the same output of the Jackson bean serializer of
+ * {@link Payment}: the properties in declaration order, the floats as {@link Float#toString(float)} and the dates as
+ * {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME}.
+ *
+ * The amounts with two decimal places are written from their cents, without the float to string conversion, and the
+ * time and offset of the dates are formatted once per plan, as all the payment dates of a plan share them. The buffer
+ * comes from a pool shared by all the writers and goes back to it on {@link #close()}.
+ */
+class PaymentJsonWriter implements Closeable {
+
+    /**
+     * Below 2^17 the distance between two floats is lower than one cent, so an amount that is the closest float of
+     * its cents is written by {@link Float#toString(float)} with the digits of its cents
+     */
+    private static final float FIXED_SCALE_LIMIT = 131072F;
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * Upper bound of the bytes of one payment
+     */
+    private static final int MAX_PAYMENT_SIZE = 512;
+    /**
+     * Buffers of the writers, enough for a few concurrent responses per processor
+     */
+    static final BufferPool BUFFERS = new BufferPool(BUFFER_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+
+    private static final byte[] BORROWER_PAYMENT_AMOUNT = ascii("{\"borrowerPaymentAmount\":");
+    private static final byte[] DATE = ascii(",\"date\":");
+    private static final byte[] INITIAL_OUTSTANDING_PRINCIPAL = ascii(",\"initialOutstandingPrincipal\":");
+    private static final byte[] INTEREST = ascii(",\"interest\":");
+    private static final byte[] PRINCIPAL = ascii(",\"principal\":");
+    private static final byte[] REMAINING_OUTSTANDING_PRINCIPAL = ascii(",\"remainingOutstandingPrincipal\":");
+    private static final byte[] NULL = ascii("null");
+
+    private final OutputStream outputStream;
+    private byte[] buffer = BUFFERS.acquire();
+    private int position;
+
+    private LocalTime time;
+    private ZoneOffset offset;
+    private byte[] timeAndOffset;
+
+    PaymentJsonWriter(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Write the plan as a JSON array, the payments of a {@link RepaymentSchedule} view are read from the schedule
+     * without creating the {@link Payment} objects
+     * @param payments
+     * @throws IOException
+     */
+    void writePlan(List<Payment> payments) throws IOException {
+        RepaymentSchedule schedule = RepaymentSchedule.of(payments);
+        ensureCapacity(1);
+        buffer[position++] = '[';
+        if (schedule != null) {
+            writeSchedule(schedule);
+        } else {
+            for (int i = 0; i < payments.size(); i++) {
+                writeSeparator(i);
+                writePayment(payments.get(i));
+            }
+        }
+        ensureCapacity(1);
+        buffer[position++] = ']';
+    }
+
+    void flush() throws IOException {
+        outputStream.write(buffer, 0, position);
+        position = 0;
+    }
+
+    /**
+     * Return the buffer to the pool, without flushing it. The output stream is not closed.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            BUFFERS.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void writeSchedule(RepaymentSchedule schedule) throws IOException {
+        OffsetDateTime startDate = schedule.getStartDate();
+        int startYear = startDate.getYear();
+        int startMonth = startDate.getMonthValue();
+        int startDay = startDate.getDayOfMonth();
+
+        for (int i = 0; i < schedule.size(); i++) {
+            writeSeparator(i);
+            ensureCapacity(MAX_PAYMENT_SIZE);
+            write(BORROWER_PAYMENT_AMOUNT);
+            writeFloat((float) schedule.getBorrowerPaymentAmount(i));
+            write(DATE);
+            // same date of OffsetDateTime.plusMonths, the day is adjusted to the last day of shorter months
+            long monthCount = startYear * 12L + (startMonth - 1) + i;
+            int year = (int) Math.floorDiv(monthCount, 12);
+            int month = (int) Math.floorMod(monthCount, 12) + 1;
+            if (year >= 0 && year <= 9999) {
+                writeDate(year, month, Math.min(startDay, Utils.lengthOfMonth(year, month)), startDate);
+            } else {
+                writeString(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(schedule.getDate(i)));
+            }
+            write(INITIAL_OUTSTANDING_PRINCIPAL);
+            writeFloat((float) schedule.getInitialOutstandingPrincipal(i));
+            write(INTEREST);
+            writeFloat((float) schedule.getInterest(i));
+            write(PRINCIPAL);
+            writeFloat((float) schedule.getPrincipal(i));
+            write(REMAINING_OUTSTANDING_PRINCIPAL);
+            writeFloat((float) schedule.getRemainingOutstandingPrincipal(i));
+            buffer[position++] = '}';
+        }
+    }
+
+    private void writePayment(Payment payment) throws IOException {
+        ensureCapacity(MAX_PAYMENT_SIZE);
+        write(BORROWER_PAYMENT_AMOUNT);
+        writeFloat(payment.getBorrowerPaymentAmount());
+        write(DATE);
+        OffsetDateTime date = payment.getDate();
+        if (date == null) {
+            write(NULL);
+        } else if (date.getYear() >= 0 && date.getYear() <= 9999) {
+            writeDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), date);
+        } else {
+            writeString(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(date));
+        }
+        write(INITIAL_OUTSTANDING_PRINCIPAL);
+        writeFloat(payment.getInitialOutstandingPrincipal());
+        write(INTEREST);
+        writeFloat(payment.getInterest());
+        write(PRINCIPAL);
+        writeFloat(payment.getPrincipal());
+        write(REMAINING_OUTSTANDING_PRINCIPAL);
+        writeFloat(payment.getRemainingOutstandingPrincipal());
+        buffer[position++] = '}';
+    }
+
+    private void writeSeparator(int index) throws IOException {
+        if (index > 0) {
+            ensureCapacity(1);
+            buffer[position++] = ',';
+        }
+    }
+
+    /**
+     * Write the date of a year with four digits, followed by the time and offset of the given date time
+     * @param year
+     * @param month
+     * @param dayOfMonth
+     * @param dateTime
+     *          source of the time and offset
+     */
+    private void writeDate(int year, int month, int dayOfMonth, OffsetDateTime dateTime) {
+        buffer[position++] = '"';
+        writeDigits(year / 100);
+        writeDigits(year % 100);
+        buffer[position++] = '-';
+        writeDigits(month);
+        buffer[position++] = '-';
+        writeDigits(dayOfMonth);
+        write(timeAndOffset(dateTime));
+        buffer[position++] = '"';
+    }
+
+    /**
+     * Time and offset part of the ISO date, formatted again only when it differs from the previous date
+     * @param dateTime
+     * @return
+     */
+    private byte[] timeAndOffset(OffsetDateTime dateTime) {
+        if (!dateTime.toLocalTime().equals(time) || !dateTime.getOffset().equals(offset)) {
+            time = dateTime.toLocalTime();
+            offset = dateTime.getOffset();
+            String formatted = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(OffsetDateTime.of(LocalDate.of(2000, 1, 1), time, offset));
+            timeAndOffset = ascii(formatted.substring(10));
+        }
+        return timeAndOffset;
+    }
+
+    /**
+     * Write the float as {@link Float#toString(float)}, quoted when it is not a number as Jackson does
+     * @param value
+     */
+    void writeFloat(float value) {
+        // the sign bit is tested instead of the value, so -0.0 is written by Float.toString
+        if (Float.floatToRawIntBits(value) >= 0 && value < FIXED_SCALE_LIMIT) {
+            long cents = Math.round(value * 100D);
+            if ((float) (cents / 100D) == value) {
+                writeCents((int) cents);
+                return;
+            }
+        }
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeString(Float.toString(value));
+        } else {
+            writeAscii(Float.toString(value));
+        }
+    }
+
+    /**
+     * Write the cents as a decimal with one or two decimal places, without trailing zeros
+     * @param cents
+     */
+    private void writeCents(int cents) {
+        writeInt(cents / 100);
+        buffer[position++] = '.';
+        int fraction = cents % 100;
+        buffer[position++] = (byte) ('0' + fraction / 10);
+        if (fraction % 10 != 0) {
+            buffer[position++] = (byte) ('0' + fraction % 10);
+        }
+    }
+
+    private void writeInt(int value) {
+        if (value >= 10) {
+            writeInt(value / 10);
+        }
+        buffer[position++] = (byte) ('0' + value % 10);
+    }
+
+    /**
+     * Write a value from 0 to 99 with two digits
+     * @param value
+     */
+    private void writeDigits(int value) {
+        buffer[position++] = (byte) ('0' + value / 10);
+        buffer[position++] = (byte) ('0' + value % 10);
+    }
+
+    private void writeString(String value) {
+        buffer[position++] = '"';
+        writeAscii(value);
+        buffer[position++] = '"';
+    }
+
+    private void writeAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void write(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > buffer.length) {
+            flush();
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.config.PlanJobProperties;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.PlanJobStatus;
+import com.cortarelli.repayment.exception.InvalidCalculationOptionsException;
+import com.cortarelli.repayment.exception.TooManyLoansException;
+import com.cortarelli.repayment.service.PlanJobService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/plan-jobs")
+public class PlanJobController {
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(NdjsonWriter.APPLICATION_NDJSON_VALUE);
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+    private PlanJobService planJobService;
+    private PlanJobProperties properties;
+    private ObjectMapper mapper;
+
+    public PlanJobController(PlanJobService planJobService, PlanJobProperties properties, ObjectMapper mapper) {
+        this.planJobService = planJobService;
+        this.properties = properties;
+        this.mapper = mapper;
+    }
+
+    /**
+     * The loans are read only after the options are validated and the queue has room for the job, so a rejected job
+     * does not deserialize its whole body. They are read one at a time, a job with more than
+     * {@link PlanJobProperties#getMaxLoans()} is rejected before the rest of its loans is read
+     * @param body
+     *          list of loans as JSON
+     * @param arithmetic
+     * @param roundingMode
+     * @return
+     * @throws IOException
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PlanJobStatus> submit(
+            InputStream body,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) throws IOException {
+        CalculationOptions options = new CalculationOptions(arithmetic, roundingMode);
+        planJobService.checkCapacity();
+        PlanJobStatus status = planJobService.submit(readLoans(body), options);
+        return ResponseEntity.accepted().location(URI.create("/plan-jobs/" + status.getId())).body(status);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PlanJobStatus> getStatus(@PathVariable("id") String id) {
+        PlanJobStatus status = planJobService.getStatus(id);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    /**
+     * Result of a finished job, a job that is not {@link PlanJobStatus.State#DONE} is answered with its status
+     * @param id
+     * @return
+     * @throws IOException
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> getResult(@PathVariable("id") String id) throws IOException {
+        InputStream result = planJobService.openResult(id);
+        if (result == null) {
+            PlanJobStatus status = planJobService.getStatus(id);
+            return status == null ? ResponseEntity.notFound().build() : ResponseEntity.status(HttpStatus.CONFLICT).body(status);
+        }
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(new InputStreamResource(result));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable("id") String id) {
+        return planJobService.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    private List<Loan> readLoans(InputStream body) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw MismatchedInputException.from(parser, List.class, "The body must be a list of loans");
+            }
+            List<Loan> loans = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (loans.size() == properties.getMaxLoans()) {
+                    throw new TooManyLoansException(properties.getMaxLoans());
+                }
+                loans.add(mapper.readValue(parser, Loan.class));
+            }
+            return loans;
+        }
+    }
+
+    @ExceptionHandler(InvalidCalculationOptionsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerInvalidCalculationOptionsException(InvalidCalculationOptionsException e) {
+        logger.info(e.getMessage());
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(JsonProcessingException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerJsonProcessingException(JsonProcessingException e) {
+        logger.info(e.getMessage());
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(TooManyLoansException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public String handlerTooManyLoansException(TooManyLoansException e) {
+        logger.info(e.getMessage());
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public String handlerRejectedExecutionException(RejectedExecutionException e) {
+        logger.info("Plan job rejected, the queue of jobs is full");
+        return "The queue of plan jobs is full, submit the job again later";
+    }
+
+}
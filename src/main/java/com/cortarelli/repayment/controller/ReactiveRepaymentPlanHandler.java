@@ -0,0 +1,202 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.BatchRepaymentPlanService;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Reactive variant of the plan API, served by Netty on its own port (property repayment.reactive.enabled). The
+ * payments and the results of a batch are written as newline delimited JSON and produced only as the client reads
+ * them: the payments come from {@link CalculationRepaymentPlanService#iterateRepaymentPlan}, so a slow client applies
+ * backpressure to the amortization loop and no thread waits for it.
+ *
+ * <pre>
+ * POST /generate-plan    {@link Loan}                               to {@link Payment} per line
+ * POST /generate-plans   JSON array or NDJSON of {@link Loan}       to {@link PlanResult} per line
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(prefix = "repayment.reactive", name = "enabled", havingValue = "true")
+public class ReactiveRepaymentPlanHandler {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(NdjsonWriter.APPLICATION_NDJSON_VALUE);
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+    private CalculationRepaymentPlanService calculationRepaymentPlanService;
+    private BatchRepaymentPlanService batchRepaymentPlanService;
+    private PlanMetrics planMetrics;
+    private ObjectMapper mapper;
+
+    public ReactiveRepaymentPlanHandler(CalculationRepaymentPlanService calculationRepaymentPlanService,
+                                        BatchRepaymentPlanService batchRepaymentPlanService,
+                                        PlanMetrics planMetrics,
+                                        ObjectMapper mapper) {
+        this.calculationRepaymentPlanService = calculationRepaymentPlanService;
+        this.batchRepaymentPlanService = batchRepaymentPlanService;
+        this.planMetrics = planMetrics;
+        this.mapper = mapper;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route(RequestPredicates.POST("/generate-plan"), this::streamRepaymentPlan)
+                .andRoute(RequestPredicates.POST("/generate-plans"), this::streamRepaymentPlans);
+    }
+
+    /**
+     * Codecs with the JSON configuration of the servlet API, writing each value of a {@link Flux} as one line of
+     * NDJSON as soon as it is produced
+     * @return
+     */
+    public HandlerStrategies handlerStrategies() {
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(mapper, MediaType.APPLICATION_JSON, APPLICATION_NDJSON);
+        encoder.setStreamingMediaTypes(Collections.singletonList(APPLICATION_NDJSON));
+        return HandlerStrategies.builder()
+                .codecs(configurer -> {
+                    configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+                    configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper, MediaType.APPLICATION_JSON, APPLICATION_NDJSON));
+                })
+                .build();
+    }
+
+    public Mono<ServerResponse> streamRepaymentPlan(ServerRequest request) {
+        CalculationOptions options;
+        try {
+            options = options(request);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        // validated before the response is committed, so invalid loans are still answered with bad request
+        return request.bodyToMono(Loan.class)
+                .flatMap(loan -> {
+                    ValidationResult result = validate(loan);
+                    if (!result.isValid()) {
+                        return badRequest(result.getMessage());
+                    }
+                    return ServerResponse.ok().contentType(APPLICATION_NDJSON).body(repaymentPlan(loan, options), Payment.class);
+                })
+                .switchIfEmpty(Mono.defer(() -> badRequest(validate(null).getMessage())));
+    }
+
+    public Mono<ServerResponse> streamRepaymentPlans(ServerRequest request) {
+        CalculationOptions options;
+        try {
+            options = options(request);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        // each loan is read from the request only when the client has read the result of the previous one
+        Flux<PlanResult> results = Flux.defer(() -> {
+            Timer.Sample sample = planMetrics.start();
+            return request.bodyToFlux(Loan.class)
+                    // the plans are calculated off the event loop, which keeps serving the other connections
+                    .publishOn(Schedulers.boundedElastic(), 1)
+                    .map(loan -> batchRepaymentPlanService.calculateRepaymentPlan(loan, options))
+                    .doOnComplete(() -> planMetrics.recordCalculation(sample, "reactive-batch-stream"));
+        });
+        return ServerResponse.ok().contentType(APPLICATION_NDJSON).body(results, PlanResult.class);
+    }
+
+    private Flux<Payment> repaymentPlan(Loan loan, CalculationOptions options) {
+        return Flux.defer(() -> {
+            // the payments are written as they are calculated, so the timing also includes the serialization
+            Timer.Sample sample = planMetrics.start();
+            // one payment per demand of the client, a valid loan has at least one payment
+            return Flux.<Payment, Iterator<Payment>>generate(() -> iterateRepaymentPlan(loan, options), (payments, sink) -> {
+                        sink.next(payments.next());
+                        if (!payments.hasNext()) {
+                            sink.complete();
+                        }
+                        return payments;
+                    })
+                    .doOnComplete(() -> {
+                        planMetrics.recordCalculation(sample, "reactive-stream");
+                        planMetrics.recordPlanLength(loan.getDuration());
+                    });
+        });
+    }
+
+    private Iterator<Payment> iterateRepaymentPlan(Loan loan, CalculationOptions options) {
+        try {
+            return calculationRepaymentPlanService.iterateRepaymentPlan(loan, options);
+        } catch (InvalidLoanParameterException | NullLoanParameterException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param request
+     * @return the calculation options of the query parameters
+     * @throws IllegalArgumentException if a parameter is not a constant of its enum, or the options are invalid
+     */
+    private CalculationOptions options(ServerRequest request) {
+        return new CalculationOptions(
+                enumParameter(request, "arithmetic", Arithmetic.class, Arithmetic.FLOAT),
+                enumParameter(request, "roundingMode", RoundingMode.class, RoundingMode.HALF_UP));
+    }
+
+    private <E extends Enum<E>> E enumParameter(ServerRequest request, String name, Class<E> type, E defaultValue) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            String message = RequestParameters.invalidValueMessage(name, value, type);
+            planMetrics.recordInvalid(name);
+            logger.info(message);
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    /**
+     * Validate the loan without exceptions, all the violations of a rejected loan are answered at once
+     * @param loan
+     * @return
+     */
+    private ValidationResult validate(Loan loan) {
+        Timer.Sample sample = planMetrics.start();
+        ValidationResult result = calculationRepaymentPlanService.validate(loan);
+        planMetrics.recordValidation(sample);
+        if (!result.isValid()) {
+            planMetrics.recordRejections(result);
+            logger.info(result.getMessage());
+        }
+        return result;
+    }
+
+    private static Mono<ServerResponse> badRequest(String message) {
+        return ServerResponse.badRequest().contentType(MediaType.TEXT_PLAIN).bodyValue(message);
+    }
+
+}
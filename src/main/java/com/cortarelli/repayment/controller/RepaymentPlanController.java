@@ -1,36 +1,455 @@
 package com.cortarelli.repayment.controller;
 
+import com.cortarelli.repayment.config.PlanHttpCacheProperties;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CacheStatistics;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.GridCell;
+import com.cortarelli.repayment.domain.GridRange;
 import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanEvents;
 import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanGrid;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.domain.PlanSummary;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.exception.InvalidCalculationOptionsException;
+import com.cortarelli.repayment.exception.InvalidGridException;
+import com.cortarelli.repayment.exception.InvalidInstallmentException;
 import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.InvalidPlanEventException;
 import com.cortarelli.repayment.exception.NullLoanParameterException;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.BatchRepaymentPlanService;
 import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import com.cortarelli.repayment.service.CsvRepaymentPlanService;
+import com.cortarelli.repayment.service.PlanGridService;
+import com.cortarelli.repayment.service.PortfolioCashFlowService;
+import com.cortarelli.repayment.service.RepaymentPlanCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/")
 public class RepaymentPlanController {
 
+    static final String TEXT_CSV_VALUE = "text/csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
     private Logger logger = LoggerFactory.getLogger(getClass());
     private CalculationRepaymentPlanService calculationRepaymentPlanService;
+    private BatchRepaymentPlanService batchRepaymentPlanService;
+    private CsvRepaymentPlanService csvRepaymentPlanService;
+    private RepaymentPlanCache repaymentPlanCache;
+    private PortfolioCashFlowService portfolioCashFlowService;
+    private PlanGridService planGridService;
+    private PlanHttpCacheProperties httpCacheProperties;
+    private PlanMetrics planMetrics;
+    private ObjectMapper mapper;
 
-    public RepaymentPlanController(CalculationRepaymentPlanService calculationRepaymentPlanService){
+    public RepaymentPlanController(CalculationRepaymentPlanService calculationRepaymentPlanService,
+                                   BatchRepaymentPlanService batchRepaymentPlanService,
+                                   CsvRepaymentPlanService csvRepaymentPlanService,
+                                   RepaymentPlanCache repaymentPlanCache,
+                                   PortfolioCashFlowService portfolioCashFlowService,
+                                   PlanGridService planGridService,
+                                   PlanHttpCacheProperties httpCacheProperties,
+                                   PlanMetrics planMetrics,
+                                   ObjectMapper mapper){
         this.calculationRepaymentPlanService = calculationRepaymentPlanService;
+        this.batchRepaymentPlanService = batchRepaymentPlanService;
+        this.csvRepaymentPlanService = csvRepaymentPlanService;
+        this.repaymentPlanCache = repaymentPlanCache;
+        this.portfolioCashFlowService = portfolioCashFlowService;
+        this.planGridService = planGridService;
+        this.httpCacheProperties = httpCacheProperties;
+        this.planMetrics = planMetrics;
+        this.mapper = mapper;
     }
 
     @PostMapping("/generate-plan")
-    public List<Payment> calculateRepaymentPlan(@RequestBody Loan loan) throws InvalidLoanParameterException, NullLoanParameterException {
-        return calculationRepaymentPlanService.calculateRepaymentPlan(loan);
+    public ResponseEntity<?> calculateRepaymentPlan(
+            @RequestBody Loan loan,
+            @RequestParam(value = "offset", required = false) Integer offset,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException {
+        ValidationResult result = validate(loan, offset, limit);
+        if (!result.isValid()) {
+            return ResponseEntity.badRequest().body(result.getMessage());
+        }
+        return ResponseEntity.ok(calculateRepaymentPlan(loan, offset, limit, new CalculationOptions(arithmetic, roundingMode)));
+    }
+
+    @GetMapping("/generate-plan")
+    public ResponseEntity<?> getRepaymentPlan(
+            @RequestParam(value = "loanAmount", defaultValue = "0") float loanAmount,
+            @RequestParam(value = "nominalRate", defaultValue = "0") float nominalRate,
+            @RequestParam(value = "duration", defaultValue = "0") int duration,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
+            @RequestParam(value = "offset", required = false) Integer offset,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException {
+        Loan loan = new Loan(loanAmount, nominalRate, duration, startDate);
+        ValidationResult result = validate(loan, offset, limit);
+        if (!result.isValid()) {
+            return ResponseEntity.badRequest().body(result.getMessage());
+        }
+        CalculationOptions options = new CalculationOptions(arithmetic, roundingMode);
+        // the representation is chosen here and set as the content type, so the ETag is the one of the bytes written
+        MediaType mediaType = representation(accept);
+        if (mediaType == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        String etag = etag(loan, offset, limit, options, mediaType);
+        CacheControl cacheControl = CacheControl.maxAge(httpCacheProperties.getMaxAge().getSeconds(), TimeUnit.SECONDS).cachePublic();
+        // the plan is a function of the parameters of the ETag, so a known plan is answered without calculating it
+        if (request.checkNotModified(etag)) {
+            planMetrics.recordNotModified();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).contentType(mediaType)
+                .body(calculateRepaymentPlan(loan, offset, limit, options));
+    }
+
+    /**
+     * Media type of a plan for the Accept header: the binary format when it is preferred to JSON, otherwise JSON, as
+     * the JSON converter is ordered before the binary one. JSON is also the representation of a missing header.
+     * @param accept
+     * @return the media type, or null when the header accepts neither JSON nor the binary format
+     */
+    static MediaType representation(String accept) {
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        if (mediaTypes.isEmpty()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+            if (mediaType.isCompatibleWith(BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN)) {
+                return BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calculate the plan of a valid loan, or only a window of it when the offset or the limit is given
+     * @param loan
+     * @param offset
+     * @param limit
+     * @param options
+     * @return List of {@link Payment}
+     */
+    private List<Payment> calculateRepaymentPlan(Loan loan, Integer offset, Integer limit, CalculationOptions options) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException {
+        Timer.Sample sample = planMetrics.start();
+        if (offset != null || limit != null) {
+            // a window is calculated from the closest checkpoint, the installments around it are not created
+            List<Payment> window = calculationRepaymentPlanService.calculateRepaymentPlan(loan, options,
+                    offset == null ? 0 : offset, limit == null ? loan.getDuration() : limit);
+            planMetrics.recordCalculation(sample, "window");
+            return window;
+        }
+        List<Payment> plan = repaymentPlanCache.calculateRepaymentPlan(loan, options);
+        planMetrics.recordCalculation(sample, "plan");
+        planMetrics.recordPlanLength(plan.size());
+        return plan;
+    }
+
+    /**
+     * Weak ETag of the plan of a GET request: the MD5 of the canonical loan parameters, window, calculation options,
+     * media type and {@link CalculationRepaymentPlanService#ENGINE_VERSION}. The content encoding is left to the
+     * Vary header: the ETag is weak because the plain and the gzip answers share it, and Tomcat does not compress a
+     * response with a strong ETag (noCompressionStrongETag), as the strong ETag of the plain bytes would not be the
+     * one of the compressed bytes.
+     * @param loan
+     * @param offset
+     * @param limit
+     * @param options
+     * @param mediaType
+     * @return weak quoted ETag
+     */
+    static String etag(Loan loan, Integer offset, Integer limit, CalculationOptions options, MediaType mediaType) {
+        String parameters = String.join("|", CalculationRepaymentPlanService.ENGINE_VERSION,
+                Float.toString(loan.getLoanAmount()), Float.toString(loan.getNominalRate()),
+                Integer.toString(loan.getDuration()), loan.getStartDate().toString(),
+                String.valueOf(offset), String.valueOf(limit),
+                options.getArithmetic().name(), options.getRoundingMode().name(), mediaType.toString());
+        // the same digest of the ShallowEtagHeaderFilter of Spring, as a hex string of 32 characters
+        return "W/\"" + DigestUtils.md5DigestAsHex(parameters.getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    @GetMapping("/generate-plan/cache-statistics")
+    public CacheStatistics getCacheStatistics() {
+        return repaymentPlanCache.getStatistics();
+    }
+
+    @PostMapping(value = "/generate-plan", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRepaymentPlan(
+            @RequestBody Loan loan,
+            @RequestParam(value = "offset", required = false) Integer offset,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) {
+        // validated before the response is committed, so invalid loans and windows are still answered with bad request
+        ValidationResult result = validate(loan, offset, limit);
+        if (!result.isValid()) {
+            byte[] message = result.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(outputStream -> outputStream.write(message));
+        }
+        CalculationOptions options = new CalculationOptions(arithmetic, roundingMode);
+        if (offset != null || limit != null) {
+            // a window holds at most limit installments, so it is calculated from the closest checkpoint and then written
+            return ResponseEntity.ok(outputStream -> {
+                NdjsonWriter writer = new NdjsonWriter(mapper, outputStream);
+                List<Payment> window;
+                try {
+                    window = calculateRepaymentPlan(loan, offset, limit, options);
+                } catch (InvalidLoanParameterException | NullLoanParameterException | InvalidInstallmentException e) {
+                    throw new IllegalStateException(e);
+                }
+                window.forEach(writer::write);
+                writer.flush();
+            });
+        }
+        return ResponseEntity.ok(outputStream -> {
+            NdjsonWriter writer = new NdjsonWriter(mapper, outputStream);
+            // the payments are written as they are calculated, so the timing also includes the serialization
+            Timer.Sample sample = planMetrics.start();
+            try {
+                calculationRepaymentPlanService.calculateRepaymentPlan(loan, options, writer.paymentSink(loan.getStartDate()));
+            } catch (InvalidLoanParameterException | NullLoanParameterException e) {
+                throw new IllegalStateException(e);
+            }
+            writer.flush();
+            planMetrics.recordCalculation(sample, "stream");
+            planMetrics.recordPlanLength(loan.getDuration());
+        });
+    }
+
+    @PostMapping("/generate-plan/installment/{installment}")
+    public ResponseEntity<?> calculateInstallment(
+            @RequestBody Loan loan,
+            @PathVariable("installment") int installment,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException {
+        ValidationResult result = validate(loan, installment);
+        if (!result.isValid()) {
+            return ResponseEntity.badRequest().body(result.getMessage());
+        }
+        Timer.Sample sample = planMetrics.start();
+        Payment payment = calculationRepaymentPlanService.calculateInstallment(loan, new CalculationOptions(arithmetic, roundingMode), installment);
+        planMetrics.recordCalculation(sample, "installment");
+        return ResponseEntity.ok(payment);
+    }
+
+    @PostMapping("/generate-plan/summary")
+    public ResponseEntity<?> calculateSummary(
+            @RequestBody Loan loan,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) throws InvalidLoanParameterException, NullLoanParameterException {
+        ValidationResult result = validate(loan);
+        if (!result.isValid()) {
+            return ResponseEntity.badRequest().body(result.getMessage());
+        }
+        Timer.Sample sample = planMetrics.start();
+        PlanSummary summary = calculationRepaymentPlanService.calculateSummary(loan, new CalculationOptions(arithmetic, roundingMode));
+        planMetrics.recordCalculation(sample, "summary");
+        planMetrics.recordPlanLength(loan.getDuration());
+        return ResponseEntity.ok(summary);
+    }
+
+    @PostMapping("/generate-plan/events")
+    public ResponseEntity<?> reamortizeRepaymentPlan(
+            @RequestBody LoanEvents loanEvents,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException, InvalidPlanEventException {
+        ValidationResult result = validate(loanEvents.getLoan());
+        if (!result.isValid()) {
+            return ResponseEntity.badRequest().body(result.getMessage());
+        }
+        CalculationOptions options = new CalculationOptions(arithmetic, roundingMode);
+        Timer.Sample sample = planMetrics.start();
+        // the plan before the events comes from the cache when enabled, the events only calculate the installments they change
+        List<Payment> plan = calculationRepaymentPlanService.reamortizeRepaymentPlan(loanEvents.getLoan(), options,
+                repaymentPlanCache.calculateRepaymentPlan(loanEvents.getLoan(), options), loanEvents.getEvents());
+        planMetrics.recordCalculation(sample, "events");
+        planMetrics.recordPlanLength(plan.size());
+        return ResponseEntity.ok(plan);
+    }
+
+    @PostMapping("/generate-plans")
+    public List<PlanResult> calculateRepaymentPlans(
+            @RequestBody List<Loan> loans,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) {
+        Timer.Sample sample = planMetrics.start();
+        List<PlanResult> results = batchRepaymentPlanService.calculateRepaymentPlans(loans, new CalculationOptions(arithmetic, roundingMode));
+        planMetrics.recordCalculation(sample, "batch");
+        return results;
+    }
+
+    @PostMapping(value = "/generate-plans", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamRepaymentPlans(
+            @RequestBody List<Loan> loans,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) {
+        CalculationOptions options = new CalculationOptions(arithmetic, roundingMode);
+        return outputStream -> {
+            NdjsonWriter writer = new NdjsonWriter(mapper, outputStream);
+            Timer.Sample sample = planMetrics.start();
+            batchRepaymentPlanService.calculateRepaymentPlans(loans, options, writer::write);
+            writer.flush();
+            planMetrics.recordCalculation(sample, "batch-stream");
+        };
+    }
+
+    @PostMapping(value = "/generate-plans", consumes = TEXT_CSV_VALUE, produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCsvRepaymentPlans(
+            InputStream csv,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) {
+        CalculationOptions options = new CalculationOptions(arithmetic, roundingMode);
+        // the loans are read while the payments are written, so neither the input nor the output is kept in memory
+        return ResponseEntity.ok().contentType(TEXT_CSV).body(outputStream -> {
+            Timer.Sample sample = planMetrics.start();
+            csvRepaymentPlanService.calculateRepaymentPlans(csv, outputStream, options);
+            planMetrics.recordCalculation(sample, "batch-csv");
+        });
+    }
+
+    @PostMapping("/generate-cash-flows")
+    public PortfolioCashFlow calculateCashFlows(
+            @RequestBody List<Loan> loans,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) {
+        Timer.Sample sample = planMetrics.start();
+        PortfolioCashFlow cashFlow = portfolioCashFlowService.calculateCashFlows(loans, new CalculationOptions(arithmetic, roundingMode));
+        planMetrics.recordCalculation(sample, "portfolio");
+        return cashFlow;
+    }
+
+    @PostMapping("/generate-plan/grid")
+    public ResponseEntity<?> calculateGrid(
+            @RequestBody PlanGrid grid,
+            @RequestParam(value = "plans", defaultValue = "false") boolean plans,
+            @RequestParam(value = "arithmetic", defaultValue = "FLOAT") Arithmetic arithmetic,
+            @RequestParam(value = "roundingMode", defaultValue = "HALF_UP") RoundingMode roundingMode) throws InvalidGridException {
+        planGridService.validateRanges(grid);
+        ValidationResult result = validate(grid);
+        if (!result.isValid()) {
+            return ResponseEntity.badRequest().body(result.getMessage());
+        }
+        Timer.Sample sample = planMetrics.start();
+        List<GridCell> cells = planGridService.calculateGrid(grid, new CalculationOptions(arithmetic, roundingMode), plans);
+        planMetrics.recordCalculation(sample, "grid");
+        return ResponseEntity.ok(cells);
+    }
+
+    /**
+     * Validate the loan without exceptions, all the violations of a rejected loan are answered at once
+     * @param loan
+     * @return
+     */
+    private ValidationResult validate(Loan loan) {
+        Timer.Sample sample = planMetrics.start();
+        return record(sample, calculationRepaymentPlanService.validate(loan));
+    }
+
+    /**
+     * Validate the loan and, when the offset or the limit is given, the window of its plan without exceptions
+     * @param loan
+     * @param offset
+     * @param limit
+     * @return
+     */
+    private ValidationResult validate(Loan loan, Integer offset, Integer limit) {
+        Timer.Sample sample = planMetrics.start();
+        ValidationResult result = calculationRepaymentPlanService.validate(loan);
+        if (result.isValid() && (offset != null || limit != null)) {
+            result = calculationRepaymentPlanService.validateWindow(loan, offset == null ? 0 : offset,
+                    limit == null ? loan.getDuration() : limit);
+        }
+        return record(sample, result);
+    }
+
+    /**
+     * Validate the loan and the installment without exceptions
+     * @param loan
+     * @param installment
+     * @return
+     */
+    private ValidationResult validate(Loan loan, int installment) {
+        Timer.Sample sample = planMetrics.start();
+        ValidationResult result = calculationRepaymentPlanService.validate(loan);
+        if (result.isValid()) {
+            result = calculationRepaymentPlanService.validateInstallment(loan, installment);
+        }
+        return record(sample, result);
+    }
+
+    /**
+     * Validate the loans of the first and the last cells of the grid without exceptions. They have the lowest and the
+     * highest rate and duration, so when both loans are valid the loans of all the cells are.
+     * @param grid
+     * @return
+     */
+    private ValidationResult validate(PlanGrid grid) {
+        Timer.Sample sample = planMetrics.start();
+        GridRange nominalRates = grid.getNominalRates();
+        GridRange durations = grid.getDurations();
+        ValidationResult result = calculationRepaymentPlanService.validate(grid.loan(nominalRates.getFrom(), (int) durations.getFrom()));
+        if (result.isValid()) {
+            result = calculationRepaymentPlanService.validate(grid.loan(nominalRates.valueAt((int) nominalRates.size() - 1),
+                    (int) durations.valueAt((int) durations.size() - 1)));
+        }
+        return record(sample, result);
+    }
+
+    private ValidationResult record(Timer.Sample sample, ValidationResult result) {
+        planMetrics.recordValidation(sample);
+        if (!result.isValid()) {
+            planMetrics.recordRejections(result);
+            logger.info(result.getMessage());
+        }
+        return result;
     }
 
     @ExceptionHandler(Exception.class)
@@ -42,14 +461,57 @@ public class RepaymentPlanController {
     @ExceptionHandler(NullLoanParameterException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public String handlerNullLoanParameterException(NullLoanParameterException e) {
-        logger.info(e.getMessage(), e);
+        logger.info(e.getMessage());
+        planMetrics.recordRejection(e);
         return e.getMessage();
     }
 
     @ExceptionHandler(InvalidLoanParameterException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public String handlerInvalidLoanParameterException(InvalidLoanParameterException e) {
-        logger.info(e.getMessage(), e);
+        logger.info(e.getMessage());
+        planMetrics.recordRejection(e);
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(InvalidInstallmentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerInvalidInstallmentException(InvalidInstallmentException e) {
+        logger.info(e.getMessage());
+        planMetrics.recordRejection(e);
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(InvalidCalculationOptionsException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerInvalidCalculationOptionsException(InvalidCalculationOptionsException e) {
+        logger.info(e.getMessage());
+        planMetrics.recordRejection(e);
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e) {
+        String message = RequestParameters.invalidValueMessage(e.getName(), e.getValue(), e.getParameter().getParameterType());
+        logger.info(message);
+        planMetrics.recordInvalid(e.getName());
+        return message;
+    }
+
+    @ExceptionHandler(InvalidGridException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerInvalidGridException(InvalidGridException e) {
+        logger.info(e.getMessage());
+        planMetrics.recordRejection(e);
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(InvalidPlanEventException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handlerInvalidPlanEventException(InvalidPlanEventException e) {
+        logger.info(e.getMessage());
+        planMetrics.recordRejection(e);
         return e.getMessage();
     }
 
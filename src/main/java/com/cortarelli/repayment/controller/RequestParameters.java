@@ -0,0 +1,31 @@
+package com.cortarelli.repayment.controller;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Messages of the query parameters, shared by the servlet and the reactive API
+ */
+final class RequestParameters {
+
+    private RequestParameters() {
+    }
+
+    /**
+     * Message of a query parameter whose value cannot be converted to its type, in the format of the other invalid
+     * parameters, e.g. "The parameter arithmetic is invalid, the assigned value should be one of FLOAT, FIXED_POINT.
+     * Value: DECIMAL."
+     * @param name
+     * @param value
+     * @param type
+     *          type of the parameter, the constants of an enum are listed
+     * @return
+     */
+    static String invalidValueMessage(String name, Object value, Class<?> type) {
+        String expected = type.isEnum()
+                ? "one of " + Arrays.stream(type.getEnumConstants()).map(String::valueOf).collect(Collectors.joining(", "))
+                : "a valid " + type.getSimpleName();
+        return String.format("The parameter %s is invalid, the assigned value should be %s. Value: %s.", name, expected, value);
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.cortarelli.repayment.domain;
+
+/**
+ * Number representation used by the amortization loop
+ */
+public enum Arithmetic {
+
+    /**
+     * Values are calculated as float and rounded to two decimal places after each operation
+     */
+    FLOAT,
+
+    /**
+     * Values are calculated as long minor units (cents), only the interest of each installment and the annuity are
+     * rounded, using the chosen {@link java.math.RoundingMode}
+     */
+    FIXED_POINT
+
+}
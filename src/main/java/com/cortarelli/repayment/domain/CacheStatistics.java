@@ -0,0 +1,81 @@
+package com.cortarelli.repayment.domain;
+
+import java.util.Objects;
+
+/**
+ * Counters of a cache since the application start
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    public CacheStatistics(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Number of requests answered by the cache
+     * @return
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Number of requests that were calculated
+     * @return
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Number of entries removed by the size bound or the time to live
+     * @return
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Current number of entries
+     * @return
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheStatistics)) {
+            return false;
+        }
+        CacheStatistics that = (CacheStatistics) o;
+        return hitCount == that.hitCount &&
+                missCount == that.missCount &&
+                evictionCount == that.evictionCount &&
+                size == that.size;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hitCount, missCount, evictionCount, size);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.exception.InvalidCalculationOptionsException;
+
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Options that change how the repayment plan is calculated
+ */
+public final class CalculationOptions {
+
+    public static final CalculationOptions DEFAULT = new CalculationOptions(Arithmetic.FLOAT, RoundingMode.HALF_UP);
+
+    private final Arithmetic arithmetic;
+    private final RoundingMode roundingMode;
+
+    /**
+     * @param arithmetic
+     * @param roundingMode
+     * @throws InvalidCalculationOptionsException
+     *          for {@link RoundingMode#UNNECESSARY}, as the interest and the annuity are never exact in cents
+     */
+    public CalculationOptions(Arithmetic arithmetic, RoundingMode roundingMode) {
+        if (roundingMode == RoundingMode.UNNECESSARY) {
+            throw new InvalidCalculationOptionsException("roundingMode", roundingMode, "the amounts cannot be calculated without rounding");
+        }
+        this.arithmetic = arithmetic;
+        this.roundingMode = roundingMode;
+    }
+
+    /**
+     * Number representation used by the calculation
+     * @return
+     */
+    public Arithmetic getArithmetic() {
+        return arithmetic;
+    }
+
+    /**
+     * Rounding mode of the {@link Arithmetic#FIXED_POINT} calculation, the {@link Arithmetic#FLOAT} calculation
+     * always rounds half up
+     * @return
+     */
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CalculationOptions)) {
+            return false;
+        }
+        CalculationOptions that = (CalculationOptions) o;
+        return arithmetic == that.arithmetic &&
+                roundingMode == that.roundingMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(arithmetic, roundingMode);
+    }
+
+    @Override
+    public String toString() {
+        return "CalculationOptions{" +
+                "arithmetic=" + arithmetic +
+                ", roundingMode=" + roundingMode +
+                '}';
+    }
+}
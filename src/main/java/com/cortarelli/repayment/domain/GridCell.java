@@ -0,0 +1,110 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Summary of the repayment plan of one combination of nominal rate and duration of a {@link PlanGrid}
+ */
+public final class GridCell {
+
+    private final float nominalRate;
+    private final int duration;
+    private final float annuity;
+    private final BigDecimal totalInterest;
+    private final BigDecimal totalPaid;
+    private final List<Payment> plan;
+
+    public GridCell(float nominalRate, int duration, float annuity, BigDecimal totalInterest, BigDecimal totalPaid, List<Payment> plan) {
+        this.nominalRate = nominalRate;
+        this.duration = duration;
+        this.annuity = annuity;
+        this.totalInterest = totalInterest;
+        this.totalPaid = totalPaid;
+        this.plan = plan;
+    }
+
+    /**
+     * Annual interest rate of the cell
+     * @return
+     */
+    public float getNominalRate() {
+        return nominalRate;
+    }
+
+    /**
+     * Number of installments in months of the cell
+     * @return
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Annuity of the first installment
+     * @return
+     */
+    public float getAnnuity() {
+        return annuity;
+    }
+
+    /**
+     * Sum of the interest of all the installments
+     * @return
+     */
+    public BigDecimal getTotalInterest() {
+        return totalInterest;
+    }
+
+    /**
+     * Sum of the borrower payment amounts of all the installments
+     * @return
+     */
+    public BigDecimal getTotalPaid() {
+        return totalPaid;
+    }
+
+    /**
+     * Repayment plan, only when requested
+     * @return
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<Payment> getPlan() {
+        return plan;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GridCell)) {
+            return false;
+        }
+        GridCell that = (GridCell) o;
+        return Objects.equals(nominalRate, that.nominalRate) &&
+                duration == that.duration &&
+                Objects.equals(annuity, that.annuity) &&
+                Objects.equals(totalInterest, that.totalInterest) &&
+                Objects.equals(totalPaid, that.totalPaid) &&
+                Objects.equals(plan, that.plan);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nominalRate, duration, annuity, totalInterest, totalPaid, plan);
+    }
+
+    @Override
+    public String toString() {
+        return "GridCell{" +
+                "nominalRate=" + nominalRate +
+                ", duration=" + duration +
+                ", annuity=" + annuity +
+                ", totalInterest=" + totalInterest +
+                ", totalPaid=" + totalPaid +
+                ", plan=" + plan +
+                '}';
+    }
+}
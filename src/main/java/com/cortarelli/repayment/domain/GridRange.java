@@ -0,0 +1,98 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Values swept by a {@link PlanGrid}, from {@code from} until {@code to} (inclusive) in increments of {@code step}
+ */
+public final class GridRange {
+
+    /**
+     * Tolerance, in steps, for the float error of the last value, so a range like 3 to 4 by 0.1 keeps the value 4
+     */
+    private static final double TOLERANCE = 1e-3;
+    private static final double DECIMALS = 10000D;
+
+    private final float from;
+    private final float to;
+    private final float step;
+
+    public GridRange(
+            @JsonProperty(value = "from", required = true) float from,
+            @JsonProperty(value = "to", required = true) float to,
+            @JsonProperty(value = "step", required = true) float step) {
+        this.from = from;
+        this.to = to;
+        this.step = step;
+    }
+
+    /**
+     * First value of the range
+     * @return
+     */
+    public float getFrom() {
+        return from;
+    }
+
+    /**
+     * Last value of the range, included when it is a whole number of steps from the first value
+     * @return
+     */
+    public float getTo() {
+        return to;
+    }
+
+    /**
+     * Increment between two values of the range
+     * @return
+     */
+    public float getStep() {
+        return step;
+    }
+
+    /**
+     * Number of values of a range with a positive step and {@code from <= to}
+     * @return
+     */
+    public long size() {
+        return (long) (Math.floor(((double) to - from) / step + TOLERANCE) + 1);
+    }
+
+    /**
+     * Value of the range, rounded to four decimal places so the float error of the steps is not summed
+     * @param index
+     *          position of the value (starts on zero)
+     * @return
+     */
+    public float valueAt(int index) {
+        return (float) (Math.round((from + (double) step * index) * DECIMALS) / DECIMALS);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GridRange)) {
+            return false;
+        }
+        GridRange that = (GridRange) o;
+        return Objects.equals(from, that.from) &&
+                Objects.equals(to, that.to) &&
+                Objects.equals(step, that.step);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, step);
+    }
+
+    @Override
+    public String toString() {
+        return "GridRange{" +
+                "from=" + from +
+                ", to=" + to +
+                ", step=" + step +
+                '}';
+    }
+}
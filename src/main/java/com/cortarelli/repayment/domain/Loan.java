@@ -1,8 +1,13 @@
 package com.cortarelli.repayment.domain;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -14,16 +19,26 @@ public final class Loan {
     private final float nominalRate;
     private final int duration;
     private final OffsetDateTime startDate;
+    private final List<RateSegment> rateSegments;
 
+    public Loan(float loanAmount, float nominalRate, int duration, OffsetDateTime startDate) {
+        this(loanAmount, nominalRate, duration, startDate, null);
+    }
+
+    @JsonCreator
     public Loan(
             @JsonProperty(value = "loanAmount", required = true) float loanAmount,
             @JsonProperty(value = "nominalRate", required = true) float nominalRate,
             @JsonProperty(value = "duration", required = true) int duration,
-            @JsonProperty(value = "startDate", required = true) OffsetDateTime startDate) {
+            @JsonProperty(value = "startDate", required = true) OffsetDateTime startDate,
+            @JsonProperty(value = "rateSegments") List<RateSegment> rateSegments) {
         this.loanAmount = loanAmount;
         this.nominalRate = nominalRate;
         this.duration = duration;
         this.startDate = startDate;
+        // copied, the segments are part of the keys of the plan and checkpoint caches
+        this.rateSegments = rateSegments == null || rateSegments.isEmpty()
+                ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(rateSegments));
     }
 
     /**
@@ -35,7 +50,7 @@ public final class Loan {
     }
 
     /**
-     * Annual interest rate
+     * Annual interest rate, after the rate segments when there are any
      * @return
      */
     public float getNominalRate() {
@@ -58,6 +73,16 @@ public final class Loan {
         return startDate;
     }
 
+    /**
+     * Consecutive periods from the first installment on, each one with its own interest rate. The nominal rate
+     * applies after the last period, and periods beyond the duration are ignored. Empty for a fixed rate loan.
+     * @return read-only copy of the segments given to the constructor
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public List<RateSegment> getRateSegments() {
+        return rateSegments;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -68,12 +93,13 @@ public final class Loan {
         return Objects.equals(loanAmount, loan.loanAmount) &&
                 Objects.equals(nominalRate, loan.nominalRate) &&
                 Objects.equals(duration, loan.duration) &&
-                Objects.equals(startDate, loan.startDate);
+                Objects.equals(startDate, loan.startDate) &&
+                Objects.equals(rateSegments, loan.rateSegments);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(loanAmount, nominalRate, duration, startDate);
+        return Objects.hash(loanAmount, nominalRate, duration, startDate, rateSegments);
     }
 
     @Override
@@ -83,6 +109,7 @@ public final class Loan {
                 ", interestRate=" + nominalRate +
                 ", duration=" + duration +
                 ", startDate=" + startDate +
+                ", rateSegments=" + rateSegments +
                 '}';
     }
 }
@@ -0,0 +1,62 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Loan with the servicing events that happened since its plan was calculated, in installment order
+ */
+public final class LoanEvents {
+
+    private final Loan loan;
+    private final List<PlanEvent> events;
+
+    public LoanEvents(
+            @JsonProperty(value = "loan", required = true) Loan loan,
+            @JsonProperty(value = "events", required = true) List<PlanEvent> events) {
+        this.loan = loan;
+        this.events = events;
+    }
+
+    /**
+     * Original terms of the loan
+     * @return
+     */
+    public Loan getLoan() {
+        return loan;
+    }
+
+    /**
+     * Events applied to the plan of the loan
+     * @return
+     */
+    public List<PlanEvent> getEvents() {
+        return events;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LoanEvents)) {
+            return false;
+        }
+        LoanEvents that = (LoanEvents) o;
+        return Objects.equals(loan, that.loan) &&
+                Objects.equals(events, that.events);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(loan, events);
+    }
+
+    @Override
+    public String toString() {
+        return "LoanEvents{" +
+                "loan=" + loan +
+                ", events=" + events +
+                '}';
+    }
+}
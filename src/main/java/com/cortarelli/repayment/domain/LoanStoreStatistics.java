@@ -0,0 +1,57 @@
+package com.cortarelli.repayment.domain;
+
+import java.util.Objects;
+
+/**
+ * Size of the on-disk loan store
+ */
+public final class LoanStoreStatistics {
+
+    private final long loans;
+    private final long bytes;
+
+    public LoanStoreStatistics(long loans, long bytes) {
+        this.loans = loans;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Number of stored loans
+     * @return
+     */
+    public long getLoans() {
+        return loans;
+    }
+
+    /**
+     * Size of the file of the store
+     * @return
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LoanStoreStatistics)) {
+            return false;
+        }
+        LoanStoreStatistics that = (LoanStoreStatistics) o;
+        return loans == that.loans &&
+                bytes == that.bytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(loans, bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "LoanStoreStatistics{" +
+                "loans=" + loans +
+                ", bytes=" + bytes +
+                '}';
+    }
+}
@@ -0,0 +1,114 @@
+package com.cortarelli.repayment.domain;
+
+import java.util.Objects;
+
+/**
+ * Invalid parameter of a {@link Loan}, reported by the validation without throwing an exception
+ */
+public final class LoanViolation {
+
+    public enum Type {
+        /**
+         * The value should be greater than zero
+         */
+        INVALID,
+        /**
+         * The value cannot be null
+         */
+        NULL,
+        /**
+         * The value should be between zero and a maximum
+         */
+        OUT_OF_RANGE
+    }
+
+    private final String parameterName;
+    private final Type type;
+    private final Number value;
+    private final Number maximum;
+
+    public LoanViolation(String parameterName, Type type, Number value) {
+        this(parameterName, type, value, null);
+    }
+
+    public LoanViolation(String parameterName, Type type, Number value, Number maximum) {
+        this.parameterName = parameterName;
+        this.type = type;
+        this.value = value;
+        this.maximum = maximum;
+    }
+
+    /**
+     * Name of the parameter
+     * @return
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * Kind of violation
+     * @return
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Assigned value, null for {@link Type#NULL} violations
+     * @return
+     */
+    public Number getValue() {
+        return value;
+    }
+
+    /**
+     * Highest valid value of {@link Type#OUT_OF_RANGE} violations, null for the others
+     * @return
+     */
+    public Number getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Same message of the exception of the violation, built only when requested
+     * @return
+     */
+    public String getMessage() {
+        if (type == Type.NULL) {
+            return "The parameter " + parameterName + " is invalid, the assigned value cannot be not null.";
+        }
+        if (type == Type.OUT_OF_RANGE) {
+            return "The parameter " + parameterName + " is invalid, the assigned value should be between 0 and " + maximum + ". Value: " + value + ".";
+        }
+        return "The parameter " + parameterName + " is invalid, the assigned value should be greater than zero. Value: " + value + ".";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LoanViolation)) {
+            return false;
+        }
+        LoanViolation that = (LoanViolation) o;
+        return Objects.equals(parameterName, that.parameterName) &&
+                type == that.type &&
+                Objects.equals(value, that.value) &&
+                Objects.equals(maximum, that.maximum);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(parameterName, type, value, maximum);
+    }
+
+    @Override
+    public String toString() {
+        return "LoanViolation{" +
+                "parameterName=" + parameterName +
+                ", type=" + type +
+                ", value=" + value +
+                ", maximum=" + maximum +
+                '}';
+    }
+}
@@ -0,0 +1,95 @@
+package com.cortarelli.repayment.domain;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Objects;
+
+/**
+ * Sum of the payments of a portfolio in one calendar month
+ */
+public final class MonthlyCashFlow {
+
+    private final YearMonth month;
+    private final int payments;
+    private final BigDecimal interest;
+    private final BigDecimal principal;
+    private final BigDecimal remainingOutstandingPrincipal;
+
+    public MonthlyCashFlow(YearMonth month, int payments, BigDecimal interest, BigDecimal principal, BigDecimal remainingOutstandingPrincipal) {
+        this.month = month;
+        this.payments = payments;
+        this.interest = interest;
+        this.principal = principal;
+        this.remainingOutstandingPrincipal = remainingOutstandingPrincipal;
+    }
+
+    /**
+     * Calendar month of the payment dates
+     * @return
+     */
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    /**
+     * Number of payments in the month
+     * @return
+     */
+    public int getPayments() {
+        return payments;
+    }
+
+    /**
+     * Total interest of the payments
+     * @return
+     */
+    public BigDecimal getInterest() {
+        return interest;
+    }
+
+    /**
+     * Total principal of the payments
+     * @return
+     */
+    public BigDecimal getPrincipal() {
+        return principal;
+    }
+
+    /**
+     * Total outstanding balance after the payments of the month, of the loans with a payment in the month
+     * @return
+     */
+    public BigDecimal getRemainingOutstandingPrincipal() {
+        return remainingOutstandingPrincipal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MonthlyCashFlow)) {
+            return false;
+        }
+        MonthlyCashFlow that = (MonthlyCashFlow) o;
+        return payments == that.payments &&
+                Objects.equals(month, that.month) &&
+                Objects.equals(interest, that.interest) &&
+                Objects.equals(principal, that.principal) &&
+                Objects.equals(remainingOutstandingPrincipal, that.remainingOutstandingPrincipal);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(month, payments, interest, principal, remainingOutstandingPrincipal);
+    }
+
+    @Override
+    public String toString() {
+        return "MonthlyCashFlow{" +
+                "month=" + month +
+                ", payments=" + payments +
+                ", interest=" + interest +
+                ", principal=" + principal +
+                ", remainingOutstandingPrincipal=" + remainingOutstandingPrincipal +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Servicing event that changes a repayment plan from one installment on, the installments before it are kept
+ */
+public final class PlanEvent {
+
+    public enum Type {
+        /**
+         * Lump sum paid before the installment, which is calculated on the principal left, the value is the amount
+         */
+        PREPAYMENT,
+        /**
+         * New annual interest rate from the installment on, the value is the rate
+         */
+        RATE_CHANGE,
+        /**
+         * New number of installments of the whole plan, the value is the duration in months
+         */
+        DURATION_CHANGE
+    }
+
+    private final Type type;
+    private final int installment;
+    private final float value;
+
+    public PlanEvent(
+            @JsonProperty(value = "type", required = true) Type type,
+            @JsonProperty(value = "installment", required = true) int installment,
+            @JsonProperty(value = "value", required = true) float value) {
+        this.type = type;
+        this.installment = installment;
+        this.value = value;
+    }
+
+    /**
+     * Kind of event
+     * @return
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * First installment changed by the event (starts on zero)
+     * @return
+     */
+    public int getInstallment() {
+        return installment;
+    }
+
+    /**
+     * Prepayment amount, nominal rate or duration, according to the type
+     * @return
+     */
+    public float getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlanEvent)) {
+            return false;
+        }
+        PlanEvent that = (PlanEvent) o;
+        return type == that.type &&
+                installment == that.installment &&
+                Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, installment, value);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanEvent{" +
+                "type=" + type +
+                ", installment=" + installment +
+                ", value=" + value +
+                '}';
+    }
+}
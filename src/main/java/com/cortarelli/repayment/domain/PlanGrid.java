@@ -0,0 +1,98 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * Loan amount and start date calculated for each combination of the swept nominal rates and durations
+ */
+public final class PlanGrid {
+
+    private final float loanAmount;
+    private final OffsetDateTime startDate;
+    private final GridRange nominalRates;
+    private final GridRange durations;
+
+    public PlanGrid(
+            @JsonProperty(value = "loanAmount", required = true) float loanAmount,
+            @JsonProperty(value = "startDate", required = true) OffsetDateTime startDate,
+            @JsonProperty(value = "nominalRates", required = true) GridRange nominalRates,
+            @JsonProperty(value = "durations", required = true) GridRange durations) {
+        this.loanAmount = loanAmount;
+        this.startDate = startDate;
+        this.nominalRates = nominalRates;
+        this.durations = durations;
+    }
+
+    /**
+     * Principal amount of every cell
+     * @return
+     */
+    public float getLoanAmount() {
+        return loanAmount;
+    }
+
+    /**
+     * Date of the first payment of every cell
+     * @return
+     */
+    public OffsetDateTime getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Annual interest rates of the rows
+     * @return
+     */
+    public GridRange getNominalRates() {
+        return nominalRates;
+    }
+
+    /**
+     * Numbers of installments in months of the columns, whole numbers only
+     * @return
+     */
+    public GridRange getDurations() {
+        return durations;
+    }
+
+    /**
+     * Loan of a cell of the grid
+     * @param nominalRate
+     * @param duration
+     * @return {@link Loan}
+     */
+    public Loan loan(float nominalRate, int duration) {
+        return new Loan(loanAmount, nominalRate, duration, startDate);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlanGrid)) {
+            return false;
+        }
+        PlanGrid that = (PlanGrid) o;
+        return Objects.equals(loanAmount, that.loanAmount) &&
+                Objects.equals(startDate, that.startDate) &&
+                Objects.equals(nominalRates, that.nominalRates) &&
+                Objects.equals(durations, that.durations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(loanAmount, startDate, nominalRates, durations);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanGrid{" +
+                "loanAmount=" + loanAmount +
+                ", startDate=" + startDate +
+                ", nominalRates=" + nominalRates +
+                ", durations=" + durations +
+                '}';
+    }
+}
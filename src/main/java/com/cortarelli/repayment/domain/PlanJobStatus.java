@@ -0,0 +1,105 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Objects;
+
+/**
+ * Progress of an asynchronous job that calculates the repayment plans of a batch of loans
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class PlanJobStatus {
+
+    public enum State {
+        /**
+         * Waiting on the queue of jobs
+         */
+        QUEUED,
+        RUNNING,
+        /**
+         * The result can be downloaded
+         */
+        DONE,
+        FAILED
+    }
+
+    private final String id;
+    private final State state;
+    private final int loans;
+    private final int calculatedLoans;
+    private final String error;
+
+    public PlanJobStatus(String id, State state, int loans, int calculatedLoans, String error) {
+        this.id = id;
+        this.state = state;
+        this.loans = loans;
+        this.calculatedLoans = calculatedLoans;
+        this.error = error;
+    }
+
+    /**
+     * Identifier of the job
+     * @return
+     */
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Number of loans of the batch
+     * @return
+     */
+    public int getLoans() {
+        return loans;
+    }
+
+    /**
+     * Number of loans already calculated, rejected loans included
+     * @return
+     */
+    public int getCalculatedLoans() {
+        return calculatedLoans;
+    }
+
+    /**
+     * Reason why the job failed, null when it did not fail
+     * @return
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlanJobStatus)) {
+            return false;
+        }
+        PlanJobStatus that = (PlanJobStatus) o;
+        return loans == that.loans &&
+                calculatedLoans == that.calculatedLoans &&
+                Objects.equals(id, that.id) &&
+                state == that.state &&
+                Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, state, loans, calculatedLoans, error);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanJobStatus{" +
+                "id=" + id +
+                ", state=" + state +
+                ", loans=" + loans +
+                ", calculatedLoans=" + calculatedLoans +
+                ", error=" + error +
+                '}';
+    }
+}
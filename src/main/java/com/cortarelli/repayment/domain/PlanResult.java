@@ -0,0 +1,61 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Result of the calculation of one loan of a batch: the repayment plan, or the reason why the loan was rejected
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class PlanResult {
+
+    private final List<Payment> plan;
+    private final String error;
+
+    public PlanResult(List<Payment> plan, String error) {
+        this.plan = plan;
+        this.error = error;
+    }
+
+    /**
+     * Repayment plan, null when the loan was rejected
+     * @return
+     */
+    public List<Payment> getPlan() {
+        return plan;
+    }
+
+    /**
+     * Validation message, null when the plan was calculated
+     * @return
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlanResult)) {
+            return false;
+        }
+        PlanResult that = (PlanResult) o;
+        return Objects.equals(plan, that.plan) &&
+                Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(plan, error);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanResult{" +
+                "plan=" + plan +
+                ", error=" + error +
+                '}';
+    }
+}
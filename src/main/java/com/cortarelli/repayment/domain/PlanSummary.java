@@ -0,0 +1,83 @@
+package com.cortarelli.repayment.domain;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * Annuity and totals of a repayment plan, calculated without creating its payments
+ */
+public final class PlanSummary {
+
+    private final float annuity;
+    private final BigDecimal totalInterest;
+    private final BigDecimal totalPaid;
+    private final OffsetDateTime lastPaymentDate;
+
+    public PlanSummary(float annuity, BigDecimal totalInterest, BigDecimal totalPaid, OffsetDateTime lastPaymentDate) {
+        this.annuity = annuity;
+        this.totalInterest = totalInterest;
+        this.totalPaid = totalPaid;
+        this.lastPaymentDate = lastPaymentDate;
+    }
+
+    /**
+     * Annuity of the first installment
+     * @return
+     */
+    public float getAnnuity() {
+        return annuity;
+    }
+
+    /**
+     * Sum of the interest of all the installments
+     * @return
+     */
+    public BigDecimal getTotalInterest() {
+        return totalInterest;
+    }
+
+    /**
+     * Sum of the borrower payment amounts of all the installments
+     * @return
+     */
+    public BigDecimal getTotalPaid() {
+        return totalPaid;
+    }
+
+    /**
+     * Date of the last installment
+     * @return
+     */
+    public OffsetDateTime getLastPaymentDate() {
+        return lastPaymentDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PlanSummary)) {
+            return false;
+        }
+        PlanSummary that = (PlanSummary) o;
+        return Objects.equals(annuity, that.annuity) &&
+                Objects.equals(totalInterest, that.totalInterest) &&
+                Objects.equals(totalPaid, that.totalPaid) &&
+                Objects.equals(lastPaymentDate, that.lastPaymentDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(annuity, totalInterest, totalPaid, lastPaymentDate);
+    }
+
+    @Override
+    public String toString() {
+        return "PlanSummary{" +
+                "annuity=" + annuity +
+                ", totalInterest=" + totalInterest +
+                ", totalPaid=" + totalPaid +
+                ", lastPaymentDate=" + lastPaymentDate +
+                '}';
+    }
+}
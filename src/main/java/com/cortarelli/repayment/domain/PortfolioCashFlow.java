@@ -0,0 +1,71 @@
+package com.cortarelli.repayment.domain;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Monthly cash flows of the repayment plans of a portfolio of loans
+ */
+public final class PortfolioCashFlow {
+
+    private final int loans;
+    private final int rejectedLoans;
+    private final List<MonthlyCashFlow> cashFlows;
+
+    public PortfolioCashFlow(int loans, int rejectedLoans, List<MonthlyCashFlow> cashFlows) {
+        this.loans = loans;
+        this.rejectedLoans = rejectedLoans;
+        this.cashFlows = cashFlows;
+    }
+
+    /**
+     * Number of loans included on the cash flows
+     * @return
+     */
+    public int getLoans() {
+        return loans;
+    }
+
+    /**
+     * Number of loans left out because of invalid parameters
+     * @return
+     */
+    public int getRejectedLoans() {
+        return rejectedLoans;
+    }
+
+    /**
+     * Cash flow of each month from the first until the last payment of the portfolio, including the months without
+     * payments
+     * @return
+     */
+    public List<MonthlyCashFlow> getCashFlows() {
+        return cashFlows;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PortfolioCashFlow)) {
+            return false;
+        }
+        PortfolioCashFlow that = (PortfolioCashFlow) o;
+        return loans == that.loans &&
+                rejectedLoans == that.rejectedLoans &&
+                Objects.equals(cashFlows, that.cashFlows);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(loans, rejectedLoans, cashFlows);
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioCashFlow{" +
+                "loans=" + loans +
+                ", rejectedLoans=" + rejectedLoans +
+                ", cashFlows=" + cashFlows +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package com.cortarelli.repayment.domain;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Period of a {@link Loan} with its own interest rate, e.g. a teaser rate or the rate between two resets
+ */
+public final class RateSegment {
+
+    private final int duration;
+    private final float nominalRate;
+
+    public RateSegment(
+            @JsonProperty(value = "duration", required = true) int duration,
+            @JsonProperty(value = "nominalRate", required = true) float nominalRate) {
+        this.duration = duration;
+        this.nominalRate = nominalRate;
+    }
+
+    /**
+     * Number of installments of the period in months
+     * @return
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Annual interest rate of the period
+     * @return
+     */
+    public float getNominalRate() {
+        return nominalRate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RateSegment)) {
+            return false;
+        }
+        RateSegment that = (RateSegment) o;
+        return duration == that.duration &&
+                Objects.equals(nominalRate, that.nominalRate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(duration, nominalRate);
+    }
+
+    @Override
+    public String toString() {
+        return "RateSegment{" +
+                "duration=" + duration +
+                ", nominalRate=" + nominalRate +
+                '}';
+    }
+}
@@ -0,0 +1,252 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.utils.Utils;
+
+import java.time.OffsetDateTime;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Columnar representation of a repayment plan. Each monetary attribute is kept in a primitive array, so a schedule
+ * can be filled without creating one {@link Payment} per installment and can be reused across calculations.
+ *
+ * The monetary values do not depend on the start date, so the payment dates are not stored: they are derived from
+ * the start date when they are read. Schedules of plans that only differ by start date share the same arrays
+ * through {@link #withStartDate(OffsetDateTime)}.
+ *
+ * {@link Payment} objects are only created on demand, through {@link #getPayment(int)} or the {@link #asPayments()}
+ * view. As the arrays are reused, a view only reflects the values of the last calculation assigned to this schedule.
+ */
+public final class RepaymentSchedule {
+
+    private OffsetDateTime startDate;
+    private int size;
+    private boolean shared;
+    private double[] borrowerPaymentAmounts;
+    private double[] initialOutstandingPrincipals;
+    private double[] interests;
+    private double[] principals;
+    private double[] remainingOutstandingPrincipals;
+
+    public RepaymentSchedule() {
+        this(0);
+    }
+
+    public RepaymentSchedule(int capacity) {
+        allocate(capacity);
+    }
+
+    private RepaymentSchedule(RepaymentSchedule source, OffsetDateTime startDate) {
+        this.startDate = startDate;
+        this.size = source.size;
+        this.shared = true;
+        this.borrowerPaymentAmounts = source.borrowerPaymentAmounts;
+        this.initialOutstandingPrincipals = source.initialOutstandingPrincipals;
+        this.interests = source.interests;
+        this.principals = source.principals;
+        this.remainingOutstandingPrincipals = source.remainingOutstandingPrincipals;
+    }
+
+    /**
+     * Prepare the schedule to receive a new plan, the arrays are only reallocated when the current capacity is not
+     * enough to hold the plan
+     * @param startDate
+     *          date of the first payment
+     * @param size
+     *          number of installments
+     * @throws IllegalStateException if the arrays are shared with another schedule
+     */
+    public void reset(OffsetDateTime startDate, int size) {
+        if (shared) {
+            throw new IllegalStateException("The schedule shares its values with another schedule and cannot be reset.");
+        }
+        if (size > borrowerPaymentAmounts.length) {
+            allocate(size);
+        }
+        this.startDate = startDate;
+        this.size = size;
+    }
+
+    /**
+     * Assign the values of one installment
+     * @param installment
+     *          the number of payment (starts on zero)
+     * @param borrowerPaymentAmount
+     * @param initialOutstandingPrincipal
+     * @param interest
+     * @param principal
+     * @param remainingOutstandingPrincipal
+     * @throws IllegalStateException if the schedule is shared
+     */
+    public void setInstallment(int installment, double borrowerPaymentAmount, double initialOutstandingPrincipal,
+                               double interest, double principal, double remainingOutstandingPrincipal) {
+        if (shared) {
+            throw new IllegalStateException("The schedule is shared and cannot be modified.");
+        }
+        borrowerPaymentAmounts[installment] = borrowerPaymentAmount;
+        initialOutstandingPrincipals[installment] = initialOutstandingPrincipal;
+        interests[installment] = interest;
+        principals[installment] = principal;
+        remainingOutstandingPrincipals[installment] = remainingOutstandingPrincipal;
+    }
+
+    /**
+     * Number of installments
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of installments that can be held without reallocating the arrays
+     * @return
+     */
+    public int capacity() {
+        return borrowerPaymentAmounts.length;
+    }
+
+    /**
+     * Date of the first payment
+     * @return
+     */
+    public OffsetDateTime getStartDate() {
+        return startDate;
+    }
+
+    /**
+     * Payment date as epoch day, calculated without creating any object
+     * @param installment
+     * @return
+     */
+    public long getEpochDay(int installment) {
+        return Utils.epochDayPlusMonths(startDate.getYear(), startDate.getMonthValue(), startDate.getDayOfMonth(), installment);
+    }
+
+    public double getBorrowerPaymentAmount(int installment) {
+        return borrowerPaymentAmounts[installment];
+    }
+
+    public double getInitialOutstandingPrincipal(int installment) {
+        return initialOutstandingPrincipals[installment];
+    }
+
+    public double getInterest(int installment) {
+        return interests[installment];
+    }
+
+    public double getPrincipal(int installment) {
+        return principals[installment];
+    }
+
+    public double getRemainingOutstandingPrincipal(int installment) {
+        return remainingOutstandingPrincipals[installment];
+    }
+
+    /**
+     * Payment date, with the same time and offset of the start date
+     * @param installment
+     * @return
+     */
+    public OffsetDateTime getDate(int installment) {
+        return startDate.plusMonths(installment);
+    }
+
+    /**
+     * Create the {@link Payment} of one installment
+     * @param installment
+     * @return
+     */
+    public Payment getPayment(int installment) {
+        return new Payment(
+                (float) borrowerPaymentAmounts[installment],
+                getDate(installment),
+                (float) initialOutstandingPrincipals[installment],
+                (float) interests[installment],
+                (float) principals[installment],
+                (float) remainingOutstandingPrincipals[installment]
+        );
+    }
+
+    /**
+     * Mark the schedule as shared, e.g. by a cache, so neither {@link #reset(OffsetDateTime, int)} nor
+     * {@link #setInstallment(int, double, double, double, double, double)} can change the plan of the other readers
+     * @return this schedule
+     */
+    public RepaymentSchedule share() {
+        shared = true;
+        return this;
+    }
+
+    /**
+     * Create a schedule with the same values of this one for a plan starting on another date, without copying or
+     * calculating anything. Both schedules share the same arrays, so neither of them can be modified afterwards.
+     * @param startDate
+     *          date of the first payment
+     * @return
+     */
+    public RepaymentSchedule withStartDate(OffsetDateTime startDate) {
+        shared = true;
+        return new RepaymentSchedule(this, startDate);
+    }
+
+    /**
+     * Read-only view of this schedule as a list of {@link Payment}, each element is created when it is accessed. Every
+     * {@code get} creates a new {@link Payment}, so a caller that reads the payments more than once should copy the
+     * view, e.g. {@code new ArrayList<>(payments)}. The message converters recognize the view and write the arrays.
+     * @return
+     */
+    public List<Payment> asPayments() {
+        return new PaymentView(this);
+    }
+
+    /**
+     * Schedule behind a list created by {@link #asPayments()}, so its values can be read without creating the
+     * {@link Payment} objects
+     * @param payments
+     * @return the schedule, or null when the list is not a view of a schedule
+     */
+    public static RepaymentSchedule of(List<?> payments) {
+        return payments instanceof PaymentView ? ((PaymentView) payments).schedule : null;
+    }
+
+    /**
+     * @param type
+     * @return true when the type is the class of the lists created by {@link #asPayments()}
+     */
+    public static boolean isPaymentView(Class<?> type) {
+        return type == PaymentView.class;
+    }
+
+    private void allocate(int capacity) {
+        borrowerPaymentAmounts = new double[capacity];
+        initialOutstandingPrincipals = new double[capacity];
+        interests = new double[capacity];
+        principals = new double[capacity];
+        remainingOutstandingPrincipals = new double[capacity];
+    }
+
+    private static final class PaymentView extends AbstractList<Payment> implements RandomAccess {
+
+        private final RepaymentSchedule schedule;
+
+        private PaymentView(RepaymentSchedule schedule) {
+            this.schedule = schedule;
+        }
+
+        @Override
+        public Payment get(int index) {
+            if (index < 0 || index >= schedule.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + schedule.size);
+            }
+            return schedule.getPayment(index);
+        }
+
+        @Override
+        public int size() {
+            return schedule.size;
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.cortarelli.repayment.domain;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Result of the validation of a {@link Loan}: all its violations, empty when the loan is valid
+ */
+public final class ValidationResult {
+
+    /**
+     * Result of a valid loan
+     */
+    public static final ValidationResult VALID = new ValidationResult(Collections.emptyList());
+
+    private final List<LoanViolation> violations;
+
+    public ValidationResult(List<LoanViolation> violations) {
+        this.violations = Collections.unmodifiableList(violations);
+    }
+
+    /**
+     * @return true when there is no violation
+     */
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+
+    /**
+     * Violations in the order the parameters are validated
+     * @return
+     */
+    public List<LoanViolation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Messages of all the violations, separated by a space
+     * @return
+     */
+    public String getMessage() {
+        return violations.stream().map(LoanViolation::getMessage).collect(Collectors.joining(" "));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ValidationResult)) {
+            return false;
+        }
+        ValidationResult that = (ValidationResult) o;
+        return Objects.equals(violations, that.violations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(violations);
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResult{" +
+                "violations=" + violations +
+                '}';
+    }
+}
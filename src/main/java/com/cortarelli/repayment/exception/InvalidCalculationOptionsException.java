@@ -0,0 +1,24 @@
+package com.cortarelli.repayment.exception;
+
+/**
+ * Calculation option that cannot calculate a plan. It is unchecked, as the options are rejected when they are created,
+ * before any calculation.
+ */
+public class InvalidCalculationOptionsException extends IllegalArgumentException {
+
+    private final String parameterName;
+
+    public InvalidCalculationOptionsException(String parameterName, Object value, String reason) {
+        super(String.format("The parameter %s is invalid, %s. Value: %s.", parameterName, reason, value));
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * Name of the invalid parameter
+     * @return
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.cortarelli.repayment.exception;
+
+public class InvalidGridException extends Exception {
+
+    private final String parameterName;
+
+    public InvalidGridException(String parameterName, String reason, Object value) {
+        super(String.format("The parameter %s is invalid, %s. Value: %s.", parameterName, reason, value));
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * Name of the invalid parameter
+     * @return
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.cortarelli.repayment.exception;
+
+public class InvalidInstallmentException extends Exception {
+
+    public InvalidInstallmentException(int installment, int duration) {
+        super(String.format("The installment %s is invalid, the assigned value should be between 0 and %s.", installment, duration - 1));
+    }
+
+}
@@ -2,12 +2,24 @@ package com.cortarelli.repayment.exception;
 
 public class InvalidLoanParameterException extends Exception {
 
+    private final String parameterName;
+
     public InvalidLoanParameterException(String parameterName, int value) {
         super(String.format("The parameter %s is invalid, the assigned value should be greater than zero. Value: %s.", parameterName, value));
+        this.parameterName = parameterName;
     }
 
     public InvalidLoanParameterException(String parameterName, float value) {
         super(String.format("The parameter %s is invalid, the assigned value should be greater than zero. Value: %s.", parameterName, value));
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * Name of the invalid parameter
+     * @return
+     */
+    public String getParameterName() {
+        return parameterName;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.cortarelli.repayment.exception;
+
+import com.cortarelli.repayment.domain.PlanEvent;
+
+public class InvalidPlanEventException extends Exception {
+
+    private final PlanEvent.Type type;
+
+    public InvalidPlanEventException(PlanEvent event, String reason) {
+        super(String.format("The event %s at installment %s is invalid, %s. Value: %s.", event.getType(), event.getInstallment(), reason, event.getValue()));
+        this.type = event.getType();
+    }
+
+    /**
+     * Kind of the invalid event
+     * @return
+     */
+    public PlanEvent.Type getType() {
+        return type;
+    }
+
+}
@@ -2,8 +2,19 @@ package com.cortarelli.repayment.exception;
 
 public class NullLoanParameterException extends Exception {
 
+    private final String parameterName;
+
     public NullLoanParameterException(String parameterName) {
         super(String.format("The parameter %s is invalid, the assigned value cannot be not null.", parameterName));
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * Name of the null parameter
+     * @return
+     */
+    public String getParameterName() {
+        return parameterName;
     }
 
 }
@@ -0,0 +1,12 @@
+package com.cortarelli.repayment.exception;
+
+/**
+ * Request with more loans than the ones that can be calculated on a single request
+ */
+public class TooManyLoansException extends RuntimeException {
+
+    public TooManyLoansException(int maxLoans) {
+        super(String.format("The request has too many loans, the maximum is %d.", maxLoans));
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.cortarelli.repayment.metrics;
+
+import com.cortarelli.repayment.domain.LoanViolation;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.exception.InvalidCalculationOptionsException;
+import com.cortarelli.repayment.exception.InvalidGridException;
+import com.cortarelli.repayment.exception.InvalidInstallmentException;
+import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.InvalidPlanEventException;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Meters of each stage of the repayment plan pipeline: request deserialization, loan validation, plan calculation
+ * and response serialization, besides the rejected loans and the length of the calculated plans
+ */
+@Component
+public class PlanMetrics {
+
+    static final String DESERIALIZATION = "repayment.plan.deserialization";
+    static final String VALIDATION = "repayment.plan.validation";
+    static final String CALCULATION = "repayment.plan.calculation";
+    static final String SERIALIZATION = "repayment.plan.serialization";
+    static final String REJECTIONS = "repayment.plan.rejections";
+    static final String INSTALLMENTS = "repayment.plan.installments";
+    static final String NOT_MODIFIED = "repayment.plan.not.modified";
+
+    /**
+     * Index of an element of a list parameter, e.g. rateSegments[3].duration
+     */
+    private static final Pattern INDEX = Pattern.compile("\\[\\d*]");
+
+    private final MeterRegistry registry;
+    private final Timer deserializationTimer;
+    private final Timer validationTimer;
+    private final Timer serializationTimer;
+    private final DistributionSummary installmentsSummary;
+    private final Counter notModifiedCounter;
+
+    public PlanMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.deserializationTimer = timer(DESERIALIZATION, "Time to read the request body").register(registry);
+        this.validationTimer = timer(VALIDATION, "Time to validate the loan parameters").register(registry);
+        this.serializationTimer = timer(SERIALIZATION, "Time to write the response body").register(registry);
+        this.installmentsSummary = DistributionSummary.builder(INSTALLMENTS)
+                .description("Number of installments of the calculated plans")
+                .baseUnit("installments")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.notModifiedCounter = Counter.builder(NOT_MODIFIED)
+                .description("Number of plan requests answered with not modified, without calculating the plan")
+                .register(registry);
+    }
+
+    /**
+     * Start the time measurement of a stage
+     * @return
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordDeserialization(Timer.Sample sample) {
+        sample.stop(deserializationTimer);
+    }
+
+    public void recordValidation(Timer.Sample sample) {
+        sample.stop(validationTimer);
+    }
+
+    /**
+     * @param sample
+     * @param operation
+     *          kind of calculation, e.g. plan, installment or batch
+     */
+    public void recordCalculation(Timer.Sample sample, String operation) {
+        sample.stop(timer(CALCULATION, "Time to calculate the repayment plans").tag("operation", operation).register(registry));
+    }
+
+    public void recordSerialization(Timer.Sample sample) {
+        sample.stop(serializationTimer);
+    }
+
+    /**
+     * @param installments
+     *          number of installments of a calculated plan
+     */
+    public void recordPlanLength(int installments) {
+        installmentsSummary.record(installments);
+    }
+
+    public void recordNotModified() {
+        notModifiedCounter.increment();
+    }
+
+    /**
+     * Count each violation of a rejected loan
+     * @param result
+     */
+    public void recordRejections(ValidationResult result) {
+        for (LoanViolation violation : result.getViolations()) {
+            rejectionCounter(violation.getType().name().toLowerCase(Locale.ROOT), violation.getParameterName()).increment();
+        }
+    }
+
+    public void recordRejection(InvalidLoanParameterException e) {
+        rejectionCounter("invalid", e.getParameterName()).increment();
+    }
+
+    public void recordRejection(NullLoanParameterException e) {
+        rejectionCounter("null", e.getParameterName()).increment();
+    }
+
+    public void recordRejection(InvalidInstallmentException e) {
+        rejectionCounter("out_of_range", "installment").increment();
+    }
+
+    public void recordRejection(InvalidPlanEventException e) {
+        rejectionCounter("invalid", e.getType().name().toLowerCase(Locale.ROOT)).increment();
+    }
+
+    public void recordRejection(InvalidCalculationOptionsException e) {
+        rejectionCounter("invalid", e.getParameterName()).increment();
+    }
+
+    public void recordRejection(InvalidGridException e) {
+        rejectionCounter("invalid", e.getParameterName()).increment();
+    }
+
+    /**
+     * Rejection of a parameter whose value cannot be converted to its type, e.g. an unknown constant of an enum
+     * @param parameter
+     */
+    public void recordInvalid(String parameter) {
+        rejectionCounter("invalid", parameter).increment();
+    }
+
+    /**
+     * Rejection of a parameter outside the range accepted by a calculation, e.g. the months of the portfolio cash flows
+     * @param parameter
+     */
+    public void recordOutOfRange(String parameter) {
+        rejectionCounter("out_of_range", parameter).increment();
+    }
+
+    /**
+     * Counter of one reason and parameter. The indexes of the parameter name are removed, otherwise a request with many
+     * list elements would create one time series per element.
+     * @param reason
+     * @param parameter
+     * @return
+     */
+    private Counter rejectionCounter(String reason, String parameter) {
+        return Counter.builder(REJECTIONS)
+                .description("Number of rejected loans")
+                .tag("reason", reason)
+                .tag("parameter", normalize(parameter))
+                .register(registry);
+    }
+
+    /**
+     * Parameter name without the indexes of its list elements, e.g. rateSegments.duration
+     * @param parameter
+     * @return
+     */
+    static String normalize(String parameter) {
+        return parameter.indexOf('[') < 0 ? parameter : INDEX.matcher(parameter).replaceAll("");
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram();
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.cortarelli.repayment.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that measures the time to read the request bodies and to write the response bodies
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final PlanMetrics planMetrics;
+
+    public TimedMappingJackson2HttpMessageConverter(ObjectMapper mapper, PlanMetrics planMetrics) {
+        super(mapper);
+        this.planMetrics = planMetrics;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        Timer.Sample sample = planMetrics.start();
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            planMetrics.recordDeserialization(sample);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Timer.Sample sample = planMetrics.start();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            planMetrics.recordSerialization(sample);
+        }
+    }
+
+}
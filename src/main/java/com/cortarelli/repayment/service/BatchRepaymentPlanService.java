@@ -0,0 +1,81 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+public class BatchRepaymentPlanService {
+
+    /**
+     * Number of loans calculated per pool thread before the results are handed to the consumer on
+     * {@link #calculateRepaymentPlans(List, CalculationOptions, Consumer)}
+     */
+    private static final int CHUNK_SIZE_PER_THREAD = 16;
+
+    private final CalculationRepaymentPlanService calculationRepaymentPlanService;
+    private final PlanMetrics planMetrics;
+    private final ForkJoinPool pool;
+
+    public BatchRepaymentPlanService(CalculationRepaymentPlanService calculationRepaymentPlanService, PlanMetrics planMetrics, ForkJoinPool calculationPool) {
+        this.calculationRepaymentPlanService = calculationRepaymentPlanService;
+        this.planMetrics = planMetrics;
+        this.pool = calculationPool;
+    }
+
+    /**
+     * Calculate the repayment plan of each loan in parallel. The results keep the order of the loans and a loan
+     * with invalid parameters only rejects its own result.
+     * @param loans
+     * @param options
+     * @return List of {@link PlanResult}, one per loan
+     */
+    public List<PlanResult> calculateRepaymentPlans(List<Loan> loans, CalculationOptions options) {
+        return pool.submit(() -> loans.parallelStream()
+                .map(loan -> calculateRepaymentPlan(loan, options))
+                .collect(Collectors.toList())
+        ).join();
+    }
+
+    /**
+     * Calculate the repayment plan of each loan in parallel, handing the results to the consumer in the order of the
+     * loans. The loans are calculated in chunks, so only the results of one chunk are kept in memory.
+     * @param loans
+     * @param options
+     * @param consumer
+     */
+    public void calculateRepaymentPlans(List<Loan> loans, CalculationOptions options, Consumer<PlanResult> consumer) {
+        int chunkSize = pool.getParallelism() * CHUNK_SIZE_PER_THREAD;
+        for (int from = 0; from < loans.size(); from += chunkSize) {
+            calculateRepaymentPlans(loans.subList(from, Math.min(from + chunkSize, loans.size())), options)
+                    .forEach(consumer);
+        }
+    }
+
+    /**
+     * Calculate the repayment plan of one loan of a batch, on the caller thread
+     * @param loan
+     * @param options
+     * @return {@link PlanResult} of the loan
+     */
+    public PlanResult calculateRepaymentPlan(Loan loan, CalculationOptions options) {
+        ValidationResult result = calculationRepaymentPlanService.validate(loan);
+        if (!result.isValid()) {
+            planMetrics.recordRejections(result);
+            return new PlanResult(null, result.getMessage());
+        }
+        List<Payment> plan = calculationRepaymentPlanService.calculateValidRepaymentPlan(loan, options);
+        planMetrics.recordPlanLength(plan.size());
+        return new PlanResult(plan, null);
+    }
+
+}
@@ -1,21 +1,63 @@
 package com.cortarelli.repayment.service;
 
+import com.cortarelli.repayment.exception.InvalidInstallmentException;
 import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.InvalidPlanEventException;
 import com.cortarelli.repayment.exception.NullLoanParameterException;
 import com.cortarelli.repayment.utils.Utils;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
 import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanViolation;
 import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanEvent;
+import com.cortarelli.repayment.domain.PlanSummary;
+import com.cortarelli.repayment.domain.RateSegment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.OffsetDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 @Service
 public class CalculationRepaymentPlanService {
 
+    /**
+     * Version of the calculation, part of the ETag of the plans answered by GET requests. It must change whenever a
+     * change of the calculation changes the plan of some loan, so the plans cached by clients are not reused.
+     */
+    public static final String ENGINE_VERSION = "2";
+
     private static final int DAYS_IN_MONTH = 30;
     private static final int DAYS_IN_YEAR = 360;
+    private static final int MONTHS_IN_YEAR = 12;
+    /**
+     * The {@link Arithmetic#FIXED_POINT} calculation represents the nominal rate in units of 0.0001%
+     */
+    private static final long RATE_UNITS_PER_PERCENT = 10_000;
+    private static final double CENTS = 100D;
+    private static final int CHECKPOINT_INTERVAL = 32;
+    private static final int MAX_CHECKPOINT_TABLES = 4096;
+
+    /**
+     * Checkpoint tables by loan terms. A table is calculated under the lock of its key only, so the requests of other
+     * loans are not blocked while it is calculated.
+     */
+    private final Cache<List<Object>, Checkpoints> checkpointTables = Caffeine.newBuilder()
+            .maximumSize(MAX_CHECKPOINT_TABLES)
+            .build();
 
     /**
      * Regarding the loan parameters, calculate the annuity payment
@@ -25,15 +67,40 @@ public class CalculationRepaymentPlanService {
      *          annual interest rate
      * @param loanAmount
      *          principal amount
-     * @return
+     * @return annuity, the loan amount divided by the duration when the rate is too small to change the amount
      */
     public float annuityCalculation(int duration, float nominalRate, float loanAmount) {
         // convert to monthly rate
         double monthlyRate = (nominalRate / 100) / 12;
+        if (1 + monthlyRate == 1) {
+            return Utils.round((double) loanAmount / duration);
+        }
         double annuityPayment = (monthlyRate * loanAmount / (1 - Math.pow(1 + monthlyRate, duration * -1)));
         return Utils.round(annuityPayment);
     }
 
+    /**
+     * Regarding the loan parameters, calculate the annuity payment in cents
+     * @param duration
+     *          number of installments in months
+     * @param nominalRate
+     *          annual interest rate
+     * @param loanAmountCents
+     *          principal amount in cents
+     * @param roundingMode
+     * @return annuity in cents, the loan amount divided by the duration when the rate is below one rate unit
+     */
+    public long annuityCalculation(int duration, float nominalRate, long loanAmountCents, RoundingMode roundingMode) {
+        long nominalRateUnits = toRateUnits(nominalRate);
+        if (nominalRateUnits == 0) {
+            // no interest, the annuity formula would divide zero by zero
+            return Utils.divide(loanAmountCents, duration, roundingMode);
+        }
+        double monthlyRate = (double) nominalRateUnits / (RATE_UNITS_PER_PERCENT * 100 * MONTHS_IN_YEAR);
+        double annuityPayment = (monthlyRate * loanAmountCents / (1 - Math.pow(1 + monthlyRate, duration * -1)));
+        return new BigDecimal(annuityPayment).setScale(0, roundingMode).longValueExact();
+    }
+
     /**
      * Calculate interest value
      * @param nominalRate
@@ -44,6 +111,19 @@ public class CalculationRepaymentPlanService {
         return Utils.round(((nominalRate / 100) * DAYS_IN_MONTH * initialOutstandingPrincipal) / DAYS_IN_YEAR);
     }
 
+    /**
+     * Calculate interest value in cents, using integer arithmetic only
+     * @param nominalRateUnits
+     *          annual interest rate in units of 0.0001%
+     * @param initialOutstandingPrincipalCents
+     * @param roundingMode
+     * @return interest in cents
+     */
+    public long calculateInterest(long nominalRateUnits, long initialOutstandingPrincipalCents, RoundingMode roundingMode) {
+        return Utils.divide(Math.multiplyExact(nominalRateUnits * DAYS_IN_MONTH, initialOutstandingPrincipalCents),
+                RATE_UNITS_PER_PERCENT * 100 * DAYS_IN_YEAR, roundingMode);
+    }
+
     /**
      * calculate principal value. When principal amount result exceeds the outstandingPrincipal value,
      * take outstandingPrincipal value instead.
@@ -88,55 +168,820 @@ public class CalculationRepaymentPlanService {
      *
      * @param loan
      * @throws InvalidLoanParameterException
+     *          for the first invalid parameter
+     * @throws NullLoanParameterException
+     *          for the first null parameter
      */
     public void validateLoanParameters(Loan loan) throws InvalidLoanParameterException, NullLoanParameterException {
+        ValidationResult result = validate(loan);
+        if (!result.isValid()) {
+            LoanViolation violation = result.getViolations().get(0);
+            if (violation.getType() == LoanViolation.Type.NULL) {
+                throw new NullLoanParameterException(violation.getParameterName());
+            }
+            if (violation.getValue() instanceof Integer) {
+                throw new InvalidLoanParameterException(violation.getParameterName(), violation.getValue().intValue());
+            }
+            throw new InvalidLoanParameterException(violation.getParameterName(), violation.getValue().floatValue());
+        }
+    }
+
+    /**
+     * Check all {@link Loan} parameters without throwing exceptions. Nothing is allocated for a valid loan.
+     *
+     * @param loan
+     * @return {@link ValidationResult} with all the violations of the loan
+     */
+    public ValidationResult validate(Loan loan) {
+        if (loan == null) {
+            return new ValidationResult(Collections.singletonList(new LoanViolation("loan", LoanViolation.Type.NULL, null)));
+        }
+        List<LoanViolation> violations = null;
         if (loan.getDuration() <= 0) {
-            throw new InvalidLoanParameterException("duration", loan.getDuration());
+            violations = add(violations, new LoanViolation("duration", LoanViolation.Type.INVALID, loan.getDuration()));
         }
         if (loan.getLoanAmount() <= 0.0) {
-            throw new InvalidLoanParameterException("loanAmount", loan.getLoanAmount());
+            violations = add(violations, new LoanViolation("loanAmount", LoanViolation.Type.INVALID, loan.getLoanAmount()));
         }
-        if(loan.getNominalRate() <= 0.0) {
-            throw new InvalidLoanParameterException("nominalRate", loan.getLoanAmount());
+        if (loan.getNominalRate() <= 0.0) {
+            violations = add(violations, new LoanViolation("nominalRate", LoanViolation.Type.INVALID, loan.getNominalRate()));
         }
         if (loan.getStartDate() == null) {
-            throw new NullLoanParameterException("startDate");
+            violations = add(violations, new LoanViolation("startDate", LoanViolation.Type.NULL, null));
+        }
+        List<RateSegment> rateSegments = loan.getRateSegments();
+        for (int i = 0; i < rateSegments.size(); i++) {
+            RateSegment segment = rateSegments.get(i);
+            if (segment == null) {
+                violations = add(violations, new LoanViolation("rateSegments[" + i + "]", LoanViolation.Type.NULL, null));
+                continue;
+            }
+            if (segment.getDuration() <= 0) {
+                violations = add(violations, new LoanViolation("rateSegments[" + i + "].duration", LoanViolation.Type.INVALID, segment.getDuration()));
+            }
+            if (segment.getNominalRate() <= 0.0) {
+                violations = add(violations, new LoanViolation("rateSegments[" + i + "].nominalRate", LoanViolation.Type.INVALID, segment.getNominalRate()));
+            }
         }
+        return violations == null ? ValidationResult.VALID : new ValidationResult(violations);
+    }
+
+    /**
+     * Check the installment of a valid {@link Loan} without throwing exceptions
+     *
+     * @param loan
+     * @param installment
+     *          the number of payment (starts on zero)
+     * @return {@link ValidationResult} with the violation of the installment
+     */
+    public ValidationResult validateInstallment(Loan loan, int installment) {
+        if (installment < 0 || installment >= loan.getDuration()) {
+            return new ValidationResult(Collections.singletonList(
+                    new LoanViolation("installment", LoanViolation.Type.OUT_OF_RANGE, installment, loan.getDuration() - 1)));
+        }
+        return ValidationResult.VALID;
+    }
+
+    /**
+     * Check a window of the plan of a valid {@link Loan} without throwing exceptions
+     *
+     * @param loan
+     * @param offset
+     *          first installment of the window (starts on zero)
+     * @param limit
+     *          maximum number of installments of the window
+     * @return {@link ValidationResult} with all the violations of the window
+     */
+    public ValidationResult validateWindow(Loan loan, int offset, int limit) {
+        List<LoanViolation> violations = null;
+        if (offset < 0 || offset >= loan.getDuration()) {
+            violations = add(violations, new LoanViolation("offset", LoanViolation.Type.OUT_OF_RANGE, offset, loan.getDuration() - 1));
+        }
+        if (limit <= 0) {
+            violations = add(violations, new LoanViolation("limit", LoanViolation.Type.INVALID, limit));
+        }
+        return violations == null ? ValidationResult.VALID : new ValidationResult(violations);
+    }
+
+    private static List<LoanViolation> add(List<LoanViolation> violations, LoanViolation violation) {
+        List<LoanViolation> list = violations == null ? new ArrayList<>(4) : violations;
+        list.add(violation);
+        return list;
     }
 
     /**
      * Calculate payment according to the loan parameters
      * @param loan
-     * @return List of {@link Payment}
+     * @return read-only List of {@link Payment}, see {@link #calculateRepaymentPlan(Loan, CalculationOptions)}
      */
     public List<Payment> calculateRepaymentPlan(Loan loan) throws InvalidLoanParameterException, NullLoanParameterException {
+        return calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
+    }
+
+    /**
+     * Calculate payment according to the loan parameters and calculation options.
+     *
+     * The plan is a read-only view of a {@link RepaymentSchedule}: the payments are not kept, each {@code get} creates
+     * a new {@link Payment} from the arrays of the schedule. Callers that read the payments many times, or need the
+     * same instances, should copy it into a list of their own.
+     * @param loan
+     * @param options
+     * @return read-only List of {@link Payment}
+     */
+    public List<Payment> calculateRepaymentPlan(Loan loan, CalculationOptions options) throws InvalidLoanParameterException, NullLoanParameterException {
+        return calculateRepaymentSchedule(loan, options, new RepaymentSchedule()).asPayments();
+    }
+
+    /**
+     * Calculate payment according to the loan parameters, writing the installments on the given schedule. When the
+     * schedule capacity is enough to hold the plan, no object is created during the calculation.
+     * @param loan
+     * @param schedule
+     *          schedule that will be (re)filled with the repayment plan
+     * @return the given schedule
+     */
+    public RepaymentSchedule calculateRepaymentSchedule(Loan loan, RepaymentSchedule schedule) throws InvalidLoanParameterException, NullLoanParameterException {
+        return calculateRepaymentSchedule(loan, CalculationOptions.DEFAULT, schedule);
+    }
+
+    /**
+     * Calculate payment according to the loan parameters and calculation options, writing the installments on the
+     * given schedule
+     * @param loan
+     * @param options
+     * @param schedule
+     *          schedule that will be (re)filled with the repayment plan
+     * @return the given schedule
+     */
+    public RepaymentSchedule calculateRepaymentSchedule(Loan loan, CalculationOptions options, RepaymentSchedule schedule) throws InvalidLoanParameterException, NullLoanParameterException {
+        validateLoanParameters(loan);
+        return calculateValidRepaymentSchedule(loan, options, schedule);
+    }
 
+    /**
+     * Calculate payment according to the loan parameters and calculation options, handing each installment to the
+     * sink as soon as it is calculated, so the plan does not need to be kept in memory
+     * @param loan
+     * @param options
+     * @param sink
+     */
+    public void calculateRepaymentPlan(Loan loan, CalculationOptions options, InstallmentSink sink) throws InvalidLoanParameterException, NullLoanParameterException {
+        validateLoanParameters(loan);
+        amortize(loan, options, sink);
+    }
+
+    /**
+     * Calculate the annuity and the totals of the repayment plan without creating it: the amortization loop only sums
+     * the installments in cents, so no {@link Payment} or payment date is created
+     * @param loan
+     * @param options
+     * @return {@link PlanSummary}
+     */
+    public PlanSummary calculateSummary(Loan loan, CalculationOptions options) throws InvalidLoanParameterException, NullLoanParameterException {
+        validateLoanParameters(loan);
+        double annuity = annuity(loan, options);
+        PlanTotals totals = new PlanTotals();
+        amortize(loan, options, 0, loan.getDuration(), loan.getLoanAmount(), annuity, totals);
+        return new PlanSummary((float) annuity, totals.getTotalInterest(), totals.getTotalPaid(),
+                calculatePaymentDate(loan.getStartDate(), loan.getDuration() - 1));
+    }
+
+    /**
+     * Calculate payment according to the loan parameters and calculation options as the payments are iterated, so a
+     * consumer that stops early does not calculate the rest of the plan. The amortization loop runs in blocks of
+     * {@value #CHECKPOINT_INTERVAL} installments, each one starting from the outstanding principal of the previous
+     * block, with the same rounding of {@link #calculateRepaymentPlan(Loan, CalculationOptions)}.
+     * @param loan
+     * @param options
+     * @return Iterator of {@link Payment}
+     */
+    public Iterator<Payment> iterateRepaymentPlan(Loan loan, CalculationOptions options) throws InvalidLoanParameterException, NullLoanParameterException {
         validateLoanParameters(loan);
+        return new PaymentIterator(loan, options);
+    }
 
-        float annuity = annuityCalculation(loan.getDuration(), loan.getNominalRate(), loan.getLoanAmount());
-        List<Payment> paymentPlan = new ArrayList<>();
-        float remainingOutstandingPrincipal = loan.getLoanAmount();
+    /**
+     * Apply servicing events to a repayment plan, in installment order. Each event changes the plan left by the
+     * previous one, so a rate change also applies to the installments recalculated by the following events.
+     * @param loan
+     *          terms of the plan before the first event
+     * @param options
+     * @param plan
+     * @param events
+     * @return List of {@link Payment} after the last event
+     * @throws NullLoanParameterException
+     *          for a null list of events, null event or null event type, before any event is applied
+     * @see #reamortizeRepaymentPlan(Loan, CalculationOptions, List, PlanEvent)
+     */
+    public List<Payment> reamortizeRepaymentPlan(Loan loan, CalculationOptions options, List<Payment> plan, List<PlanEvent> events) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException, InvalidPlanEventException {
+        if (events == null) {
+            throw new NullLoanParameterException("events");
+        }
+        for (int i = 0; i < events.size(); i++) {
+            validateEvent(events.get(i), "events[" + i + "]");
+        }
+        Loan terms = loan;
+        List<Payment> payments = plan;
+        int installment = 0;
+        for (PlanEvent event : events) {
+            if (event.getInstallment() < installment) {
+                throw new InvalidPlanEventException(event, "the installment cannot be before the installment " + installment + " of the previous event");
+            }
+            payments = reamortizeRepaymentPlan(terms, options, payments, event);
+            if (event.getType() == PlanEvent.Type.RATE_CHANGE) {
+                terms = new Loan(terms.getLoanAmount(), event.getValue(), terms.getDuration(), terms.getStartDate());
+            }
+            installment = event.getInstallment();
+        }
+        return payments;
+    }
 
-        for (int i = 0; i < loan.getDuration(); i++) {
+    /**
+     * Apply one servicing event to a repayment plan. The installments before the event are kept from the given plan
+     * without being copied or calculated again: only the installments from the event on are calculated, with a new
+     * annuity for the outstanding principal, rate and number of installments left at the event. Recalculating a plan
+     * therefore costs the remaining term of the loan instead of its full term. The rate segments of the loan still
+     * apply after a prepayment or a duration change, a rate change replaces them from the event on.
+     * @param loan
+     *          terms of the plan: the rates in force at the event and the start date, the duration of the plan is the
+     *          number of payments
+     * @param options
+     * @param plan
+     *          repayment plan of the loan, as calculated or after previous events
+     * @param event
+     * @return List of {@link Payment} after the event, a prepayment of the whole outstanding principal ends the plan
+     *          at the event
+     */
+    public List<Payment> reamortizeRepaymentPlan(Loan loan, CalculationOptions options, List<Payment> plan, PlanEvent event) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException, InvalidPlanEventException {
+        validateLoanParameters(loan);
+        validateEvent(event, "event");
+        int installment = event.getInstallment();
+        if (installment < 0 || installment >= plan.size()) {
+            throw new InvalidInstallmentException(installment, plan.size());
+        }
 
-            float interest = calculateInterest(loan.getNominalRate(), remainingOutstandingPrincipal);
-            float principal = calculatePrincipalValue(annuity, interest, remainingOutstandingPrincipal);
+        long outstandingPrincipalCents = Math.round(initialOutstandingPrincipal(plan, installment) * CENTS);
+        float nominalRate = loan.getNominalRate();
+        List<RateSegment> rateSegments = Collections.emptyList();
+        int duration = plan.size();
+        switch (event.getType()) {
+            case PREPAYMENT:
+                long prepaymentCents = Utils.toCents(event.getValue());
+                if (prepaymentCents <= 0 || prepaymentCents > outstandingPrincipalCents) {
+                    throw new InvalidPlanEventException(event, "the prepayment should be greater than zero and at most the outstanding principal " + outstandingPrincipalCents / CENTS);
+                }
+                outstandingPrincipalCents -= prepaymentCents;
+                rateSegments = rateSegmentsFrom(loan.getRateSegments(), installment);
+                break;
+            case RATE_CHANGE:
+                if (event.getValue() <= 0.0) {
+                    throw new InvalidPlanEventException(event, "the nominal rate should be greater than zero");
+                }
+                nominalRate = event.getValue();
+                break;
+            default:
+                if (event.getValue() != (int) event.getValue() || event.getValue() <= installment) {
+                    throw new InvalidPlanEventException(event, "the duration should be a number of installments greater than the installment");
+                }
+                duration = (int) event.getValue();
+                rateSegments = rateSegmentsFrom(loan.getRateSegments(), installment);
+        }
+
+        int remaining = outstandingPrincipalCents == 0 ? 0 : duration - installment;
+        double outstandingPrincipal = outstandingPrincipalCents / CENTS;
+        RepaymentSchedule schedule = new RepaymentSchedule(remaining);
+        schedule.reset(calculatePaymentDate(loan.getStartDate(), installment), remaining);
+        if (remaining > 0) {
+            double annuity = annuity(outstandingPrincipal, segmentRate(nominalRate, rateSegments, 0), remaining, options);
+            amortize(nominalRate, rateSegments, remaining, options, 0, remaining, outstandingPrincipal, annuity, schedule::setInstallment);
+        }
+        return new ReamortizedPlan(plan, installment, schedule, loan.getStartDate());
+    }
+
+    /**
+     * Check the event and its type are not null, the value of the event is checked by its type
+     * @param event
+     * @param parameterName
+     *          name of the event on the request
+     * @throws NullLoanParameterException
+     */
+    private static void validateEvent(PlanEvent event, String parameterName) throws NullLoanParameterException {
+        if (event == null) {
+            throw new NullLoanParameterException(parameterName);
+        }
+        if (event.getType() == null) {
+            throw new NullLoanParameterException(parameterName + ".type");
+        }
+    }
+
+    /**
+     * Rate segments of a loan from one installment on, the segment of the installment is shortened to start on it
+     * @param rateSegments
+     * @param installment
+     * @return
+     */
+    private static List<RateSegment> rateSegmentsFrom(List<RateSegment> rateSegments, int installment) {
+        List<RateSegment> remaining = new ArrayList<>(rateSegments.size());
+        int end = 0;
+        for (RateSegment segment : rateSegments) {
+            end += segment.getDuration();
+            if (end > installment) {
+                remaining.add(new RateSegment(end - Math.max(installment, end - segment.getDuration()), segment.getNominalRate()));
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Outstanding principal before one installment of a plan, without the float rounding of {@link Payment} when the
+     * plan was calculated by this service
+     * @param plan
+     * @param installment
+     * @return
+     */
+    private static double initialOutstandingPrincipal(List<Payment> plan, int installment) {
+        if (plan instanceof ReamortizedPlan) {
+            return ((ReamortizedPlan) plan).getInitialOutstandingPrincipal(installment);
+        }
+        RepaymentSchedule schedule = RepaymentSchedule.of(plan);
+        return schedule == null ? plan.get(installment).getInitialOutstandingPrincipal() : schedule.getInitialOutstandingPrincipal(installment);
+    }
+
+    /**
+     * Calculate payment of a loan already accepted by {@link #validate(Loan)}
+     * @param loan
+     * @param options
+     * @return List of {@link Payment}
+     */
+    List<Payment> calculateValidRepaymentPlan(Loan loan, CalculationOptions options) {
+        RepaymentSchedule schedule = new RepaymentSchedule(loan.getDuration());
+        schedule.reset(loan.getStartDate(), loan.getDuration());
+        amortize(loan, options, schedule::setInstallment);
+        return schedule.asPayments();
+    }
+
+    /**
+     * Calculate payment of a loan already accepted by {@link #validate(Loan)} on the given schedule
+     * @param loan
+     * @param options
+     * @param schedule
+     *          schedule that will be (re)filled with the repayment plan
+     * @return the given schedule
+     */
+    RepaymentSchedule calculateValidRepaymentSchedule(Loan loan, CalculationOptions options, RepaymentSchedule schedule) {
+        schedule.reset(loan.getStartDate(), loan.getDuration());
+        amortize(loan, options, schedule::setInstallment);
+        return schedule;
+    }
+
+    /**
+     * Calculate payment of a loan already accepted by {@link #validate(Loan)}, handing each installment to the sink
+     * @param loan
+     * @param options
+     * @param sink
+     */
+    void calculateValidRepaymentPlan(Loan loan, CalculationOptions options, InstallmentSink sink) {
+        amortize(loan, options, sink);
+    }
+
+    /**
+     * Annuity of the first installment of a loan already accepted by {@link #validate(Loan)}, in the arithmetic of
+     * the calculation options
+     * @param loan
+     * @param options
+     * @return annuity
+     */
+    double calculateValidAnnuity(Loan loan, CalculationOptions options) {
+        return annuity(loan, options);
+    }
+
+    /**
+     * Calculate payment of a loan already accepted by {@link #validate(Loan)} from its annuity, handing each
+     * installment to the sink. The annuity of {@link #calculateValidAnnuity(Loan, CalculationOptions)} is not
+     * calculated again.
+     * @param loan
+     * @param options
+     * @param annuity
+     * @param sink
+     */
+    void calculateValidRepaymentPlan(Loan loan, CalculationOptions options, double annuity, InstallmentSink sink) {
+        amortize(loan, options, 0, loan.getDuration(), loan.getLoanAmount(), annuity, sink);
+    }
+
+    /**
+     * Calculate one installment of the plan according to the loan parameters and calculation options.
+     *
+     * The outstanding principal and the annuity of every {@value #CHECKPOINT_INTERVAL}th installment are kept in a
+     * checkpoint table per loan terms (start date excluded), so the installment is calculated from the closest previous checkpoint
+     * with the same rounding of {@link #calculateRepaymentPlan(Loan, CalculationOptions)}, instead of calculating all
+     * the previous installments. The table of a loan is calculated on its first request.
+     * @param loan
+     * @param options
+     * @param installment
+     *          the number of payment (starts on zero)
+     * @return {@link Payment} of the installment
+     */
+    public Payment calculateInstallment(Loan loan, CalculationOptions options, int installment) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException {
+        validateLoanParameters(loan);
+        if (installment < 0 || installment >= loan.getDuration()) {
+            throw new InvalidInstallmentException(installment, loan.getDuration());
+        }
+        RepaymentSchedule schedule = new RepaymentSchedule(1);
+        calculateWindow(loan, options, installment, installment + 1, schedule);
+        return schedule.getPayment(0);
+    }
+
+    /**
+     * Calculate a window of the plan according to the loan parameters and calculation options, from the installment
+     * {@code offset} until {@code limit} installments later or the end of the plan. The window starts from the
+     * checkpoint of {@link #calculateInstallment(Loan, CalculationOptions, int)} and the loop stops on its last
+     * installment, so the payments before and after the window are not created.
+     * @param loan
+     * @param options
+     * @param offset
+     *          first installment of the window (starts on zero)
+     * @param limit
+     *          maximum number of installments of the window
+     * @return read-only List of {@link Payment} of the window, see {@link #calculateRepaymentPlan(Loan, CalculationOptions)}
+     */
+    public List<Payment> calculateRepaymentPlan(Loan loan, CalculationOptions options, int offset, int limit) throws InvalidLoanParameterException, NullLoanParameterException, InvalidInstallmentException {
+        validateLoanParameters(loan);
+        if (offset < 0 || offset >= loan.getDuration()) {
+            throw new InvalidInstallmentException(offset, loan.getDuration());
+        }
+        if (limit <= 0) {
+            throw new InvalidLoanParameterException("limit", limit);
+        }
+        int to = (int) Math.min((long) offset + limit, loan.getDuration());
+        RepaymentSchedule schedule = new RepaymentSchedule(to - offset);
+        calculateWindow(loan, options, offset, to, schedule);
+        return schedule.asPayments();
+    }
+
+    /**
+     * Calculate the installments from {@code from} (inclusive) until {@code to} (exclusive) on the schedule. A window
+     * inside the first block of installments is calculated from the loan itself, without the checkpoint table.
+     * @param loan
+     * @param options
+     * @param from
+     * @param to
+     * @param schedule
+     */
+    private void calculateWindow(Loan loan, CalculationOptions options, int from, int to, RepaymentSchedule schedule) {
+        // the schedule holds only the window, so its first payment date is the date of the first installment of the window
+        schedule.reset(calculatePaymentDate(loan.getStartDate(), from), to - from);
+        InstallmentSink sink = (i, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal) -> {
+            if (i >= from) {
+                schedule.setInstallment(i - from, borrowerPaymentAmount, initialOutstandingPrincipal, interest,
+                        principal, remainingOutstandingPrincipal);
+            }
+        };
+        if (from < CHECKPOINT_INTERVAL) {
+            amortize(loan, options, 0, to, loan.getLoanAmount(), annuity(loan, options), sink);
+            return;
+        }
+        List<Object> terms = Arrays.asList(loan.getLoanAmount(), loan.getNominalRate(), loan.getDuration(), loan.getRateSegments(), options);
+        Checkpoints checkpoints = checkpointTables.get(terms, key -> calculateCheckpoints(loan, options));
+        int checkpoint = from / CHECKPOINT_INTERVAL;
+        amortize(loan, options, checkpoint * CHECKPOINT_INTERVAL, to, checkpoints.outstandingPrincipals[checkpoint],
+                checkpoints.annuities[checkpoint], sink);
+    }
+
+    /**
+     * Outstanding principal and annuity before each {@value #CHECKPOINT_INTERVAL}th installment
+     * @param loan
+     * @param options
+     * @return checkpoint table
+     */
+    private Checkpoints calculateCheckpoints(Loan loan, CalculationOptions options) {
+        Checkpoints checkpoints = new Checkpoints((loan.getDuration() - 1) / CHECKPOINT_INTERVAL + 1);
+        checkpoints.outstandingPrincipals[0] = loan.getLoanAmount();
+        checkpoints.annuities[0] = annuity(loan, options);
+        for (int checkpoint = 1; checkpoint < checkpoints.annuities.length; checkpoint++) {
+            int index = checkpoint;
+            checkpoints.annuities[index] = amortize(loan, options, (index - 1) * CHECKPOINT_INTERVAL, index * CHECKPOINT_INTERVAL,
+                    checkpoints.outstandingPrincipals[index - 1], checkpoints.annuities[index - 1],
+                    (i, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal) ->
+                            checkpoints.outstandingPrincipals[index] = remainingOutstandingPrincipal);
+        }
+        return checkpoints;
+    }
+
+    private void amortize(Loan loan, CalculationOptions options, InstallmentSink sink) {
+        amortize(loan, options, 0, loan.getDuration(), loan.getLoanAmount(), annuity(loan, options), sink);
+    }
+
+    /**
+     * Amortization loop of the loan, from installment {@code from} (inclusive) until installment {@code to} (exclusive)
+     * @param loan
+     * @param options
+     * @param from
+     * @param to
+     * @param outstandingPrincipal
+     *          outstanding principal before the installment {@code from}
+     * @param annuity
+     *          annuity in force before the installment {@code from}
+     * @param sink
+     * @return annuity in force after the installment {@code to - 1}, to continue the loop from installment {@code to}
+     */
+    private double amortize(Loan loan, CalculationOptions options, int from, int to, double outstandingPrincipal,
+                            double annuity, InstallmentSink sink) {
+        return amortize(loan.getNominalRate(), loan.getRateSegments(), loan.getDuration(), options, from, to,
+                outstandingPrincipal, annuity, sink);
+    }
+
+    /**
+     * Annuity of the first installment of the loan, calculated with the rate of its first rate segment
+     * @param loan
+     * @param options
+     * @return annuity
+     */
+    private double annuity(Loan loan, CalculationOptions options) {
+        return annuity(loan.getLoanAmount(), segmentRate(loan.getNominalRate(), loan.getRateSegments(), 0), loan.getDuration(), options);
+    }
+
+    /**
+     * Annuity in the arithmetic of the calculation options
+     * @param loanAmount
+     *          principal amount, the cents of a {@link Arithmetic#FIXED_POINT} calculation are kept
+     * @param nominalRate
+     * @param duration
+     * @param options
+     * @return annuity
+     */
+    private double annuity(double loanAmount, float nominalRate, int duration, CalculationOptions options) {
+        if (options.getArithmetic() == Arithmetic.FIXED_POINT) {
+            return annuityCalculation(duration, nominalRate, Math.round(loanAmount * CENTS), options.getRoundingMode()) / CENTS;
+        }
+        return annuityCalculation(duration, nominalRate, (float) loanAmount);
+    }
+
+    /**
+     * Dispatch the amortization loop to the arithmetic of the calculation options
+     * @param nominalRate
+     *          rate after the rate segments
+     * @param rateSegments
+     * @param duration
+     *          number of installments of the plan
+     * @param options
+     * @param from
+     * @param to
+     * @param outstandingPrincipal
+     *          outstanding principal before the installment {@code from}
+     * @param annuity
+     *          annuity in force before the installment {@code from}
+     * @param sink
+     * @return annuity in force after the installment {@code to - 1}
+     */
+    private double amortize(float nominalRate, List<RateSegment> rateSegments, int duration, CalculationOptions options,
+                            int from, int to, double outstandingPrincipal, double annuity, InstallmentSink sink) {
+        if (options.getArithmetic() == Arithmetic.FIXED_POINT) {
+            return amortize(nominalRate, rateSegments, duration, Math.round(annuity * CENTS), options.getRoundingMode(),
+                    from, to, Math.round(outstandingPrincipal * CENTS), sink) / CENTS;
+        }
+        return amortize(nominalRate, rateSegments, duration, (float) annuity, from, to, (float) outstandingPrincipal, sink);
+    }
+
+    /**
+     * Amortization loop, from installment {@code from} (inclusive) until installment {@code to} (exclusive). On the
+     * first installment of each rate segment, the annuity is calculated again for the outstanding principal and the
+     * installments left at the rate of the segment. The loop only compares the installment with the end of the current
+     * segment, so the segments cost nothing to a fixed rate loan.
+     * @param nominalRate
+     *          rate after the rate segments
+     * @param rateSegments
+     * @param duration
+     *          number of installments of the plan
+     * @param annuity
+     *          annuity in force before the installment {@code from}
+     * @param from
+     * @param to
+     * @param outstandingPrincipal
+     *          outstanding principal before the installment {@code from}
+     * @param sink
+     * @return annuity in force after the installment {@code to - 1}
+     */
+    private float amortize(float nominalRate, List<RateSegment> rateSegments, int duration, float annuity, int from,
+                           int to, float outstandingPrincipal, InstallmentSink sink) {
+        float remainingOutstandingPrincipal = outstandingPrincipal;
+        // the segment ending on the installment from is the current one, so the next segment starts in the loop
+        int segment = 0;
+        int segmentEnd = segmentEnd(rateSegments, 0, 0);
+        while (segmentEnd < from) {
+            segmentEnd = segmentEnd(rateSegments, ++segment, segmentEnd);
+        }
+        float segmentRate = segmentRate(nominalRate, rateSegments, segment);
+        float segmentAnnuity = annuity;
+
+        for (int i = from; i < to; i++) {
+
+            if (i == segmentEnd) {
+                segmentEnd = segmentEnd(rateSegments, ++segment, segmentEnd);
+                segmentRate = segmentRate(nominalRate, rateSegments, segment);
+                segmentAnnuity = annuityCalculation(duration - i, segmentRate, remainingOutstandingPrincipal);
+            }
+
+            float interest = calculateInterest(segmentRate, remainingOutstandingPrincipal);
+            float principal = calculatePrincipalValue(segmentAnnuity, interest, remainingOutstandingPrincipal);
             float borrowerPaymentAmount = calculateBorrowerPaymentAmount(principal, interest);
             float initialOutstandingPrincipal = remainingOutstandingPrincipal;
             remainingOutstandingPrincipal = Utils.round(remainingOutstandingPrincipal - principal);
-            OffsetDateTime paymentDate = calculatePaymentDate(loan.getStartDate(), i);
 
-            paymentPlan.add(new Payment(
+            sink.accept(
+                    i,
                     borrowerPaymentAmount,
-                    paymentDate,
                     initialOutstandingPrincipal,
                     interest,
                     principal,
                     remainingOutstandingPrincipal
-            ));
+            );
+        }
+        return segmentAnnuity;
+    }
+
+    /**
+     * Amortization loop in cents, from installment {@code from} (inclusive) until installment {@code to} (exclusive).
+     * Only the interest and the annuity of each rate segment are rounded, the remaining values are exact.
+     * @param nominalRate
+     *          rate after the rate segments
+     * @param rateSegments
+     * @param duration
+     *          number of installments of the plan
+     * @param annuity
+     *          annuity in cents in force before the installment {@code from}
+     * @param roundingMode
+     * @param from
+     * @param to
+     * @param outstandingPrincipal
+     *          outstanding principal in cents before the installment {@code from}
+     * @param sink
+     * @return annuity in cents in force after the installment {@code to - 1}
+     */
+    private long amortize(float nominalRate, List<RateSegment> rateSegments, int duration, long annuity,
+                          RoundingMode roundingMode, int from, int to, long outstandingPrincipal, InstallmentSink sink) {
+        long remainingOutstandingPrincipal = outstandingPrincipal;
+        int segment = 0;
+        int segmentEnd = segmentEnd(rateSegments, 0, 0);
+        while (segmentEnd < from) {
+            segmentEnd = segmentEnd(rateSegments, ++segment, segmentEnd);
+        }
+        float segmentRate = segmentRate(nominalRate, rateSegments, segment);
+        long nominalRateUnits = toRateUnits(segmentRate);
+        long segmentAnnuity = annuity;
+
+        for (int i = from; i < to; i++) {
+
+            if (i == segmentEnd) {
+                segmentEnd = segmentEnd(rateSegments, ++segment, segmentEnd);
+                segmentRate = segmentRate(nominalRate, rateSegments, segment);
+                nominalRateUnits = toRateUnits(segmentRate);
+                segmentAnnuity = annuityCalculation(duration - i, segmentRate, remainingOutstandingPrincipal, roundingMode);
+            }
+
+            long interest = calculateInterest(nominalRateUnits, remainingOutstandingPrincipal, roundingMode);
+            long principal = Math.min(segmentAnnuity - interest, remainingOutstandingPrincipal);
+            long initialOutstandingPrincipal = remainingOutstandingPrincipal;
+            remainingOutstandingPrincipal -= principal;
+
+            sink.accept(
+                    i,
+                    (principal + interest) / CENTS,
+                    initialOutstandingPrincipal / CENTS,
+                    interest / CENTS,
+                    principal / CENTS,
+                    remainingOutstandingPrincipal / CENTS
+            );
+        }
+        return segmentAnnuity;
+    }
+
+    /**
+     * Installment after the last one of a rate segment
+     * @param rateSegments
+     * @param segment
+     * @param start
+     *          first installment of the segment
+     * @return end of the segment, or {@link Integer#MAX_VALUE} for the nominal rate after the segments
+     */
+    private static int segmentEnd(List<RateSegment> rateSegments, int segment, int start) {
+        return segment < rateSegments.size() ? start + rateSegments.get(segment).getDuration() : Integer.MAX_VALUE;
+    }
+
+    private static float segmentRate(float nominalRate, List<RateSegment> rateSegments, int segment) {
+        return segment < rateSegments.size() ? rateSegments.get(segment).getNominalRate() : nominalRate;
+    }
+
+    private static long toRateUnits(float nominalRate) {
+        return Math.round(nominalRate * (double) RATE_UNITS_PER_PERCENT);
+    }
+
+    /**
+     * Checkpoint table of one loan terms, the annuity changes between checkpoints when the loan has rate segments
+     */
+    private static final class Checkpoints {
+
+        private final double[] outstandingPrincipals;
+        private final double[] annuities;
+
+        private Checkpoints(int size) {
+            this.outstandingPrincipals = new double[size];
+            this.annuities = new double[size];
         }
+    }
+
+    /**
+     * Plan after a servicing event: the payments before the event are read from the previous plan, the following
+     * ones from the schedule calculated for the event. The payment dates are always calculated from the start date
+     * of the loan, so an end of month start date keeps its day of month after the event.
+     */
+    private static final class ReamortizedPlan extends AbstractList<Payment> implements RandomAccess {
+
+        private final List<Payment> plan;
+        private final int installment;
+        private final RepaymentSchedule schedule;
+        private final OffsetDateTime startDate;
 
-        return paymentPlan;
+        private ReamortizedPlan(List<Payment> plan, int installment, RepaymentSchedule schedule, OffsetDateTime startDate) {
+            this.plan = plan;
+            this.installment = installment;
+            this.schedule = schedule;
+            this.startDate = startDate;
+        }
+
+        private double getInitialOutstandingPrincipal(int index) {
+            if (index < installment) {
+                return initialOutstandingPrincipal(plan, index);
+            }
+            return schedule.getInitialOutstandingPrincipal(index - installment);
+        }
+
+        @Override
+        public Payment get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            if (index < installment) {
+                return plan.get(index);
+            }
+            int i = index - installment;
+            return new Payment(
+                    (float) schedule.getBorrowerPaymentAmount(i),
+                    startDate.plusMonths(index),
+                    (float) schedule.getInitialOutstandingPrincipal(i),
+                    (float) schedule.getInterest(i),
+                    (float) schedule.getPrincipal(i),
+                    (float) schedule.getRemainingOutstandingPrincipal(i)
+            );
+        }
+
+        @Override
+        public int size() {
+            return installment + schedule.size();
+        }
+    }
+
+    private final class PaymentIterator implements Iterator<Payment> {
+
+        private final Loan loan;
+        private final CalculationOptions options;
+        private final List<Payment> block = new ArrayList<>(CHECKPOINT_INTERVAL);
+        private int installment;
+        private double outstandingPrincipal;
+        private double annuity;
+
+        private PaymentIterator(Loan loan, CalculationOptions options) {
+            this.loan = loan;
+            this.options = options;
+            this.outstandingPrincipal = loan.getLoanAmount();
+            this.annuity = annuity(loan, options);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return installment < loan.getDuration();
+        }
+
+        @Override
+        public Payment next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (installment % CHECKPOINT_INTERVAL == 0) {
+                block.clear();
+                annuity = amortize(loan, options, installment, Math.min(installment + CHECKPOINT_INTERVAL, loan.getDuration()),
+                        outstandingPrincipal, annuity, (i, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal,
+                                               remainingOutstandingPrincipal) -> {
+                            block.add(new Payment((float) borrowerPaymentAmount,
+                                    calculatePaymentDate(loan.getStartDate(), i),
+                                    (float) initialOutstandingPrincipal,
+                                    (float) interest,
+                                    (float) principal,
+                                    (float) remainingOutstandingPrincipal));
+                            outstandingPrincipal = remainingOutstandingPrincipal;
+                        });
+            }
+            return block.get(installment++ % CHECKPOINT_INTERVAL);
+        }
 
     }
 
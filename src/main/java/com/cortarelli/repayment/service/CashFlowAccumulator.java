@@ -0,0 +1,160 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.MonthlyCashFlow;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sum of the installments of many repayment plans per calendar month, kept in primitive arrays indexed by month. The
+ * amounts are summed in cents, so the result does not depend on the order the plans are accumulated or merged.
+ */
+final class CashFlowAccumulator {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double CENTS = 100D;
+    /**
+     * First and last months of the payments that can be accumulated, from 1900 until 2199, so the arrays hold at most
+     * 3600 months whatever the start dates and durations of the loans
+     */
+    static final long MIN_MONTH = 1900 * 12L;
+    static final long MAX_MONTH = 2200 * 12L - 1;
+
+    /**
+     * Month (years * 12 + month - 1) of the first position of the arrays
+     */
+    private long firstMonth;
+    private long minMonth = Long.MAX_VALUE;
+    private long maxMonth = Long.MIN_VALUE;
+    private int[] payments = new int[0];
+    private long[] interests = new long[0];
+    private long[] principals = new long[0];
+    private long[] remainingOutstandingPrincipals = new long[0];
+    private int loans;
+    private int rejectedLoans;
+
+    /**
+     * Sink that accumulates the installments of one plan
+     * @param startDate
+     *          date of the first payment of the plan
+     * @param duration
+     *          number of installments of the plan
+     * @return
+     */
+    InstallmentSink loanSink(OffsetDateTime startDate, int duration) {
+        long startMonth = month(startDate);
+        include(startMonth, startMonth + duration - 1);
+        loans++;
+        int offset = (int) (startMonth - firstMonth);
+        return (installment, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal) -> {
+            int index = offset + installment;
+            payments[index]++;
+            interests[index] += Math.round(interest * CENTS);
+            principals[index] += Math.round(principal * CENTS);
+            remainingOutstandingPrincipals[index] += Math.round(remainingOutstandingPrincipal * CENTS);
+        };
+    }
+
+    /**
+     * @param startDate
+     *          date of the first payment of the plan
+     * @param duration
+     *          number of installments of the plan
+     * @return true when all the payments of the plan are between {@link #MIN_MONTH} and {@link #MAX_MONTH}
+     */
+    static boolean accepts(OffsetDateTime startDate, int duration) {
+        long startMonth = month(startDate);
+        return startMonth >= MIN_MONTH && startMonth + duration - 1 <= MAX_MONTH;
+    }
+
+    private static long month(OffsetDateTime date) {
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    void reject() {
+        rejectedLoans++;
+    }
+
+    /**
+     * Add the sums of another accumulator to this one
+     * @param other
+     */
+    void merge(CashFlowAccumulator other) {
+        loans += other.loans;
+        rejectedLoans += other.rejectedLoans;
+        if (other.minMonth > other.maxMonth) {
+            return;
+        }
+        include(other.minMonth, other.maxMonth);
+        int offset = (int) (other.firstMonth - firstMonth);
+        for (int i = (int) (other.minMonth - other.firstMonth); i <= (int) (other.maxMonth - other.firstMonth); i++) {
+            payments[offset + i] += other.payments[i];
+            interests[offset + i] += other.interests[i];
+            principals[offset + i] += other.principals[i];
+            remainingOutstandingPrincipals[offset + i] += other.remainingOutstandingPrincipals[i];
+        }
+    }
+
+    /**
+     * @return the cash flows of each month from the first until the last accumulated month
+     */
+    PortfolioCashFlow toPortfolioCashFlow() {
+        List<MonthlyCashFlow> cashFlows = new ArrayList<>();
+        for (long month = minMonth; month <= maxMonth; month++) {
+            int i = (int) (month - firstMonth);
+            cashFlows.add(new MonthlyCashFlow(
+                    YearMonth.of((int) Math.floorDiv(month, 12), (int) Math.floorMod(month, 12) + 1),
+                    payments[i],
+                    BigDecimal.valueOf(interests[i], 2),
+                    BigDecimal.valueOf(principals[i], 2),
+                    BigDecimal.valueOf(remainingOutstandingPrincipals[i], 2)
+            ));
+        }
+        return new PortfolioCashFlow(loans, rejectedLoans, cashFlows);
+    }
+
+    /**
+     * Grow the arrays, when needed, to hold the months from {@code from} until {@code to}
+     * @param from
+     * @param to
+     */
+    private void include(long from, long to) {
+        if (payments.length == 0) {
+            firstMonth = from;
+            allocate(Math.max(INITIAL_CAPACITY, (int) (to - from + 1)), 0);
+        } else if (from < firstMonth || to >= firstMonth + payments.length) {
+            long newFirstMonth = Math.min(from, firstMonth);
+            long newLastMonth = Math.max(to, firstMonth + payments.length - 1);
+            int capacity = Math.max(payments.length * 2, (int) (newLastMonth - newFirstMonth + 1));
+            int shift = (int) (firstMonth - newFirstMonth);
+            firstMonth = newFirstMonth;
+            allocate(capacity, shift);
+        }
+        minMonth = Math.min(minMonth, from);
+        maxMonth = Math.max(maxMonth, to);
+    }
+
+    private void allocate(int capacity, int shift) {
+        payments = copy(payments, capacity, shift);
+        interests = copy(interests, capacity, shift);
+        principals = copy(principals, capacity, shift);
+        remainingOutstandingPrincipals = copy(remainingOutstandingPrincipals, capacity, shift);
+    }
+
+    private static int[] copy(int[] values, int capacity, int shift) {
+        int[] copy = new int[capacity];
+        System.arraycopy(values, 0, copy, shift, values.length);
+        return copy;
+    }
+
+    private static long[] copy(long[] values, int capacity, int shift) {
+        long[] copy = new long[capacity];
+        System.arraycopy(values, 0, copy, shift, values.length);
+        return copy;
+    }
+
+}
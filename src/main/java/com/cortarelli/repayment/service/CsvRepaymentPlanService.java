@@ -0,0 +1,168 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.store.LoanCsvReader;
+import com.cortarelli.repayment.utils.Utils;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Calculate the repayment plans of loans read from CSV, writing the payments as CSV:
+ *
+ * <pre>
+ * loanId,loanAmount,nominalRate,duration,startDate
+ * A1,5000,5.0,24,2018-01-01T00:00:01Z
+ * </pre>
+ *
+ * <pre>
+ * loanId,installment,date,borrowerPaymentAmount,initialOutstandingPrincipal,interest,principal,remainingOutstandingPrincipal,error
+ * A1,0,2018-01-01T00:00:01Z,219.36,5000.0,20.83,198.53,4801.47,
+ * </pre>
+ *
+ * The input is read on the caller thread in chunks of lines, each chunk is parsed, calculated and written to bytes by
+ * a pool task, and the caller writes the finished chunks in the order they were read. At most
+ * {@value #CHUNKS_PER_THREAD} chunks per pool thread are in flight, so the memory does not depend on the size of the
+ * input and reading stops while the output is not consumed.
+ *
+ * The payment dates are written in UTC, the months are still added on the offset of the start date, and the amounts
+ * with the fixed scale of {@link Utils#appendAmount(StringBuilder, double)}, so large amounts are not written in
+ * scientific notation and the cents of {@link com.cortarelli.repayment.domain.Arithmetic#FIXED_POINT} plans are kept.
+ *
+ * A line that is not a loan, or a loan with invalid parameters, is answered by one line with only the loan id and the
+ * error, the other loans are not affected.
+ */
+@Service
+public class CsvRepaymentPlanService {
+
+    public static final String LOAN_HEADER = "loanId," + LoanCsvReader.HEADER;
+    public static final String PAYMENT_HEADER = "loanId,installment,date,borrowerPaymentAmount,initialOutstandingPrincipal," +
+            "interest,principal,remainingOutstandingPrincipal,error";
+
+    /**
+     * Number of input lines of each pool task
+     */
+    private static final int CHUNK_SIZE = 256;
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    private final CalculationRepaymentPlanService calculationRepaymentPlanService;
+    private final PlanMetrics planMetrics;
+    private final ForkJoinPool pool;
+
+    public CsvRepaymentPlanService(CalculationRepaymentPlanService calculationRepaymentPlanService, PlanMetrics planMetrics, ForkJoinPool calculationPool) {
+        this.calculationRepaymentPlanService = calculationRepaymentPlanService;
+        this.planMetrics = planMetrics;
+        this.pool = calculationPool;
+    }
+
+    /**
+     * Calculate the repayment plan of each loan of the CSV input, writing the payments in the order of the loans
+     * @param csv
+     *          loans, the header line is optional
+     * @param output
+     *          payments, starting with the header line
+     * @param options
+     */
+    public void calculateRepaymentPlans(InputStream csv, OutputStream output, CalculationOptions options) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        output.write((PAYMENT_HEADER + '\n').getBytes(StandardCharsets.UTF_8));
+
+        int maxChunksInFlight = pool.getParallelism() * CHUNKS_PER_THREAD;
+        Deque<CompletableFuture<byte[]>> chunks = new ArrayDeque<>(maxChunksInFlight);
+        List<String> lines = new ArrayList<>(CHUNK_SIZE);
+        long firstLineNumber = 1;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lines.add(line);
+            if (lines.size() == CHUNK_SIZE) {
+                submit(chunks, lines, firstLineNumber, options);
+                firstLineNumber += CHUNK_SIZE;
+                lines = new ArrayList<>(CHUNK_SIZE);
+                if (chunks.size() == maxChunksInFlight) {
+                    output.write(chunks.poll().join());
+                }
+            }
+        }
+        submit(chunks, lines, firstLineNumber, options);
+        while (!chunks.isEmpty()) {
+            output.write(chunks.poll().join());
+        }
+    }
+
+    private void submit(Deque<CompletableFuture<byte[]>> chunks, List<String> lines, long firstLineNumber, CalculationOptions options) {
+        chunks.add(CompletableFuture.supplyAsync(() -> calculateChunk(lines, firstLineNumber, options), pool));
+    }
+
+    private byte[] calculateChunk(List<String> lines, long firstLineNumber, CalculationOptions options) {
+        StringBuilder csv = new StringBuilder(lines.size() * 128);
+        for (int i = 0; i < lines.size(); i++) {
+            long lineNumber = firstLineNumber + i;
+            String line = lines.get(i);
+            if (line.trim().isEmpty() || lineNumber == 1 && line.trim().equals(LOAN_HEADER)) {
+                continue;
+            }
+            String[] values = line.split(",", -1);
+            String loanId = field(values[0].trim());
+            Loan loan;
+            try {
+                loan = LoanCsvReader.parse(values, 1, lineNumber);
+            } catch (IllegalArgumentException e) {
+                appendError(csv, loanId, e.getMessage());
+                continue;
+            }
+            ValidationResult result = calculationRepaymentPlanService.validate(loan);
+            if (!result.isValid()) {
+                planMetrics.recordRejections(result);
+                appendError(csv, loanId, result.getMessage());
+                continue;
+            }
+            OffsetDateTime startDate = loan.getStartDate();
+            calculationRepaymentPlanService.calculateValidRepaymentPlan(loan, options, (installment, borrowerPaymentAmount,
+                    initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal) -> {
+                csv.append(loanId).append(',')
+                        .append(installment).append(',')
+                        .append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(startDate.plusMonths(installment).withOffsetSameInstant(ZoneOffset.UTC))).append(',');
+                Utils.appendAmount(csv, borrowerPaymentAmount).append(',');
+                Utils.appendAmount(csv, initialOutstandingPrincipal).append(',');
+                Utils.appendAmount(csv, interest).append(',');
+                Utils.appendAmount(csv, principal).append(',');
+                Utils.appendAmount(csv, remainingOutstandingPrincipal).append(",\n");
+            });
+            planMetrics.recordPlanLength(loan.getDuration());
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendError(StringBuilder csv, String loanId, String message) {
+        csv.append(loanId).append(",,,,,,,,").append(quote(message)).append('\n');
+    }
+
+    /**
+     * @param value
+     * @return the value quoted when it has quotes, the values are split on commas so they never have one
+     */
+    private static String field(String value) {
+        return value.indexOf('"') < 0 ? value : quote(value);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.cortarelli.repayment.service;
+
+/**
+ * Receives each installment calculated by the amortization loop as primitive values, so the caller decides
+ * whether (and how) the installment is stored, written or aggregated.
+ *
+ * The values do not depend on the start date of the loan, the payment date of an installment is the start date plus
+ * the installment number in months (see {@link CalculationRepaymentPlanService#calculatePaymentDate}).
+ */
+@FunctionalInterface
+public interface InstallmentSink {
+
+    /**
+     * @param installment
+     *          the number of payment (starts on zero)
+     * @param borrowerPaymentAmount
+     * @param initialOutstandingPrincipal
+     * @param interest
+     * @param principal
+     * @param remainingOutstandingPrincipal
+     */
+    void accept(int installment, double borrowerPaymentAmount, double initialOutstandingPrincipal,
+                double interest, double principal, double remainingOutstandingPrincipal);
+
+}
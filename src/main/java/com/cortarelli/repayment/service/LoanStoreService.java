@@ -0,0 +1,104 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.config.LoanStoreProperties;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanStoreStatistics;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import com.cortarelli.repayment.store.LoanCsvReader;
+import com.cortarelli.repayment.store.LoanStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+/**
+ * Imports loans into the {@link LoanStore} and calculates the plans and cash flows of all the stored loans, reading
+ * them from the mapped file instead of the heap
+ */
+@Service
+@ConditionalOnProperty(prefix = "repayment.loan-store", name = "enabled", havingValue = "true")
+public class LoanStoreService {
+
+    private final LoanStore store;
+    private final BatchRepaymentPlanService batchRepaymentPlanService;
+    private final PortfolioCashFlowService portfolioCashFlowService;
+    private final ObjectMapper mapper;
+
+    public LoanStoreService(LoanStoreProperties properties,
+                            BatchRepaymentPlanService batchRepaymentPlanService,
+                            PortfolioCashFlowService portfolioCashFlowService,
+                            ObjectMapper mapper) throws IOException {
+        this.store = LoanStore.open(Paths.get(properties.getPath()));
+        this.batchRepaymentPlanService = batchRepaymentPlanService;
+        this.portfolioCashFlowService = portfolioCashFlowService;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Append the loans of a JSON array, read one at a time from the stream
+     * @param json
+     * @return number of appended loans
+     * @throws JsonProcessingException if the content is not a list of loans, the loans before the invalid one are kept
+     */
+    public long importJson(InputStream json) throws IOException {
+        try (MappingIterator<Loan> loans = mapper.readerFor(Loan.class).readValues(json)) {
+            return store.append(loans);
+        } catch (RuntimeException e) {
+            // the iterator wraps the parsing and reading errors on unchecked exceptions
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Append the loans of CSV lines (see {@link LoanCsvReader}), read one at a time from the stream
+     * @param csv
+     * @return number of appended loans
+     * @throws IllegalArgumentException if a line is not a loan, the loans before the invalid one are kept
+     */
+    public long importCsv(InputStream csv) throws IOException {
+        return store.append(new LoanCsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))));
+    }
+
+    public LoanStoreStatistics getStatistics() {
+        return store.getStatistics();
+    }
+
+    /**
+     * Calculate the plans of all the stored loans, see {@link BatchRepaymentPlanService#calculateRepaymentPlans(java.util.List, CalculationOptions, Consumer)}
+     * @param options
+     * @param consumer
+     */
+    public void calculateRepaymentPlans(CalculationOptions options, Consumer<PlanResult> consumer) throws IOException {
+        batchRepaymentPlanService.calculateRepaymentPlans(store.asList(), options, consumer);
+    }
+
+    /**
+     * Calculate the cash flows of all the stored loans, see {@link PortfolioCashFlowService#calculateCashFlows}
+     * @param options
+     * @return {@link PortfolioCashFlow}
+     */
+    public PortfolioCashFlow calculateCashFlows(CalculationOptions options) throws IOException {
+        return portfolioCashFlowService.calculateCashFlows(store.asList(), options);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.GridCell;
+import com.cortarelli.repayment.domain.GridRange;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanGrid;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.exception.InvalidGridException;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+public class PlanGridService {
+
+    /**
+     * Maximum number of cells of a grid, so one request can not hold the pool for long
+     */
+    static final int MAX_CELLS = 10_000;
+
+    private final CalculationRepaymentPlanService calculationRepaymentPlanService;
+    private final PlanMetrics planMetrics;
+    private final ForkJoinPool pool;
+
+    public PlanGridService(CalculationRepaymentPlanService calculationRepaymentPlanService, PlanMetrics planMetrics, ForkJoinPool calculationPool) {
+        this.calculationRepaymentPlanService = calculationRepaymentPlanService;
+        this.planMetrics = planMetrics;
+        this.pool = calculationPool;
+    }
+
+    /**
+     * Check the ranges of the grid: positive steps, {@code from <= to}, whole durations of an int and at most
+     * {@value #MAX_CELLS} cells. The loan of each cell is checked by validating the loans of the first and the last
+     * cells, the ones with the lowest and the highest rate and duration.
+     * @param grid
+     * @throws InvalidGridException
+     *          for the first invalid range parameter
+     */
+    public void validateRanges(PlanGrid grid) throws InvalidGridException {
+        validateRange("nominalRates", grid.getNominalRates());
+        validateRange("durations", grid.getDurations());
+        GridRange durations = grid.getDurations();
+        if (durations.getFrom() != Math.rint(durations.getFrom())) {
+            throw new InvalidGridException("durations.from", "the assigned value should be a whole number", durations.getFrom());
+        }
+        if (durations.getStep() != Math.rint(durations.getStep())) {
+            throw new InvalidGridException("durations.step", "the assigned value should be a whole number", durations.getStep());
+        }
+        if ((double) durations.getTo() > Integer.MAX_VALUE) {
+            throw new InvalidGridException("durations.to", "the assigned value should be at most " + Integer.MAX_VALUE, durations.getTo());
+        }
+        long rates = grid.getNominalRates().size();
+        // compared as double, the sizes of ranges with tiny steps would overflow the product
+        if ((double) rates * durations.size() > MAX_CELLS) {
+            throw new InvalidGridException("grid", "the number of cells should be at most " + MAX_CELLS, rates + "x" + durations.size());
+        }
+    }
+
+    private static void validateRange(String name, GridRange range) throws InvalidGridException {
+        if (range == null) {
+            throw new InvalidGridException(name, "the assigned value cannot be null", null);
+        }
+        if (range.getStep() <= 0) {
+            throw new InvalidGridException(name + ".step", "the assigned value should be greater than zero", range.getStep());
+        }
+        if (range.getTo() < range.getFrom()) {
+            throw new InvalidGridException(name + ".to", "the assigned value should be at least " + range.getFrom(), range.getTo());
+        }
+    }
+
+    /**
+     * Calculate the cells of a grid accepted by {@link #validateRanges(PlanGrid)}, whose first and last cell loans are accepted by
+     * {@link CalculationRepaymentPlanService#validate(Loan)}, in parallel. The cells are ordered by nominal rate and
+     * then by duration. The annuity of each cell is calculated once and the amortization loop starts from it, the
+     * totals are summed in cents on the loop without keeping the payments, unless the plans are requested.
+     * @param grid
+     * @param options
+     * @param plans
+     *          include the repayment plan of each cell
+     * @return List of {@link GridCell}
+     */
+    public List<GridCell> calculateGrid(PlanGrid grid, CalculationOptions options, boolean plans) {
+        int durations = (int) grid.getDurations().size();
+        int cells = (int) grid.getNominalRates().size() * durations;
+        return pool.submit(() -> IntStream.range(0, cells).parallel()
+                .mapToObj(cell -> calculateCell(grid, grid.getNominalRates().valueAt(cell / durations),
+                        (int) grid.getDurations().valueAt(cell % durations), options, plans))
+                .collect(Collectors.toList())
+        ).join();
+    }
+
+    private GridCell calculateCell(PlanGrid grid, float nominalRate, int duration, CalculationOptions options, boolean plans) {
+        Loan loan = grid.loan(nominalRate, duration);
+        double annuity = calculationRepaymentPlanService.calculateValidAnnuity(loan, options);
+        PlanTotals totals = new PlanTotals();
+        List<Payment> plan = null;
+        if (plans) {
+            RepaymentSchedule schedule = new RepaymentSchedule(duration);
+            schedule.reset(loan.getStartDate(), duration);
+            calculationRepaymentPlanService.calculateValidRepaymentPlan(loan, options, annuity,
+                    (installment, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal) -> {
+                        schedule.setInstallment(installment, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal);
+                        totals.accept(installment, borrowerPaymentAmount, initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal);
+                    });
+            plan = schedule.asPayments();
+        } else {
+            calculationRepaymentPlanService.calculateValidRepaymentPlan(loan, options, annuity, totals);
+        }
+        planMetrics.recordPlanLength(duration);
+        return new GridCell(nominalRate, duration, (float) annuity, totals.getTotalInterest(), totals.getTotalPaid(), plan);
+    }
+
+}
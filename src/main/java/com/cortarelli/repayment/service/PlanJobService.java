@@ -0,0 +1,211 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.config.PlanJobProperties;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.PlanJobStatus;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculates batches of loans asynchronously, so the request that submits a batch does not wait for its plans.
+ *
+ * The jobs run on a fixed number of threads with a bounded queue, a job submitted while the queue is full is rejected.
+ * The plans of each job are calculated by {@link BatchRepaymentPlanService} and written as newline delimited JSON
+ * (one {@link com.cortarelli.repayment.domain.PlanResult} per line) to a result kept in memory up to a threshold and
+ * on a temporary file over it. Finished jobs are kept for a while after they end, then they are removed with their
+ * result. The results of all the jobs share {@link PlanJobProperties#getRetainedMemory()}, once it is used the results
+ * are written to temporary files as well, so jobs that are never downloaded cannot fill the heap.
+ */
+@Service
+public class PlanJobService {
+
+    private Logger logger = LoggerFactory.getLogger(getClass());
+    private final BatchRepaymentPlanService batchRepaymentPlanService;
+    private final PlanMetrics planMetrics;
+    private final PlanJobProperties properties;
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, PlanJob> activeJobs = new ConcurrentHashMap<>();
+    private final Cache<String, PlanJob> finishedJobs;
+    private final AtomicLong availableMemory;
+
+    public PlanJobService(BatchRepaymentPlanService batchRepaymentPlanService, PlanMetrics planMetrics,
+                          PlanJobProperties properties, ObjectMapper mapper) {
+        this.batchRepaymentPlanService = batchRepaymentPlanService;
+        this.planMetrics = planMetrics;
+        this.properties = properties;
+        this.mapper = mapper;
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.executor = new ThreadPoolExecutor(properties.getConcurrentJobs(), properties.getConcurrentJobs(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()));
+        this.finishedJobs = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .executor(Runnable::run)
+                .<String, PlanJob>removalListener((id, job, cause) -> job.deleteResult())
+                .build();
+        this.availableMemory = new AtomicLong(properties.getRetainedMemory().toBytes());
+    }
+
+    /**
+     * Queue the calculation of the plans of the loans
+     * @param loans
+     * @param options
+     * @return {@link PlanJobStatus} of the queued job
+     * @throws RejectedExecutionException if the queue of jobs is full
+     */
+    public PlanJobStatus submit(List<Loan> loans, CalculationOptions options) {
+        PlanJob job = new PlanJob(UUID.randomUUID().toString(), loans.size());
+        activeJobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, loans, options));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(job.id);
+            throw e;
+        }
+        return job.getStatus();
+    }
+
+    /**
+     * Check that a job can be queued, before its loans are read. A job can still be rejected on
+     * {@link #submit(List, CalculationOptions)} when the queue is filled in between.
+     * @throws RejectedExecutionException if the queue of jobs is full
+     */
+    public void checkCapacity() {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("The queue of plan jobs is full");
+        }
+    }
+
+    /**
+     * @param id
+     * @return {@link PlanJobStatus}, null when there is no job with the id
+     */
+    public PlanJobStatus getStatus(String id) {
+        PlanJob job = getJob(id);
+        return job == null ? null : job.getStatus();
+    }
+
+    /**
+     * Read the result of a job
+     * @param id
+     * @return newline delimited JSON, null when there is no job with the id or it is not {@link PlanJobStatus.State#DONE}
+     */
+    public InputStream openResult(String id) throws IOException {
+        PlanJob job = finishedJobs.getIfPresent(id);
+        return job == null || job.state != PlanJobStatus.State.DONE ? null : job.result.openInputStream();
+    }
+
+    /**
+     * Remove a finished job and its result
+     * @param id
+     * @return false when there is no finished job with the id
+     */
+    public boolean delete(String id) {
+        return finishedJobs.asMap().remove(id) != null;
+    }
+
+    private PlanJob getJob(String id) {
+        PlanJob job = activeJobs.get(id);
+        return job == null ? finishedJobs.getIfPresent(id) : job;
+    }
+
+    private void run(PlanJob job, List<Loan> loans, CalculationOptions options) {
+        job.state = PlanJobStatus.State.RUNNING;
+        Timer.Sample sample = planMetrics.start();
+        PlanJobStatus.State state = PlanJobStatus.State.DONE;
+        job.result = new SpillableOutputStream(properties.getSpillThreshold().toBytes(),
+                Paths.get(properties.getSpillDirectory()), availableMemory);
+        try (SpillableOutputStream result = job.result; JsonGenerator generator = mapper.getFactory().createGenerator(result)) {
+            generator.setRootValueSeparator(null);
+            batchRepaymentPlanService.calculateRepaymentPlans(loans, options, planResult -> {
+                try {
+                    writer.writeValue(generator, planResult);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                job.calculatedLoans.incrementAndGet();
+            });
+        } catch (Throwable e) {
+            // errors too, otherwise the job would stay RUNNING forever
+            logger.warn("Plan job {} failed", job.id, e);
+            job.deleteResult();
+            job.error = e.getMessage();
+            state = PlanJobStatus.State.FAILED;
+        }
+        planMetrics.recordCalculation(sample, "job");
+        finishedJobs.put(job.id, job);
+        activeJobs.remove(job.id);
+        // only after the job is on the finished jobs, so a finished state is never answered while the job is active
+        job.state = state;
+    }
+
+    /**
+     * @return number of bytes of the results kept in memory
+     */
+    long retainedMemory() {
+        return properties.getRetainedMemory().toBytes() - availableMemory.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        finishedJobs.invalidateAll();
+    }
+
+    private final class PlanJob {
+
+        private final String id;
+        private final int loans;
+        private final AtomicInteger calculatedLoans = new AtomicInteger();
+        private volatile PlanJobStatus.State state = PlanJobStatus.State.QUEUED;
+        private volatile SpillableOutputStream result;
+        private volatile String error;
+
+        private PlanJob(String id, int loans) {
+            this.id = id;
+            this.loans = loans;
+        }
+
+        private PlanJobStatus getStatus() {
+            return new PlanJobStatus(id, state, loans, calculatedLoans.get(), error);
+        }
+
+        private void deleteResult() {
+            try {
+                result.delete();
+            } catch (IOException e) {
+                logger.warn("Could not delete the result of the plan job {}", id, e);
+            }
+        }
+
+    }
+
+}
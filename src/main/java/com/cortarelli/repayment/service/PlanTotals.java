@@ -0,0 +1,31 @@
+package com.cortarelli.repayment.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Sink that sums the interest and the borrower payment amounts of a repayment plan in cents, without keeping the
+ * installments
+ */
+final class PlanTotals implements InstallmentSink {
+
+    private static final double CENTS = 100D;
+
+    private long interest;
+    private long paid;
+
+    @Override
+    public void accept(int installment, double borrowerPaymentAmount, double initialOutstandingPrincipal, double interest,
+                       double principal, double remainingOutstandingPrincipal) {
+        this.interest += Math.round(interest * CENTS);
+        this.paid += Math.round(borrowerPaymentAmount * CENTS);
+    }
+
+    BigDecimal getTotalInterest() {
+        return BigDecimal.valueOf(interest, 2);
+    }
+
+    BigDecimal getTotalPaid() {
+        return BigDecimal.valueOf(paid, 2);
+    }
+
+}
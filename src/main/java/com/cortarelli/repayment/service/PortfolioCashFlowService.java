@@ -0,0 +1,61 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+@Service
+public class PortfolioCashFlowService {
+
+    private final CalculationRepaymentPlanService calculationRepaymentPlanService;
+    private final PlanMetrics planMetrics;
+    private final ForkJoinPool pool;
+
+    public PortfolioCashFlowService(CalculationRepaymentPlanService calculationRepaymentPlanService, PlanMetrics planMetrics, ForkJoinPool calculationPool) {
+        this.calculationRepaymentPlanService = calculationRepaymentPlanService;
+        this.planMetrics = planMetrics;
+        this.pool = calculationPool;
+    }
+
+    /**
+     * Calculate the repayment plans of the loans in parallel, summing their installments per calendar month of the
+     * payment date. The plans are not kept: each partition of the loans sums them on its own {@link CashFlowAccumulator}
+     * and the partitions are merged at the end, so the memory depends only on the number of months. Loans with
+     * invalid parameters, or with payments outside the months of {@link CashFlowAccumulator}, are left out and counted.
+     * @param loans
+     * @param options
+     * @return {@link PortfolioCashFlow}
+     */
+    public PortfolioCashFlow calculateCashFlows(List<Loan> loans, CalculationOptions options) {
+        return pool.submit(() -> loans.parallelStream().collect(
+                CashFlowAccumulator::new,
+                (accumulator, loan) -> accumulate(accumulator, loan, options),
+                CashFlowAccumulator::merge)
+        ).join().toPortfolioCashFlow();
+    }
+
+    private void accumulate(CashFlowAccumulator accumulator, Loan loan, CalculationOptions options) {
+        ValidationResult result = calculationRepaymentPlanService.validate(loan);
+        if (!result.isValid()) {
+            planMetrics.recordRejections(result);
+            accumulator.reject();
+            return;
+        }
+        if (!CashFlowAccumulator.accepts(loan.getStartDate(), loan.getDuration())) {
+            // a payment far from the others would make the months of the portfolio span thousands of years
+            planMetrics.recordOutOfRange("startDate");
+            accumulator.reject();
+            return;
+        }
+        calculationRepaymentPlanService.calculateValidRepaymentPlan(loan, options,
+                accumulator.loanSink(loan.getStartDate(), loan.getDuration()));
+        planMetrics.recordPlanLength(loan.getDuration());
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.config.RepaymentPlanCacheProperties;
+import com.cortarelli.repayment.domain.CacheStatistics;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Optional in-process cache in front of {@link CalculationRepaymentPlanService#calculateRepaymentPlan(Loan, CalculationOptions)}.
+ *
+ * Plans are cached by loan terms and calculation options, without the start date: a plan cached for one start date
+ * answers the same terms on any other start date, only the payment dates are calculated again.
+ */
+@Service
+public class RepaymentPlanCache {
+
+    private final CalculationRepaymentPlanService calculationRepaymentPlanService;
+    private final Cache<List<Object>, RepaymentSchedule> cache;
+
+    public RepaymentPlanCache(CalculationRepaymentPlanService calculationRepaymentPlanService, RepaymentPlanCacheProperties properties) {
+        this.calculationRepaymentPlanService = calculationRepaymentPlanService;
+        this.cache = properties.isEnabled() ? buildCache(properties) : null;
+    }
+
+    /**
+     * Return the cached plan of the loan terms, calculating it when it is not cached yet. A plan is calculated once
+     * even when it is requested by many threads at the same time.
+     * @param loan
+     * @param options
+     * @return read-only List of {@link Payment}, a view of the cached schedule that creates each payment when it is read
+     */
+    public List<Payment> calculateRepaymentPlan(Loan loan, CalculationOptions options) throws InvalidLoanParameterException, NullLoanParameterException {
+        if (cache == null) {
+            return calculationRepaymentPlanService.calculateRepaymentPlan(loan, options);
+        }
+
+        calculationRepaymentPlanService.validateLoanParameters(loan);
+        List<Object> terms = Arrays.asList(loan.getLoanAmount(), loan.getNominalRate(), loan.getDuration(), loan.getRateSegments(), options);
+        // concurrent misses of the same terms wait for one calculation, instead of all of them calculating the plan,
+        // and the cached schedule is shared, so a reader of RepaymentSchedule.of(plan) cannot modify it
+        RepaymentSchedule schedule = cache.get(terms,
+                key -> calculationRepaymentPlanService.calculateValidRepaymentSchedule(loan, options, new RepaymentSchedule()).share());
+        if (!schedule.getStartDate().equals(loan.getStartDate())) {
+            schedule = schedule.withStartDate(loan.getStartDate());
+        }
+        return schedule.asPayments();
+    }
+
+    /**
+     * Counters of the cache, all of them are zero when the cache is disabled
+     * @return
+     */
+    public CacheStatistics getStatistics() {
+        if (cache == null) {
+            return new CacheStatistics(0, 0, 0, 0);
+        }
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+
+    private static Cache<List<Object>, RepaymentSchedule> buildCache(RepaymentPlanCacheProperties properties) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats();
+        if (properties.getBound() == RepaymentPlanCacheProperties.Bound.INSTALLMENTS) {
+            return builder
+                    .maximumWeight(properties.getMaximumSize())
+                    .<List<Object>, RepaymentSchedule>weigher((terms, schedule) -> schedule.size())
+                    .build();
+        }
+        return builder
+                .maximumSize(properties.getMaximumSize())
+                .build();
+    }
+
+}
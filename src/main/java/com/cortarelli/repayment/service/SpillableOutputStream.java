@@ -0,0 +1,126 @@
+package com.cortarelli.repayment.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Output kept in memory until it grows past a threshold, from then on it is written to a temporary file. The bytes
+ * kept in memory are also taken from a memory shared by several outputs, the output is written to the file as well
+ * when the shared memory runs out.
+ */
+final class SpillableOutputStream extends OutputStream {
+
+    private final long threshold;
+    private final Path directory;
+    private final AtomicLong availableMemory;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private byte[] content;
+    private Path file;
+    private OutputStream fileStream;
+    private long size;
+    private long reservedMemory;
+
+    /**
+     * @param threshold
+     *          maximum size in bytes kept in memory
+     * @param directory
+     *          directory of the temporary file
+     * @param availableMemory
+     *          bytes of the shared memory still available, the bytes kept in memory are subtracted from it until the
+     *          output is written to the file or deleted
+     */
+    SpillableOutputStream(long threshold, Path directory, AtomicLong availableMemory) {
+        this.threshold = threshold;
+        this.directory = directory;
+        this.availableMemory = availableMemory;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (file == null && (size + length > threshold || !reserveMemory(length))) {
+            spill();
+        }
+        (file == null ? memory : fileStream).write(bytes, offset, length);
+        size += length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileStream != null) {
+            fileStream.close();
+        } else if (memory != null) {
+            // trimmed to its size, the buffer of the memory can be up to twice as large
+            content = memory.toByteArray();
+            memory = null;
+        }
+    }
+
+    /**
+     * @return number of written bytes
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return the temporary file, null while the output is kept in memory
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Read what was written, after the stream was closed
+     * @return
+     */
+    InputStream openInputStream() throws IOException {
+        return file == null ? new ByteArrayInputStream(content) : Files.newInputStream(file);
+    }
+
+    /**
+     * Release the output kept in memory and delete the temporary file, if there is one
+     */
+    void delete() throws IOException {
+        close();
+        content = null;
+        releaseMemory();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile(directory, "plan-job-", ".ndjson");
+        fileStream = new BufferedOutputStream(Files.newOutputStream(file));
+        memory.writeTo(fileStream);
+        memory = null;
+        releaseMemory();
+    }
+
+    private boolean reserveMemory(int length) {
+        if (availableMemory.addAndGet(-length) < 0) {
+            availableMemory.addAndGet(length);
+            return false;
+        }
+        reservedMemory += length;
+        return true;
+    }
+
+    private void releaseMemory() {
+        availableMemory.addAndGet(reservedMemory);
+        reservedMemory = 0;
+    }
+
+}
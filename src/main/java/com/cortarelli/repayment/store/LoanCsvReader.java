@@ -0,0 +1,104 @@
+package com.cortarelli.repayment.store;
+
+import com.cortarelli.repayment.domain.Loan;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read loans from CSV lines, one loan per line, as they are iterated:
+ *
+ * <pre>
+ * loanAmount,nominalRate,duration,startDate
+ * 5000,5.0,24,2018-01-01T00:00:01Z
+ * </pre>
+ *
+ * The header line is optional and blank lines are skipped. An empty start date is read as a loan without start date.
+ */
+public final class LoanCsvReader implements Iterator<Loan> {
+
+    public static final String HEADER = "loanAmount,nominalRate,duration,startDate";
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private String line;
+
+    public LoanCsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (line == null) {
+            String next = readLine();
+            if (next == null) {
+                return false;
+            }
+            if (!next.trim().isEmpty() && !(lineNumber == 1 && next.trim().equals(HEADER))) {
+                line = next;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the loan of the next line
+     * @throws IllegalArgumentException if the line is not a loan
+     */
+    @Override
+    public Loan next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] values = line.split(",", -1);
+        line = null;
+        return parse(values, 0, lineNumber);
+    }
+
+    /**
+     * Read the loan of the values of a line
+     * @param values
+     *          values of the line
+     * @param first
+     *          position of the loan amount, the values before it are not read
+     * @param lineNumber
+     *          for the error messages
+     * @return {@link Loan}
+     * @throws IllegalArgumentException if the values are not a loan
+     */
+    public static Loan parse(String[] values, int first, long lineNumber) {
+        if (values.length != first + 4) {
+            throw invalidLine(lineNumber, "expected " + (first + 4) + " values but found " + values.length);
+        }
+        try {
+            String startDate = values[first + 3].trim();
+            return new Loan(
+                    Float.parseFloat(values[first]),
+                    Float.parseFloat(values[first + 1]),
+                    Integer.parseInt(values[first + 2].trim()),
+                    startDate.isEmpty() ? null : OffsetDateTime.parse(startDate));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw invalidLine(lineNumber, e.getMessage());
+        }
+    }
+
+    private String readLine() {
+        try {
+            String next = reader.readLine();
+            lineNumber++;
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static IllegalArgumentException invalidLine(long lineNumber, String reason) {
+        return new IllegalArgumentException("Invalid loan on line " + lineNumber + ": " + reason);
+    }
+
+}
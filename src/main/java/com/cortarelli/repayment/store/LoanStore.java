@@ -0,0 +1,239 @@
+package com.cortarelli.repayment.store;
+
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanStoreStatistics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+
+/**
+ * Loan parameters persisted on a file of fixed-width records, so a loan book larger than the heap can be scanned
+ * without loading it as {@link Loan} objects. All the values are little-endian:
+ *
+ * <pre>
+ * magic        4 bytes  "LNS1"
+ * record size  int32    32
+ * records      32 bytes each:
+ *   loanAmount   float32
+ *   nominalRate  float32
+ *   duration     int32
+ *   offset       int32    offset of the start date in seconds, {@link Integer#MIN_VALUE} when there is no start date
+ *   epochSecond  int64    start date
+ *   nano         int32    start date
+ *   (padding)    4 bytes
+ * </pre>
+ *
+ * Loans are appended through the {@link FileChannel} and read through {@link MappedByteBuffer} segments, directly
+ * from the page cache. A record that was only partially written (e.g. the process stopped during an append) is
+ * ignored and overwritten by the next append. Loans with {@link Loan#getRateSegments() rate segments} do not fit a
+ * record and cannot be stored.
+ */
+public final class LoanStore implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 32;
+
+    private static final int MAGIC = 'L' | 'N' << 8 | 'S' << 16 | '1' << 24;
+    private static final int NO_START_DATE = Integer.MIN_VALUE;
+    /**
+     * Records written on each call to the channel by {@link #append(Iterator)}
+     */
+    private static final int APPEND_BATCH = 1024;
+    /**
+     * 2^25 records (1 GiB) per mapped segment, a {@link MappedByteBuffer} is limited to 2 GiB
+     */
+    private static final int RECORDS_PER_SEGMENT = 1 << 25;
+
+    private final FileChannel channel;
+    private final int recordsPerSegment;
+    private long size;
+    private Records records;
+
+    private LoanStore(FileChannel channel, int recordsPerSegment) throws IOException {
+        this.channel = channel;
+        this.recordsPerSegment = recordsPerSegment;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() == 0) {
+            header.putInt(MAGIC).putInt(RECORD_SIZE).flip();
+            channel.write(header, 0);
+        } else if (channel.read(header, 0) < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != RECORD_SIZE) {
+            throw new IllegalArgumentException("The file is not a loan store");
+        }
+        this.size = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Open the store of the file, creating the file when it does not exist
+     * @param path
+     * @return {@link LoanStore}
+     * @throws IllegalArgumentException if the file exists and is not a loan store
+     */
+    public static LoanStore open(Path path) throws IOException {
+        return open(path, RECORDS_PER_SEGMENT);
+    }
+
+    static LoanStore open(Path path, int recordsPerSegment) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new LoanStore(channel, recordsPerSegment);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of stored loans
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * @return number of stored loans and size of the file they take
+     */
+    public synchronized LoanStoreStatistics getStatistics() {
+        return new LoanStoreStatistics(size, HEADER_SIZE + size * RECORD_SIZE);
+    }
+
+    /**
+     * Append the loans at the end of the store
+     * @param loans
+     * @return number of appended loans
+     * @throws IllegalArgumentException for a null loan, the loans before it are kept
+     */
+    public synchronized long append(Iterator<Loan> loans) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(APPEND_BATCH * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long appended = 0;
+        try {
+            while (loans.hasNext()) {
+                write(buffer, loans.next());
+                appended++;
+                if (!buffer.hasRemaining()) {
+                    flush(buffer);
+                }
+            }
+        } finally {
+            flush(buffer);
+        }
+        return appended;
+    }
+
+    /**
+     * Read-only view of the loans stored when the method is called, the loans appended later are not part of it.
+     * Each {@link List#get(int)} reads the record from the mapped file, so the view takes no heap for the loans and
+     * can be split by index on parallel streams.
+     * @return List of {@link Loan}
+     * @throws IllegalStateException if the store has more than {@link Integer#MAX_VALUE} loans
+     */
+    public synchronized List<Loan> asList() throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The store has more loans than a list can index: " + size);
+        }
+        if (records == null || records.size() != size) {
+            records = new Records(map((int) size));
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(ByteBuffer buffer, Loan loan) {
+        if (loan == null) {
+            throw new IllegalArgumentException("A null loan can not be stored");
+        }
+        if (!loan.getRateSegments().isEmpty()) {
+            throw new IllegalArgumentException("A loan with rate segments can not be stored");
+        }
+        OffsetDateTime startDate = loan.getStartDate();
+        buffer.putFloat(loan.getLoanAmount())
+                .putFloat(loan.getNominalRate())
+                .putInt(loan.getDuration())
+                .putInt(startDate == null ? NO_START_DATE : startDate.getOffset().getTotalSeconds())
+                .putLong(startDate == null ? 0L : startDate.toEpochSecond())
+                .putInt(startDate == null ? 0 : startDate.getNano())
+                .putInt(0);
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        long records = buffer.remaining() / RECORD_SIZE;
+        long position = HEADER_SIZE + size * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        size += records;
+        buffer.clear();
+    }
+
+    private MappedByteBuffer[] map(int records) throws IOException {
+        MappedByteBuffer[] segments = new MappedByteBuffer[(records + recordsPerSegment - 1) / recordsPerSegment];
+        for (int i = 0; i < segments.length; i++) {
+            long first = (long) i * recordsPerSegment;
+            long length = Math.min(recordsPerSegment, records - first) * RECORD_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, length);
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return segments;
+    }
+
+    private final class Records extends AbstractList<Loan> implements RandomAccess {
+
+        private final MappedByteBuffer[] segments;
+        private final int size;
+
+        private Records(MappedByteBuffer[] segments) {
+            this.segments = segments;
+            this.size = (int) LoanStore.this.size;
+        }
+
+        @Override
+        public Loan get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            // absolute reads, so the segments can be shared by the threads of a parallel stream
+            ByteBuffer segment = segments[index / recordsPerSegment];
+            int position = index % recordsPerSegment * RECORD_SIZE;
+            int offset = segment.getInt(position + 12);
+            return new Loan(
+                    segment.getFloat(position),
+                    segment.getFloat(position + 4),
+                    segment.getInt(position + 8),
+                    offset == NO_START_DATE ? null : OffsetDateTime.ofInstant(
+                            Instant.ofEpochSecond(segment.getLong(position + 16), segment.getInt(position + 24)),
+                            ZoneOffset.ofTotalSeconds(offset)));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Spliterator<Loan> spliterator() {
+            // splits by index, the default spliterator of a list splits by iterating it
+            return IntStream.range(0, size).mapToObj(this::get).spliterator();
+        }
+
+    }
+
+}
@@ -1,14 +1,26 @@
 package com.cortarelli.repayment.utils;
 
+import java.math.RoundingMode;
+
 public abstract class Utils {
 
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    /**
+     * Below 10^16 the cents of a float amount fit a long and are exact on a double
+     */
+    private static final float MAX_PLAIN_FLOAT_AMOUNT = 1E16F;
+    /**
+     * Below 10^13 the distance between two doubles is lower than one cent, so the cents of a double amount are exact
+     */
+    private static final double MAX_PLAIN_DOUBLE_AMOUNT = 1E13D;
+
     /**
      * Round a double value to two decimal places
      * @param value
      * @return rounded value with two decimal places
      */
     public static float round(double value) {
-        return round(new Float(value));
+        return round((float) value);
     }
 
     /**
@@ -20,4 +32,173 @@ public abstract class Utils {
         return (float) Math.round(value * 100) / 100;
     }
 
+    /**
+     * Convert a value to minor units (cents), rounding half up
+     * @param value
+     * @return value in cents
+     */
+    public static long toCents(float value) {
+        return Math.round(value * 100D);
+    }
+
+    /**
+     * Append an amount from its cents, with one or two decimal places and without trailing zeros (the digits of
+     * {@link Float#toString(float)} below 2^17), so an amount over 10^7 is not written in scientific notation.
+     * Amounts from 10^16, and values that are not a number, are appended as {@link Float#toString(float)}
+     * @param builder
+     * @param value
+     * @return the builder
+     */
+    public static StringBuilder appendAmount(StringBuilder builder, float value) {
+        if (!(Math.abs(value) < MAX_PLAIN_FLOAT_AMOUNT)) {
+            return builder.append(Float.toString(value));
+        }
+        return appendCents(builder, Math.round(value * 100D));
+    }
+
+    /**
+     * Append an amount from its cents like {@link #appendAmount(StringBuilder, float)}, without the float conversion,
+     * so the cents of the amounts of {@link com.cortarelli.repayment.domain.Arithmetic#FIXED_POINT} plans are kept
+     * over 131072. Amounts from 10^13, and values that are not a number, are appended as {@link Double#toString(double)}
+     * @param builder
+     * @param value
+     * @return the builder
+     */
+    public static StringBuilder appendAmount(StringBuilder builder, double value) {
+        if (!(Math.abs(value) < MAX_PLAIN_DOUBLE_AMOUNT)) {
+            return builder.append(Double.toString(value));
+        }
+        return appendCents(builder, Math.round(value * 100D));
+    }
+
+    private static StringBuilder appendCents(StringBuilder builder, long cents) {
+        if (cents < 0) {
+            builder.append('-');
+            cents = -cents;
+        }
+        builder.append(cents / 100).append('.').append(cents % 100 / 10);
+        if (cents % 10 != 0) {
+            builder.append(cents % 10);
+        }
+        return builder;
+    }
+
+    /**
+     * Divide two long values using integer arithmetic only, rounding the quotient with the given rounding mode
+     * @param dividend
+     * @param divisor
+     * @param roundingMode
+     * @return rounded quotient
+     * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY} and the division is not exact
+     */
+    public static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int signum = (dividend ^ divisor) < 0 ? -1 : 1;
+        boolean increment;
+        switch (roundingMode) {
+            case UP:
+                increment = true;
+                break;
+            case DOWN:
+                increment = false;
+                break;
+            case CEILING:
+                increment = signum > 0;
+                break;
+            case FLOOR:
+                increment = signum < 0;
+                break;
+            case HALF_UP:
+            case HALF_DOWN:
+            case HALF_EVEN:
+                long absRemainder = Math.abs(remainder);
+                int comparison = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+                if (comparison != 0) {
+                    increment = comparison > 0;
+                } else if (roundingMode == RoundingMode.HALF_EVEN) {
+                    increment = (quotient & 1) != 0;
+                } else {
+                    increment = roundingMode == RoundingMode.HALF_UP;
+                }
+                break;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return increment ? quotient + signum : quotient;
+    }
+
+    /**
+     * Add a number of months to a date and return the result as epoch day, clamping the day of month to the last
+     * valid day (the same behaviour of {@link java.time.LocalDate#plusMonths(long)}), without allocating any object.
+     * @param year
+     * @param month
+     *          month of year (1 - 12)
+     * @param dayOfMonth
+     * @param months
+     *          number of months to add
+     * @return epoch day of the resulting date
+     */
+    public static long epochDayPlusMonths(int year, int month, int dayOfMonth, int months) {
+        long monthCount = year * 12L + (month - 1) + months;
+        int resultYear = (int) Math.floorDiv(monthCount, 12);
+        int resultMonth = (int) Math.floorMod(monthCount, 12) + 1;
+        return toEpochDay(resultYear, resultMonth, Math.min(dayOfMonth, lengthOfMonth(resultYear, resultMonth)));
+    }
+
+    /**
+     * Convert a date to epoch day (the same value of {@link java.time.LocalDate#toEpochDay()})
+     * @param year
+     * @param month
+     *          month of year (1 - 12)
+     * @param dayOfMonth
+     * @return epoch day
+     */
+    public static long toEpochDay(int year, int month, int dayOfMonth) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Number of days of the month
+     * @param year
+     * @param month
+     *          month of year (1 - 12)
+     * @return length of month
+     */
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
 }
@@ -0,0 +1,132 @@
+package com.cortarelli.repayment.codec;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class BinaryPlanCodecTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-31T10:15:30.5-03:00");
+    private static final Loan LOAN = new Loan(250000F, 3.75F, 360, START_DATE);
+    private static final CalculationOptions FIXED_POINT = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP);
+
+    private final CalculationRepaymentPlanService calculationService = new CalculationRepaymentPlanService();
+    private final BinaryPlanCodec codec = new BinaryPlanCodec();
+
+    @Test
+    public void shouldEncodeAndDecodePlans() throws Exception {
+        for (CalculationOptions options : Arrays.asList(CalculationOptions.DEFAULT, FIXED_POINT)) {
+            List<Payment> plan = calculationService.calculateRepaymentPlan(LOAN, options);
+
+            byte[] encoded = codec.encode(plan);
+
+            Assert.assertEquals(BinaryPlanCodec.size(360), encoded.length);
+            Assert.assertEquals(plan, codec.decode(encoded));
+            Assert.assertEquals(plan, codec.decode(codec.encode(new ArrayList<>(plan))));
+        }
+        Assert.assertEquals(Collections.emptyList(), codec.decode(codec.encode(Collections.emptyList())));
+    }
+
+    @Test
+    public void shouldWriteLittleEndianColumns() throws Exception {
+        List<Payment> plan = calculationService.calculateRepaymentPlan(new Loan(5000F, 5F, 24, START_DATE));
+        ByteBuffer buffer = ByteBuffer.wrap(codec.encode(plan)).order(ByteOrder.LITTLE_ENDIAN);
+
+        Assert.assertEquals('R', buffer.get(0));
+        Assert.assertEquals('1', buffer.get(3));
+        Assert.assertEquals(24, buffer.getInt(4));
+        Assert.assertEquals(-3 * 3600, buffer.getInt(8));
+        Assert.assertEquals(START_DATE.toLocalTime().toNanoOfDay(), buffer.getLong(12));
+        Assert.assertEquals(START_DATE.plusMonths(1).toLocalDate().toEpochDay(), buffer.getInt(20 + 4));
+        // first borrower payment amount and second interest
+        Assert.assertEquals(21936L, buffer.getLong(20 + 24 * 4));
+        Assert.assertEquals(2001L, buffer.getLong(20 + 24 * 4 + 24 * 8 * 2 + 8));
+    }
+
+    @Test
+    public void shouldKeepTheCentsOfFixedPointPlans() throws Exception {
+        RepaymentSchedule schedule = calculationService.calculateRepaymentSchedule(new Loan(123456789.12F, 5F, 12, START_DATE),
+                FIXED_POINT, new RepaymentSchedule());
+        ByteBuffer buffer = ByteBuffer.wrap(codec.encode(schedule.asPayments())).order(ByteOrder.LITTLE_ENDIAN);
+        long interest = buffer.getLong(20 + 12 * 4 + 12 * 8 * 2);
+
+        // above 2^24 cents the float of the Payment is not enough to keep the cents
+        Assert.assertEquals(Math.round(schedule.getInterest(0) * 100), interest);
+        Assert.assertNotEquals(Math.round(schedule.getPayment(0).getInterest() * 100D), interest);
+    }
+
+    @Test
+    public void shouldDecodeTheCentsOfLargeAmountsIntoASchedule() throws Exception {
+        RepaymentSchedule schedule = calculationService.calculateRepaymentSchedule(new Loan(123456789.12F, 5F, 12, START_DATE),
+                FIXED_POINT, new RepaymentSchedule());
+
+        RepaymentSchedule decoded = codec.decodeSchedule(codec.encode(schedule.asPayments()));
+
+        Assert.assertEquals(schedule.getStartDate(), decoded.getStartDate());
+        Assert.assertEquals(12, decoded.size());
+        for (int i = 0; i < 12; i++) {
+            Assert.assertEquals(schedule.getBorrowerPaymentAmount(i), decoded.getBorrowerPaymentAmount(i), 0D);
+            Assert.assertEquals(schedule.getInitialOutstandingPrincipal(i), decoded.getInitialOutstandingPrincipal(i), 0D);
+            Assert.assertEquals(schedule.getInterest(i), decoded.getInterest(i), 0D);
+            Assert.assertEquals(schedule.getPrincipal(i), decoded.getPrincipal(i), 0D);
+            Assert.assertEquals(schedule.getRemainingOutstandingPrincipal(i), decoded.getRemainingOutstandingPrincipal(i), 0D);
+        }
+        // the float of the Payment loses the cents of the same plan
+        Assert.assertNotEquals(schedule.getInterest(0), codec.decode(codec.encode(schedule.asPayments())).get(0).getInterest(), 0.001D);
+        Assert.assertEquals(decoded.asPayments(), codec.decode(codec.encode(schedule.asPayments())));
+        Assert.assertEquals(0, codec.decodeSchedule(codec.encode(Collections.emptyList())).size());
+    }
+
+    @Test
+    public void shouldRejectSchedulesWithoutMonthlyDates() {
+        byte[] encoded = codec.encode(Arrays.asList(new Payment(1F, START_DATE, 1F, 1F, 1F, 1F),
+                new Payment(1F, START_DATE.plusDays(1), 1F, 1F, 1F, 1F)));
+
+        Assert.assertEquals(2, codec.decode(encoded).size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.decodeSchedule(encoded));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.decodeSchedule(new byte[3]));
+    }
+
+    @Test
+    public void shouldRejectPaymentsWithoutTheSameTimeAndOffset() {
+        Payment payment = new Payment(1F, START_DATE, 1F, 1F, 1F, 1F);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.encode(Arrays.asList(
+                new Payment(1F, null, 1F, 1F, 1F, 1F))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.encode(Arrays.asList(
+                payment, new Payment(1F, null, 1F, 1F, 1F, 1F))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.encode(Arrays.asList(
+                payment, new Payment(1F, START_DATE.plusHours(1), 1F, 1F, 1F, 1F))));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.encode(Arrays.asList(
+                payment, new Payment(1F, START_DATE.withOffsetSameLocal(ZoneOffset.UTC), 1F, 1F, 1F, 1F))));
+    }
+
+    @Test
+    public void shouldRejectInvalidContent() throws Exception {
+        byte[] encoded = codec.encode(calculationService.calculateRepaymentPlan(new Loan(5000F, 5F, 2, START_DATE)));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[3]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[BinaryPlanCodec.size(0)]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        encoded[4] = -1;
+        encoded[7] = -1;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded));
+    }
+
+}
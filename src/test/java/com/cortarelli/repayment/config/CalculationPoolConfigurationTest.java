@@ -0,0 +1,20 @@
+package com.cortarelli.repayment.config;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class CalculationPoolConfigurationTest {
+
+    @Test
+    public void checkPoolHasOneThreadPerProcessor() {
+        ForkJoinPool pool = new CalculationPoolConfiguration().calculationPool();
+        try {
+            Assert.assertEquals(Runtime.getRuntime().availableProcessors(), pool.getParallelism());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.cortarelli.repayment.config;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoanStorePropertiesTest {
+
+    @Test
+    public void shouldHaveDefaultValues() {
+        LoanStoreProperties properties = new LoanStoreProperties();
+        assertThat(properties.isEnabled(), Is.is(false));
+        assertThat(properties.getPath(), Is.is("loans.store"));
+    }
+
+    @Test
+    public void shouldHaveSetters() {
+        LoanStoreProperties properties = new LoanStoreProperties();
+        properties.setEnabled(true);
+        properties.setPath("/data/loans.store");
+
+        assertThat(properties.isEnabled(), Is.is(true));
+        assertThat(properties.getPath(), Is.is("/data/loans.store"));
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.cortarelli.repayment.config;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PlanHttpCachePropertiesTest {
+
+    @Test
+    public void shouldHaveDefaultValues() {
+        assertThat(new PlanHttpCacheProperties().getMaxAge(), Is.is(Duration.ofDays(1)));
+    }
+
+    @Test
+    public void shouldHaveSetters() {
+        PlanHttpCacheProperties properties = new PlanHttpCacheProperties();
+        properties.setMaxAge(Duration.ofMinutes(5));
+
+        assertThat(properties.getMaxAge(), Is.is(Duration.ofMinutes(5)));
+    }
+
+}
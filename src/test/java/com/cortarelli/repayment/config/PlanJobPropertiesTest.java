@@ -0,0 +1,45 @@
+package com.cortarelli.repayment.config;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PlanJobPropertiesTest {
+
+    @Test
+    public void shouldHaveDefaultValues() {
+        PlanJobProperties properties = new PlanJobProperties();
+        assertThat(properties.getConcurrentJobs(), Is.is(2));
+        assertThat(properties.getQueueCapacity(), Is.is(16));
+        assertThat(properties.getMaxLoans(), Is.is(50000));
+        assertThat(properties.getSpillThreshold(), Is.is(DataSize.ofMegabytes(8)));
+        assertThat(properties.getSpillDirectory(), Is.is(System.getProperty("java.io.tmpdir")));
+        assertThat(properties.getRetainedMemory(), Is.is(DataSize.ofMegabytes(64)));
+        assertThat(properties.getExpireAfterWrite(), Is.is(Duration.ofHours(1)));
+    }
+
+    @Test
+    public void shouldHaveSetters() {
+        PlanJobProperties properties = new PlanJobProperties();
+        properties.setConcurrentJobs(4);
+        properties.setQueueCapacity(100);
+        properties.setMaxLoans(1000);
+        properties.setSpillThreshold(DataSize.ofKilobytes(64));
+        properties.setSpillDirectory("/data/jobs");
+        properties.setRetainedMemory(DataSize.ofMegabytes(16));
+        properties.setExpireAfterWrite(Duration.ofMinutes(5));
+
+        assertThat(properties.getConcurrentJobs(), Is.is(4));
+        assertThat(properties.getQueueCapacity(), Is.is(100));
+        assertThat(properties.getMaxLoans(), Is.is(1000));
+        assertThat(properties.getSpillThreshold(), Is.is(DataSize.ofKilobytes(64)));
+        assertThat(properties.getSpillDirectory(), Is.is("/data/jobs"));
+        assertThat(properties.getRetainedMemory(), Is.is(DataSize.ofMegabytes(16)));
+        assertThat(properties.getExpireAfterWrite(), Is.is(Duration.ofMinutes(5)));
+    }
+
+}
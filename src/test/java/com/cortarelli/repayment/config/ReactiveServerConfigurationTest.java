@@ -0,0 +1,105 @@
+package com.cortarelli.repayment.config;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.controller.ReactiveRepaymentPlanHandler;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.BatchRepaymentPlanService;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+public class ReactiveServerConfigurationTest extends AbstractTest {
+
+    private static final Loan LOAN = new Loan(250000F, 3.75F, 360, OffsetDateTime.parse("2018-01-31T00:00:01Z"));
+
+    private CalculationRepaymentPlanService calculationService;
+    private BatchRepaymentPlanService batchService;
+    private WebServer server;
+    private WebClient client;
+    private ForkJoinPool pool;
+
+    @Before
+    public void init() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        PlanMetrics planMetrics = new PlanMetrics(new SimpleMeterRegistry());
+        calculationService = new CalculationRepaymentPlanService();
+        batchService = new BatchRepaymentPlanService(calculationService, planMetrics, pool);
+        ReactiveServerProperties properties = new ReactiveServerProperties();
+        properties.setPort(0);
+        ServerProperties serverProperties = new ServerProperties();
+        serverProperties.getCompression().setEnabled(true);
+        serverProperties.getCompression().setMimeTypes(new String[]{"application/x-ndjson"});
+
+        server = new ReactiveServerConfiguration().reactiveWebServer(
+                new ReactiveRepaymentPlanHandler(calculationService, batchService, planMetrics, mapper), properties,
+                serverProperties);
+        server.start();
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + server.getPort())
+                .build();
+    }
+
+    @After
+    public void shutdown() {
+        server.stop();
+        pool.shutdown();
+    }
+
+    @Test
+    public void checkPaymentsAreStreamedByNetty() throws Exception {
+        List<String> payments = client.post().uri("/generate-plan").contentType(MediaType.APPLICATION_JSON).bodyValue(toJson(LOAN))
+                .retrieve()
+                .bodyToFlux(String.class)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        Assert.assertEquals(toJson(calculationService.calculateRepaymentPlan(LOAN)), "[" + String.join(",", payments) + "]");
+    }
+
+    @Test
+    public void checkClientCanReadPartOfThePlan() throws Exception {
+        List<String> payments = client.post().uri("/generate-plan").contentType(MediaType.APPLICATION_JSON).bodyValue(toJson(LOAN))
+                .retrieve()
+                .bodyToFlux(String.class)
+                .limitRate(8)
+                .take(40)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        Assert.assertEquals(toJson(calculationService.calculateRepaymentPlan(LOAN).subList(0, 40)), "[" + String.join(",", payments) + "]");
+    }
+
+    @Test
+    public void checkPaymentsAreCompressed() throws Exception {
+        // a plain connection, to read the bytes as they are sent
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + "/generate-plan").openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        connection.getOutputStream().write(toJson(LOAN).getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals("gzip", connection.getHeaderField(HttpHeaders.CONTENT_ENCODING));
+        String body = StreamUtils.copyToString(new GZIPInputStream(connection.getInputStream()), StandardCharsets.UTF_8);
+        Assert.assertEquals(toJson(calculationService.calculateRepaymentPlan(LOAN)), "[" + body.trim().replace("\n", ",") + "]");
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.cortarelli.repayment.config;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ReactiveServerPropertiesTest {
+
+    @Test
+    public void shouldHaveDefaultValues() {
+        ReactiveServerProperties properties = new ReactiveServerProperties();
+        assertThat(properties.isEnabled(), Is.is(false));
+        assertThat(properties.getPort(), Is.is(8091));
+    }
+
+    @Test
+    public void shouldHaveSetters() {
+        ReactiveServerProperties properties = new ReactiveServerProperties();
+        properties.setEnabled(true);
+        properties.setPort(9091);
+
+        assertThat(properties.isEnabled(), Is.is(true));
+        assertThat(properties.getPort(), Is.is(9091));
+    }
+
+}
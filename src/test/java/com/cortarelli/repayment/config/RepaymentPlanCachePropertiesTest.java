@@ -0,0 +1,35 @@
+package com.cortarelli.repayment.config;
+
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RepaymentPlanCachePropertiesTest {
+
+    @Test
+    public void shouldHaveDefaultValues() {
+        RepaymentPlanCacheProperties properties = new RepaymentPlanCacheProperties();
+        assertThat(properties.isEnabled(), Is.is(false));
+        assertThat(properties.getMaximumSize(), Is.is(10_000L));
+        assertThat(properties.getBound(), Is.is(RepaymentPlanCacheProperties.Bound.PLANS));
+        assertThat(properties.getExpireAfterWrite(), Is.is(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    public void shouldHaveSetters() {
+        RepaymentPlanCacheProperties properties = new RepaymentPlanCacheProperties();
+        properties.setEnabled(true);
+        properties.setMaximumSize(5);
+        properties.setBound(RepaymentPlanCacheProperties.Bound.INSTALLMENTS);
+        properties.setExpireAfterWrite(Duration.ofSeconds(30));
+
+        assertThat(properties.isEnabled(), Is.is(true));
+        assertThat(properties.getMaximumSize(), Is.is(5L));
+        assertThat(properties.getBound(), Is.is(RepaymentPlanCacheProperties.Bound.INSTALLMENTS));
+        assertThat(properties.getExpireAfterWrite(), Is.is(Duration.ofSeconds(30)));
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.cortarelli.repayment.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class VirtualThreadConfigurationTest {
+
+    private static final String JAVA_VERSION = System.getProperty("java.specification.version");
+
+    @Test
+    public void checkTheExecutorIsUsedByTheRequestsAndTheAsynchronousResponses() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        VirtualThreadConfiguration configuration = new VirtualThreadConfiguration(executor, "9.0.115.0");
+        ProtocolHandler protocolHandler = Mockito.mock(ProtocolHandler.class);
+        AsyncSupportConfigurer asyncSupportConfigurer = Mockito.mock(AsyncSupportConfigurer.class);
+
+        configuration.virtualThreadProtocolHandlerCustomizer().customize(protocolHandler);
+        configuration.configureAsyncSupport(asyncSupportConfigurer);
+
+        Mockito.verify(protocolHandler).setExecutor(executor);
+        ArgumentCaptor<ConcurrentTaskExecutor> taskExecutor = ArgumentCaptor.forClass(ConcurrentTaskExecutor.class);
+        Mockito.verify(asyncSupportConfigurer).setTaskExecutor(taskExecutor.capture());
+        Assert.assertSame(executor, taskExecutor.getValue().getConcurrentExecutor());
+
+        configuration.shutdown();
+        Assert.assertTrue(executor.isShutdown());
+    }
+
+    @Test
+    public void checkExecutorIsCreatedByTheFactoryMethod() throws Exception {
+        ExecutorService executor = VirtualThreadConfiguration.newExecutor("newCachedThreadPool");
+
+        Assert.assertEquals("done", executor.submit(() -> "done").get());
+        executor.shutdown();
+        Assert.assertNull(VirtualThreadConfiguration.newExecutor("newExecutorThatDoesNotExist"));
+    }
+
+    @Test
+    public void checkVirtualThreadsNeedJava21() {
+        VirtualThreadConfiguration configuration = new VirtualThreadConfiguration(null, "9.0.115.0");
+        try {
+            configuration.virtualThreadProtocolHandlerCustomizer();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Virtual threads need Java 21 or newer, the runtime is Java " + JAVA_VERSION, e.getMessage());
+        }
+        configuration.shutdown();
+    }
+
+    @Test
+    public void checkVirtualThreadsNeedTheTomcatOfTheJava21Profile() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        VirtualThreadConfiguration configuration = new VirtualThreadConfiguration(executor, "9.0.33.0");
+        try {
+            configuration.virtualThreadProtocolHandlerCustomizer();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Virtual threads need Tomcat 9.0.115 or newer, built with the java21 Maven profile, "
+                    + "the server is Tomcat 9.0.33.0", e.getMessage());
+        }
+        configuration.shutdown();
+    }
+
+    @Test
+    public void checkTomcatVersions() {
+        Assert.assertTrue(VirtualThreadConfiguration.isAtLeast("9.0.115.0", "9.0.115"));
+        Assert.assertTrue(VirtualThreadConfiguration.isAtLeast("9.0.116", "9.0.115"));
+        Assert.assertTrue(VirtualThreadConfiguration.isAtLeast("10.1.0.0", "9.0.115"));
+        Assert.assertTrue(VirtualThreadConfiguration.isAtLeast("9.0.115", "9.0.115.0"));
+        Assert.assertFalse(VirtualThreadConfiguration.isAtLeast("9.0.33.0", "9.0.115"));
+        Assert.assertFalse(VirtualThreadConfiguration.isAtLeast("9", "9.0.115"));
+        Assert.assertFalse(VirtualThreadConfiguration.isAtLeast("8.5.200", "9.0.115"));
+    }
+
+    @Test
+    public void checkRequestsRunOnVirtualThreadsOnJava21() throws Exception {
+        ExecutorService executor = VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor();
+        new VirtualThreadConfiguration().shutdown();
+        if (JAVA_VERSION.startsWith("1.") || Integer.parseInt(JAVA_VERSION) < 21) {
+            Assert.assertNull(executor);
+        } else {
+            Assert.assertEquals(Boolean.TRUE, executor.submit(() -> Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get());
+            executor.shutdown();
+        }
+    }
+
+}
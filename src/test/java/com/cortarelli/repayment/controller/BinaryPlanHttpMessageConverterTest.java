@@ -0,0 +1,65 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.codec.BinaryPlanCodec;
+import com.cortarelli.repayment.config.WebConfiguration;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+public class BinaryPlanHttpMessageConverterTest {
+
+    private static final Loan LOAN = new Loan(5000F, 5F, 24, OffsetDateTime.parse("2018-01-01T00:00:01Z"));
+
+    private final BinaryPlanCodec codec = new BinaryPlanCodec();
+    private MeterRegistry registry;
+    private BinaryPlanHttpMessageConverter converter;
+    private List<Payment> plan;
+
+    @Before
+    public void init() throws Exception {
+        registry = new SimpleMeterRegistry();
+        converter = new WebConfiguration().binaryPlanHttpMessageConverter(new PlanMetrics(registry));
+        plan = new CalculationRepaymentPlanService().calculateRepaymentPlan(LOAN);
+    }
+
+    @Test
+    public void shouldWriteOnlyTheBinaryMediaType() {
+        Assert.assertTrue(converter.canWrite(null, plan.getClass(), BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN));
+        Assert.assertFalse(converter.canWrite(null, plan.getClass(), MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldWriteEncodedPlan() throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(plan, null, BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN, outputMessage);
+
+        Assert.assertEquals(plan, codec.decode(outputMessage.getBodyAsBytes()));
+        Assert.assertEquals(BinaryPlanCodec.size(24), outputMessage.getHeaders().getContentLength());
+        Assert.assertEquals(BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN, outputMessage.getHeaders().getContentType());
+        Assert.assertEquals(1, registry.get("repayment.plan.serialization").timer().count());
+    }
+
+    @Test
+    public void shouldNotWritePaymentsWithoutDate() {
+        List<Payment> payments = Arrays.asList(new Payment(1F, null, 1F, 1F, 1F, 1F));
+
+        Assertions.assertThrows(HttpMessageNotWritableException.class,
+                () -> converter.write(payments, null, BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN, new MockHttpOutputMessage()));
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.cortarelli.repayment.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+    @Test
+    public void checkBuffersAreReused() {
+        BufferPool pool = new BufferPool(16, 2);
+        byte[] first = pool.acquire();
+        byte[] second = pool.acquire();
+
+        Assert.assertEquals(16, first.length);
+        Assert.assertNotSame(first, second);
+        pool.release(first);
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(first, pool.acquire());
+        Assert.assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void checkPoolIsBounded() {
+        BufferPool pool = new BufferPool(16, 2);
+        byte[][] buffers = {pool.acquire(), pool.acquire(), pool.acquire()};
+
+        for (byte[] buffer : buffers) {
+            pool.release(buffer);
+        }
+
+        Assert.assertEquals(2, pool.size());
+        Assert.assertSame(buffers[0], pool.acquire());
+        Assert.assertSame(buffers[1], pool.acquire());
+        Assert.assertNotSame(buffers[2], pool.acquire());
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.LoanStoreStatistics;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.LoanStoreService;
+import com.fasterxml.jackson.core.JsonParseException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LoanStoreControllerTest extends AbstractTest {
+
+    private static final String LOAN_STORE = "/loan-store";
+    private static final LoanStoreStatistics STATISTICS = new LoanStoreStatistics(2, 72);
+
+    @Mock
+    private LoanStoreService loanStoreService;
+    private MeterRegistry registry;
+    private MockMvc mockMvc;
+
+    @Before
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        mockMvc = MockMvcBuilders.standaloneSetup(new LoanStoreController(loanStoreService, new PlanMetrics(registry), mapper))
+                .setMessageConverters(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter(mapper))
+                .build();
+        Mockito.lenient().when(loanStoreService.getStatistics()).thenReturn(STATISTICS);
+    }
+
+    @Test
+    public void testGetStatistics() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(LOAN_STORE))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(STATISTICS), true));
+    }
+
+    @Test
+    public void testImportJson() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(LOAN_STORE + "/loans")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(STATISTICS), true));
+
+        Mockito.verify(loanStoreService).importJson(Mockito.any());
+    }
+
+    @Test
+    public void testImportCsv() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(LOAN_STORE + "/loans")
+                        .contentType(RepaymentPlanController.TEXT_CSV_VALUE).content("5000,5,24,2018-01-01T00:00:01Z"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(STATISTICS), true));
+
+        Mockito.verify(loanStoreService).importCsv(Mockito.any());
+    }
+
+    @Test
+    public void testInvalidImports() throws Exception {
+        Mockito.when(loanStoreService.importCsv(Mockito.any())).thenThrow(new IllegalArgumentException("Invalid loan on line 1"));
+        Mockito.when(loanStoreService.importJson(Mockito.any())).thenThrow(new JsonParseException(null, "Unexpected end-of-input"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(LOAN_STORE + "/loans")
+                        .contentType(RepaymentPlanController.TEXT_CSV_VALUE).content("x"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Invalid loan on line 1"));
+        mockMvc.perform(MockMvcRequestBuilders.post(LOAN_STORE + "/loans")
+                        .contentType(MediaType.APPLICATION_JSON).content("["))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Unexpected end-of-input"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamRepaymentPlans() throws Exception {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+        Mockito.doAnswer(invocation -> {
+            Consumer<PlanResult> consumer = invocation.getArgument(1);
+            consumer.accept(new PlanResult(null, "Invalid duration: 0"));
+            consumer.accept(new PlanResult(Collections.emptyList(), null));
+            return null;
+        }).when(loanStoreService).calculateRepaymentPlans(Mockito.eq(options), Mockito.any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(LOAN_STORE + "/plans")
+                        .param("arithmetic", "FIXED_POINT").param("roundingMode", "HALF_EVEN")
+                        .accept(NdjsonWriter.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(
+                        toJson(new PlanResult(null, "Invalid duration: 0")) + "\n" +
+                        toJson(new PlanResult(Collections.emptyList(), null)) + "\n"));
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "store-batch-stream").timer().count());
+    }
+
+    @Test
+    public void testCalculateCashFlows() throws Exception {
+        PortfolioCashFlow cashFlow = new PortfolioCashFlow(2, 0, Collections.emptyList());
+        Mockito.when(loanStoreService.calculateCashFlows(CalculationOptions.DEFAULT)).thenReturn(cashFlow);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(LOAN_STORE + "/cash-flows"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(cashFlow), true));
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "store-portfolio").timer().count());
+    }
+
+}
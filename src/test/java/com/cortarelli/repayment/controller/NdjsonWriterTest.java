@@ -0,0 +1,50 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.domain.Payment;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+
+public class NdjsonWriterTest extends AbstractTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-31T00:00:01+01:00");
+    private static final Payment PAYMENT_1 = new Payment(219.36F, START_DATE, 5000F, 20.83F, 198.53F, 4801.47F);
+    private static final Payment PAYMENT_2 = new Payment(219.36F, START_DATE.plusMonths(1), 4801.47F, 20.01F, 199.35F, 4602.12F);
+
+    @Test
+    public void shouldWriteOnePaymentPerLine() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        NdjsonWriter writer = new NdjsonWriter(mapper, outputStream);
+
+        writer.paymentSink(START_DATE).accept(0, 219.36F, 5000F, 20.83F, 198.53F, 4801.47F);
+        writer.paymentSink(START_DATE).accept(1, 219.36F, 4801.47F, 20.01F, 199.35F, 4602.12F);
+        writer.flush();
+
+        Assert.assertEquals(toJson(PAYMENT_1) + "\n" + toJson(PAYMENT_2) + "\n", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldWrapWriteFailures() throws Exception {
+        NdjsonWriter writer = new NdjsonWriter(mapper, new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("closed");
+            }
+        });
+
+        Assertions.assertThrows(UncheckedIOException.class, () -> {
+            for (int i = 0; i < 1000; i++) {
+                writer.write(PAYMENT_1);
+            }
+        });
+    }
+
+}
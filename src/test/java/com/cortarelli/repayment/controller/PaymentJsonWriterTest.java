@@ -0,0 +1,110 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PaymentJsonWriterTest extends AbstractTest {
+
+    private static final CalculationOptions FIXED_POINT = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+    private static final List<OffsetDateTime> START_DATES = Arrays.asList(
+            OffsetDateTime.parse("2018-01-01T00:00:01Z"),
+            OffsetDateTime.parse("2020-01-31T00:00:00Z"),
+            OffsetDateTime.parse("2019-08-29T23:59:59.123456789-03:00"),
+            OffsetDateTime.parse("0001-03-31T12:30:00.5+05:45"),
+            OffsetDateTime.parse("9998-06-30T10:15:30+01:00"),
+            OffsetDateTime.parse("-0002-12-31T00:00:00Z")
+    );
+
+    private final CalculationRepaymentPlanService calculationService = new CalculationRepaymentPlanService();
+
+    @Test
+    public void shouldWriteSchedulesAsJackson() throws Exception {
+        for (OffsetDateTime startDate : START_DATES) {
+            for (float loanAmount : new float[] {0.01F, 5000F, 123456.78F, 99999999F}) {
+                for (CalculationOptions options : Arrays.asList(CalculationOptions.DEFAULT, FIXED_POINT)) {
+                    Loan loan = new Loan(loanAmount, 7.5F, 360, startDate);
+                    List<Payment> plan = calculationService.calculateRepaymentPlan(loan, options);
+
+                    Assert.assertEquals(loan.toString(), toJson(plan), write(plan));
+                    Assert.assertEquals(loan.toString(), toJson(plan), write(new ArrayList<>(plan)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldWritePaymentsAsJackson() throws Exception {
+        List<Payment> payments = Arrays.asList(
+                new Payment(-0F, null, Float.NaN, Float.POSITIVE_INFINITY, -1.5F, 1.0E-4F),
+                new Payment(0F, OffsetDateTime.parse("+10000-01-01T00:00:00Z"), 0.125F, 131072F, 1.0E7F, 3.4028235E38F),
+                new Payment(0.05F, OffsetDateTime.parse("-0001-01-01T00:00:00Z"), 0.5F, 10F, 131071.99F, 1234.56F),
+                new Payment(1F, OffsetDateTime.parse("2018-01-01T00:00:00Z"), 2F, 3F, 4F, 5F),
+                new Payment(1F, OffsetDateTime.parse("2018-02-01T00:00:00+01:00"), 2F, 3F, 4F, 5F)
+        );
+
+        Assert.assertEquals(toJson(payments), write(payments));
+        Assert.assertEquals(toJson(Collections.emptyList()), write(Collections.emptyList()));
+    }
+
+    /**
+     * Every amount with two decimal places below the fixed scale limit is written as {@link Float#toString(float)}
+     */
+    @Test
+    public void shouldWriteCentsAsFloatToString() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PaymentJsonWriter writer = new PaymentJsonWriter(outputStream);
+
+        for (int cents = 0; cents < 13_107_200; cents++) {
+            float value = (float) (cents / 100D);
+            writer.writeFloat(value);
+            writer.flush();
+            String written = new String(outputStream.toByteArray(), StandardCharsets.US_ASCII);
+            if (!written.equals(Float.toString(value))) {
+                Assert.assertEquals(Float.toString(value), written);
+            }
+            outputStream.reset();
+        }
+    }
+
+    @Test
+    public void checkBuffersAreReturnedToThePool() throws Exception {
+        List<Payment> plan = calculationService.calculateRepaymentPlan(new Loan(5000F, 5F, 360, START_DATES.get(0)));
+        String json = write(plan);
+        int pooled = PaymentJsonWriter.BUFFERS.size();
+
+        PaymentJsonWriter writer = new PaymentJsonWriter(new ByteArrayOutputStream());
+        Assert.assertEquals(pooled - 1, PaymentJsonWriter.BUFFERS.size());
+        writer.close();
+        writer.close();
+        Assert.assertEquals(pooled, PaymentJsonWriter.BUFFERS.size());
+
+        // a reused buffer holds the bytes of the previous plan, which are overwritten
+        Assert.assertEquals(toJson(plan.subList(0, 12)), write(plan.subList(0, 12)));
+        Assert.assertEquals(json, write(plan));
+    }
+
+    private static String write(List<Payment> payments) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (PaymentJsonWriter writer = new PaymentJsonWriter(outputStream)) {
+            writer.writePlan(payments);
+            writer.flush();
+        }
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
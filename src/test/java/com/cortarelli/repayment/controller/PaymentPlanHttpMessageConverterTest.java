@@ -0,0 +1,77 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.config.WebConfiguration;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PaymentPlanHttpMessageConverterTest extends AbstractTest {
+
+    private static final Type LIST_OF_PAYMENTS = new TypeReference<List<Payment>>() {}.getType();
+    private static final Type LIST_OF_RESULTS = new TypeReference<List<PlanResult>>() {}.getType();
+    private static final Loan LOAN = new Loan(5000F, 5F, 24, OffsetDateTime.parse("2018-01-01T00:00:01Z"));
+
+    private MeterRegistry registry;
+    private PaymentPlanHttpMessageConverter converter;
+    private List<Payment> plan;
+
+    @Before
+    public void init() throws Exception {
+        registry = new SimpleMeterRegistry();
+        converter = new WebConfiguration().paymentPlanHttpMessageConverter(new PlanMetrics(registry));
+        plan = new CalculationRepaymentPlanService().calculateRepaymentPlan(LOAN);
+    }
+
+    @Test
+    public void shouldWriteOnlyRepaymentPlansAsJson() {
+        Assert.assertTrue(converter.canWrite(plan.getClass(), MediaType.APPLICATION_JSON));
+        Assert.assertTrue(converter.canWrite(null, plan.getClass(), MediaType.APPLICATION_JSON));
+        Assert.assertTrue(converter.canWrite(LIST_OF_PAYMENTS, ArrayList.class, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canWrite(LIST_OF_RESULTS, ArrayList.class, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canWrite(ArrayList.class, ArrayList.class, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canWrite(LIST_OF_PAYMENTS, ArrayList.class, MediaType.TEXT_PLAIN));
+        Assert.assertFalse(converter.canWrite(new TypeReference<ArrayList<Payment>>() {}.getType(), ArrayList.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void shouldNotRead() {
+        MockHttpInputMessage inputMessage = new MockHttpInputMessage(toJson(plan).getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertFalse(converter.canRead(plan.getClass(), MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canRead(LIST_OF_PAYMENTS, null, MediaType.APPLICATION_JSON));
+        Assertions.assertThrows(HttpMessageNotReadableException.class, () -> converter.read(LIST_OF_PAYMENTS, null, inputMessage));
+        Assertions.assertThrows(HttpMessageNotReadableException.class, () -> converter.read(null, inputMessage));
+    }
+
+    @Test
+    public void shouldWriteAsJackson() throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(plan, LIST_OF_PAYMENTS, null, outputMessage);
+
+        Assert.assertEquals(toJson(plan), outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+        Assert.assertEquals(MediaType.APPLICATION_JSON, outputMessage.getHeaders().getContentType());
+        Assert.assertEquals(1, registry.get("repayment.plan.serialization").timer().count());
+    }
+
+}
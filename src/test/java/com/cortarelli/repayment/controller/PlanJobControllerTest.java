@@ -0,0 +1,184 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.config.PlanJobProperties;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.PlanJobStatus;
+import com.cortarelli.repayment.service.PlanJobService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PlanJobControllerTest extends AbstractTest {
+
+    private static final String PLAN_JOBS = "/plan-jobs";
+    private static final List<Loan> LOANS = Collections.singletonList(
+            new Loan(5000F, 5F, 24, OffsetDateTime.parse("2018-01-01T00:00:01Z")));
+    private static final PlanJobStatus QUEUED = new PlanJobStatus("job", PlanJobStatus.State.QUEUED, 1, 0, null);
+    private static final PlanJobStatus DONE = new PlanJobStatus("job", PlanJobStatus.State.DONE, 1, 1, null);
+
+    @Mock
+    private PlanJobService planJobService;
+    private PlanJobProperties properties;
+    private MockMvc mockMvc;
+
+    @Before
+    public void init() {
+        properties = new PlanJobProperties();
+        mockMvc = MockMvcBuilders.standaloneSetup(new PlanJobController(planJobService, properties, mapper))
+                .setMessageConverters(new StringHttpMessageConverter(), new ResourceHttpMessageConverter(),
+                        new MappingJackson2HttpMessageConverter(mapper))
+                .build();
+    }
+
+    @Test
+    public void testSubmit() throws Exception {
+        Mockito.when(planJobService.submit(LOANS, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN))).thenReturn(QUEUED);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS)
+                        .param("arithmetic", "FIXED_POINT").param("roundingMode", "HALF_EVEN")
+                        .content(toJson(LOANS)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string("Location", "/plan-jobs/job"))
+                .andExpect(MockMvcResultMatchers.content().json(toJson(QUEUED), true));
+    }
+
+    @Test
+    public void testSubmitWithRoundingModeUnnecessary() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS + "?roundingMode=UNNECESSARY")
+                        .content(toJson(LOANS)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("The parameter roundingMode is invalid, the amounts cannot be calculated without rounding. Value: UNNECESSARY."));
+
+        Mockito.verifyZeroInteractions(planJobService);
+    }
+
+    @Test
+    public void testSubmitWhenTheQueueIsFull() throws Exception {
+        Mockito.when(planJobService.submit(LOANS, CalculationOptions.DEFAULT)).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS)
+                        .content(toJson(LOANS)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.content().string("The queue of plan jobs is full, submit the job again later"));
+    }
+
+    @Test
+    public void testSubmitWhenTheQueueIsFullDoesNotReadTheLoans() throws Exception {
+        Mockito.doThrow(new RejectedExecutionException()).when(planJobService).checkCapacity();
+
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS)
+                        .content("[{\"loanAmount\": ").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+
+        Mockito.verify(planJobService, Mockito.never()).submit(Mockito.anyList(), Mockito.any());
+    }
+
+    @Test
+    public void testSubmitWithInvalidJson() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS)
+                        .content("[{\"loanAmount\": ").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(planJobService, Mockito.never()).submit(Mockito.anyList(), Mockito.any());
+    }
+
+    @Test
+    public void testSubmitWithoutAListOfLoans() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS)
+                        .content(toJson(LOANS.get(0))).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verify(planJobService, Mockito.never()).submit(Mockito.anyList(), Mockito.any());
+    }
+
+    @Test
+    public void testSubmitWithTheMaximumNumberOfLoans() throws Exception {
+        properties.setMaxLoans(1);
+        Mockito.when(planJobService.submit(LOANS, CalculationOptions.DEFAULT)).thenReturn(QUEUED);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS)
+                        .content(toJson(LOANS)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isAccepted());
+    }
+
+    @Test
+    public void testSubmitWithTooManyLoans() throws Exception {
+        properties.setMaxLoans(1);
+
+        String loans = toJson(LOANS);
+
+        // the loans after the maximum are not read, so an invalid one is not reported
+        mockMvc.perform(MockMvcRequestBuilders.post(PLAN_JOBS)
+                        .content(loans.substring(0, loans.length() - 1) + ",{\"loanAmount\": ").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPayloadTooLarge())
+                .andExpect(MockMvcResultMatchers.content().string("The request has too many loans, the maximum is 1."));
+
+        Mockito.verify(planJobService, Mockito.never()).submit(Mockito.anyList(), Mockito.any());
+    }
+
+    @Test
+    public void testGetStatus() throws Exception {
+        Mockito.when(planJobService.getStatus("job")).thenReturn(QUEUED);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PLAN_JOBS + "/job"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(QUEUED), true));
+        mockMvc.perform(MockMvcRequestBuilders.get(PLAN_JOBS + "/unknown"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void testGetResult() throws Exception {
+        Mockito.when(planJobService.openResult("job")).thenReturn(new ByteArrayInputStream("{\"error\":\"x\"}\n".getBytes(StandardCharsets.UTF_8)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PLAN_JOBS + "/job/result"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(NdjsonWriter.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string("{\"error\":\"x\"}\n"));
+    }
+
+    @Test
+    public void testGetResultOfJobThatIsNotDone() throws Exception {
+        Mockito.when(planJobService.getStatus("job")).thenReturn(QUEUED);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(PLAN_JOBS + "/job/result"))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(QUEUED), true));
+        mockMvc.perform(MockMvcRequestBuilders.get(PLAN_JOBS + "/unknown/result"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void testDelete() throws Exception {
+        Mockito.when(planJobService.delete("job")).thenReturn(true);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(PLAN_JOBS + "/job"))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+        mockMvc.perform(MockMvcRequestBuilders.delete(PLAN_JOBS + "/unknown"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+}
@@ -0,0 +1,206 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanViolation;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.BatchRepaymentPlanService;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReactiveRepaymentPlanHandlerTest extends AbstractTest {
+
+    @Mock
+    private CalculationRepaymentPlanService calculationRepaymentPlanService;
+    @Mock
+    private BatchRepaymentPlanService batchRepaymentPlanService;
+    private MeterRegistry registry;
+    private WebTestClient client;
+
+    private final static String GENERATE_PLAN = "generate-plan";
+    private final static String GENERATE_PLANS = "generate-plans";
+
+    private final static Loan LOAN = new Loan(5000F, 5F, 2, OffsetDateTime.parse("2018-01-01T00:00:01Z"));
+    private final static List<Payment> PAYMENT_PLAN = Arrays.asList(
+            new Payment(2518.75F, OffsetDateTime.parse("2018-01-01T00:00:01Z"), 5000F, 20.83F, 2497.92F, 2502.08F),
+            new Payment(2518.75F, OffsetDateTime.parse("2018-02-01T00:00:01Z"), 2502.08F, 10.43F, 2502.08F, 0F));
+
+    private static final ValidationResult INVALID_LOAN = new ValidationResult(Arrays.asList(
+            new LoanViolation("loanAmount", LoanViolation.Type.INVALID, 0F),
+            new LoanViolation("startDate", LoanViolation.Type.NULL, null)));
+
+    @Before
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        ReactiveRepaymentPlanHandler handler = new ReactiveRepaymentPlanHandler(calculationRepaymentPlanService,
+                batchRepaymentPlanService, new PlanMetrics(registry), mapper);
+        client = WebTestClient.bindToRouterFunction(handler.routes()).handlerStrategies(handler.handlerStrategies()).build();
+
+        Mockito.lenient().when(calculationRepaymentPlanService.validate(Mockito.any())).thenReturn(ValidationResult.VALID);
+    }
+
+    @Test
+    public void testStreamRepaymentPlan() throws Exception {
+        Mockito.when(calculationRepaymentPlanService.iterateRepaymentPlan(LOAN, CalculationOptions.DEFAULT)).thenReturn(PAYMENT_PLAN.iterator());
+
+        String body = client.post().uri(BASE_URL + GENERATE_PLAN).contentType(MediaType.APPLICATION_JSON).bodyValue(toJson(LOAN))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(ReactiveRepaymentPlanHandler.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = body.split("\n");
+        Assert.assertEquals(PAYMENT_PLAN.size(), lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JSONAssert.assertEquals(toJson(PAYMENT_PLAN.get(i)), lines[i], true);
+        }
+        Assert.assertEquals(1, registry.get("repayment.plan.validation").timer().count());
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "reactive-stream").timer().count());
+        Assert.assertEquals(2D, registry.get("repayment.plan.installments").summary().totalAmount(), 0D);
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWithCalculationOptions() throws Exception {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.DOWN);
+        Mockito.when(calculationRepaymentPlanService.iterateRepaymentPlan(LOAN, options)).thenReturn(PAYMENT_PLAN.iterator());
+
+        client.post().uri(BASE_URL + GENERATE_PLAN + "?arithmetic=FIXED_POINT&roundingMode=DOWN")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(toJson(LOAN))
+                .exchange()
+                .expectStatus().isOk();
+
+        Mockito.verify(calculationRepaymentPlanService).iterateRepaymentPlan(LOAN, options);
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWithInvalidLoan() {
+        Mockito.when(calculationRepaymentPlanService.validate(LOAN)).thenReturn(INVALID_LOAN);
+
+        client.post().uri(BASE_URL + GENERATE_PLAN).contentType(MediaType.APPLICATION_JSON).bodyValue(toJson(LOAN))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo(INVALID_LOAN.getMessage());
+
+        Mockito.verifyNoMoreInteractions(batchRepaymentPlanService);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "loanAmount").counter().count(), 0D);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "null", "parameter", "startDate").counter().count(), 0D);
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWithoutLoan() {
+        ValidationResult nullLoan = new ValidationResult(Collections.singletonList(new LoanViolation("loan", LoanViolation.Type.NULL, null)));
+        Mockito.when(calculationRepaymentPlanService.validate(null)).thenReturn(nullLoan);
+
+        client.post().uri(BASE_URL + GENERATE_PLAN).contentType(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo(nullLoan.getMessage());
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWithInvalidArithmetic() {
+        client.post().uri(BASE_URL + GENERATE_PLAN + "?arithmetic=DECIMAL").contentType(MediaType.APPLICATION_JSON).bodyValue(toJson(LOAN))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("The parameter arithmetic is invalid, the assigned value should be one of FLOAT, FIXED_POINT. Value: DECIMAL.");
+
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "arithmetic").counter().count(), 0D);
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWithInvalidJson() {
+        client.post().uri(BASE_URL + GENERATE_PLAN).contentType(MediaType.APPLICATION_JSON).bodyValue("{\"loanAmount\": ")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testStreamRepaymentPlanFailure() throws Exception {
+        Mockito.when(calculationRepaymentPlanService.iterateRepaymentPlan(LOAN, CalculationOptions.DEFAULT))
+                .thenThrow(new NullLoanParameterException("startDate"));
+
+        client.post().uri(BASE_URL + GENERATE_PLAN).contentType(MediaType.APPLICATION_JSON).bodyValue(toJson(LOAN))
+                .exchange()
+                .expectStatus().is5xxServerError();
+    }
+
+    @Test
+    public void testStreamRepaymentPlans() throws Exception {
+        Loan invalid = new Loan(0F, 5F, 2, null);
+        PlanResult rejected = new PlanResult(null, INVALID_LOAN.getMessage());
+        Mockito.when(batchRepaymentPlanService.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT)).thenReturn(new PlanResult(PAYMENT_PLAN, null));
+        Mockito.when(batchRepaymentPlanService.calculateRepaymentPlan(invalid, CalculationOptions.DEFAULT)).thenReturn(rejected);
+
+        String body = client.post().uri(BASE_URL + GENERATE_PLANS).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(toJson(Arrays.asList(LOAN, invalid, LOAN)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(ReactiveRepaymentPlanHandler.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = body.split("\n");
+        Assert.assertEquals(3, lines.length);
+        JSONAssert.assertEquals(toJson(new PlanResult(PAYMENT_PLAN, null)), lines[0], true);
+        JSONAssert.assertEquals(toJson(rejected), lines[1], true);
+        JSONAssert.assertEquals(toJson(new PlanResult(PAYMENT_PLAN, null)), lines[2], true);
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "reactive-batch-stream").timer().count());
+    }
+
+    @Test
+    public void testStreamRepaymentPlansFromNdjson() throws Exception {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        Mockito.when(batchRepaymentPlanService.calculateRepaymentPlan(LOAN, options)).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return new PlanResult(PAYMENT_PLAN, null);
+        });
+
+        String body = client.post().uri(BASE_URL + GENERATE_PLANS + "?arithmetic=FIXED_POINT&roundingMode=HALF_EVEN")
+                .contentType(ReactiveRepaymentPlanHandler.APPLICATION_NDJSON)
+                .bodyValue(toJson(LOAN) + "\n" + toJson(LOAN) + "\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        Assert.assertEquals(2, body.split("\n").length);
+        Mockito.verify(batchRepaymentPlanService, Mockito.times(2)).calculateRepaymentPlan(LOAN, options);
+        Assert.assertTrue(threads.toString(), threads.stream().allMatch(thread -> thread.startsWith("boundedElastic")));
+    }
+
+    @Test
+    public void testStreamRepaymentPlansWithInvalidRoundingMode() {
+        client.post().uri(BASE_URL + GENERATE_PLANS + "?roundingMode=HALF").contentType(MediaType.APPLICATION_JSON).bodyValue("[]")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("The parameter roundingMode is invalid, the assigned value should be one of "
+                        + "UP, DOWN, CEILING, FLOOR, HALF_UP, HALF_DOWN, HALF_EVEN, UNNECESSARY. Value: HALF.");
+
+        Mockito.verifyNoMoreInteractions(batchRepaymentPlanService);
+    }
+
+}
@@ -1,11 +1,40 @@
 package com.cortarelli.repayment.controller;
 
 import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.codec.BinaryPlanCodec;
+import com.cortarelli.repayment.config.PlanHttpCacheProperties;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CacheStatistics;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.GridCell;
+import com.cortarelli.repayment.domain.GridRange;
 import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanEvents;
+import com.cortarelli.repayment.domain.MonthlyCashFlow;
+import com.cortarelli.repayment.domain.LoanViolation;
 import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanEvent;
+import com.cortarelli.repayment.domain.PlanGrid;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.domain.PlanSummary;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.exception.InvalidGridException;
+import com.cortarelli.repayment.exception.InvalidInstallmentException;
 import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.InvalidPlanEventException;
 import com.cortarelli.repayment.exception.NullLoanParameterException;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.service.BatchRepaymentPlanService;
 import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import com.cortarelli.repayment.service.CsvRepaymentPlanService;
+import com.cortarelli.repayment.service.InstallmentSink;
+import com.cortarelli.repayment.service.PlanGridService;
+import com.cortarelli.repayment.service.PortfolioCashFlowService;
+import com.cortarelli.repayment.service.RepaymentPlanCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,25 +42,48 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.OffsetDateTime;
+import java.time.YearMonth;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RepaymentPlanControllerTest extends AbstractTest {
 
     @Mock
     private CalculationRepaymentPlanService calculationRepaymentPlanService;
+    @Mock
+    private BatchRepaymentPlanService batchRepaymentPlanService;
+    @Mock
+    private CsvRepaymentPlanService csvRepaymentPlanService;
+    @Mock
+    private RepaymentPlanCache repaymentPlanCache;
+    @Mock
+    private PortfolioCashFlowService portfolioCashFlowService;
+    @Mock
+    private PlanGridService planGridService;
+    private MeterRegistry registry;
     private RepaymentPlanController repaymentPlanController;
     private MockMvc mockMvc;
 
     private final static String GENERATE_PLAN = "generate-plan";
+    private final static String GENERATE_PLANS = "generate-plans";
+    private final static MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     private final static float LOAN_AMOUNT = 5000F;
     private final static float INTEREST_RATE = 5F;
@@ -45,17 +97,27 @@ public class RepaymentPlanControllerTest extends AbstractTest {
     private static final float PRINCIPAL = 5000F;
     private static final float REMAINING_OUTSTANDING_PRINCIPAL = 0F;
 
+    private static final ValidationResult INVALID_LOAN = new ValidationResult(Arrays.asList(
+            new LoanViolation("loanAmount", LoanViolation.Type.INVALID, 0F),
+            new LoanViolation("startDate", LoanViolation.Type.NULL, null)));
+
     private List<Payment> paymentPlan;
 
 
     @Before
     public void init() {
-        repaymentPlanController = new RepaymentPlanController(calculationRepaymentPlanService);
+        registry = new SimpleMeterRegistry();
+        repaymentPlanController = new RepaymentPlanController(calculationRepaymentPlanService, batchRepaymentPlanService,
+                csvRepaymentPlanService, repaymentPlanCache, portfolioCashFlowService, planGridService, new PlanHttpCacheProperties(), new PlanMetrics(registry), mapper);
         paymentPlan = Arrays.asList(new Payment(BORROWER_PAYMENT_AMOUNT, DATE, INITIAL_OUTSTANDING_PRINCIPAL,
                 INTEREST, PRINCIPAL, REMAINING_OUTSTANDING_PRINCIPAL));
 
+        Mockito.lenient().when(calculationRepaymentPlanService.validate(Mockito.any())).thenReturn(ValidationResult.VALID);
+        Mockito.lenient().when(calculationRepaymentPlanService.validateWindow(Mockito.any(), Mockito.anyInt(), Mockito.anyInt())).thenCallRealMethod();
+        Mockito.lenient().when(calculationRepaymentPlanService.validateInstallment(Mockito.any(), Mockito.anyInt())).thenCallRealMethod();
+
         mockMvc = MockMvcBuilders.standaloneSetup(repaymentPlanController)
-                .setMessageConverters(new MappingJackson2HttpMessageConverter(mapper))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(mapper), new StringHttpMessageConverter())
                 .build();
     }
 
@@ -63,7 +125,7 @@ public class RepaymentPlanControllerTest extends AbstractTest {
     public void testCalculateRepaymentPlan() throws Exception {
         Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
 
-        Mockito.when(calculationRepaymentPlanService.calculateRepaymentPlan(loan)).thenReturn(paymentPlan);
+        Mockito.when(repaymentPlanCache.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT)).thenReturn(paymentPlan);
 
         mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -73,43 +135,756 @@ public class RepaymentPlanControllerTest extends AbstractTest {
                                 .json(toJson(paymentPlan))
                 );
 
-        Mockito.verify(calculationRepaymentPlanService).calculateRepaymentPlan(loan);
+        Mockito.verify(repaymentPlanCache).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
+
+        Mockito.verify(calculationRepaymentPlanService).validate(loan);
+        Assert.assertEquals(1, registry.get("repayment.plan.validation").timer().count());
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "plan").timer().count());
+        Assert.assertEquals(1D, registry.get("repayment.plan.installments").summary().totalAmount(), 0D);
+    }
+
+    @Test
+    public void testCalculateRepaymentPlanWindow() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, 480, START_DATE);
+
+        Mockito.when(calculationRepaymentPlanService.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT, 36, 12)).thenReturn(paymentPlan);
+        Mockito.when(calculationRepaymentPlanService.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT, 0, 12)).thenReturn(paymentPlan);
+        Mockito.when(calculationRepaymentPlanService.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT, 36, 480)).thenReturn(paymentPlan);
+
+        for (String query : Arrays.asList("?offset=36&limit=12", "?limit=12", "?offset=36")) {
+            mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + query).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.content().json(toJson(paymentPlan), true));
+        }
+
+        Mockito.verifyZeroInteractions(repaymentPlanCache);
+        Assert.assertEquals(3, registry.get("repayment.plan.calculation").tag("operation", "window").timer().count());
+    }
+
+    @Test
+    public void testCalculateRepaymentPlanWindowOutsideThePlan() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "?offset=" + DURATION + "&limit=0").content(toJson(loan))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(new ValidationResult(Arrays.asList(
+                        new LoanViolation("offset", LoanViolation.Type.OUT_OF_RANGE, DURATION, DURATION - 1),
+                        new LoanViolation("limit", LoanViolation.Type.INVALID, 0))).getMessage()));
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z")
+                        .param("offset", "1"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        // the window is rejected before the calculation, without an exception
+        Mockito.verify(calculationRepaymentPlanService, Mockito.never()).calculateRepaymentPlan(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+        Assert.assertEquals(2D, registry.get("repayment.plan.rejections").tags("reason", "out_of_range", "parameter", "offset").counter().count(), 0D);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "limit").counter().count(), 0D);
+        Assert.assertEquals(2, registry.get("repayment.plan.validation").timer().count());
+    }
+
+    @Test
+    public void testGetRepaymentPlanWithETag() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        String etag = RepaymentPlanController.etag(loan, null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON);
+
+        Mockito.when(repaymentPlanCache.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT)).thenReturn(paymentPlan);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", etag))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=86400, public"))
+                .andExpect(MockMvcResultMatchers.header().string("Vary", "Accept, Accept-Encoding"))
+                .andExpect(MockMvcResultMatchers.content().json(toJson(paymentPlan), true));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z")
+                        .header("If-None-Match", "\"other\", " + etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", etag))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=86400, public"))
+                .andExpect(MockMvcResultMatchers.header().string("Vary", "Accept, Accept-Encoding"))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        // weak comparison, the strong form of the ETag also validates the plan
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z")
+                        .header("If-None-Match", etag.substring(2)))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        Mockito.verify(repaymentPlanCache, Mockito.times(1)).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
+        Assert.assertEquals(2D, registry.get("repayment.plan.not.modified").counter().count(), 0D);
+    }
+
+    @Test
+    public void testGetRepaymentPlanRepresentationsHaveTheirOwnETag() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        PlanMetrics planMetrics = new PlanMetrics(registry);
+        MockMvc binaryMockMvc = MockMvcBuilders.standaloneSetup(repaymentPlanController)
+                .setMessageConverters(new PaymentPlanHttpMessageConverter(planMetrics), new BinaryPlanHttpMessageConverter(planMetrics),
+                        new MappingJackson2HttpMessageConverter(mapper))
+                .build();
+
+        // a plan of the service, as the converters of the plans only write its views
+        List<Payment> plan = new CalculationRepaymentPlanService().calculateRepaymentPlan(loan);
+
+        Mockito.when(repaymentPlanCache.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT)).thenReturn(plan);
+
+        String jsonETag = binaryMockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z")
+                        .header("Accept", "application/x-repayment-plan;q=0.5, application/json"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().json(toJson(plan), true))
+                .andReturn().getResponse().getHeader("ETag");
+        String binaryETag = binaryMockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z")
+                        .header("Accept", "application/x-repayment-plan, application/json;q=0.5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN))
+                .andExpect(MockMvcResultMatchers.content().bytes(new BinaryPlanCodec().encode(plan)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        Assert.assertEquals(RepaymentPlanController.etag(loan, null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON), jsonETag);
+        Assert.assertEquals(RepaymentPlanController.etag(loan, null, null, CalculationOptions.DEFAULT,
+                BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN), binaryETag);
+        Assert.assertNotEquals(jsonETag, binaryETag);
+
+        // the ETag of one representation does not validate the other
+        binaryMockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z")
+                        .header("Accept", "application/x-repayment-plan").header("If-None-Match", jsonETag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", binaryETag));
+    }
+
+    @Test
+    public void testGetRepaymentPlanWithUnsupportedAccept() throws Exception {
+        for (String accept : Arrays.asList("text/csv", "application/xml")) {
+            mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                            .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "1").param("startDate", "2018-01-01T00:00:01Z")
+                            .header("Accept", accept))
+                    .andExpect(MockMvcResultMatchers.status().isNotAcceptable())
+                    .andExpect(MockMvcResultMatchers.header().doesNotExist("ETag"));
+        }
+
+        Mockito.verifyZeroInteractions(repaymentPlanCache);
+    }
+
+    @Test
+    public void checkRepresentationOfAcceptHeader() {
+        Assert.assertEquals(MediaType.APPLICATION_JSON, RepaymentPlanController.representation(null));
+        Assert.assertEquals(MediaType.APPLICATION_JSON, RepaymentPlanController.representation("*/*"));
+        Assert.assertEquals(MediaType.APPLICATION_JSON, RepaymentPlanController.representation(""));
+        Assert.assertNull(RepaymentPlanController.representation("text/plain"));
+        Assert.assertNull(RepaymentPlanController.representation("text/csv, application/xml"));
+        Assert.assertEquals(MediaType.APPLICATION_JSON, RepaymentPlanController.representation("application/*"));
+        Assert.assertEquals(BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN,
+                RepaymentPlanController.representation("application/x-repayment-plan, */*"));
+    }
+
+    @Test
+    public void testCalculateRepaymentPlanWithRoundingModeUnnecessary() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "?arithmetic=FIXED_POINT&roundingMode=UNNECESSARY")
+                        .content(toJson(loan)).contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("The parameter roundingMode is invalid, the amounts cannot be calculated without rounding. Value: UNNECESSARY."));
+
+        Mockito.verifyZeroInteractions(repaymentPlanCache);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "roundingMode").counter().count(), 0D);
+    }
+
+    @Test
+    public void testCalculateRepaymentPlanWithInvalidArithmetic() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "?arithmetic=DECIMAL")
+                        .content(toJson(loan)).contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("The parameter arithmetic is invalid, the assigned value should be one of FLOAT, FIXED_POINT. Value: DECIMAL."));
+
+        Mockito.verifyZeroInteractions(repaymentPlanCache);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "arithmetic").counter().count(), 0D);
+    }
+
+    @Test
+    public void testCalculateRepaymentPlanWithInvalidOffset() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "?offset=first")
+                        .content(toJson(loan)).contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("The parameter offset is invalid, the assigned value should be a valid Integer. Value: first."));
+    }
+
+    @Test
+    public void testGetRepaymentPlanWindow() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, 480, START_DATE);
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+
+        Mockito.when(calculationRepaymentPlanService.calculateRepaymentPlan(loan, options, 36, 12)).thenReturn(paymentPlan);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN)
+                        .param("loanAmount", "5000").param("nominalRate", "5").param("duration", "480").param("startDate", "2018-01-01T00:00:01Z")
+                        .param("offset", "36").param("limit", "12").param("arithmetic", "FIXED_POINT").param("roundingMode", "HALF_EVEN"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", RepaymentPlanController.etag(loan, 36, 12, options, MediaType.APPLICATION_JSON)))
+                .andExpect(MockMvcResultMatchers.content().json(toJson(paymentPlan), true));
+    }
+
+    @Test
+    public void testGetRepaymentPlanInvalidLoan() throws Exception {
+        Loan loan = new Loan(0F, INTEREST_RATE, DURATION, null);
+
+        Mockito.when(calculationRepaymentPlanService.validate(loan)).thenReturn(INVALID_LOAN);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN).param("nominalRate", "5").param("duration", "1")
+                        .accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("ETag"))
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+    }
+
+    @Test
+    public void checkETagDependsOnEveryParameter() {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        String etag = RepaymentPlanController.etag(loan, null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON);
+
+        Assert.assertTrue(etag.matches("W/\"[0-9a-f]{32}\""));
+        Assert.assertEquals(etag, RepaymentPlanController.etag(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE), null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON));
+        List<String> others = Arrays.asList(
+                RepaymentPlanController.etag(new Loan(5001F, INTEREST_RATE, DURATION, START_DATE), null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(new Loan(LOAN_AMOUNT, 5.01F, DURATION, START_DATE), null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(new Loan(LOAN_AMOUNT, INTEREST_RATE, 2, START_DATE), null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE.plusDays(1)), null, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(loan, 0, null, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(loan, null, 1, CalculationOptions.DEFAULT, MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(loan, null, null, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP), MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(loan, null, null, new CalculationOptions(Arithmetic.FLOAT, RoundingMode.HALF_EVEN), MediaType.APPLICATION_JSON),
+                RepaymentPlanController.etag(loan, null, null, CalculationOptions.DEFAULT, BinaryPlanHttpMessageConverter.APPLICATION_REPAYMENT_PLAN));
+        Assert.assertFalse(others.contains(etag));
+    }
+
+    @Test
+    public void testCalculateRepaymentPlanWithFixedPointArithmetic() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+
+        Mockito.when(repaymentPlanCache.calculateRepaymentPlan(loan, options)).thenReturn(paymentPlan);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN)
+                        .param("arithmetic", "FIXED_POINT")
+                        .param("roundingMode", "HALF_EVEN")
+                        .content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(
+                        MockMvcResultMatchers
+                                .content()
+                                .json(toJson(paymentPlan))
+                );
+
+        Mockito.verify(repaymentPlanCache).calculateRepaymentPlan(loan, options);
+    }
+
+    @Test
+    public void testCalculateInstallment() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        Mockito.when(calculationRepaymentPlanService.calculateInstallment(loan, CalculationOptions.DEFAULT, 0)).thenReturn(paymentPlan.get(0));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/installment/0").content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(
+                        MockMvcResultMatchers
+                                .content()
+                                .json(toJson(paymentPlan.get(0)), true)
+                );
+
+        Mockito.verify(calculationRepaymentPlanService).calculateInstallment(loan, CalculationOptions.DEFAULT, 0);
+    }
+
+    @Test
+    public void testInvalidInstallmentExceptionHandler() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, 24, START_DATE);
+
+        Mockito.when(calculationRepaymentPlanService.calculateInstallment(loan, CalculationOptions.DEFAULT, 1)).thenThrow(new InvalidInstallmentException(1, 0));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/installment/1").content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "out_of_range", "parameter", "installment").counter().count(), 0D);
+    }
+
+    @Test
+    public void testCalculateInstallmentOutsideThePlan() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/installment/" + DURATION).content(toJson(loan))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(
+                        new LoanViolation("installment", LoanViolation.Type.OUT_OF_RANGE, DURATION, DURATION - 1).getMessage()));
+
+        Mockito.verify(calculationRepaymentPlanService, Mockito.never()).calculateInstallment(Mockito.any(), Mockito.any(), Mockito.anyInt());
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "out_of_range", "parameter", "installment").counter().count(), 0D);
+    }
+
+    @Test
+    public void testCalculateSummary() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+        PlanSummary summary = new PlanSummary(BORROWER_PAYMENT_AMOUNT, new BigDecimal("20.83"), new BigDecimal("5020.83"), DATE);
+
+        Mockito.when(calculationRepaymentPlanService.calculateSummary(loan, options)).thenReturn(summary);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/summary?arithmetic=FIXED_POINT&roundingMode=HALF_EVEN")
+                        .content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(summary), true));
+
+        Mockito.verifyZeroInteractions(repaymentPlanCache);
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "summary").timer().count());
+        Assert.assertEquals(1D, registry.get("repayment.plan.installments").summary().totalAmount(), 0D);
+    }
+
+    @Test
+    public void testCalculateSummaryInvalidLoan() throws Exception {
+        Loan loan = new Loan(0F, INTEREST_RATE, DURATION, null);
+
+        Mockito.when(calculationRepaymentPlanService.validate(loan)).thenReturn(INVALID_LOAN);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/summary").content(toJson(loan))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+
+        Mockito.verify(calculationRepaymentPlanService, Mockito.never()).calculateSummary(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testReamortizeRepaymentPlan() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        List<PlanEvent> events = Collections.singletonList(new PlanEvent(PlanEvent.Type.PREPAYMENT, 0, 1000F));
+        List<Payment> reamortized = Collections.singletonList(new Payment(4016.67F, DATE, 4000F, 16.67F, 4000F, 0F));
+
+        Mockito.when(repaymentPlanCache.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT)).thenReturn(paymentPlan);
+        Mockito.when(calculationRepaymentPlanService.reamortizeRepaymentPlan(loan, CalculationOptions.DEFAULT, paymentPlan, events)).thenReturn(reamortized);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/events").content(toJson(new LoanEvents(loan, events))).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(reamortized), true));
+
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "events").timer().count());
+        Assert.assertEquals(1D, registry.get("repayment.plan.installments").summary().totalAmount(), 0D);
+    }
+
+    @Test
+    public void testReamortizeRepaymentPlanInvalidLoan() throws Exception {
+        Loan loan = new Loan(0F, INTEREST_RATE, DURATION, null);
+
+        Mockito.when(calculationRepaymentPlanService.validate(loan)).thenReturn(INVALID_LOAN);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/events").content(toJson(new LoanEvents(loan, Collections.emptyList())))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+
+        Mockito.verifyZeroInteractions(repaymentPlanCache);
+    }
+
+    @Test
+    public void testReamortizeRepaymentPlanNullEvents() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        // the real service, the events are checked before the mock of the cache is used
+        MockMvc eventsMockMvc = MockMvcBuilders.standaloneSetup(new RepaymentPlanController(new CalculationRepaymentPlanService(),
+                        batchRepaymentPlanService, csvRepaymentPlanService, repaymentPlanCache, portfolioCashFlowService, planGridService,
+                        new PlanHttpCacheProperties(), new PlanMetrics(registry), mapper))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(mapper), new StringHttpMessageConverter())
+                .build();
+
+        Mockito.when(repaymentPlanCache.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT)).thenReturn(paymentPlan);
+
+        String[] events = {"null", "[null]", "[{\"type\":null,\"installment\":0,\"value\":1000}]"};
+        String[] parameters = {"events", "events[0]", "events[0].type"};
+        for (int i = 0; i < events.length; i++) {
+            eventsMockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/events")
+                            .content("{\"loan\":" + toJson(loan) + ",\"events\":" + events[i] + "}")
+                            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                    .andExpect(MockMvcResultMatchers.content().string(new NullLoanParameterException(parameters[i]).getMessage()));
+        }
+
+        Assert.assertEquals(2D, registry.get("repayment.plan.rejections").tags("reason", "null", "parameter", "events").counter().count(), 0D);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "null", "parameter", "events.type").counter().count(), 0D);
+    }
+
+    @Test
+    public void testInvalidPlanEventExceptionHandler() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+        PlanEvent event = new PlanEvent(PlanEvent.Type.RATE_CHANGE, 0, 0F);
+        InvalidPlanEventException exception = new InvalidPlanEventException(event, "the nominal rate should be greater than zero");
+
+        Mockito.when(repaymentPlanCache.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT)).thenReturn(paymentPlan);
+        Mockito.when(calculationRepaymentPlanService.reamortizeRepaymentPlan(loan, CalculationOptions.DEFAULT, paymentPlan,
+                Collections.singletonList(event))).thenThrow(exception);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/events").content(toJson(new LoanEvents(loan, Collections.singletonList(event))))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(exception.getMessage()));
+
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "rate_change").counter().count(), 0D);
+    }
+
+    @Test
+    public void testCalculateGrid() throws Exception {
+        PlanGrid grid = new PlanGrid(LOAN_AMOUNT, START_DATE, new GridRange(5F, 6F, 1F), new GridRange(1F, 1F, 1F));
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+        List<GridCell> cells = Arrays.asList(
+                new GridCell(5F, 1, 5020.83F, new BigDecimal("20.83"), new BigDecimal("5020.83"), paymentPlan),
+                new GridCell(6F, 1, 5025F, new BigDecimal("25.00"), new BigDecimal("5025.00"), null));
+
+        Mockito.when(planGridService.calculateGrid(grid, options, true)).thenReturn(cells);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/grid?plans=true&arithmetic=FIXED_POINT&roundingMode=HALF_EVEN")
+                        .content(toJson(grid)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(cells), true));
+
+        Mockito.verify(planGridService).validateRanges(grid);
+        Mockito.verify(calculationRepaymentPlanService).validate(new Loan(LOAN_AMOUNT, 5F, 1, START_DATE));
+        Mockito.verify(calculationRepaymentPlanService).validate(new Loan(LOAN_AMOUNT, 6F, 1, START_DATE));
+        Assert.assertEquals(1, registry.get("repayment.plan.validation").timer().count());
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "grid").timer().count());
+    }
+
+    @Test
+    public void testCalculateGridInvalidLoanOfTheLastCell() throws Exception {
+        PlanGrid grid = new PlanGrid(LOAN_AMOUNT, START_DATE, new GridRange(5F, 6F, 1F), new GridRange(12F, 36F, 12F));
+
+        Mockito.when(calculationRepaymentPlanService.validate(grid.loan(6F, 36))).thenReturn(INVALID_LOAN);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/grid").content(toJson(grid))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+
+        Mockito.verify(calculationRepaymentPlanService).validate(grid.loan(5F, 12));
+        Mockito.verify(planGridService, Mockito.never()).calculateGrid(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testCalculateGridInvalidLoan() throws Exception {
+        PlanGrid grid = new PlanGrid(0F, null, new GridRange(5F, 6F, 1F), new GridRange(1F, 1F, 1F));
+
+        Mockito.when(calculationRepaymentPlanService.validate(grid.loan(5F, 1))).thenReturn(INVALID_LOAN);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/grid").content(toJson(grid))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+
+        Mockito.verify(planGridService, Mockito.never()).calculateGrid(Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testInvalidGridExceptionHandler() throws Exception {
+        PlanGrid grid = new PlanGrid(LOAN_AMOUNT, START_DATE, new GridRange(5F, 6F, 0F), new GridRange(1F, 1F, 1F));
+        InvalidGridException exception = new InvalidGridException("nominalRates.step", "the assigned value should be greater than zero", 0F);
+
+        Mockito.doThrow(exception).when(planGridService).validateRanges(grid);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/grid").content(toJson(grid))
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(exception.getMessage()));
+
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "nominalRates.step").counter().count(), 0D);
+    }
+
+    @Test
+    public void testGetCacheStatistics() throws Exception {
+        CacheStatistics statistics = new CacheStatistics(3, 1, 0, 1);
+
+        Mockito.when(repaymentPlanCache.getStatistics()).thenReturn(statistics);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + GENERATE_PLAN + "/cache-statistics"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json(toJson(statistics), true));
+    }
+
+    @Test
+    public void testCalculateRepaymentPlans() throws Exception {
+        List<Loan> loans = Arrays.asList(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE),
+                new Loan(0F, INTEREST_RATE, DURATION, START_DATE));
+        List<PlanResult> results = Arrays.asList(new PlanResult(paymentPlan, null),
+                new PlanResult(null, new InvalidLoanParameterException("loanAmount", 0F).getMessage()));
+
+        Mockito.when(batchRepaymentPlanService.calculateRepaymentPlans(loans, CalculationOptions.DEFAULT)).thenReturn(results);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLANS).content(toJson(loans)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(
+                        MockMvcResultMatchers
+                                .content()
+                                .json(toJson(results), true)
+                );
+
+        Mockito.verify(batchRepaymentPlanService).calculateRepaymentPlans(loans, CalculationOptions.DEFAULT);
+    }
+
+    @Test
+    public void testStreamRepaymentPlan() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        Mockito.doAnswer(invocation -> {
+            InstallmentSink sink = invocation.getArgument(2);
+            sink.accept(0, BORROWER_PAYMENT_AMOUNT, INITIAL_OUTSTANDING_PRINCIPAL,
+                    INTEREST, PRINCIPAL, REMAINING_OUTSTANDING_PRINCIPAL);
+            return null;
+        }).when(calculationRepaymentPlanService).calculateRepaymentPlan(Mockito.eq(loan), Mockito.eq(CalculationOptions.DEFAULT), Mockito.any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN)
+                        .accept(APPLICATION_NDJSON).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(
+                        toJson(new Payment(BORROWER_PAYMENT_AMOUNT, START_DATE, INITIAL_OUTSTANDING_PRINCIPAL,
+                                INTEREST, PRINCIPAL, REMAINING_OUTSTANDING_PRINCIPAL)) + "\n"));
+
+        Mockito.verify(calculationRepaymentPlanService).validate(loan);
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "stream").timer().count());
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWindow() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        Mockito.when(calculationRepaymentPlanService.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT, 0, 1)).thenReturn(paymentPlan);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "?limit=1")
+                        .accept(APPLICATION_NDJSON).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(toJson(paymentPlan.get(0)) + "\n"));
+
+        Mockito.verify(calculationRepaymentPlanService, Mockito.never()).calculateRepaymentPlan(Mockito.eq(loan), Mockito.any(), Mockito.any());
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "window").timer().count());
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWindowOutsideThePlan() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "?offset=" + DURATION)
+                        .accept(APPLICATION_NDJSON).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(new ValidationResult(Collections.singletonList(
+                        new LoanViolation("offset", LoanViolation.Type.OUT_OF_RANGE, DURATION, DURATION - 1))).getMessage()));
+
+        Mockito.verify(calculationRepaymentPlanService, Mockito.never()).calculateRepaymentPlan(Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    public void testStreamRepaymentPlanWindowFailsAfterValidation() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
+
+        Mockito.when(calculationRepaymentPlanService.calculateRepaymentPlan(loan, CalculationOptions.DEFAULT, 0, 1))
+                .thenThrow(new InvalidInstallmentException(0, DURATION));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "?offset=0")
+                        .accept(APPLICATION_NDJSON).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isInternalServerError());
+    }
+
+    @Test
+    public void testStreamRepaymentPlanInvalidLoan() throws Exception {
+        Loan loan = new Loan(0F, INTEREST_RATE, DURATION, null);
+
+        Mockito.when(calculationRepaymentPlanService.validate(loan)).thenReturn(INVALID_LOAN);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN)
+                        .accept(APPLICATION_NDJSON).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+
+        Mockito.verify(calculationRepaymentPlanService, Mockito.never()).calculateRepaymentPlan(Mockito.eq(loan), Mockito.any(), Mockito.any());
+        Assert.assertEquals(1, registry.get("repayment.plan.validation").timer().count());
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "loanAmount").counter().count(), 0D);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "null", "parameter", "startDate").counter().count(), 0D);
+    }
+
+    @Test
+    public void testStreamRepaymentPlanFailsAfterValidation() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, null);
+
+        Mockito.doThrow(new NullLoanParameterException("startDate")).when(calculationRepaymentPlanService)
+                .calculateRepaymentPlan(Mockito.eq(loan), Mockito.eq(CalculationOptions.DEFAULT), Mockito.any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN)
+                        .accept(APPLICATION_NDJSON).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isInternalServerError());
+    }
+
+    @Test
+    public void testCalculateCashFlows() throws Exception {
+        List<Loan> loans = Arrays.asList(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE), null);
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+
+        Mockito.when(portfolioCashFlowService.calculateCashFlows(loans, options)).thenReturn(new PortfolioCashFlow(1, 1,
+                Collections.singletonList(new MonthlyCashFlow(YearMonth.of(2018, 1), 1, new BigDecimal("20.83"),
+                        new BigDecimal("5000.00"), new BigDecimal("0.00")))));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "generate-cash-flows")
+                        .param("arithmetic", "FIXED_POINT").param("roundingMode", "HALF_EVEN")
+                        .content(toJson(loans)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json("{\"loans\": 1, \"rejectedLoans\": 1, \"cashFlows\": [" +
+                        "{\"month\": \"2018-01\", \"payments\": 1, \"interest\": 20.83, \"principal\": 5000.00, " +
+                        "\"remainingOutstandingPrincipal\": 0.00}]}", true));
+
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "portfolio").timer().count());
+    }
+
+    @Test
+    public void testStreamRepaymentPlans() throws Exception {
+        List<Loan> loans = Arrays.asList(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE),
+                new Loan(0F, INTEREST_RATE, DURATION, START_DATE));
+        PlanResult valid = new PlanResult(paymentPlan, null);
+        PlanResult invalid = new PlanResult(null, new InvalidLoanParameterException("loanAmount", 0F).getMessage());
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<PlanResult> consumer = invocation.getArgument(2);
+            consumer.accept(valid);
+            consumer.accept(invalid);
+            return null;
+        }).when(batchRepaymentPlanService).calculateRepaymentPlans(Mockito.eq(loans), Mockito.eq(CalculationOptions.DEFAULT), Mockito.any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLANS)
+                        .accept(APPLICATION_NDJSON).content(toJson(loans)).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(toJson(valid) + "\n" + toJson(invalid) + "\n"));
+
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "batch-stream").timer().count());
+    }
+
+    @Test
+    public void testStreamCsvRepaymentPlans() throws Exception {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+        Mockito.doAnswer(invocation -> {
+            InputStream csv = invocation.getArgument(0);
+            OutputStream output = invocation.getArgument(1);
+            output.write(StreamUtils.copyToByteArray(csv));
+            return null;
+        }).when(csvRepaymentPlanService).calculateRepaymentPlans(Mockito.any(), Mockito.any(), Mockito.eq(options));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLANS)
+                        .param("arithmetic", "FIXED_POINT").param("roundingMode", "HALF_EVEN")
+                        .accept(RepaymentPlanController.TEXT_CSV_VALUE).content("A1,5000,5,24,2018-01-01T00:00:01Z")
+                        .contentType(RepaymentPlanController.TEXT_CSV_VALUE))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(RepaymentPlanController.TEXT_CSV_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string("A1,5000,5,24,2018-01-01T00:00:01Z"));
+
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "batch-csv").timer().count());
+    }
+
+    @Test
+    public void testCalculateRepaymentPlanReportsAllViolations() throws Exception {
+        Loan loan = new Loan(0F, INTEREST_RATE, DURATION, null);
+
+        Mockito.when(calculationRepaymentPlanService.validate(loan)).thenReturn(INVALID_LOAN);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+
+        Mockito.verifyZeroInteractions(repaymentPlanCache);
+    }
+
+    @Test
+    public void testCalculateInstallmentInvalidLoan() throws Exception {
+        Loan loan = new Loan(0F, INTEREST_RATE, DURATION, null);
+
+        Mockito.when(calculationRepaymentPlanService.validate(loan)).thenReturn(INVALID_LOAN);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN + "/installment/0").content(toJson(loan)).contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_PLAIN))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string(INVALID_LOAN.getMessage()));
+
+        Mockito.verify(calculationRepaymentPlanService, Mockito.never()).calculateInstallment(Mockito.any(), Mockito.any(), Mockito.anyInt());
     }
 
     @Test
     public void testNullLoanParameterExceptionHandler() throws Exception {
         Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
 
-        Mockito.doThrow(new NullLoanParameterException("loan amount")).when(calculationRepaymentPlanService).calculateRepaymentPlan(loan);
+        Mockito.doThrow(new NullLoanParameterException("loan amount")).when(repaymentPlanCache).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
 
         mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
 
-        Mockito.verify(calculationRepaymentPlanService).calculateRepaymentPlan(loan);
+        Mockito.verify(repaymentPlanCache).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "null", "parameter", "loan amount").counter().count(), 0D);
     }
 
     @Test
     public void testInvalidLoanParameterExceptionHandler() throws Exception {
         Loan loan = new Loan(0F, INTEREST_RATE, DURATION, START_DATE);
 
-        Mockito.doThrow(new InvalidLoanParameterException("loan amount", 0F)).when(calculationRepaymentPlanService).calculateRepaymentPlan(loan);
+        Mockito.doThrow(new InvalidLoanParameterException("loan amount", 0F)).when(repaymentPlanCache).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
 
         mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
 
-        Mockito.verify(calculationRepaymentPlanService).calculateRepaymentPlan(loan);
+        Mockito.verify(repaymentPlanCache).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
     }
 
     @Test
     public void testRunExceptionHandler() throws Exception {
         Loan loan = new Loan(5000F, INTEREST_RATE, DURATION, START_DATE);
 
-        Mockito.doThrow(new RuntimeException("ERROR")).when(calculationRepaymentPlanService).calculateRepaymentPlan(loan);
+        Mockito.doThrow(new RuntimeException("ERROR")).when(repaymentPlanCache).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
 
         mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + GENERATE_PLAN).content(toJson(loan)).contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isInternalServerError());
 
-        Mockito.verify(calculationRepaymentPlanService).calculateRepaymentPlan(loan);
+        Mockito.verify(repaymentPlanCache).calculateRepaymentPlan(loan, CalculationOptions.DEFAULT);
     }
 
 }
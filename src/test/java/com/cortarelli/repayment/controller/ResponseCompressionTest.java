@@ -0,0 +1,59 @@
+package com.cortarelli.repayment.controller;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.service.CalculationRepaymentPlanService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPInputStream;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResponseCompressionTest extends AbstractTest {
+
+    private static final Loan LOAN = new Loan(250000F, 3.75F, 360, OffsetDateTime.parse("2018-01-31T00:00:01Z"));
+    private static final String QUERY = "?loanAmount=250000&nominalRate=3.75&duration=360&startDate=2018-01-31T00:00:01Z";
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void checkCacheablePlanIsCompressedByTomcat() throws Exception {
+        // a plain connection, to read the bytes as they are sent
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/generate-plan" + QUERY).openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertEquals("gzip", connection.getHeaderField(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertTrue(connection.getHeaderField(HttpHeaders.ETAG).startsWith("W/\""));
+        String body = StreamUtils.copyToString(new GZIPInputStream(connection.getInputStream()), StandardCharsets.UTF_8);
+        Assert.assertEquals(toJson(new CalculationRepaymentPlanService().calculateRepaymentPlan(LOAN)), body);
+    }
+
+    @Test
+    public void checkCompressedPlanIsValidatedByItsETag() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/generate-plan" + QUERY).openConnection();
+        connection.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String etag = connection.getHeaderField(HttpHeaders.ETAG);
+        connection.getInputStream().close();
+
+        HttpURLConnection revalidation = (HttpURLConnection) new URL("http://localhost:" + port + "/generate-plan" + QUERY).openConnection();
+        revalidation.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        revalidation.setRequestProperty(HttpHeaders.IF_NONE_MATCH, etag);
+
+        Assert.assertEquals(304, revalidation.getResponseCode());
+        Assert.assertEquals(etag, revalidation.getHeaderField(HttpHeaders.ETAG));
+    }
+
+}
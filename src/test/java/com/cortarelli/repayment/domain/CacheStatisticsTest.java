@@ -0,0 +1,31 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CacheStatisticsTest extends AbstractTest {
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        CacheStatistics statistics = new CacheStatistics(10L, 3L, 2L, 1L);
+        assertThat(statistics.getHitCount(), Is.is(10L));
+        assertThat(statistics.getMissCount(), Is.is(3L));
+        assertThat(statistics.getEvictionCount(), Is.is(2L));
+        assertThat(statistics.getSize(), Is.is(1L));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(CacheStatistics.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new CacheStatistics(10L, 3L, 2L, 1L), hasToStringContainingInAnyOrder(10L, 3L, 2L, 1L));
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.exception.InvalidCalculationOptionsException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.math.RoundingMode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CalculationOptionsTest extends AbstractTest {
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+        assertThat(options.getArithmetic(), Is.is(Arithmetic.FIXED_POINT));
+        assertThat(options.getRoundingMode(), Is.is(RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void defaultShouldKeepFloatArithmetic() {
+        assertThat(CalculationOptions.DEFAULT.getArithmetic(), Is.is(Arithmetic.FLOAT));
+        assertThat(CalculationOptions.DEFAULT.getRoundingMode(), Is.is(RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void shouldRejectRoundingModeUnnecessary() {
+        InvalidCalculationOptionsException exception = Assertions.assertThrows(InvalidCalculationOptionsException.class,
+                () -> new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.UNNECESSARY));
+        assertThat(exception.getParameterName(), Is.is("roundingMode"));
+        assertThat(exception.getMessage(), Is.is("The parameter roundingMode is invalid, the amounts cannot be calculated without rounding. Value: UNNECESSARY."));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(CalculationOptions.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN),
+                hasToStringContainingInAnyOrder(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN));
+    }
+
+}
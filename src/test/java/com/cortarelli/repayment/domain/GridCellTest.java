@@ -0,0 +1,60 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GridCellTest extends AbstractTest {
+
+    private static final List<Payment> PLAN = Collections.singletonList(new Payment(5020.83F,
+            OffsetDateTime.parse("2018-01-01T00:00:00Z"), 5000F, 20.83F, 5000F, 0F));
+    private static final BigDecimal TOTAL_INTEREST = new BigDecimal("20.83");
+    private static final BigDecimal TOTAL_PAID = new BigDecimal("5020.83");
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        GridCell cell = new GridCell(5F, 1, 5020.83F, TOTAL_INTEREST, TOTAL_PAID, PLAN);
+        assertThat(cell.getNominalRate(), Is.is(5F));
+        assertThat(cell.getDuration(), Is.is(1));
+        assertThat(cell.getAnnuity(), Is.is(5020.83F));
+        assertThat(cell.getTotalInterest(), Is.is(TOTAL_INTEREST));
+        assertThat(cell.getTotalPaid(), Is.is(TOTAL_PAID));
+        assertThat(cell.getPlan(), Is.is(PLAN));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        // the totals always have scale 2, the warning only exists on the EqualsVerifier of the java21 profile
+        Warning[] scaleOfAmounts = Arrays.stream(Warning.values())
+                .filter(warning -> warning.name().equals("BIGDECIMAL_EQUALITY"))
+                .toArray(Warning[]::new);
+        EqualsVerifier.forClass(GridCell.class).suppress(scaleOfAmounts).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new GridCell(5F, 1, 5020.83F, TOTAL_INTEREST, TOTAL_PAID, PLAN),
+                hasToStringContainingInAnyOrder(5F, 1, 5020.83F, TOTAL_INTEREST, TOTAL_PAID, PLAN));
+    }
+
+    @Test
+    public void shouldOmitThePlanOnJsonWhenNotRequested() throws Exception {
+        JSONAssert.assertEquals("{\"nominalRate\": 5, \"duration\": 1, \"annuity\": 5020.83, \"totalInterest\": 20.83, \"totalPaid\": 5020.83}",
+                mapper.writeValueAsString(new GridCell(5F, 1, 5020.83F, TOTAL_INTEREST, TOTAL_PAID, null)), true);
+        JSONAssert.assertEquals("{\"nominalRate\": 5, \"duration\": 1, \"annuity\": 5020.83, \"totalInterest\": 20.83, \"totalPaid\": 5020.83, " +
+                        "\"plan\": " + toJson(PLAN) + "}",
+                mapper.writeValueAsString(new GridCell(5F, 1, 5020.83F, TOTAL_INTEREST, TOTAL_PAID, PLAN)), true);
+    }
+
+}
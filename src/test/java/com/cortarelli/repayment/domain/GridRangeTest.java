@@ -0,0 +1,55 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GridRangeTest extends AbstractTest {
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        GridRange range = new GridRange(3F, 5F, 0.25F);
+        assertThat(range.getFrom(), Is.is(3F));
+        assertThat(range.getTo(), Is.is(5F));
+        assertThat(range.getStep(), Is.is(0.25F));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(GridRange.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new GridRange(3F, 5F, 0.25F), hasToStringContainingInAnyOrder(3F, 5F, 0.25F));
+    }
+
+    @Test
+    public void shouldDeserializeJsonToEntity() throws Exception {
+        assertThat(mapper.readValue("{\"from\": 3, \"to\": 5, \"step\": 0.25}", GridRange.class), Is.is(new GridRange(3F, 5F, 0.25F)));
+        Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"from\": 3, \"to\": 5}", GridRange.class));
+    }
+
+    @Test
+    public void shouldIncludeTheLastValueDespiteTheFloatError() {
+        GridRange range = new GridRange(3F, 4F, 0.1F);
+        assertThat(range.size(), Is.is(11L));
+        assertThat(range.valueAt(0), Is.is(3F));
+        assertThat(range.valueAt(7), Is.is(3.7F));
+        assertThat(range.valueAt(10), Is.is(4F));
+    }
+
+    @Test
+    public void shouldLeaveOutTheLastValueWhenItIsNotAWholeStep() {
+        GridRange range = new GridRange(12F, 40F, 12F);
+        assertThat(range.size(), Is.is(3L));
+        assertThat(range.valueAt(2), Is.is(36F));
+        assertThat(new GridRange(12F, 12F, 1F).size(), Is.is(1L));
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoanEventsTest extends AbstractTest {
+
+    private final static Loan LOAN = new Loan(5000F, 5F, 24, OffsetDateTime.parse("2018-01-01T00:00:01Z"));
+    private final static List<PlanEvent> EVENTS = Collections.singletonList(new PlanEvent(PlanEvent.Type.PREPAYMENT, 12, 1000F));
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        LoanEvents loanEvents = new LoanEvents(LOAN, EVENTS);
+        assertThat(loanEvents.getLoan(), Is.is(LOAN));
+        assertThat(loanEvents.getEvents(), Is.is(EVENTS));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(LoanEvents.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new LoanEvents(LOAN, EVENTS), hasToStringContainingInAnyOrder(LOAN, EVENTS));
+    }
+
+    @Test
+    public void shouldDeserializeJsonToEntity() throws Exception {
+        assertThat(mapper.readValue(toJson(new LoanEvents(LOAN, EVENTS)), LoanEvents.class), Is.is(new LoanEvents(LOAN, EVENTS)));
+        Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"loan\": " + toJson(LOAN) + "}", LoanEvents.class));
+    }
+
+}
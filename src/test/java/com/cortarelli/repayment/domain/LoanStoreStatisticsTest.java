@@ -0,0 +1,29 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoanStoreStatisticsTest extends AbstractTest {
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        LoanStoreStatistics statistics = new LoanStoreStatistics(10L, 328L);
+        assertThat(statistics.getLoans(), Is.is(10L));
+        assertThat(statistics.getBytes(), Is.is(328L));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(LoanStoreStatistics.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new LoanStoreStatistics(10L, 328L), hasToStringContainingInAnyOrder(10L, 328L));
+    }
+
+}
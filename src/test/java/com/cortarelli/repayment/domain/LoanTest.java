@@ -8,6 +8,10 @@ import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -27,6 +31,27 @@ public class LoanTest extends AbstractTest {
         assertThat(loan.getStartDate(), Is.is(START_DATE));
     }
 
+    @Test
+    public void shouldHaveRateSegments() {
+        List<RateSegment> rateSegments = Collections.singletonList(new RateSegment(12, 1.99F));
+        assertThat(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE).getRateSegments(), Is.is(Collections.emptyList()));
+        assertThat(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE, rateSegments).getRateSegments(), Is.is(rateSegments));
+        assertThat(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE, new ArrayList<>()).getRateSegments(), Is.is(Collections.emptyList()));
+    }
+
+    @Test
+    public void shouldCopyRateSegments() {
+        List<RateSegment> rateSegments = new ArrayList<>(Collections.singletonList(new RateSegment(12, 1.99F)));
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE, rateSegments);
+        int hashCode = loan.hashCode();
+
+        rateSegments.add(new RateSegment(6, 3.5F));
+
+        assertThat(loan.getRateSegments(), Is.is(Collections.singletonList(new RateSegment(12, 1.99F))));
+        assertThat(loan.hashCode(), Is.is(hashCode));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> loan.getRateSegments().clear());
+    }
+
     @Test
     public void shouldHaveEqualsMethod() {
         EqualsVerifier.forClass(Loan.class).verify();
@@ -46,6 +71,15 @@ public class LoanTest extends AbstractTest {
         assertThat(mapper.readValue(jsonLoan, Loan.class), Is.is(loan));
     }
 
+    @Test
+    public void shouldDeserializeRateSegments() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE, Arrays.asList(new RateSegment(12, 1.99F), new RateSegment(6, 3.5F)));
+        String json = toJson(loan);
+
+        assertThat(mapper.readValue(json, Loan.class), Is.is(loan));
+        assertThat(toJson(new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE)), Is.is(json.substring(0, json.indexOf(",\"rateSegments\"")) + "}"));
+    }
+
     @Test
     public void verifyNullParametersParseJsonToEntity() throws Exception {
         Loan loan = new Loan(LOAN_AMOUNT, INTEREST_RATE, DURATION, START_DATE);
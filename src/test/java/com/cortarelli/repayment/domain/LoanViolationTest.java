@@ -0,0 +1,50 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoanViolationTest extends AbstractTest {
+
+    private static final String PARAMETER_NAME = "loanAmount";
+    private static final float VALUE = -1F;
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        LoanViolation violation = new LoanViolation(PARAMETER_NAME, LoanViolation.Type.INVALID, VALUE);
+        assertThat(violation.getParameterName(), Is.is(PARAMETER_NAME));
+        assertThat(violation.getType(), Is.is(LoanViolation.Type.INVALID));
+        assertThat(violation.getValue(), Is.is(VALUE));
+        assertThat(violation.getMaximum(), Is.is((Number) null));
+        assertThat(new LoanViolation("offset", LoanViolation.Type.OUT_OF_RANGE, 30, 23).getMaximum(), Is.is(23));
+    }
+
+    @Test
+    public void shouldHaveTheMessageOfTheExceptions() {
+        assertThat(new LoanViolation(PARAMETER_NAME, LoanViolation.Type.INVALID, VALUE).getMessage(),
+                Is.is(new InvalidLoanParameterException(PARAMETER_NAME, VALUE).getMessage()));
+        assertThat(new LoanViolation("duration", LoanViolation.Type.INVALID, 0).getMessage(),
+                Is.is(new InvalidLoanParameterException("duration", 0).getMessage()));
+        assertThat(new LoanViolation("startDate", LoanViolation.Type.NULL, null).getMessage(),
+                Is.is(new NullLoanParameterException("startDate").getMessage()));
+        assertThat(new LoanViolation("offset", LoanViolation.Type.OUT_OF_RANGE, 30, 23).getMessage(),
+                Is.is("The parameter offset is invalid, the assigned value should be between 0 and 23. Value: 30."));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(LoanViolation.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new LoanViolation(PARAMETER_NAME, LoanViolation.Type.OUT_OF_RANGE, VALUE, 23),
+                hasToStringContainingInAnyOrder(PARAMETER_NAME, LoanViolation.Type.OUT_OF_RANGE, VALUE, 23));
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MonthlyCashFlowTest extends AbstractTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2018, 1);
+    private static final BigDecimal INTEREST = new BigDecimal("41.66");
+    private static final BigDecimal PRINCIPAL = new BigDecimal("397.06");
+    private static final BigDecimal REMAINING_OUTSTANDING_PRINCIPAL = new BigDecimal("9602.94");
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        MonthlyCashFlow cashFlow = new MonthlyCashFlow(MONTH, 2, INTEREST, PRINCIPAL, REMAINING_OUTSTANDING_PRINCIPAL);
+        assertThat(cashFlow.getMonth(), Is.is(MONTH));
+        assertThat(cashFlow.getPayments(), Is.is(2));
+        assertThat(cashFlow.getInterest(), Is.is(INTEREST));
+        assertThat(cashFlow.getPrincipal(), Is.is(PRINCIPAL));
+        assertThat(cashFlow.getRemainingOutstandingPrincipal(), Is.is(REMAINING_OUTSTANDING_PRINCIPAL));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        // the amounts always have scale 2, the warning only exists on the EqualsVerifier of the java21 profile
+        Warning[] scaleOfAmounts = Arrays.stream(Warning.values())
+                .filter(warning -> warning.name().equals("BIGDECIMAL_EQUALITY"))
+                .toArray(Warning[]::new);
+        EqualsVerifier.forClass(MonthlyCashFlow.class).suppress(scaleOfAmounts).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new MonthlyCashFlow(MONTH, 2, INTEREST, PRINCIPAL, REMAINING_OUTSTANDING_PRINCIPAL),
+                hasToStringContainingInAnyOrder(MONTH, 2, INTEREST, PRINCIPAL, REMAINING_OUTSTANDING_PRINCIPAL));
+    }
+
+    @Test
+    public void shouldWriteTheMonthAndAmountsOnJson() throws Exception {
+        JSONAssert.assertEquals("{\"month\": \"2018-01\", \"payments\": 2, \"interest\": 41.66, \"principal\": 397.06, " +
+                        "\"remainingOutstandingPrincipal\": 9602.94}",
+                mapper.writeValueAsString(new MonthlyCashFlow(MONTH, 2, INTEREST, PRINCIPAL, REMAINING_OUTSTANDING_PRINCIPAL)), true);
+    }
+
+}
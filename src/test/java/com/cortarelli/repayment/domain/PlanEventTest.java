@@ -0,0 +1,43 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PlanEventTest extends AbstractTest {
+
+    private final static int INSTALLMENT = 12;
+    private final static float VALUE = 1000F;
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        PlanEvent event = new PlanEvent(PlanEvent.Type.PREPAYMENT, INSTALLMENT, VALUE);
+        assertThat(event.getType(), Is.is(PlanEvent.Type.PREPAYMENT));
+        assertThat(event.getInstallment(), Is.is(INSTALLMENT));
+        assertThat(event.getValue(), Is.is(VALUE));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(PlanEvent.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new PlanEvent(PlanEvent.Type.RATE_CHANGE, INSTALLMENT, VALUE), hasToStringContainingInAnyOrder(PlanEvent.Type.RATE_CHANGE, INSTALLMENT, VALUE));
+    }
+
+    @Test
+    public void shouldDeserializeJsonToEntity() throws Exception {
+        String json = "{\"type\": \"DURATION_CHANGE\", \"installment\": " + INSTALLMENT + ", \"value\": 36}";
+
+        assertThat(mapper.readValue(json, PlanEvent.class), Is.is(new PlanEvent(PlanEvent.Type.DURATION_CHANGE, INSTALLMENT, 36F)));
+        Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"type\": \"PREPAYMENT\", \"value\": 1000}", PlanEvent.class));
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.time.OffsetDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PlanGridTest extends AbstractTest {
+
+    private final static OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-01T00:00:01Z");
+    private final static GridRange NOMINAL_RATES = new GridRange(3F, 5F, 0.25F);
+    private final static GridRange DURATIONS = new GridRange(12F, 360F, 12F);
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        PlanGrid grid = new PlanGrid(5000F, START_DATE, NOMINAL_RATES, DURATIONS);
+        assertThat(grid.getLoanAmount(), Is.is(5000F));
+        assertThat(grid.getStartDate(), Is.is(START_DATE));
+        assertThat(grid.getNominalRates(), Is.is(NOMINAL_RATES));
+        assertThat(grid.getDurations(), Is.is(DURATIONS));
+    }
+
+    @Test
+    public void shouldCreateTheLoanOfACell() {
+        assertThat(new PlanGrid(5000F, START_DATE, NOMINAL_RATES, DURATIONS).loan(3.25F, 24), Is.is(new Loan(5000F, 3.25F, 24, START_DATE)));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(PlanGrid.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new PlanGrid(5000F, START_DATE, NOMINAL_RATES, DURATIONS),
+                hasToStringContainingInAnyOrder(5000F, START_DATE, NOMINAL_RATES, DURATIONS));
+    }
+
+    @Test
+    public void shouldDeserializeJsonToEntity() throws Exception {
+        PlanGrid grid = new PlanGrid(5000F, START_DATE, NOMINAL_RATES, DURATIONS);
+        assertThat(mapper.readValue(toJson(grid), PlanGrid.class), Is.is(grid));
+        Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"loanAmount\": 5000, \"startDate\": \"2018-01-01T00:00:01Z\", " +
+                "\"nominalRates\": " + toJson(NOMINAL_RATES) + "}", PlanGrid.class));
+    }
+
+}
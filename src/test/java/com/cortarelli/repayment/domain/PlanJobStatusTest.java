@@ -0,0 +1,40 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PlanJobStatusTest extends AbstractTest {
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        PlanJobStatus status = new PlanJobStatus("job", PlanJobStatus.State.FAILED, 10, 3, "No space left on device");
+        assertThat(status.getId(), Is.is("job"));
+        assertThat(status.getState(), Is.is(PlanJobStatus.State.FAILED));
+        assertThat(status.getLoans(), Is.is(10));
+        assertThat(status.getCalculatedLoans(), Is.is(3));
+        assertThat(status.getError(), Is.is("No space left on device"));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(PlanJobStatus.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new PlanJobStatus("job", PlanJobStatus.State.FAILED, 10, 3, "No space left on device"),
+                hasToStringContainingInAnyOrder("job", PlanJobStatus.State.FAILED, 10, 3, "No space left on device"));
+    }
+
+    @Test
+    public void shouldNotWriteTheErrorOfJobsThatDidNotFail() throws Exception {
+        JSONAssert.assertEquals("{\"id\": \"job\", \"state\": \"RUNNING\", \"loans\": 10, \"calculatedLoans\": 3}",
+                mapper.writeValueAsString(new PlanJobStatus("job", PlanJobStatus.State.RUNNING, 10, 3, null)), true);
+    }
+
+}
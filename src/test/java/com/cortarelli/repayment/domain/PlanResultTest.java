@@ -0,0 +1,44 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PlanResultTest extends AbstractTest {
+
+    private static final List<Payment> PLAN = Collections.singletonList(new Payment(5020.83F,
+            OffsetDateTime.parse("2018-01-01T00:00:00Z"), 5000F, 20.83F, 5000F, 0F));
+    private static final String ERROR = "The parameter startDate is invalid, the assigned value cannot be not null.";
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        PlanResult result = new PlanResult(PLAN, ERROR);
+        assertThat(result.getPlan(), Is.is(PLAN));
+        assertThat(result.getError(), Is.is(ERROR));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(PlanResult.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new PlanResult(PLAN, ERROR), hasToStringContainingInAnyOrder(PLAN, ERROR));
+    }
+
+    @Test
+    public void shouldOmitNullValuesOnJson() throws Exception {
+        JSONAssert.assertEquals("{\"error\": \"" + ERROR + "\"}", mapper.writeValueAsString(new PlanResult(null, ERROR)), true);
+        JSONAssert.assertEquals("{\"plan\": " + toJson(PLAN) + "}", mapper.writeValueAsString(new PlanResult(PLAN, null)), true);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PlanSummaryTest extends AbstractTest {
+
+    private static final BigDecimal TOTAL_INTEREST = new BigDecimal("264.56");
+    private static final BigDecimal TOTAL_PAID = new BigDecimal("5264.56");
+    private static final OffsetDateTime LAST_PAYMENT_DATE = OffsetDateTime.parse("2019-12-01T00:00:01Z");
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        PlanSummary summary = new PlanSummary(219.36F, TOTAL_INTEREST, TOTAL_PAID, LAST_PAYMENT_DATE);
+        assertThat(summary.getAnnuity(), Is.is(219.36F));
+        assertThat(summary.getTotalInterest(), Is.is(TOTAL_INTEREST));
+        assertThat(summary.getTotalPaid(), Is.is(TOTAL_PAID));
+        assertThat(summary.getLastPaymentDate(), Is.is(LAST_PAYMENT_DATE));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        // the totals always have scale 2, the warning only exists on the EqualsVerifier of the java21 profile
+        Warning[] scaleOfAmounts = Arrays.stream(Warning.values())
+                .filter(warning -> warning.name().equals("BIGDECIMAL_EQUALITY"))
+                .toArray(Warning[]::new);
+        EqualsVerifier.forClass(PlanSummary.class).suppress(scaleOfAmounts).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new PlanSummary(219.36F, TOTAL_INTEREST, TOTAL_PAID, LAST_PAYMENT_DATE),
+                hasToStringContainingInAnyOrder(219.36F, TOTAL_INTEREST, TOTAL_PAID, LAST_PAYMENT_DATE));
+    }
+
+    @Test
+    public void shouldWriteTheAmountsAndDateOnJson() throws Exception {
+        JSONAssert.assertEquals("{\"annuity\": 219.36, \"totalInterest\": 264.56, \"totalPaid\": 5264.56, \"lastPaymentDate\": \"2019-12-01T00:00:01Z\"}",
+                mapper.writeValueAsString(new PlanSummary(219.36F, TOTAL_INTEREST, TOTAL_PAID, LAST_PAYMENT_DATE)), true);
+    }
+
+}
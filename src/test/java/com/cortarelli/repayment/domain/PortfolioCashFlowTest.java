@@ -0,0 +1,38 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PortfolioCashFlowTest extends AbstractTest {
+
+    private static final List<MonthlyCashFlow> CASH_FLOWS = Collections.singletonList(new MonthlyCashFlow(
+            YearMonth.of(2018, 1), 1, new BigDecimal("20.83"), new BigDecimal("198.53"), new BigDecimal("4801.47")));
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        PortfolioCashFlow cashFlow = new PortfolioCashFlow(1, 2, CASH_FLOWS);
+        assertThat(cashFlow.getLoans(), Is.is(1));
+        assertThat(cashFlow.getRejectedLoans(), Is.is(2));
+        assertThat(cashFlow.getCashFlows(), Is.is(CASH_FLOWS));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(PortfolioCashFlow.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new PortfolioCashFlow(1, 2, CASH_FLOWS), hasToStringContainingInAnyOrder(1, 2, CASH_FLOWS));
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RateSegmentTest extends AbstractTest {
+
+    private final static int DURATION = 24;
+    private final static float NOMINAL_RATE = 1.99F;
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        RateSegment segment = new RateSegment(DURATION, NOMINAL_RATE);
+        assertThat(segment.getDuration(), Is.is(DURATION));
+        assertThat(segment.getNominalRate(), Is.is(NOMINAL_RATE));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(RateSegment.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new RateSegment(DURATION, NOMINAL_RATE), hasToStringContainingInAnyOrder(DURATION, NOMINAL_RATE));
+    }
+
+    @Test
+    public void shouldDeserializeJsonToEntity() throws Exception {
+        assertThat(mapper.readValue("{\"duration\": 24, \"nominalRate\": 1.99}", RateSegment.class), Is.is(new RateSegment(DURATION, NOMINAL_RATE)));
+        Assertions.assertThrows(MismatchedInputException.class, () -> mapper.readValue("{\"duration\": 24}", RateSegment.class));
+    }
+
+}
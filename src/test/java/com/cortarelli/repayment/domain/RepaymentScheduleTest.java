@@ -0,0 +1,122 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RepaymentScheduleTest extends AbstractTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-31T00:00:01+01:00");
+    private static final long EPOCH_DAY = START_DATE.plusMonths(1).toLocalDate().toEpochDay();
+
+    private static final Payment PAYMENT = new Payment(219.36F, START_DATE.plusMonths(1), 4801.47F, 20.01F, 199.35F, 4602.12F);
+
+    @Test
+    public void shouldStoreInstallments() {
+        RepaymentSchedule schedule = new RepaymentSchedule();
+        schedule.reset(START_DATE, 2);
+        schedule.setInstallment(1, 219.36F, 4801.47F, 20.01F, 199.35F, 4602.12F);
+
+        assertThat(schedule.size(), Is.is(2));
+        assertThat(schedule.getStartDate(), Is.is(START_DATE));
+        assertThat(schedule.getEpochDay(1), Is.is(EPOCH_DAY));
+        assertThat(schedule.getBorrowerPaymentAmount(1), Is.is((double) 219.36F));
+        assertThat(schedule.getInitialOutstandingPrincipal(1), Is.is((double) 4801.47F));
+        assertThat(schedule.getInterest(1), Is.is((double) 20.01F));
+        assertThat(schedule.getPrincipal(1), Is.is((double) 199.35F));
+        assertThat(schedule.getRemainingOutstandingPrincipal(1), Is.is((double) 4602.12F));
+        assertThat(schedule.getDate(1), Is.is(START_DATE.plusMonths(1)));
+        assertThat(schedule.getPayment(1), Is.is(PAYMENT));
+    }
+
+    @Test
+    public void shouldReuseArraysWhenCapacityIsEnough() {
+        RepaymentSchedule schedule = new RepaymentSchedule(12);
+        schedule.reset(START_DATE, 6);
+        assertThat(schedule.capacity(), Is.is(12));
+        assertThat(schedule.size(), Is.is(6));
+
+        schedule.reset(START_DATE, 24);
+        assertThat(schedule.capacity(), Is.is(24));
+        assertThat(schedule.size(), Is.is(24));
+    }
+
+    @Test
+    public void shouldExposePaymentsView() {
+        RepaymentSchedule schedule = new RepaymentSchedule();
+        schedule.reset(START_DATE, 2);
+        schedule.setInstallment(1, 219.36F, 4801.47F, 20.01F, 199.35F, 4602.12F);
+
+        List<Payment> payments = schedule.asPayments();
+        assertThat(payments instanceof RandomAccess, Is.is(true));
+        assertThat(payments.size(), Is.is(2));
+        assertThat(payments.get(1), Is.is(PAYMENT));
+        // each read creates its payment, the view keeps none of them
+        assertThat(payments.get(1) == payments.get(1), Is.is(false));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> payments.get(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> payments.get(-1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> payments.add(PAYMENT));
+    }
+
+    @Test
+    public void shouldFindTheScheduleOfAPaymentsView() {
+        RepaymentSchedule schedule = new RepaymentSchedule();
+        List<Payment> payments = schedule.asPayments();
+
+        assertThat(RepaymentSchedule.of(payments), Is.is(schedule));
+        assertThat(RepaymentSchedule.of(Collections.singletonList(PAYMENT)), Is.is((RepaymentSchedule) null));
+        assertThat(RepaymentSchedule.isPaymentView(payments.getClass()), Is.is(true));
+        assertThat(RepaymentSchedule.isPaymentView(ArrayList.class), Is.is(false));
+    }
+
+    @Test
+    public void shouldShiftDatesToAnotherStartDate() {
+        OffsetDateTime otherStartDate = OffsetDateTime.parse("2019-02-28T10:00:00Z");
+        RepaymentSchedule schedule = new RepaymentSchedule();
+        schedule.reset(START_DATE, 2);
+        schedule.setInstallment(1, 219.36F, 4801.47F, 20.01F, 199.35F, 4602.12F);
+
+        RepaymentSchedule shifted = schedule.withStartDate(otherStartDate);
+
+        assertThat(shifted.size(), Is.is(2));
+        assertThat(shifted.getStartDate(), Is.is(otherStartDate));
+        assertThat(shifted.getDate(0), Is.is(otherStartDate));
+        assertThat(shifted.getPayment(1), Is.is(new Payment(219.36F, otherStartDate.plusMonths(1), 4801.47F, 20.01F, 199.35F, 4602.12F)));
+        assertThat(schedule.getPayment(1), Is.is(PAYMENT));
+        assertThat(shifted.getEpochDay(1), Is.is(otherStartDate.plusMonths(1).toLocalDate().toEpochDay()));
+    }
+
+    @Test
+    public void shouldNotResetSharedSchedules() {
+        RepaymentSchedule schedule = new RepaymentSchedule();
+        schedule.reset(START_DATE, 2);
+        RepaymentSchedule shifted = schedule.withStartDate(START_DATE.plusDays(1));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> schedule.reset(START_DATE, 2));
+        Assertions.assertThrows(IllegalStateException.class, () -> shifted.reset(START_DATE, 2));
+        Assertions.assertThrows(IllegalStateException.class, () -> schedule.setInstallment(1, 219.36F, 4801.47F, 20.01F, 199.35F, 4602.12F));
+        Assertions.assertThrows(IllegalStateException.class, () -> shifted.setInstallment(1, 219.36F, 4801.47F, 20.01F, 199.35F, 4602.12F));
+    }
+
+    @Test
+    public void shouldNotModifyAScheduleOnceShared() {
+        RepaymentSchedule schedule = new RepaymentSchedule();
+        schedule.reset(START_DATE, 2);
+        schedule.setInstallment(1, 219.36F, 4801.47F, 20.01F, 199.35F, 4602.12F);
+
+        assertThat(schedule.share(), Is.is(schedule));
+        Assertions.assertThrows(IllegalStateException.class, () -> schedule.setInstallment(1, 0D, 0D, 0D, 0D, 0D));
+        Assertions.assertThrows(IllegalStateException.class, () -> schedule.reset(START_DATE, 2));
+        assertThat(schedule.getPayment(1), Is.is(PAYMENT));
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.cortarelli.repayment.domain;
+
+import com.cortarelli.repayment.AbstractTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.hamcrest.core.Is;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ValidationResultTest extends AbstractTest {
+
+    private static final LoanViolation DURATION = new LoanViolation("duration", LoanViolation.Type.INVALID, 0);
+    private static final LoanViolation START_DATE = new LoanViolation("startDate", LoanViolation.Type.NULL, null);
+    private static final List<LoanViolation> VIOLATIONS = Arrays.asList(DURATION, START_DATE);
+
+    @Test
+    public void shouldHaveConstructorAndGetters() {
+        ValidationResult result = new ValidationResult(VIOLATIONS);
+        assertThat(result.getViolations(), Is.is(VIOLATIONS));
+        assertThat(result.isValid(), Is.is(false));
+        assertThat(ValidationResult.VALID.isValid(), Is.is(true));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void violationsShouldBeReadOnly() {
+        new ValidationResult(VIOLATIONS).getViolations().clear();
+    }
+
+    @Test
+    public void messageShouldJoinAllViolations() {
+        assertThat(new ValidationResult(VIOLATIONS).getMessage(), Is.is(DURATION.getMessage() + " " + START_DATE.getMessage()));
+        assertThat(ValidationResult.VALID.getMessage(), Is.is(""));
+    }
+
+    @Test
+    public void shouldHaveEqualsMethod() {
+        EqualsVerifier.forClass(ValidationResult.class).verify();
+    }
+
+    @Test
+    public void toStringShouldContainTheValuesOfTheClassFields() {
+        assertThat(new ValidationResult(VIOLATIONS), hasToStringContainingInAnyOrder(DURATION, START_DATE));
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.cortarelli.repayment.metrics;
+
+import com.cortarelli.repayment.domain.LoanViolation;
+import com.cortarelli.repayment.domain.PlanEvent;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.exception.InvalidCalculationOptionsException;
+import com.cortarelli.repayment.exception.InvalidGridException;
+import com.cortarelli.repayment.exception.InvalidInstallmentException;
+import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.InvalidPlanEventException;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+public class PlanMetricsTest {
+
+    private MeterRegistry registry;
+    private PlanMetrics planMetrics;
+
+    @Before
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        planMetrics = new PlanMetrics(registry);
+    }
+
+    @Test
+    public void checkStagesAreTimed() {
+        planMetrics.recordDeserialization(planMetrics.start());
+        planMetrics.recordValidation(planMetrics.start());
+        planMetrics.recordValidation(planMetrics.start());
+        planMetrics.recordCalculation(planMetrics.start(), "plan");
+        planMetrics.recordCalculation(planMetrics.start(), "batch");
+        planMetrics.recordSerialization(planMetrics.start());
+
+        Assert.assertEquals(1, registry.get(PlanMetrics.DESERIALIZATION).timer().count());
+        Assert.assertEquals(2, registry.get(PlanMetrics.VALIDATION).timer().count());
+        Assert.assertEquals(1, registry.get(PlanMetrics.CALCULATION).tag("operation", "plan").timer().count());
+        Assert.assertEquals(1, registry.get(PlanMetrics.CALCULATION).tag("operation", "batch").timer().count());
+        Assert.assertEquals(1, registry.get(PlanMetrics.SERIALIZATION).timer().count());
+    }
+
+    @Test
+    public void checkPlanLength() {
+        planMetrics.recordPlanLength(24);
+        planMetrics.recordPlanLength(12);
+
+        Assert.assertEquals(2, registry.get(PlanMetrics.INSTALLMENTS).summary().count());
+        Assert.assertEquals(36D, registry.get(PlanMetrics.INSTALLMENTS).summary().totalAmount(), 0D);
+        Assert.assertEquals(24D, registry.get(PlanMetrics.INSTALLMENTS).summary().max(), 0D);
+    }
+
+    @Test
+    public void checkNotModifiedAreCounted() {
+        planMetrics.recordNotModified();
+        planMetrics.recordNotModified();
+
+        Assert.assertEquals(2D, registry.get(PlanMetrics.NOT_MODIFIED).counter().count(), 0D);
+    }
+
+    @Test
+    public void checkRejectionsPerReasonAndParameter() {
+        planMetrics.recordRejection(new InvalidLoanParameterException("duration", 0));
+        planMetrics.recordRejection(new InvalidLoanParameterException("duration", -1));
+        planMetrics.recordRejection(new InvalidLoanParameterException("loanAmount", 0F));
+        planMetrics.recordRejection(new NullLoanParameterException("startDate"));
+        planMetrics.recordRejection(new InvalidInstallmentException(24, 24));
+        planMetrics.recordRejection(new InvalidPlanEventException(new PlanEvent(PlanEvent.Type.PREPAYMENT, 0, 0F), "the prepayment should be greater than zero"));
+        planMetrics.recordRejection(new InvalidGridException("durations.step", "the assigned value should be a whole number", 1.5F));
+        planMetrics.recordRejection(new InvalidCalculationOptionsException("roundingMode", RoundingMode.UNNECESSARY, "the amounts cannot be calculated without rounding"));
+        planMetrics.recordOutOfRange("startDate");
+        planMetrics.recordInvalid("arithmetic");
+
+        Assert.assertEquals(2D, rejections("invalid", "duration"), 0D);
+        Assert.assertEquals(1D, rejections("invalid", "loanAmount"), 0D);
+        Assert.assertEquals(1D, rejections("null", "startDate"), 0D);
+        Assert.assertEquals(1D, rejections("out_of_range", "installment"), 0D);
+        Assert.assertEquals(1D, rejections("invalid", "prepayment"), 0D);
+        Assert.assertEquals(1D, rejections("invalid", "durations.step"), 0D);
+        Assert.assertEquals(1D, rejections("invalid", "roundingMode"), 0D);
+        Assert.assertEquals(1D, rejections("out_of_range", "startDate"), 0D);
+        Assert.assertEquals(1D, rejections("invalid", "arithmetic"), 0D);
+    }
+
+    @Test
+    public void checkRejectionsOfValidationResult() {
+        planMetrics.recordRejections(new ValidationResult(Arrays.asList(
+                new LoanViolation("duration", LoanViolation.Type.INVALID, 0),
+                new LoanViolation("startDate", LoanViolation.Type.NULL, null))));
+
+        Assert.assertEquals(1D, rejections("invalid", "duration"), 0D);
+        Assert.assertEquals(1D, rejections("null", "startDate"), 0D);
+    }
+
+    @Test
+    public void checkRejectionsOfListElementsShareOneTimeSeries() {
+        planMetrics.recordRejections(new ValidationResult(Arrays.asList(
+                new LoanViolation("rateSegments[0].duration", LoanViolation.Type.INVALID, 0),
+                new LoanViolation("rateSegments[1].duration", LoanViolation.Type.INVALID, -1),
+                new LoanViolation("rateSegments[12].nominalRate", LoanViolation.Type.INVALID, 0F),
+                new LoanViolation("rateSegments[2]", LoanViolation.Type.NULL, null))));
+
+        Assert.assertEquals(2D, rejections("invalid", "rateSegments.duration"), 0D);
+        Assert.assertEquals(1D, rejections("invalid", "rateSegments.nominalRate"), 0D);
+        Assert.assertEquals(1D, rejections("null", "rateSegments"), 0D);
+        Assert.assertEquals(3, registry.find(PlanMetrics.REJECTIONS).counters().size());
+    }
+
+    private double rejections(String reason, String parameter) {
+        return registry.get(PlanMetrics.REJECTIONS).tags("reason", reason, "parameter", parameter).counter().count();
+    }
+
+}
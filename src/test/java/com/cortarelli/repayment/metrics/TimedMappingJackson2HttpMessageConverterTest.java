@@ -0,0 +1,61 @@
+package com.cortarelli.repayment.metrics;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.config.MetricsConfiguration;
+import com.cortarelli.repayment.domain.Loan;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+
+public class TimedMappingJackson2HttpMessageConverterTest extends AbstractTest {
+
+    private MeterRegistry registry;
+    private MappingJackson2HttpMessageConverter converter;
+
+    private static final Loan LOAN = new Loan(5000F, 5F, 24, OffsetDateTime.parse("2018-01-01T00:00:01Z"));
+
+    @Before
+    public void init() {
+        registry = new SimpleMeterRegistry();
+        converter = new MetricsConfiguration().mappingJackson2HttpMessageConverter(mapper, new PlanMetrics(registry));
+    }
+
+    @Test
+    public void checkReadIsTimed() throws Exception {
+        Object loan = converter.read(Loan.class, null, new MockHttpInputMessage(toJson(LOAN).getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(LOAN, loan);
+        Assert.assertEquals(1, registry.get(PlanMetrics.DESERIALIZATION).timer().count());
+    }
+
+    @Test
+    public void checkFailedReadIsTimed() throws Exception {
+        try {
+            converter.read(Loan.class, null, new MockHttpInputMessage("{".getBytes(StandardCharsets.UTF_8)));
+            Assert.fail();
+        } catch (HttpMessageNotReadableException e) {
+            Assert.assertEquals(1, registry.get(PlanMetrics.DESERIALIZATION).timer().count());
+        }
+    }
+
+    @Test
+    public void checkWriteIsTimed() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(LOAN, MediaType.APPLICATION_JSON, output);
+
+        Assert.assertEquals(toJson(LOAN), output.getBodyAsString(StandardCharsets.UTF_8));
+        Assert.assertEquals(1, registry.get(PlanMetrics.SERIALIZATION).timer().count());
+    }
+
+}
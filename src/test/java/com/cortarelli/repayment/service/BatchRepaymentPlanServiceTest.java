@@ -0,0 +1,100 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchRepaymentPlanServiceTest {
+
+    private CalculationRepaymentPlanService calculationService;
+    private BatchRepaymentPlanService batchService;
+    private MeterRegistry registry;
+    private ForkJoinPool pool;
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-01T00:00:01Z");
+    private static final CalculationOptions FIXED_POINT = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP);
+
+    @Before
+    public void init() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        calculationService = new CalculationRepaymentPlanService();
+        registry = new SimpleMeterRegistry();
+        batchService = new BatchRepaymentPlanService(calculationService, new PlanMetrics(registry), pool);
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlansKeepsLoanOrder() throws Exception {
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            loans.add(new Loan(1000F * i, 1F + i % 7, i, START_DATE.plusDays(i)));
+        }
+
+        List<PlanResult> results = batchService.calculateRepaymentPlans(loans, FIXED_POINT);
+
+        Assert.assertEquals(loans.size(), results.size());
+        for (int i = 0; i < loans.size(); i++) {
+            Assert.assertNull(results.get(i).getError());
+            Assert.assertEquals(calculationService.calculateRepaymentPlan(loans.get(i), FIXED_POINT), results.get(i).getPlan());
+        }
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlansRejectsOnlyInvalidLoans() throws Exception {
+        Loan valid = new Loan(5000F, 5F, 24, START_DATE);
+        List<Loan> loans = Arrays.asList(
+                valid,
+                new Loan(5000F, 5F, 0, START_DATE),
+                new Loan(5000F, 5F, 24, null),
+                null
+        );
+
+        List<PlanResult> results = batchService.calculateRepaymentPlans(loans, CalculationOptions.DEFAULT);
+
+        Assert.assertEquals(new PlanResult(calculationService.calculateRepaymentPlan(valid), null), results.get(0));
+        Assert.assertEquals(new PlanResult(null, new InvalidLoanParameterException("duration", 0).getMessage()), results.get(1));
+        Assert.assertEquals(new PlanResult(null, new NullLoanParameterException("startDate").getMessage()), results.get(2));
+        Assert.assertEquals(new PlanResult(null, new NullLoanParameterException("loan").getMessage()), results.get(3));
+        Assert.assertEquals(1, registry.get("repayment.plan.installments").summary().count());
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "duration").counter().count(), 0D);
+        Assert.assertEquals(2D, registry.get("repayment.plan.rejections").tag("reason", "null").counters().stream()
+                .mapToDouble(Counter::count).sum(), 0D);
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlansWithConsumerKeepsLoanOrder() throws Exception {
+        List<Loan> loans = new ArrayList<>();
+        int size = Runtime.getRuntime().availableProcessors() * 40 + 3;
+        for (int i = 1; i <= size; i++) {
+            loans.add(new Loan(1000F * i, 1F + i % 7, 1 + i % 60, START_DATE));
+        }
+        List<PlanResult> results = new ArrayList<>();
+
+        batchService.calculateRepaymentPlans(loans, CalculationOptions.DEFAULT, results::add);
+
+        Assert.assertEquals(batchService.calculateRepaymentPlans(loans, CalculationOptions.DEFAULT), results);
+    }
+
+}
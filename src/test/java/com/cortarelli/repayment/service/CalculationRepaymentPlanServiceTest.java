@@ -1,16 +1,35 @@
 package com.cortarelli.repayment.service;
 
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
 import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanViolation;
 import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanEvent;
+import com.cortarelli.repayment.domain.PlanSummary;
+import com.cortarelli.repayment.domain.RateSegment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.domain.ValidationResult;
+import com.cortarelli.repayment.exception.InvalidInstallmentException;
 import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.InvalidPlanEventException;
 import com.cortarelli.repayment.exception.NullLoanParameterException;
+import com.cortarelli.repayment.utils.Utils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 public class CalculationRepaymentPlanServiceTest {
 
@@ -95,6 +114,450 @@ public class CalculationRepaymentPlanServiceTest {
         Assert.assertEquals(PAYMENT_24, paymentPlan.get(23));
     }
 
+    @Test
+    public void checkCalculateRepaymentSchedule() throws Exception {
+        RepaymentSchedule schedule = new RepaymentSchedule(360);
+        Assert.assertSame(schedule, calculationService.calculateRepaymentSchedule(LOAN, schedule));
+        Assert.assertEquals(LOAN.getDuration(), schedule.size());
+        Assert.assertEquals(360, schedule.capacity());
+        Assert.assertEquals(PAYMENT_1, schedule.getPayment(0));
+        Assert.assertEquals(PAYMENT_24, schedule.getPayment(23));
+        Assert.assertEquals(calculationService.calculateRepaymentPlan(LOAN), schedule.asPayments());
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlanWithSink() throws Exception {
+        List<Payment> expected = calculationService.calculateRepaymentPlan(LOAN);
+        RepaymentSchedule schedule = new RepaymentSchedule();
+        schedule.reset(LOAN.getStartDate(), LOAN.getDuration());
+        int[] installments = {0};
+
+        calculationService.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT, (installment, borrowerPaymentAmount,
+                initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal) -> {
+            Assert.assertEquals(installments[0]++, installment);
+            schedule.setInstallment(installment, borrowerPaymentAmount, initialOutstandingPrincipal, interest,
+                    principal, remainingOutstandingPrincipal);
+        });
+
+        Assert.assertEquals(LOAN.getDuration(), installments[0]);
+        Assert.assertEquals(expected, schedule.asPayments());
+        Assertions.assertThrows(NullLoanParameterException.class, () -> calculationService.calculateRepaymentPlan(
+                new Loan(LOAN_AMOUNT, NOMINAL_RATE, DURATION, null), CalculationOptions.DEFAULT, schedule::setInstallment));
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlanPaymentDatesOnEndOfMonth() throws Exception {
+        OffsetDateTime endOfMonth = OffsetDateTime.parse("2019-01-31T10:15:30+02:00");
+        List<Payment> paymentPlan = calculationService.calculateRepaymentPlan(new Loan(LOAN_AMOUNT, NOMINAL_RATE, 600, endOfMonth));
+        for (int i = 0; i < paymentPlan.size(); i++) {
+            Assert.assertEquals(calculationService.calculatePaymentDate(endOfMonth, i), paymentPlan.get(i).getDate());
+        }
+    }
+
+    @Test
+    public void checkFixedPointAnnuityPayment() {
+        Assert.assertEquals(21936L, calculationService.annuityCalculation(DURATION, NOMINAL_RATE, 500000L, RoundingMode.HALF_UP));
+        Assert.assertEquals(21935L, calculationService.annuityCalculation(DURATION, NOMINAL_RATE, 500000L, RoundingMode.DOWN));
+    }
+
+    @Test
+    public void checkAnnuityOfRateBelowOneRateUnit() throws Exception {
+        // 0.00001% is below the 0.0001% unit of the fixed-point rate, so the plan has no interest
+        Assert.assertEquals(20834L, calculationService.annuityCalculation(DURATION, 0.00001F, 500000L, RoundingMode.CEILING));
+        Assert.assertEquals(20833L, calculationService.annuityCalculation(DURATION, 0.00001F, 500000L, RoundingMode.DOWN));
+        Assert.assertEquals(208.33F, calculationService.annuityCalculation(DURATION, Float.MIN_VALUE, 5000F), 0F);
+
+        for (Arithmetic arithmetic : Arithmetic.values()) {
+            List<Payment> plan = calculationService.calculateRepaymentPlan(new Loan(5000F, 0.00001F, DURATION, START_DATE),
+                    new CalculationOptions(arithmetic, RoundingMode.HALF_UP));
+            Assert.assertEquals(DURATION, plan.size());
+            Assert.assertEquals(208.33F, plan.get(0).getPrincipal(), 0F);
+            Assert.assertEquals(0F, plan.get(DURATION - 1).getRemainingOutstandingPrincipal(), 0.1F);
+        }
+    }
+
+    @Test
+    public void checkFixedPointInterestCalculation() {
+        Assert.assertEquals(2083L, calculationService.calculateInterest(50000L, 500000L, RoundingMode.HALF_UP));
+        Assert.assertEquals(2084L, calculationService.calculateInterest(50000L, 500000L, RoundingMode.CEILING));
+        Assert.assertEquals(416667L, calculationService.calculateInterest(50000L, 100000000L, RoundingMode.HALF_UP));
+        Assert.assertEquals(416666L, calculationService.calculateInterest(50000L, 100000000L, RoundingMode.DOWN));
+        Assertions.assertThrows(ArithmeticException.class, () -> calculationService.calculateInterest(50000L, Long.MAX_VALUE / 100, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlanWithFixedPointArithmetic() throws Exception {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP);
+        List<Payment> paymentPlan = calculationService.calculateRepaymentPlan(LOAN, options);
+        Assert.assertEquals(LOAN.getDuration(), paymentPlan.size());
+        Assert.assertEquals(PAYMENT_1, paymentPlan.get(0));
+        Assert.assertEquals(PAYMENT_24, paymentPlan.get(23));
+    }
+
+    @Test
+    public void checkFixedPointArithmeticKeepsCentsOfLargeAmounts() throws Exception {
+        Loan loan = new Loan(1000000F, NOMINAL_RATE, 360, START_DATE);
+        RepaymentSchedule schedule = calculationService.calculateRepaymentSchedule(loan,
+                new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP), new RepaymentSchedule());
+        Assert.assertEquals(5368.22D, schedule.getBorrowerPaymentAmount(0), 0);
+        Assert.assertEquals(4166.67D, schedule.getInterest(0), 0);
+        Assert.assertEquals(1201.55D, schedule.getPrincipal(0), 0);
+        Assert.assertEquals(998798.45D, schedule.getRemainingOutstandingPrincipal(0), 0);
+        for (int i = 1; i < schedule.size(); i++) {
+            Assert.assertEquals(schedule.getRemainingOutstandingPrincipal(i - 1), schedule.getInitialOutstandingPrincipal(i), 0);
+            Assert.assertEquals(Math.round(schedule.getInitialOutstandingPrincipal(i) * 100) - Math.round(schedule.getPrincipal(i) * 100),
+                    Math.round(schedule.getRemainingOutstandingPrincipal(i) * 100));
+        }
+    }
+
+    @Test
+    public void checkCalculateInstallment() throws Exception {
+        CalculationOptions[] allOptions = {CalculationOptions.DEFAULT, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN)};
+        int[] durations = {1, 31, 32, 33, 64, 360, 601};
+        for (CalculationOptions options : allOptions) {
+            for (int duration : durations) {
+                Loan loan = new Loan(250000F, 3.75F, duration, START_DATE);
+                List<Payment> paymentPlan = calculationService.calculateRepaymentPlan(loan, options);
+                for (int i = paymentPlan.size() - 1; i >= 0; i--) {
+                    Assert.assertEquals(paymentPlan.get(i), calculationService.calculateInstallment(loan, options, i));
+                }
+                // same terms with another start date share the checkpoint table
+                Loan otherStartDate = new Loan(250000F, 3.75F, duration, START_DATE_3);
+                Assert.assertEquals(calculationService.calculateRepaymentPlan(otherStartDate, options).get(duration - 1),
+                        calculationService.calculateInstallment(otherStartDate, options, duration - 1));
+            }
+        }
+    }
+
+    @Test
+    public void checkCalculateInstallmentConcurrently() throws Exception {
+        // the checkpoint tables of many loans are calculated at the same time
+        List<Loan> loans = new ArrayList<>();
+        for (int duration = 300; duration < 364; duration++) {
+            loans.add(new Loan(250000F, 3.75F, duration, START_DATE));
+        }
+        List<Payment> expected = new ArrayList<>();
+        for (Loan loan : loans) {
+            expected.add(new CalculationRepaymentPlanService().calculateInstallment(loan, CalculationOptions.DEFAULT, loan.getDuration() - 1));
+        }
+
+        List<Payment> installments = loans.parallelStream().map(loan -> {
+            try {
+                return calculationService.calculateInstallment(loan, CalculationOptions.DEFAULT, loan.getDuration() - 1);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).collect(Collectors.toList());
+
+        Assert.assertEquals(expected, installments);
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlanWindows() throws Exception {
+        CalculationOptions[] allOptions = {CalculationOptions.DEFAULT, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN)};
+        Loan[] loans = {new Loan(250000F, 3.75F, 480, START_DATE),
+                new Loan(250000F, 3.75F, 480, START_DATE, Arrays.asList(new RateSegment(24, 1.99F), new RateSegment(40, 2.5F)))};
+        for (CalculationOptions options : allOptions) {
+            for (Loan loan : loans) {
+                List<Payment> paymentPlan = calculationService.calculateRepaymentPlan(loan, options);
+                for (int offset = 0; offset < paymentPlan.size(); offset += 12) {
+                    Assert.assertEquals(paymentPlan.subList(offset, offset + 12), calculationService.calculateRepaymentPlan(loan, options, offset, 12));
+                }
+                Assert.assertEquals(paymentPlan.subList(470, 480), calculationService.calculateRepaymentPlan(loan, options, 470, Integer.MAX_VALUE));
+                Assert.assertEquals(paymentPlan.subList(31, 33), calculationService.calculateRepaymentPlan(loan, options, 31, 2));
+            }
+        }
+    }
+
+    @Test
+    public void invalidRepaymentPlanWindow() {
+        Assertions.assertThrows(InvalidInstallmentException.class, () -> calculationService.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT, -1, 12));
+        Assertions.assertThrows(InvalidInstallmentException.class, () -> calculationService.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT, DURATION, 12));
+        InvalidLoanParameterException exception = Assertions.assertThrows(InvalidLoanParameterException.class,
+                () -> calculationService.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT, 0, 0));
+        Assert.assertEquals("limit", exception.getParameterName());
+        Assertions.assertThrows(NullLoanParameterException.class, () -> calculationService.calculateRepaymentPlan(
+                new Loan(LOAN_AMOUNT, NOMINAL_RATE, DURATION, null), CalculationOptions.DEFAULT, 0, 12));
+    }
+
+    @Test
+    public void checkIterateRepaymentPlan() throws Exception {
+        CalculationOptions[] allOptions = {CalculationOptions.DEFAULT, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN)};
+        int[] durations = {1, 31, 32, 33, 64, 360, 601};
+        OffsetDateTime endOfMonth = OffsetDateTime.parse("2019-01-31T10:15:30+02:00");
+        for (CalculationOptions options : allOptions) {
+            for (int duration : durations) {
+                Loan loan = new Loan(250000F, 3.75F, duration, endOfMonth);
+                List<Payment> payments = new ArrayList<>();
+                calculationService.iterateRepaymentPlan(loan, options).forEachRemaining(payments::add);
+                Assert.assertEquals(calculationService.calculateRepaymentPlan(loan, options), payments);
+            }
+        }
+        Iterator<Payment> iterator = calculationService.iterateRepaymentPlan(LOAN, CalculationOptions.DEFAULT);
+        Assert.assertEquals(PAYMENT_1, iterator.next());
+        Assert.assertEquals(PAYMENT_2, iterator.next());
+        Assertions.assertThrows(NullLoanParameterException.class, () -> calculationService.iterateRepaymentPlan(
+                new Loan(LOAN_AMOUNT, NOMINAL_RATE, DURATION, null), CalculationOptions.DEFAULT));
+    }
+
+    @Test
+    public void iterateBeyondTheLastPayment() throws Exception {
+        Iterator<Payment> iterator = calculationService.iterateRepaymentPlan(new Loan(LOAN_AMOUNT, NOMINAL_RATE, 1, START_DATE), CalculationOptions.DEFAULT);
+        iterator.next();
+        Assert.assertFalse(iterator.hasNext());
+        Assertions.assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void checkCalculateSummary() throws Exception {
+        CalculationOptions[] allOptions = {CalculationOptions.DEFAULT, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN)};
+        Loan[] loans = {LOAN, new Loan(250000F, 3.75F, 360, START_DATE, Arrays.asList(new RateSegment(24, 1.99F), new RateSegment(36, 3.5F)))};
+        for (CalculationOptions options : allOptions) {
+            for (Loan loan : loans) {
+                List<Payment> plan = calculationService.calculateRepaymentPlan(loan, options);
+                BigDecimal totalInterest = BigDecimal.ZERO.setScale(2);
+                BigDecimal totalPaid = BigDecimal.ZERO.setScale(2);
+                for (Payment payment : plan) {
+                    totalInterest = totalInterest.add(BigDecimal.valueOf(Utils.toCents(payment.getInterest()), 2));
+                    totalPaid = totalPaid.add(BigDecimal.valueOf(Utils.toCents(payment.getBorrowerPaymentAmount()), 2));
+                }
+
+                Assert.assertEquals(new PlanSummary(plan.get(0).getBorrowerPaymentAmount(), totalInterest, totalPaid, plan.get(plan.size() - 1).getDate()),
+                        calculationService.calculateSummary(loan, options));
+            }
+        }
+        Assertions.assertThrows(InvalidLoanParameterException.class,
+                () -> calculationService.calculateSummary(new Loan(LOAN_AMOUNT, NOMINAL_RATE, 0, START_DATE), CalculationOptions.DEFAULT));
+    }
+
+    @Test
+    public void checkCalculateRepaymentPlanWithRateSegments() throws Exception {
+        CalculationOptions[] allOptions = {CalculationOptions.DEFAULT, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN)};
+        for (CalculationOptions options : allOptions) {
+            Loan loan = new Loan(100000F, 4.5F, 360, START_DATE, Arrays.asList(new RateSegment(24, 1.99F), new RateSegment(36, 3.5F)));
+            List<Payment> plan = calculationService.calculateRepaymentPlan(loan, options);
+
+            // each segment starts with the annuity of a rate change on its first installment
+            Loan teaserRate = new Loan(100000F, 1.99F, 360, START_DATE);
+            List<Payment> expected = calculationService.reamortizeRepaymentPlan(teaserRate, options, calculationService.calculateRepaymentPlan(teaserRate, options),
+                    Arrays.asList(new PlanEvent(PlanEvent.Type.RATE_CHANGE, 24, 3.5F), new PlanEvent(PlanEvent.Type.RATE_CHANGE, 60, 4.5F)));
+            Assert.assertEquals(expected, plan);
+            Assert.assertNotEquals(plan.get(23).getBorrowerPaymentAmount(), plan.get(24).getBorrowerPaymentAmount(), 0F);
+        }
+    }
+
+    @Test
+    public void checkRateSegmentsBeyondTheDurationAreIgnored() throws Exception {
+        Loan loan = new Loan(LOAN_AMOUNT, NOMINAL_RATE, DURATION, START_DATE, Arrays.asList(new RateSegment(DURATION, 1.99F), new RateSegment(12, 3.5F)));
+
+        Assert.assertEquals(calculationService.calculateRepaymentPlan(new Loan(LOAN_AMOUNT, 1.99F, DURATION, START_DATE)),
+                calculationService.calculateRepaymentPlan(loan));
+    }
+
+    @Test
+    public void checkInstallmentsAndIteratorWithRateSegments() throws Exception {
+        CalculationOptions[] allOptions = {CalculationOptions.DEFAULT, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN)};
+        // the second segment ends on a checkpoint and the third one inside a block of installments
+        Loan loan = new Loan(250000F, 3.75F, 360, START_DATE, Arrays.asList(new RateSegment(24, 1.99F), new RateSegment(40, 2.5F), new RateSegment(30, 5F)));
+        for (CalculationOptions options : allOptions) {
+            List<Payment> plan = calculationService.calculateRepaymentPlan(loan, options);
+            List<Payment> payments = new ArrayList<>();
+            calculationService.iterateRepaymentPlan(loan, options).forEachRemaining(payments::add);
+
+            Assert.assertEquals(plan, payments);
+            for (int i = plan.size() - 1; i >= 0; i--) {
+                Assert.assertEquals(plan.get(i), calculationService.calculateInstallment(loan, options, i));
+            }
+        }
+    }
+
+    @Test
+    public void checkReamortizeRepaymentPlanKeepsTheRateSegments() throws Exception {
+        Loan loan = new Loan(100000F, 4.5F, 360, START_DATE, Arrays.asList(new RateSegment(24, 1.99F), new RateSegment(36, 3.5F)));
+        List<Payment> plan = calculationService.calculateRepaymentPlan(loan);
+
+        List<Payment> prepaid = calculationService.reamortizeRepaymentPlan(loan, CalculationOptions.DEFAULT, plan,
+                new PlanEvent(PlanEvent.Type.PREPAYMENT, 12, 10000F));
+        List<Payment> longer = calculationService.reamortizeRepaymentPlan(loan, CalculationOptions.DEFAULT, plan,
+                new PlanEvent(PlanEvent.Type.DURATION_CHANGE, 30, 420F));
+        List<Payment> newRate = calculationService.reamortizeRepaymentPlan(loan, CalculationOptions.DEFAULT, plan,
+                new PlanEvent(PlanEvent.Type.RATE_CHANGE, 12, 3F));
+
+        assertReamortized(plan, 12, calculationService.calculateRepaymentPlan(new Loan(plan.get(12).getInitialOutstandingPrincipal() - 10000F,
+                4.5F, 348, START_DATE, Arrays.asList(new RateSegment(12, 1.99F), new RateSegment(36, 3.5F)))), prepaid, START_DATE);
+        assertReamortized(plan, 30, calculationService.calculateRepaymentPlan(new Loan(plan.get(30).getInitialOutstandingPrincipal(),
+                4.5F, 390, START_DATE, Collections.singletonList(new RateSegment(30, 3.5F)))), longer, START_DATE);
+        assertReamortized(plan, 12, calculationService.calculateRepaymentPlan(new Loan(plan.get(12).getInitialOutstandingPrincipal(),
+                3F, 348, START_DATE)), newRate, START_DATE);
+    }
+
+    @Test
+    public void checkReamortizeRepaymentPlanAfterPrepayment() throws Exception {
+        CalculationOptions[] allOptions = {CalculationOptions.DEFAULT, new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN)};
+        OffsetDateTime endOfMonth = OffsetDateTime.parse("2019-01-31T10:15:30+02:00");
+        for (CalculationOptions options : allOptions) {
+            Loan loan = new Loan(100000F, 3.75F, 360, endOfMonth);
+            List<Payment> plan = calculationService.calculateRepaymentPlan(loan, options);
+
+            List<Payment> reamortized = calculationService.reamortizeRepaymentPlan(loan, options, plan,
+                    new PlanEvent(PlanEvent.Type.PREPAYMENT, 100, 10000.01F));
+
+            // the prepayment is subtracted in cents
+            float outstandingPrincipal = (float) ((Utils.toCents(plan.get(100).getInitialOutstandingPrincipal()) - 1000001) / 100D);
+            assertReamortized(plan, 100, calculationService.calculateRepaymentPlan(
+                    new Loan(outstandingPrincipal, 3.75F, 260, endOfMonth), options), reamortized, endOfMonth);
+        }
+    }
+
+    @Test
+    public void checkReamortizeRepaymentPlanAfterRateChange() throws Exception {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP);
+        Loan loan = new Loan(100000F, 3.75F, 360, START_DATE);
+        List<Payment> plan = calculationService.calculateRepaymentPlan(loan, options);
+
+        List<Payment> reamortized = calculationService.reamortizeRepaymentPlan(loan, options, plan,
+                new PlanEvent(PlanEvent.Type.RATE_CHANGE, 60, 5.5F));
+
+        assertReamortized(plan, 60, calculationService.calculateRepaymentPlan(
+                new Loan(plan.get(60).getInitialOutstandingPrincipal(), 5.5F, 300, START_DATE), options), reamortized, START_DATE);
+    }
+
+    @Test
+    public void checkReamortizeRepaymentPlanAfterDurationChange() throws Exception {
+        List<Payment> plan = calculationService.calculateRepaymentPlan(LOAN);
+
+        List<Payment> longer = calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan,
+                new PlanEvent(PlanEvent.Type.DURATION_CHANGE, 12, 36F));
+        List<Payment> shorter = calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan,
+                new PlanEvent(PlanEvent.Type.DURATION_CHANGE, 12, 13F));
+
+        assertReamortized(plan, 12, calculationService.calculateRepaymentPlan(
+                new Loan(plan.get(12).getInitialOutstandingPrincipal(), NOMINAL_RATE, 24, START_DATE)), longer, START_DATE);
+        Assert.assertEquals(13, shorter.size());
+        Assert.assertEquals(plan.get(12).getInitialOutstandingPrincipal(), shorter.get(12).getPrincipal(), 0F);
+        Assert.assertEquals(0F, shorter.get(12).getRemainingOutstandingPrincipal(), 0F);
+    }
+
+    @Test
+    public void checkReamortizeRepaymentPlanAfterPrepaymentOfTheWholeOutstandingPrincipal() throws Exception {
+        List<Payment> plan = calculationService.calculateRepaymentPlan(LOAN);
+
+        List<Payment> reamortized = calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan,
+                new PlanEvent(PlanEvent.Type.PREPAYMENT, 1, OUTSTANDING_PRINCIPAL_2));
+
+        Assert.assertEquals(Collections.singletonList(PAYMENT_1), reamortized);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> reamortized.get(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> reamortized.get(-1));
+    }
+
+    @Test
+    public void checkReamortizeRepaymentPlanWithEvents() throws Exception {
+        CalculationOptions options = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP);
+        Loan loan = new Loan(100000F, 3.75F, 360, START_DATE);
+        List<Payment> plan = new ArrayList<>(calculationService.calculateRepaymentPlan(loan, options));
+        PlanEvent rateChange = new PlanEvent(PlanEvent.Type.RATE_CHANGE, 60, 5.5F);
+        PlanEvent prepayment = new PlanEvent(PlanEvent.Type.PREPAYMENT, 120, 5000F);
+        PlanEvent durationChange = new PlanEvent(PlanEvent.Type.DURATION_CHANGE, 120, 240F);
+
+        List<Payment> expected = calculationService.reamortizeRepaymentPlan(loan, options, plan, rateChange);
+        Loan newRate = new Loan(loan.getLoanAmount(), 5.5F, loan.getDuration(), loan.getStartDate());
+        expected = calculationService.reamortizeRepaymentPlan(newRate, options, expected, prepayment);
+        expected = calculationService.reamortizeRepaymentPlan(newRate, options, expected, durationChange);
+
+        List<Payment> reamortized = calculationService.reamortizeRepaymentPlan(loan, options, plan, Arrays.asList(rateChange, prepayment, durationChange));
+
+        Assert.assertEquals(expected, reamortized);
+        Assert.assertEquals(240, reamortized.size());
+        Assert.assertEquals(plan.subList(0, 60), reamortized.subList(0, 60));
+        // an event before the previous one reads the outstanding principal of the original plan
+        PlanEvent earlierPrepayment = new PlanEvent(PlanEvent.Type.PREPAYMENT, 30, 5000F);
+        Assert.assertEquals(calculationService.reamortizeRepaymentPlan(loan, options, plan, earlierPrepayment),
+                calculationService.reamortizeRepaymentPlan(loan, options, calculationService.reamortizeRepaymentPlan(loan, options, plan, rateChange), earlierPrepayment));
+        Assert.assertEquals(plan, calculationService.reamortizeRepaymentPlan(loan, options, plan, Collections.emptyList()));
+        Assertions.assertThrows(InvalidPlanEventException.class, () -> calculationService.reamortizeRepaymentPlan(loan,
+                options, plan, Arrays.asList(prepayment, rateChange)));
+    }
+
+    @Test
+    public void invalidPlanEvent() throws Exception {
+        List<Payment> plan = calculationService.calculateRepaymentPlan(LOAN);
+
+        Assertions.assertThrows(InvalidInstallmentException.class, () -> calculationService.reamortizeRepaymentPlan(LOAN,
+                CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.PREPAYMENT, -1, 100F)));
+        Assertions.assertThrows(InvalidInstallmentException.class, () -> calculationService.reamortizeRepaymentPlan(LOAN,
+                CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.PREPAYMENT, DURATION, 100F)));
+        Assertions.assertThrows(NullLoanParameterException.class, () -> calculationService.reamortizeRepaymentPlan(
+                new Loan(LOAN_AMOUNT, NOMINAL_RATE, DURATION, null), CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.PREPAYMENT, 1, 100F)));
+
+        InvalidPlanEventException e = Assertions.assertThrows(InvalidPlanEventException.class, () -> calculationService.reamortizeRepaymentPlan(LOAN,
+                CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.PREPAYMENT, 1, 4801.48F)));
+        Assert.assertEquals(PlanEvent.Type.PREPAYMENT, e.getType());
+        Assert.assertEquals("The event PREPAYMENT at installment 1 is invalid, the prepayment should be greater than zero and at " +
+                "most the outstanding principal 4801.47. Value: 4801.48.", e.getMessage());
+        Assertions.assertThrows(InvalidPlanEventException.class, () -> calculationService.reamortizeRepaymentPlan(LOAN,
+                CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.PREPAYMENT, 1, 0.001F)));
+        Assertions.assertThrows(InvalidPlanEventException.class, () -> calculationService.reamortizeRepaymentPlan(LOAN,
+                CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.RATE_CHANGE, 1, 0F)));
+        Assertions.assertThrows(InvalidPlanEventException.class, () -> calculationService.reamortizeRepaymentPlan(LOAN,
+                CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.DURATION_CHANGE, 1, 1F)));
+        Assertions.assertThrows(InvalidPlanEventException.class, () -> calculationService.reamortizeRepaymentPlan(LOAN,
+                CalculationOptions.DEFAULT, plan, new PlanEvent(PlanEvent.Type.DURATION_CHANGE, 1, 36.5F)));
+    }
+
+    @Test
+    public void nullPlanEvents() throws Exception {
+        List<Payment> plan = calculationService.calculateRepaymentPlan(LOAN);
+        PlanEvent prepayment = new PlanEvent(PlanEvent.Type.PREPAYMENT, 1, 100F);
+
+        Assert.assertEquals("events", Assertions.assertThrows(NullLoanParameterException.class, () ->
+                calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan, (List<PlanEvent>) null)).getParameterName());
+        Assert.assertEquals("events[1]", Assertions.assertThrows(NullLoanParameterException.class, () ->
+                calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan, Arrays.asList(prepayment, null))).getParameterName());
+        NullLoanParameterException e = Assertions.assertThrows(NullLoanParameterException.class, () ->
+                calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan,
+                        Arrays.asList(prepayment, new PlanEvent(null, 2, 100F))));
+        Assert.assertEquals("events[1].type", e.getParameterName());
+        Assert.assertEquals("The parameter events[1].type is invalid, the assigned value cannot be not null.", e.getMessage());
+        Assert.assertEquals("event", Assertions.assertThrows(NullLoanParameterException.class, () ->
+                calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan, (PlanEvent) null)).getParameterName());
+        Assert.assertEquals("event.type", Assertions.assertThrows(NullLoanParameterException.class, () ->
+                calculationService.reamortizeRepaymentPlan(LOAN, CalculationOptions.DEFAULT, plan, new PlanEvent(null, 1, 100F))).getParameterName());
+    }
+
+    /**
+     * Check the installments before the event are kept and the following ones are the plan of the remaining terms
+     */
+    private static void assertReamortized(List<Payment> plan, int installment, List<Payment> remainingPlan,
+                                          List<Payment> reamortized, OffsetDateTime startDate) {
+        Assert.assertEquals(installment + remainingPlan.size(), reamortized.size());
+        for (int i = 0; i < installment; i++) {
+            Assert.assertEquals(plan.get(i), reamortized.get(i));
+        }
+        for (int i = 0; i < remainingPlan.size(); i++) {
+            Payment payment = remainingPlan.get(i);
+            Assert.assertEquals(new Payment(payment.getBorrowerPaymentAmount(), startDate.plusMonths(installment + i),
+                    payment.getInitialOutstandingPrincipal(), payment.getInterest(), payment.getPrincipal(),
+                    payment.getRemainingOutstandingPrincipal()), reamortized.get(installment + i));
+        }
+    }
+
+    @Test
+    public void checkCalculateInstallmentWithManyLoanTerms() throws Exception {
+        // the installments of the first block do not need the checkpoint table, the 33rd one does
+        for (int i = 1; i <= 5000; i++) {
+            Loan loan = new Loan(i, NOMINAL_RATE, 33, START_DATE);
+            Assert.assertEquals(calculationService.calculateRepaymentPlan(loan).get(32), calculationService.calculateInstallment(loan, CalculationOptions.DEFAULT, 32));
+        }
+    }
+
+    @Test
+    public void invalidInstallment() {
+        Assertions.assertThrows(InvalidInstallmentException.class, () -> calculationService.calculateInstallment(LOAN, CalculationOptions.DEFAULT, -1));
+        Assertions.assertThrows(InvalidInstallmentException.class, () -> calculationService.calculateInstallment(LOAN, CalculationOptions.DEFAULT, DURATION));
+        Assertions.assertThrows(InvalidLoanParameterException.class, () -> calculationService.calculateInstallment(
+                new Loan(LOAN_AMOUNT, NOMINAL_RATE, 0, START_DATE), CalculationOptions.DEFAULT, 0));
+    }
+
     @Test
     public void validLoanParameters() {
         Assertions.assertDoesNotThrow(() -> { calculationService.validateLoanParameters(LOAN); });
@@ -133,4 +596,81 @@ public class CalculationRepaymentPlanServiceTest {
         Assertions.assertThrows(NullLoanParameterException.class,() -> { calculationService.validateLoanParameters(loanNullValue); });
     }
 
+    @Test
+    public void validateValidLoan() {
+        Assert.assertSame(ValidationResult.VALID, calculationService.validate(LOAN));
+    }
+
+    @Test
+    public void validateReportsAllViolations() {
+        ValidationResult result = calculationService.validate(new Loan(0F, -1F, 0, null));
+
+        Assert.assertFalse(result.isValid());
+        Assert.assertEquals(Arrays.asList(
+                new LoanViolation("duration", LoanViolation.Type.INVALID, 0),
+                new LoanViolation("loanAmount", LoanViolation.Type.INVALID, 0F),
+                new LoanViolation("nominalRate", LoanViolation.Type.INVALID, -1F),
+                new LoanViolation("startDate", LoanViolation.Type.NULL, null)
+        ), result.getViolations());
+    }
+
+    @Test
+    public void validateRateSegments() {
+        ValidationResult result = calculationService.validate(new Loan(LOAN_AMOUNT, NOMINAL_RATE, DURATION, START_DATE,
+                Arrays.asList(new RateSegment(12, 1.99F), null, new RateSegment(0, -1F))));
+        Assert.assertEquals(Arrays.asList(
+                new LoanViolation("rateSegments[1]", LoanViolation.Type.NULL, null),
+                new LoanViolation("rateSegments[2].duration", LoanViolation.Type.INVALID, 0),
+                new LoanViolation("rateSegments[2].nominalRate", LoanViolation.Type.INVALID, -1F)
+        ), result.getViolations());
+        Assert.assertTrue(calculationService.validate(new Loan(LOAN_AMOUNT, NOMINAL_RATE, DURATION, START_DATE,
+                Collections.singletonList(new RateSegment(12, 1.99F)))).isValid());
+    }
+
+    @Test
+    public void validateInstallment() {
+        Assert.assertSame(ValidationResult.VALID, calculationService.validateInstallment(LOAN, 0));
+        Assert.assertSame(ValidationResult.VALID, calculationService.validateInstallment(LOAN, DURATION - 1));
+        Assert.assertEquals(Collections.singletonList(new LoanViolation("installment", LoanViolation.Type.OUT_OF_RANGE, DURATION, DURATION - 1)),
+                calculationService.validateInstallment(LOAN, DURATION).getViolations());
+        Assert.assertEquals(Collections.singletonList(new LoanViolation("installment", LoanViolation.Type.OUT_OF_RANGE, -1, DURATION - 1)),
+                calculationService.validateInstallment(LOAN, -1).getViolations());
+    }
+
+    @Test
+    public void validateWindow() {
+        Assert.assertSame(ValidationResult.VALID, calculationService.validateWindow(LOAN, 0, 1));
+        Assert.assertSame(ValidationResult.VALID, calculationService.validateWindow(LOAN, DURATION - 1, Integer.MAX_VALUE));
+        Assert.assertEquals(Arrays.asList(
+                new LoanViolation("offset", LoanViolation.Type.OUT_OF_RANGE, DURATION, DURATION - 1),
+                new LoanViolation("limit", LoanViolation.Type.INVALID, 0)
+        ), calculationService.validateWindow(LOAN, DURATION, 0).getViolations());
+        Assert.assertEquals(Collections.singletonList(new LoanViolation("offset", LoanViolation.Type.OUT_OF_RANGE, -1, DURATION - 1)),
+                calculationService.validateWindow(LOAN, -1, 12).getViolations());
+    }
+
+    @Test
+    public void validateNullLoan() {
+        Assert.assertEquals(Collections.singletonList(new LoanViolation("loan", LoanViolation.Type.NULL, null)),
+                calculationService.validate(null).getViolations());
+    }
+
+    @Test
+    public void validateLoanParametersThrowsTheFirstViolation() {
+        Loan loan = new Loan(0F, -1F, 0, null);
+        InvalidLoanParameterException e = Assertions.assertThrows(InvalidLoanParameterException.class,
+                () -> calculationService.validateLoanParameters(loan));
+
+        Assert.assertEquals("duration", e.getParameterName());
+        Assert.assertEquals(calculationService.validate(loan).getViolations().get(0).getMessage(), e.getMessage());
+    }
+
+    @Test
+    public void validateLoanParametersReportsTheInvalidNominalRate() {
+        InvalidLoanParameterException e = Assertions.assertThrows(InvalidLoanParameterException.class,
+                () -> calculationService.validateLoanParameters(new Loan(LOAN_AMOUNT, -1F, DURATION, START_DATE)));
+
+        Assert.assertEquals(new InvalidLoanParameterException("nominalRate", -1F).getMessage(), e.getMessage());
+    }
+
 }
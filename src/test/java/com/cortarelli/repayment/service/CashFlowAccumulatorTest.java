@@ -0,0 +1,79 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.MonthlyCashFlow;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+
+public class CashFlowAccumulatorTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-31T00:00:01Z");
+
+    @Test
+    public void checkArraysGrowToBothSides() {
+        CashFlowAccumulator accumulator = new CashFlowAccumulator();
+        accumulator.loanSink(START_DATE, 1).accept(0, 10D, 10D, 0.01D, 1D, 2D);
+        accumulator.loanSink(START_DATE.minusMonths(100), 1).accept(0, 10D, 10D, 0.02D, 1D, 2D);
+        accumulator.loanSink(START_DATE.plusMonths(200), 2).accept(1, 10D, 10D, 0.03D, 1D, 2D);
+
+        PortfolioCashFlow cashFlow = accumulator.toPortfolioCashFlow();
+
+        Assert.assertEquals(3, cashFlow.getLoans());
+        Assert.assertEquals(302, cashFlow.getCashFlows().size());
+        Assert.assertEquals(cashFlow(YearMonth.of(2009, 9), 1, 2), cashFlow.getCashFlows().get(0));
+        Assert.assertEquals(cashFlow(YearMonth.of(2018, 1), 1, 1), cashFlow.getCashFlows().get(100));
+        Assert.assertEquals(cashFlow(YearMonth.of(2034, 10), 1, 3), cashFlow.getCashFlows().get(301));
+    }
+
+    @Test
+    public void checkMergeDoesNotDependOnTheOrder() {
+        CashFlowAccumulator first = accumulator(START_DATE, 0.01D);
+        first.merge(accumulator(START_DATE.minusYears(30), 0.02D));
+        first.merge(accumulator(START_DATE.plusYears(30), 0.03D));
+        CashFlowAccumulator second = accumulator(START_DATE.plusYears(30), 0.03D);
+        second.merge(accumulator(START_DATE, 0.01D));
+        second.merge(accumulator(START_DATE.minusYears(30), 0.02D));
+
+        Assert.assertEquals(first.toPortfolioCashFlow(), second.toPortfolioCashFlow());
+    }
+
+    @Test
+    public void checkMergeOfEmptyAccumulators() {
+        CashFlowAccumulator rejected = new CashFlowAccumulator();
+        rejected.reject();
+        CashFlowAccumulator accumulator = new CashFlowAccumulator();
+        accumulator.merge(rejected);
+        Assert.assertEquals(new PortfolioCashFlow(0, 1, Collections.emptyList()), accumulator.toPortfolioCashFlow());
+
+        accumulator.merge(accumulator(START_DATE, 0.01D));
+        Assert.assertEquals(new PortfolioCashFlow(1, 1, Collections.singletonList(cashFlow(YearMonth.of(2018, 1), 1, 1))),
+                accumulator.toPortfolioCashFlow());
+    }
+
+    @Test
+    public void checkAcceptedMonths() {
+        Assert.assertTrue(CashFlowAccumulator.accepts(OffsetDateTime.parse("1900-01-01T00:00:00Z"), 1));
+        Assert.assertTrue(CashFlowAccumulator.accepts(OffsetDateTime.parse("2199-12-31T23:59:59Z"), 1));
+        Assert.assertTrue(CashFlowAccumulator.accepts(OffsetDateTime.parse("1900-01-01T00:00:00Z"), 3600));
+        Assert.assertFalse(CashFlowAccumulator.accepts(OffsetDateTime.parse("1899-12-31T23:59:59Z"), 1));
+        Assert.assertFalse(CashFlowAccumulator.accepts(OffsetDateTime.parse("2199-12-31T23:59:59Z"), 2));
+        Assert.assertFalse(CashFlowAccumulator.accepts(START_DATE, Integer.MAX_VALUE));
+    }
+
+    private static CashFlowAccumulator accumulator(OffsetDateTime startDate, double interest) {
+        CashFlowAccumulator accumulator = new CashFlowAccumulator();
+        accumulator.loanSink(startDate, 1).accept(0, 10D, 10D, interest, 1D, 2D);
+        return accumulator;
+    }
+
+    private static MonthlyCashFlow cashFlow(YearMonth month, int payments, long interestCents) {
+        return new MonthlyCashFlow(month, payments, BigDecimal.valueOf(interestCents, 2),
+                BigDecimal.valueOf(100, 2), BigDecimal.valueOf(200, 2));
+    }
+
+}
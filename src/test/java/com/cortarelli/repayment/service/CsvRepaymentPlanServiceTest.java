@@ -0,0 +1,127 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.cortarelli.repayment.utils.Utils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ForkJoinPool;
+
+public class CsvRepaymentPlanServiceTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-01T00:00:01Z");
+    private static final CalculationOptions FIXED_POINT = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+
+    private CalculationRepaymentPlanService calculationService;
+    private CsvRepaymentPlanService csvService;
+    private MeterRegistry registry;
+    private ForkJoinPool pool;
+
+    @Before
+    public void init() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        registry = new SimpleMeterRegistry();
+        calculationService = new CalculationRepaymentPlanService();
+        csvService = new CsvRepaymentPlanService(calculationService, new PlanMetrics(registry), pool);
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void checkPaymentsAreWrittenInTheOrderOfTheLoans() throws Exception {
+        // enough lines to fill all the chunks in flight more than once
+        int loans = 256 * 2 * Runtime.getRuntime().availableProcessors() * 2 + 100;
+        StringBuilder input = new StringBuilder(CsvRepaymentPlanService.LOAN_HEADER).append('\n');
+        StringBuilder expected = new StringBuilder(CsvRepaymentPlanService.PAYMENT_HEADER).append('\n');
+        for (int i = 0; i < loans; i++) {
+            Loan loan = new Loan(1000F + i, 1 + i % 20, 1 + i % 24, START_DATE.plusDays(i % 400));
+            input.append("L").append(i).append(',').append(loan.getLoanAmount()).append(',').append(loan.getNominalRate())
+                    .append(',').append(loan.getDuration()).append(',').append(loan.getStartDate()).append('\n');
+            expected.append(payments("L" + i, loan, FIXED_POINT));
+        }
+
+        Assert.assertEquals(expected.toString(), calculate(input.toString(), FIXED_POINT));
+        Assert.assertEquals(loans, registry.get("repayment.plan.installments").summary().count());
+    }
+
+    @Test
+    public void checkInvalidLinesOnlyRejectTheirLoan() throws Exception {
+        Loan loan = new Loan(5000F, 5F, 2, START_DATE);
+        String input = "A1,5000,5,2,2018-01-01T00:00:01Z\r\n" +
+                "\n" +
+                "A2,5000,5,0,2018-01-01T00:00:01Z\n" +
+                "A3,5000,5\n" +
+                "\"A4\",x,5,2,\n" +
+                CsvRepaymentPlanService.LOAN_HEADER + "\n";
+
+        Assert.assertEquals(CsvRepaymentPlanService.PAYMENT_HEADER + "\n" +
+                payments("A1", loan, CalculationOptions.DEFAULT) +
+                "A2,,,,,,,,\"" + calculationService.validate(new Loan(5000F, 5F, 0, START_DATE)).getMessage() + "\"\n" +
+                "A3,,,,,,,,\"Invalid loan on line 4: expected 5 values but found 3\"\n" +
+                "\"\"\"A4\"\"\",,,,,,,,\"Invalid loan on line 5: For input string: \"\"x\"\"\"\n" +
+                "loanId,,,,,,,,\"Invalid loan on line 6: For input string: \"\"loanAmount\"\"\"\n",
+                calculate(input, CalculationOptions.DEFAULT));
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "duration").counter().count(), 0D);
+    }
+
+    @Test
+    public void checkLargeAmountsAndDatesAreWrittenInPlainFormat() throws Exception {
+        Assert.assertEquals(CsvRepaymentPlanService.PAYMENT_HEADER + "\n" +
+                "A1,0,2018-02-01T01:00:00Z,20100000.0,20000000.0,100000.0,20000000.0,0.0,\n",
+                calculate("A1,20000000,6,1,2018-01-31T23:00:00-02:00\n", CalculationOptions.DEFAULT));
+    }
+
+    @Test
+    public void checkFixedPointAmountsKeepTheirCents() throws Exception {
+        // over 131072 a float has no cents, e.g. 616000.42 would be written as 616000.44
+        Assert.assertEquals(CsvRepaymentPlanService.PAYMENT_HEADER + "\n" +
+                "A1,0,2018-01-01T00:00:00Z,621144.45,1234567.5,5144.03,616000.42,618567.08,\n" +
+                "A1,1,2018-02-01T00:00:00Z,621144.44,618567.08,2577.36,618567.08,0.0,\n",
+                calculate("A1,1234567.5,5,2,2018-01-01T00:00:00Z\n", FIXED_POINT));
+    }
+
+    @Test
+    public void checkEmptyInput() throws Exception {
+        Assert.assertEquals(CsvRepaymentPlanService.PAYMENT_HEADER + "\n", calculate("", CalculationOptions.DEFAULT));
+    }
+
+    private String calculate(String input, CalculationOptions options) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        csvService.calculateRepaymentPlans(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, options);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String payments(String loanId, Loan loan, CalculationOptions options) throws Exception {
+        StringBuilder csv = new StringBuilder();
+        int installment = 0;
+        for (Payment payment : calculationService.calculateRepaymentPlan(loan, options)) {
+            csv.append(loanId).append(',').append(installment++).append(',')
+                    .append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(payment.getDate().withOffsetSameInstant(ZoneOffset.UTC))).append(',');
+            Utils.appendAmount(csv, payment.getBorrowerPaymentAmount()).append(',');
+            Utils.appendAmount(csv, payment.getInitialOutstandingPrincipal()).append(',');
+            Utils.appendAmount(csv, payment.getInterest()).append(',');
+            Utils.appendAmount(csv, payment.getPrincipal()).append(',');
+            Utils.appendAmount(csv, payment.getRemainingOutstandingPrincipal()).append(",\n");
+        }
+        return csv.toString();
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.config.LoanStoreProperties;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanStoreStatistics;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class LoanStoreServiceTest extends AbstractTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-01T00:00:01Z");
+    private static final List<Loan> LOANS = Arrays.asList(
+            new Loan(5000F, 5F, 24, START_DATE),
+            new Loan(5000F, 5F, 0, START_DATE),
+            new Loan(1000F, 7F, 12, START_DATE.plusMonths(3)));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BatchRepaymentPlanService batchService;
+    private PortfolioCashFlowService portfolioService;
+    private LoanStoreService loanStoreService;
+    private ForkJoinPool pool;
+
+    @Before
+    public void init() throws Exception {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        CalculationRepaymentPlanService calculationService = new CalculationRepaymentPlanService();
+        PlanMetrics planMetrics = new PlanMetrics(new SimpleMeterRegistry());
+        batchService = new BatchRepaymentPlanService(calculationService, planMetrics, pool);
+        portfolioService = new PortfolioCashFlowService(calculationService, planMetrics, pool);
+        LoanStoreProperties properties = new LoanStoreProperties();
+        properties.setPath(folder.getRoot().toPath().resolve("loans.store").toString());
+        loanStoreService = new LoanStoreService(properties, batchService, portfolioService, mapper);
+    }
+
+    @After
+    public void shutdown() throws Exception {
+        loanStoreService.close();
+        pool.shutdown();
+    }
+
+    @Test
+    public void checkPlansAndCashFlowsOfTheImportedLoans() throws Exception {
+        Assert.assertEquals(2, loanStoreService.importJson(stream(toJson(LOANS.subList(0, 2)))));
+        Assert.assertEquals(1, loanStoreService.importCsv(stream("1000,7,12,2018-04-01T00:00:01Z")));
+
+        List<PlanResult> results = new ArrayList<>();
+        loanStoreService.calculateRepaymentPlans(CalculationOptions.DEFAULT, results::add);
+
+        Assert.assertEquals(batchService.calculateRepaymentPlans(LOANS, CalculationOptions.DEFAULT), results);
+        Assert.assertEquals(portfolioService.calculateCashFlows(LOANS, CalculationOptions.DEFAULT),
+                loanStoreService.calculateCashFlows(CalculationOptions.DEFAULT));
+        Assert.assertEquals(new LoanStoreStatistics(3, 8 + 3 * 32), loanStoreService.getStatistics());
+    }
+
+    @Test
+    public void checkInvalidJson() throws Exception {
+        String[] contents = {"[{\"loanAmount\": 1000", "[{\"loanAmount\": 1000}]"};
+        for (String content : contents) {
+            try {
+                loanStoreService.importJson(stream(content));
+                Assert.fail(content);
+            } catch (JsonProcessingException e) {
+                Assert.assertEquals(0, loanStoreService.getStatistics().getLoans());
+            }
+        }
+    }
+
+    @Test
+    public void checkReadFailures() throws Exception {
+        for (Exception failure : new Exception[]{new IOException("closed"), new IllegalStateException("closed")}) {
+            try {
+                loanStoreService.importJson(new SequenceInputStream(stream(toJson(LOANS.subList(0, 1)).replace("]", ",")),
+                        new InputStream() {
+                            @Override
+                            public int read() throws IOException {
+                                if (failure instanceof IOException) {
+                                    throw (IOException) failure;
+                                }
+                                throw (RuntimeException) failure;
+                            }
+                        }));
+                Assert.fail();
+            } catch (Exception e) {
+                Assert.assertSame(failure, e);
+            }
+        }
+        Assert.assertEquals(2, loanStoreService.getStatistics().getLoans());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.GridCell;
+import com.cortarelli.repayment.domain.GridRange;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.PlanGrid;
+import com.cortarelli.repayment.exception.InvalidGridException;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class PlanGridServiceTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-31T00:00:01Z");
+    private static final CalculationOptions FIXED_POINT = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+
+    private CalculationRepaymentPlanService calculationService;
+    private PlanGridService gridService;
+    private MeterRegistry registry;
+    private ForkJoinPool pool;
+
+    @Before
+    public void init() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        registry = new SimpleMeterRegistry();
+        calculationService = new CalculationRepaymentPlanService();
+        gridService = new PlanGridService(calculationService, new PlanMetrics(registry), pool);
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void checkCellsAreTheSummariesOfThePlans() throws Exception {
+        PlanGrid grid = new PlanGrid(250000F, START_DATE, new GridRange(2F, 6F, 0.1F), new GridRange(12F, 360F, 12F));
+
+        for (CalculationOptions options : Arrays.asList(CalculationOptions.DEFAULT, FIXED_POINT)) {
+            List<GridCell> cells = gridService.calculateGrid(grid, options, false);
+
+            Assert.assertEquals(41 * 30, cells.size());
+            for (int i = 0; i < cells.size(); i++) {
+                float nominalRate = grid.getNominalRates().valueAt(i / 30);
+                int duration = 12 * (i % 30 + 1);
+                Assert.assertEquals(expectedCell(grid.loan(nominalRate, duration), options, false), cells.get(i));
+            }
+        }
+        Assert.assertEquals(2D * 41 * 30, registry.get("repayment.plan.installments").summary().count(), 0D);
+    }
+
+    @Test
+    public void checkCellsIncludeThePlansWhenRequested() throws Exception {
+        PlanGrid grid = new PlanGrid(5000F, START_DATE, new GridRange(3F, 5F, 1F), new GridRange(1F, 24F, 23F));
+
+        List<GridCell> cells = gridService.calculateGrid(grid, FIXED_POINT, true);
+
+        Assert.assertEquals(Arrays.asList(
+                expectedCell(grid.loan(3F, 1), FIXED_POINT, true),
+                expectedCell(grid.loan(3F, 24), FIXED_POINT, true),
+                expectedCell(grid.loan(4F, 1), FIXED_POINT, true),
+                expectedCell(grid.loan(4F, 24), FIXED_POINT, true),
+                expectedCell(grid.loan(5F, 1), FIXED_POINT, true),
+                expectedCell(grid.loan(5F, 24), FIXED_POINT, true)), cells);
+    }
+
+    @Test
+    public void validateRanges() throws Exception {
+        gridService.validateRanges(new PlanGrid(5000F, START_DATE, new GridRange(1F, 10.9F, 0.1F), new GridRange(1F, 100F, 1F)));
+
+        assertInvalid("nominalRates", new PlanGrid(5000F, START_DATE, null, new GridRange(12F, 24F, 12F)));
+        assertInvalid("durations", new PlanGrid(5000F, START_DATE, new GridRange(3F, 5F, 1F), null));
+        assertInvalid("nominalRates.step", new PlanGrid(5000F, START_DATE, new GridRange(3F, 5F, 0F), new GridRange(12F, 24F, 12F)));
+        assertInvalid("durations.to", new PlanGrid(5000F, START_DATE, new GridRange(3F, 5F, 1F), new GridRange(24F, 12F, 12F)));
+        assertInvalid("durations.from", new PlanGrid(5000F, START_DATE, new GridRange(3F, 5F, 1F), new GridRange(12.5F, 24F, 12F)));
+        assertInvalid("durations.step", new PlanGrid(5000F, START_DATE, new GridRange(3F, 5F, 1F), new GridRange(12F, 24F, 1.5F)));
+        assertInvalid("durations.to", new PlanGrid(5000F, START_DATE, new GridRange(3F, 5F, 1F), new GridRange(1E9F, 3E9F, 1E9F)));
+        assertInvalid("grid", new PlanGrid(5000F, START_DATE, new GridRange(1F, 11F, 0.1F), new GridRange(1F, 100F, 1F)));
+        assertInvalid("grid", new PlanGrid(5000F, START_DATE, new GridRange(0F, Float.MAX_VALUE, Float.MIN_VALUE), new GridRange(1F, 1000F, 1F)));
+    }
+
+    private void assertInvalid(String parameterName, PlanGrid grid) {
+        InvalidGridException exception = Assertions.assertThrows(InvalidGridException.class, () -> gridService.validateRanges(grid));
+        Assert.assertEquals(parameterName, exception.getParameterName());
+    }
+
+    private GridCell expectedCell(Loan loan, CalculationOptions options, boolean plans) throws Exception {
+        List<Payment> plan = calculationService.calculateRepaymentPlan(loan, options);
+        BigDecimal totalInterest = BigDecimal.ZERO.setScale(2);
+        BigDecimal totalPaid = BigDecimal.ZERO.setScale(2);
+        for (Payment payment : plan) {
+            totalInterest = totalInterest.add(BigDecimal.valueOf(payment.getInterest()).setScale(2, RoundingMode.HALF_UP));
+            totalPaid = totalPaid.add(BigDecimal.valueOf(payment.getBorrowerPaymentAmount()).setScale(2, RoundingMode.HALF_UP));
+        }
+        return new GridCell(loan.getNominalRate(), loan.getDuration(), plan.get(0).getBorrowerPaymentAmount(), totalInterest, totalPaid,
+                plans ? plan : null);
+    }
+
+}
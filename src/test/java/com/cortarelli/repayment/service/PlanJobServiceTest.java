@@ -0,0 +1,244 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.AbstractTest;
+import com.cortarelli.repayment.config.PlanJobProperties;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.PlanJobStatus;
+import com.cortarelli.repayment.domain.PlanResult;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+public class PlanJobServiceTest extends AbstractTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-01T00:00:01Z");
+    private static final List<Loan> LOANS = Arrays.asList(
+            new Loan(5000F, 5F, 24, START_DATE),
+            new Loan(5000F, 5F, 0, START_DATE),
+            new Loan(1000F, 7F, 360, START_DATE));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MeterRegistry registry;
+    private PlanMetrics planMetrics;
+    private BatchRepaymentPlanService batchService;
+    private PlanJobProperties properties;
+    private PlanJobService planJobService;
+    private ForkJoinPool pool;
+
+    @Before
+    public void init() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        registry = new SimpleMeterRegistry();
+        planMetrics = new PlanMetrics(registry);
+        batchService = new BatchRepaymentPlanService(new CalculationRepaymentPlanService(), planMetrics, pool);
+        properties = new PlanJobProperties();
+        properties.setSpillDirectory(folder.getRoot().toString());
+    }
+
+    @After
+    public void shutdown() {
+        planJobService.shutdown();
+        pool.shutdown();
+    }
+
+    @Test
+    public void checkResultIsKeptInMemory() throws Exception {
+        planJobService = new PlanJobService(batchService, planMetrics, properties, mapper);
+
+        String id = awaitJob(planJobService.submit(LOANS, CalculationOptions.DEFAULT)).getId();
+
+        Assert.assertEquals(new PlanJobStatus(id, PlanJobStatus.State.DONE, 3, 3, null), planJobService.getStatus(id));
+        Assert.assertEquals(expectedResult(), readResult(id));
+        Assert.assertEquals(0, folder.getRoot().list().length);
+        Assert.assertEquals(1, registry.get("repayment.plan.calculation").tag("operation", "job").timer().count());
+    }
+
+    @Test
+    public void checkResultOverTheThresholdIsWrittenToAFile() throws Exception {
+        properties.setSpillThreshold(DataSize.ofKilobytes(16));
+        planJobService = new PlanJobService(batchService, planMetrics, properties, mapper);
+
+        String id = awaitJob(planJobService.submit(LOANS, CalculationOptions.DEFAULT)).getId();
+
+        Assert.assertEquals(expectedResult(), readResult(id));
+        Assert.assertEquals(1, folder.getRoot().list().length);
+
+        Assert.assertTrue(planJobService.delete(id));
+        Assert.assertFalse(planJobService.delete(id));
+        Assert.assertNull(planJobService.getStatus(id));
+        Assert.assertNull(planJobService.openResult(id));
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void checkResultsKeptInMemoryAreBounded() throws Exception {
+        int resultSize = expectedResult().getBytes(StandardCharsets.UTF_8).length;
+        properties.setRetainedMemory(DataSize.ofBytes(resultSize * 3L + resultSize / 2));
+        planJobService = new PlanJobService(batchService, planMetrics, properties, mapper);
+
+        // jobs that are never downloaded
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(awaitJob(planJobService.submit(LOANS, CalculationOptions.DEFAULT)).getId());
+            Assert.assertTrue(planJobService.retainedMemory() <= properties.getRetainedMemory().toBytes());
+        }
+
+        Assert.assertEquals(resultSize * 3L, planJobService.retainedMemory());
+        Assert.assertEquals(17, folder.getRoot().list().length);
+        for (String id : ids) {
+            Assert.assertEquals(expectedResult(), readResult(id));
+        }
+
+        planJobService.delete(ids.get(0));
+        Assert.assertEquals(resultSize * 2L, planJobService.retainedMemory());
+        planJobService.shutdown();
+        Assert.assertEquals(0, planJobService.retainedMemory());
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void checkFilesAreDeletedOnShutdown() throws Exception {
+        properties.setSpillThreshold(DataSize.ofBytes(0));
+        planJobService = new PlanJobService(batchService, planMetrics, properties, mapper);
+        awaitJob(planJobService.submit(LOANS, CalculationOptions.DEFAULT));
+        Assert.assertEquals(1, folder.getRoot().list().length);
+
+        planJobService.shutdown();
+
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void checkFailedJob() throws Exception {
+        properties.setSpillThreshold(DataSize.ofBytes(0));
+        properties.setSpillDirectory(folder.getRoot().toPath().resolve("missing").toString());
+        planJobService = new PlanJobService(batchService, planMetrics, properties, mapper);
+
+        PlanJobStatus status = awaitJob(planJobService.submit(LOANS, CalculationOptions.DEFAULT));
+
+        Assert.assertEquals(PlanJobStatus.State.FAILED, status.getState());
+        Assert.assertTrue(status.getError().contains("missing"));
+        Assert.assertNull(planJobService.openResult(status.getId()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void checkJobFailedWithAnError() throws Exception {
+        BatchRepaymentPlanService failingService = Mockito.mock(BatchRepaymentPlanService.class);
+        Mockito.doThrow(new OutOfMemoryError("Java heap space"))
+                .when(failingService).calculateRepaymentPlans(Mockito.anyList(), Mockito.any(), Mockito.any(Consumer.class));
+        planJobService = new PlanJobService(failingService, planMetrics, properties, mapper);
+
+        PlanJobStatus status = awaitJob(planJobService.submit(LOANS, CalculationOptions.DEFAULT));
+
+        Assert.assertEquals(new PlanJobStatus(status.getId(), PlanJobStatus.State.FAILED, 3, 0, "Java heap space"), status);
+        Assert.assertNull(planJobService.openResult(status.getId()));
+    }
+
+    @Test
+    public void checkResultThatCanNotBeDeleted() throws Exception {
+        properties.setSpillThreshold(DataSize.ofBytes(0));
+        planJobService = new PlanJobService(batchService, planMetrics, properties, mapper);
+        String id = awaitJob(planJobService.submit(LOANS, CalculationOptions.DEFAULT)).getId();
+        Path file = folder.getRoot().toPath().resolve(folder.getRoot().list()[0]);
+        Files.delete(file);
+        Files.createDirectories(file.resolve("not-empty"));
+
+        Assert.assertTrue(planJobService.delete(id));
+        Assert.assertTrue(Files.exists(file));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void checkJobsOverTheQueueCapacityAreRejected() throws Exception {
+        properties.setConcurrentJobs(1);
+        properties.setQueueCapacity(1);
+        BatchRepaymentPlanService blockedService = Mockito.mock(BatchRepaymentPlanService.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            Consumer<PlanResult> consumer = invocation.getArgument(2);
+            consumer.accept(new PlanResult(null, "Invalid duration"));
+            started.countDown();
+            release.await();
+            return null;
+        }).when(blockedService).calculateRepaymentPlans(Mockito.anyList(), Mockito.any(), Mockito.any(Consumer.class));
+        planJobService = new PlanJobService(blockedService, planMetrics, properties, mapper);
+
+        PlanJobStatus running = planJobService.submit(LOANS, CalculationOptions.DEFAULT);
+        started.await();
+        planJobService.checkCapacity();
+        PlanJobStatus queued = planJobService.submit(LOANS, CalculationOptions.DEFAULT);
+        try {
+            planJobService.checkCapacity();
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals("The queue of plan jobs is full", e.getMessage());
+        }
+        try {
+            planJobService.submit(LOANS, CalculationOptions.DEFAULT);
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(PlanJobStatus.State.QUEUED, queued.getState());
+        }
+
+        Assert.assertEquals(new PlanJobStatus(running.getId(), PlanJobStatus.State.RUNNING, 3, 1, null), planJobService.getStatus(running.getId()));
+        Assert.assertEquals(queued, planJobService.getStatus(queued.getId()));
+        Assert.assertNull(planJobService.openResult(running.getId()));
+        Assert.assertFalse(planJobService.delete(running.getId()));
+
+        release.countDown();
+        Assert.assertEquals(PlanJobStatus.State.DONE, awaitJob(queued).getState());
+        Assert.assertEquals("{\"error\":\"Invalid duration\"}\n", readResult(running.getId()));
+    }
+
+    private PlanJobStatus awaitJob(PlanJobStatus submitted) throws InterruptedException {
+        PlanJobStatus status = planJobService.getStatus(submitted.getId());
+        while (status.getState() == PlanJobStatus.State.QUEUED || status.getState() == PlanJobStatus.State.RUNNING) {
+            Thread.sleep(10);
+            status = planJobService.getStatus(submitted.getId());
+        }
+        return status;
+    }
+
+    private String readResult(String id) throws Exception {
+        try (InputStream result = planJobService.openResult(id)) {
+            return StreamUtils.copyToString(result, StandardCharsets.UTF_8);
+        }
+    }
+
+    private String expectedResult() {
+        StringBuilder expected = new StringBuilder();
+        for (PlanResult result : batchService.calculateRepaymentPlans(LOANS, CalculationOptions.DEFAULT)) {
+            expected.append(toJson(result)).append('\n');
+        }
+        return expected.toString();
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.MonthlyCashFlow;
+import com.cortarelli.repayment.domain.PortfolioCashFlow;
+import com.cortarelli.repayment.metrics.PlanMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+public class PortfolioCashFlowServiceTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-31T00:00:01Z");
+    private static final CalculationOptions FIXED_POINT = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_EVEN);
+
+    private CalculationRepaymentPlanService calculationService;
+    private PortfolioCashFlowService portfolioService;
+    private MeterRegistry registry;
+    private ForkJoinPool pool;
+
+    @Before
+    public void init() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        registry = new SimpleMeterRegistry();
+        calculationService = new CalculationRepaymentPlanService();
+        portfolioService = new PortfolioCashFlowService(calculationService, new PlanMetrics(registry), pool);
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void checkCashFlowsAreTheSumOfThePlans() throws Exception {
+        Random random = new Random(42);
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            loans.add(new Loan(1000F + random.nextInt(1_000_000), 0.5F + random.nextInt(200) / 10F, 1 + random.nextInt(360),
+                    START_DATE.plusMonths(random.nextInt(240) - 120).plusDays(random.nextInt(28))));
+        }
+
+        for (CalculationOptions options : Arrays.asList(CalculationOptions.DEFAULT, FIXED_POINT)) {
+            PortfolioCashFlow cashFlow = portfolioService.calculateCashFlows(loans, options);
+
+            Assert.assertEquals(expectedCashFlow(loans, options), cashFlow);
+            Assert.assertEquals(2000, cashFlow.getLoans());
+        }
+    }
+
+    @Test
+    public void checkInvalidLoansAreLeftOut() throws Exception {
+        Loan valid = new Loan(5000F, 5F, 24, START_DATE);
+
+        PortfolioCashFlow cashFlow = portfolioService.calculateCashFlows(
+                Arrays.asList(valid, new Loan(5000F, 5F, 0, START_DATE), null), CalculationOptions.DEFAULT);
+
+        Assert.assertEquals(expectedCashFlow(Collections.singletonList(valid), CalculationOptions.DEFAULT).getCashFlows(), cashFlow.getCashFlows());
+        Assert.assertEquals(1, cashFlow.getLoans());
+        Assert.assertEquals(2, cashFlow.getRejectedLoans());
+        Assert.assertEquals(1D, registry.get("repayment.plan.rejections").tags("reason", "invalid", "parameter", "duration").counter().count(), 0D);
+        Assert.assertEquals(1D, registry.get("repayment.plan.installments").summary().count(), 0D);
+    }
+
+    @Test
+    public void checkLoansOutsideTheMonthsAreLeftOut() throws Exception {
+        Loan valid = new Loan(5000F, 5F, 24, START_DATE);
+
+        // a single loan years away, or with a huge duration, would otherwise allocate arrays for all the months between
+        PortfolioCashFlow cashFlow = portfolioService.calculateCashFlows(Arrays.asList(valid,
+                new Loan(5000F, 5F, 24, OffsetDateTime.parse("+999999-01-01T00:00:01Z")),
+                new Loan(5000F, 5F, 24, OffsetDateTime.parse("1899-12-01T00:00:01Z")),
+                new Loan(5000F, 5F, Integer.MAX_VALUE, START_DATE)), CalculationOptions.DEFAULT);
+
+        Assert.assertEquals(expectedCashFlow(Collections.singletonList(valid), CalculationOptions.DEFAULT).getCashFlows(), cashFlow.getCashFlows());
+        Assert.assertEquals(1, cashFlow.getLoans());
+        Assert.assertEquals(3, cashFlow.getRejectedLoans());
+        Assert.assertEquals(3D, registry.get("repayment.plan.rejections").tags("reason", "out_of_range", "parameter", "startDate").counter().count(), 0D);
+    }
+
+    @Test
+    public void checkMonthsWithoutPaymentsAreIncluded() {
+        PortfolioCashFlow cashFlow = portfolioService.calculateCashFlows(Arrays.asList(
+                new Loan(1000F, 5F, 1, START_DATE), new Loan(1000F, 5F, 1, START_DATE.plusMonths(2))), CalculationOptions.DEFAULT);
+
+        Assert.assertEquals(3, cashFlow.getCashFlows().size());
+        Assert.assertEquals(new MonthlyCashFlow(YearMonth.of(2018, 2), 0, BigDecimal.valueOf(0, 2),
+                BigDecimal.valueOf(0, 2), BigDecimal.valueOf(0, 2)), cashFlow.getCashFlows().get(1));
+    }
+
+    @Test
+    public void checkEmptyPortfolio() {
+        Assert.assertEquals(new PortfolioCashFlow(0, 0, Collections.emptyList()),
+                portfolioService.calculateCashFlows(Collections.emptyList(), CalculationOptions.DEFAULT));
+    }
+
+    /**
+     * Sum of the payments of the plans per month
+     */
+    private PortfolioCashFlow expectedCashFlow(List<Loan> loans, CalculationOptions options) throws Exception {
+        TreeMap<YearMonth, long[]> sums = new TreeMap<>();
+        for (Loan loan : loans) {
+            calculationService.calculateRepaymentPlan(loan, options, (installment, borrowerPaymentAmount,
+                                                                       initialOutstandingPrincipal, interest, principal, remainingOutstandingPrincipal) -> {
+                long[] sum = sums.computeIfAbsent(YearMonth.from(calculationService.calculatePaymentDate(loan.getStartDate(), installment)),
+                        month -> new long[4]);
+                sum[0]++;
+                sum[1] += Math.round(interest * 100D);
+                sum[2] += Math.round(principal * 100D);
+                sum[3] += Math.round(remainingOutstandingPrincipal * 100D);
+            });
+        }
+        List<MonthlyCashFlow> cashFlows = new ArrayList<>();
+        for (YearMonth month = sums.firstKey(); !month.isAfter(sums.lastKey()); month = month.plusMonths(1)) {
+            long[] sum = sums.getOrDefault(month, new long[4]);
+            cashFlows.add(new MonthlyCashFlow(month, (int) sum[0], BigDecimal.valueOf(sum[1], 2),
+                    BigDecimal.valueOf(sum[2], 2), BigDecimal.valueOf(sum[3], 2)));
+        }
+        return new PortfolioCashFlow(loans.size(), 0, cashFlows);
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.cortarelli.repayment.service;
+
+import com.cortarelli.repayment.config.RepaymentPlanCacheProperties;
+import com.cortarelli.repayment.domain.Arithmetic;
+import com.cortarelli.repayment.domain.CacheStatistics;
+import com.cortarelli.repayment.domain.CalculationOptions;
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.Payment;
+import com.cortarelli.repayment.domain.RateSegment;
+import com.cortarelli.repayment.domain.RepaymentSchedule;
+import com.cortarelli.repayment.exception.InvalidLoanParameterException;
+import com.cortarelli.repayment.exception.NullLoanParameterException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.mockito.Mockito;
+
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class RepaymentPlanCacheTest {
+
+    private CalculationRepaymentPlanService calculationService;
+    private final CalculationRepaymentPlanService expectedService = new CalculationRepaymentPlanService();
+    private RepaymentPlanCacheProperties properties;
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-31T00:00:01Z");
+    private static final Loan LOAN = new Loan(5000F, 5F, 24, START_DATE);
+
+    @Before
+    public void init() {
+        calculationService = Mockito.spy(new CalculationRepaymentPlanService());
+        properties = new RepaymentPlanCacheProperties();
+        properties.setEnabled(true);
+    }
+
+    @Test
+    public void checkDisabledCacheCalculatesEveryPlan() throws Exception {
+        properties.setEnabled(false);
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+
+        Assert.assertEquals(expectedService.calculateRepaymentPlan(LOAN), cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT));
+        Assert.assertEquals(expectedService.calculateRepaymentPlan(LOAN), cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT));
+        Assert.assertEquals(new CacheStatistics(0, 0, 0, 0), cache.getStatistics());
+    }
+
+    @Test
+    public void checkCachedPlanIsReused() throws Exception {
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+
+        Assert.assertEquals(expectedService.calculateRepaymentPlan(LOAN), cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT));
+        Assert.assertEquals(expectedService.calculateRepaymentPlan(LOAN), cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT));
+
+        Mockito.verify(calculationService, Mockito.times(1)).calculateValidRepaymentSchedule(Mockito.eq(LOAN), Mockito.eq(CalculationOptions.DEFAULT), Mockito.any());
+        Assert.assertEquals(new CacheStatistics(1, 1, 0, 1), cache.getStatistics());
+    }
+
+    @Test
+    public void checkCachedScheduleCanNotBeModified() throws Exception {
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+        RepaymentSchedule schedule = RepaymentSchedule.of(cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> schedule.setInstallment(0, 0D, 0D, 0D, 0D, 0D));
+        Assertions.assertThrows(IllegalStateException.class, () -> schedule.reset(LOAN.getStartDate(), 1));
+        Assert.assertEquals(expectedService.calculateRepaymentPlan(LOAN), cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT));
+    }
+
+    @Test
+    public void checkConcurrentMissesCalculateThePlanOnce() throws Exception {
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+        int threads = 8;
+        CountDownLatch calculating = new CountDownLatch(1);
+        // the first calculation waits until every other thread has requested the plan
+        Mockito.doAnswer(invocation -> {
+            calculating.countDown();
+            Thread.sleep(200);
+            return invocation.callRealMethod();
+        }).when(calculationService).calculateValidRepaymentSchedule(Mockito.any(), Mockito.any(), Mockito.any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Payment>>> plans = new ArrayList<>();
+            plans.add(executor.submit(() -> cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT)));
+            calculating.await();
+            for (int i = 1; i < threads; i++) {
+                plans.add(executor.submit(() -> cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT)));
+            }
+            for (Future<List<Payment>> plan : plans) {
+                Assert.assertEquals(expectedService.calculateRepaymentPlan(LOAN), plan.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Mockito.verify(calculationService, Mockito.times(1)).calculateValidRepaymentSchedule(Mockito.eq(LOAN), Mockito.eq(CalculationOptions.DEFAULT), Mockito.any());
+        Assert.assertEquals(new CacheStatistics(threads - 1, 1, 0, 1), cache.getStatistics());
+    }
+
+    @Test
+    public void checkCachedPlanIsShiftedToAnotherStartDate() throws Exception {
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+        Loan otherStartDate = new Loan(5000F, 5F, 24, OffsetDateTime.parse("2020-02-29T12:00:00-03:00"));
+
+        cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT);
+        Assert.assertEquals(expectedService.calculateRepaymentPlan(otherStartDate), cache.calculateRepaymentPlan(otherStartDate, CalculationOptions.DEFAULT));
+
+        Mockito.verify(calculationService, Mockito.never()).calculateValidRepaymentSchedule(Mockito.eq(otherStartDate), Mockito.any(), Mockito.any());
+        Assert.assertEquals(new CacheStatistics(1, 1, 0, 1), cache.getStatistics());
+    }
+
+    @Test
+    public void checkCalculationOptionsArePartOfTheKey() throws Exception {
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+        CalculationOptions fixedPoint = new CalculationOptions(Arithmetic.FIXED_POINT, RoundingMode.HALF_UP);
+
+        cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT);
+        cache.calculateRepaymentPlan(LOAN, fixedPoint);
+
+        Assert.assertEquals(new CacheStatistics(0, 2, 0, 2), cache.getStatistics());
+    }
+
+    @Test
+    public void checkRateSegmentsArePartOfTheKey() throws Exception {
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+        Loan teaserRate = new Loan(5000F, 5F, 24, START_DATE, Collections.singletonList(new RateSegment(12, 1.99F)));
+
+        cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT);
+
+        Assert.assertEquals(expectedService.calculateRepaymentPlan(teaserRate), cache.calculateRepaymentPlan(teaserRate, CalculationOptions.DEFAULT));
+        Assert.assertEquals(new CacheStatistics(0, 2, 0, 2), cache.getStatistics());
+    }
+
+    @Test
+    public void checkInvalidLoansAreNotCached() throws Exception {
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+        cache.calculateRepaymentPlan(LOAN, CalculationOptions.DEFAULT);
+
+        Assertions.assertThrows(NullLoanParameterException.class, () -> cache.calculateRepaymentPlan(new Loan(5000F, 5F, 24, null), CalculationOptions.DEFAULT));
+        Assertions.assertThrows(InvalidLoanParameterException.class, () -> cache.calculateRepaymentPlan(new Loan(5000F, 5F, 0, START_DATE), CalculationOptions.DEFAULT));
+        Assert.assertEquals(new CacheStatistics(0, 1, 0, 1), cache.getStatistics());
+    }
+
+    @Test
+    public void checkMaximumSizeOfPlans() throws Exception {
+        properties.setMaximumSize(10);
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+
+        for (int i = 1; i <= 50; i++) {
+            cache.calculateRepaymentPlan(new Loan(1000F * i, 5F, 12, START_DATE), CalculationOptions.DEFAULT);
+        }
+
+        CacheStatistics statistics = cache.getStatistics();
+        Assert.assertEquals(10, statistics.getSize());
+        Assert.assertEquals(40, statistics.getEvictionCount());
+    }
+
+    @Test
+    public void checkMaximumSizeOfInstallments() throws Exception {
+        properties.setBound(RepaymentPlanCacheProperties.Bound.INSTALLMENTS);
+        properties.setMaximumSize(360);
+        RepaymentPlanCache cache = new RepaymentPlanCache(calculationService, properties);
+
+        for (int i = 1; i <= 50; i++) {
+            cache.calculateRepaymentPlan(new Loan(1000F * i, 5F, 120, START_DATE), CalculationOptions.DEFAULT);
+        }
+
+        CacheStatistics statistics = cache.getStatistics();
+        Assert.assertEquals(3, statistics.getSize());
+        Assert.assertEquals(47, statistics.getEvictionCount());
+    }
+
+}
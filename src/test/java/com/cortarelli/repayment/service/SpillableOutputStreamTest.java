@@ -0,0 +1,85 @@
+package com.cortarelli.repayment.service;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SpillableOutputStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AtomicLong availableMemory = new AtomicLong(10);
+
+    @Test
+    public void checkOutputUnderTheThresholdIsKeptInMemory() throws Exception {
+        SpillableOutputStream output = new SpillableOutputStream(4, folder.getRoot().toPath(), availableMemory);
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+        output.write('d');
+        output.close();
+
+        Assert.assertNull(output.getFile());
+        Assert.assertEquals(4, output.size());
+        Assert.assertEquals(6, availableMemory.get());
+        Assert.assertEquals("abcd", read(output));
+        Assert.assertEquals("abcd", read(output));
+        output.delete();
+        output.delete();
+        Assert.assertEquals(10, availableMemory.get());
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void checkOutputOverTheSharedMemoryIsWrittenToAFile() throws Exception {
+        SpillableOutputStream first = new SpillableOutputStream(8, folder.getRoot().toPath(), availableMemory);
+        SpillableOutputStream second = new SpillableOutputStream(8, folder.getRoot().toPath(), availableMemory);
+        first.write("abcdef".getBytes(StandardCharsets.UTF_8));
+        second.write("abcd".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(0, availableMemory.get());
+
+        second.write('e');
+        first.close();
+        second.close();
+
+        Assert.assertNull(first.getFile());
+        Assert.assertEquals("abcdef", read(first));
+        Assert.assertEquals("abcde", new String(Files.readAllBytes(second.getFile()), StandardCharsets.UTF_8));
+        Assert.assertEquals(4, availableMemory.get());
+
+        first.delete();
+        second.delete();
+        Assert.assertEquals(10, availableMemory.get());
+    }
+
+    @Test
+    public void checkOutputOverTheThresholdIsWrittenToAFile() throws Exception {
+        SpillableOutputStream output = new SpillableOutputStream(4, folder.getRoot().toPath(), availableMemory);
+        output.write("abc".getBytes(StandardCharsets.UTF_8));
+        output.write("de".getBytes(StandardCharsets.UTF_8));
+        output.write('f');
+        output.close();
+
+        Assert.assertEquals(folder.getRoot().toPath(), output.getFile().getParent());
+        Assert.assertEquals(6, output.size());
+        Assert.assertEquals(10, availableMemory.get());
+        Assert.assertEquals("abcdef", new String(Files.readAllBytes(output.getFile()), StandardCharsets.UTF_8));
+        Assert.assertEquals("abcdef", read(output));
+
+        output.delete();
+        Assert.assertFalse(Files.exists(output.getFile()));
+    }
+
+    private static String read(SpillableOutputStream output) throws Exception {
+        try (InputStream input = output.openInputStream()) {
+            return StreamUtils.copyToString(input, StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.cortarelli.repayment.store;
+
+import com.cortarelli.repayment.domain.Loan;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class LoanCsvReaderTest {
+
+    @Test
+    public void checkLoansAreRead() {
+        LoanCsvReader reader = reader("loanAmount,nominalRate,duration,startDate\n" +
+                "5000,5.0,24,2018-01-01T00:00:01Z\n" +
+                "\n" +
+                " 1000.5 , 7 , 12 , \r\n");
+
+        List<Loan> loans = new ArrayList<>();
+        reader.forEachRemaining(loans::add);
+
+        Assert.assertEquals(Arrays.asList(
+                new Loan(5000F, 5F, 24, OffsetDateTime.parse("2018-01-01T00:00:01Z")),
+                new Loan(1000.5F, 7F, 12, null)), loans);
+        Assert.assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void checkLinesWithoutHeader() {
+        LoanCsvReader reader = reader("5000,5.0,24,2018-01-01T00:00:01Z");
+
+        Assert.assertTrue(reader.hasNext());
+        Assert.assertTrue(reader.hasNext());
+        Assert.assertEquals(new Loan(5000F, 5F, 24, OffsetDateTime.parse("2018-01-01T00:00:01Z")), reader.next());
+    }
+
+    @Test
+    public void checkInvalidLines() {
+        String[][] lines = {
+                {"5000,5.0,24", "Invalid loan on line 1: expected 4 values but found 3"},
+                {"5000,5.0,24,2018-01-01T00:00:01Z,1", "Invalid loan on line 1: expected 4 values but found 5"},
+                {"\n5000,5.0,2.5,", "Invalid loan on line 2: For input string: \"2.5\""},
+                {"x,5.0,24,", "Invalid loan on line 1: For input string: \"x\""},
+                {"5000,5.0,24,2018-01-01", "Invalid loan on line 1: Text '2018-01-01' could not be parsed at index 10"},
+                {"5000,5.0,24,\n" + LoanCsvReader.HEADER, "Invalid loan on line 2: For input string: \"loanAmount\""}
+        };
+        for (String[] line : lines) {
+            LoanCsvReader reader = reader(line[0]);
+            try {
+                reader.forEachRemaining(loan -> { });
+                Assert.fail(line[0]);
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals(line[1], e.getMessage());
+            }
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void checkNextAfterTheLastLine() {
+        reader("").next();
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void checkReadFailure() {
+        new LoanCsvReader(new BufferedReader(new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("closed");
+            }
+
+            @Override
+            public void close() {
+            }
+        })).hasNext();
+    }
+
+    private static LoanCsvReader reader(String csv) {
+        return new LoanCsvReader(new BufferedReader(new StringReader(csv)));
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.cortarelli.repayment.store;
+
+import com.cortarelli.repayment.domain.Loan;
+import com.cortarelli.repayment.domain.LoanStoreStatistics;
+import com.cortarelli.repayment.domain.RateSegment;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LoanStoreTest {
+
+    private static final OffsetDateTime START_DATE = OffsetDateTime.parse("2018-01-01T00:00:01Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void checkLoansAreReadAsTheyWereAppended() throws Exception {
+        List<Loan> loans = Arrays.asList(
+                new Loan(5000F, 5F, 24, START_DATE),
+                new Loan(0.01F, 0F, -1, null),
+                new Loan(Float.MAX_VALUE, Float.NaN, Integer.MAX_VALUE, OffsetDateTime.parse("1901-12-31T23:59:59.123456789-05:30")),
+                new Loan(-1F, 12.5F, 360, OffsetDateTime.parse("+12018-06-15T10:00:00+14:00")));
+
+        try (LoanStore store = LoanStore.open(folder.newFile().toPath())) {
+            Assert.assertEquals(4, store.append(loans.iterator()));
+
+            Assert.assertEquals(loans, store.asList());
+            Assert.assertEquals(4, store.size());
+            Assert.assertEquals(new LoanStoreStatistics(4, 8 + 4 * 32), store.getStatistics());
+        }
+    }
+
+    @Test
+    public void checkLoansAreKeptWhenTheStoreIsOpenedAgain() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("loans.store");
+        List<Loan> loans = loans(2500, 0);
+        try (LoanStore store = LoanStore.open(path)) {
+            store.append(loans.subList(0, 1000).iterator());
+        }
+        try (LoanStore store = LoanStore.open(path)) {
+            store.append(loans.subList(1000, 2500).iterator());
+            Assert.assertEquals(loans, store.asList());
+        }
+        Assert.assertEquals(8 + 2500 * 32, Files.size(path));
+    }
+
+    @Test
+    public void checkLoansAreReadFromManySegments() throws Exception {
+        List<Loan> loans = loans(10, 0);
+        try (LoanStore store = LoanStore.open(folder.newFile().toPath(), 3)) {
+            store.append(loans.iterator());
+
+            List<Loan> view = store.asList();
+            Assert.assertEquals(loans, view);
+            Assert.assertEquals(loans, view.parallelStream().collect(Collectors.toList()));
+            Assert.assertEquals(loans.subList(2, 7), new ArrayList<>(view.subList(2, 7)));
+        }
+    }
+
+    @Test
+    public void checkTheViewIsASnapshot() throws Exception {
+        try (LoanStore store = LoanStore.open(folder.newFile().toPath())) {
+            Assert.assertEquals(Collections.emptyList(), store.asList());
+            store.append(loans(2, 0).iterator());
+            List<Loan> view = store.asList();
+            Assert.assertSame(view, store.asList());
+
+            store.append(loans(1, 2).iterator());
+
+            Assert.assertEquals(2, view.size());
+            Assert.assertEquals(loans(3, 0), store.asList());
+        }
+    }
+
+    @Test
+    public void checkPartiallyWrittenRecordIsOverwritten() throws Exception {
+        Path path = folder.newFile().toPath();
+        try (LoanStore store = LoanStore.open(path)) {
+            store.append(loans(2, 0).iterator());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(20));
+        }
+        try (LoanStore store = LoanStore.open(path)) {
+            Assert.assertEquals(2, store.size());
+            store.append(loans(1, 2).iterator());
+
+            Assert.assertEquals(loans(3, 0), store.asList());
+        }
+        Assert.assertEquals(8 + 3 * 32, Files.size(path));
+    }
+
+    @Test
+    public void checkLoansBeforeANullLoanAreKept() throws Exception {
+        try (LoanStore store = LoanStore.open(folder.newFile().toPath())) {
+            try {
+                store.append(Arrays.asList(new Loan(5000F, 5F, 24, START_DATE), null).iterator());
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("A null loan can not be stored", e.getMessage());
+            }
+
+            Assert.assertEquals(Collections.singletonList(new Loan(5000F, 5F, 24, START_DATE)), store.asList());
+        }
+    }
+
+    @Test
+    public void checkLoansWithRateSegmentsAreRejected() throws Exception {
+        try (LoanStore store = LoanStore.open(folder.newFile().toPath())) {
+            try {
+                store.append(Collections.singletonList(new Loan(5000F, 5F, 24, START_DATE,
+                        Collections.singletonList(new RateSegment(12, 1.99F)))).iterator());
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("A loan with rate segments can not be stored", e.getMessage());
+            }
+
+            Assert.assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    public void checkIndexOutOfTheView() throws Exception {
+        try (LoanStore store = LoanStore.open(folder.newFile().toPath())) {
+            store.append(loans(1, 0).iterator());
+            List<Loan> view = store.asList();
+            for (int index : new int[]{-1, 1}) {
+                try {
+                    view.get(index);
+                    Assert.fail();
+                } catch (IndexOutOfBoundsException e) {
+                    Assert.assertEquals("Index: " + index + ", Size: 1", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void checkStoreLargerThanAList() throws Exception {
+        Path path = folder.newFile().toPath();
+        try (LoanStore store = LoanStore.open(path)) {
+            Assert.assertEquals(0, store.size());
+        }
+        // sparse file, the records are not written
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1), 8 + (Integer.MAX_VALUE + 1L) * 32 - 1);
+        }
+        try (LoanStore store = LoanStore.open(path)) {
+            store.asList();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("The store has more loans than a list can index: 2147483648", e.getMessage());
+        }
+    }
+
+    @Test
+    public void checkFilesThatAreNotAStore() throws Exception {
+        byte[][] contents = {
+                "LNS".getBytes(),
+                "RPL1 and more".getBytes(),
+                {'L', 'N', 'S', '1', 16, 0, 0, 0}
+        };
+        for (byte[] content : contents) {
+            Path path = folder.newFile().toPath();
+            Files.write(path, content);
+            try {
+                LoanStore.open(path);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("The file is not a loan store", e.getMessage());
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void checkFileThatCanNotBeOpened() throws Exception {
+        LoanStore.open(folder.getRoot().toPath().resolve("missing").resolve("loans.store"));
+    }
+
+    private static List<Loan> loans(int count, int first) {
+        List<Loan> loans = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            loans.add(new Loan(1000F + i, i % 20, 1 + i % 360, START_DATE.plusDays(i)));
+        }
+        return loans;
+    }
+
+}
@@ -2,6 +2,12 @@ package com.cortarelli.repayment.utils;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
 
 public class UtilsTest {
 
@@ -27,4 +33,81 @@ public class UtilsTest {
         Assert.assertEquals(15.49F, Utils.round(15.486D), 0);
     }
 
+    @Test
+    public void checkAppendAmount() {
+        Assert.assertEquals("5000.0", Utils.appendAmount(new StringBuilder(), 5000F).toString());
+        Assert.assertEquals("20.83", Utils.appendAmount(new StringBuilder(), 20.83F).toString());
+        Assert.assertEquals("0.5", Utils.appendAmount(new StringBuilder(), 0.5F).toString());
+        Assert.assertEquals("0.05", Utils.appendAmount(new StringBuilder(), 0.05F).toString());
+        Assert.assertEquals("-198.53", Utils.appendAmount(new StringBuilder(), -198.53F).toString());
+        Assert.assertEquals("12345679.0", Utils.appendAmount(new StringBuilder(), 12345678.9F).toString());
+        Assert.assertEquals(Float.toString(1E16F), Utils.appendAmount(new StringBuilder(), 1E16F).toString());
+        Assert.assertEquals("NaN", Utils.appendAmount(new StringBuilder(), Float.NaN).toString());
+        Assert.assertEquals("616000.42", Utils.appendAmount(new StringBuilder(), 616000.42D).toString());
+        Assert.assertEquals("-9999999999999.99", Utils.appendAmount(new StringBuilder(), -9999999999999.99D).toString());
+        Assert.assertEquals("20.83", Utils.appendAmount(new StringBuilder(), (double) 20.83F).toString());
+        Assert.assertEquals("1.0E13", Utils.appendAmount(new StringBuilder(), 1E13D).toString());
+        Assert.assertEquals("NaN", Utils.appendAmount(new StringBuilder(), Double.NaN).toString());
+        for (int cents = 0; cents < 1000000; cents += 7) {
+            float amount = (float) (cents / 100D);
+            Assert.assertEquals(Float.toString(amount), Utils.appendAmount(new StringBuilder(), amount).toString());
+        }
+    }
+
+    @Test
+    public void checkEpochDayPlusMonths() {
+        LocalDate[] dates = {LocalDate.of(2018, 1, 1), LocalDate.of(2019, 1, 31), LocalDate.of(2020, 2, 29),
+                LocalDate.of(1970, 1, 1), LocalDate.of(1899, 12, 31), LocalDate.of(-5, 3, 31), LocalDate.of(2400, 1, 30)};
+        for (LocalDate date : dates) {
+            for (int months = -30; months <= 600; months++) {
+                Assert.assertEquals(date.plusMonths(months).toEpochDay(),
+                        Utils.epochDayPlusMonths(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), months));
+            }
+        }
+    }
+
+    @Test
+    public void checkToEpochDay() {
+        Assert.assertEquals(0, Utils.toEpochDay(1970, 1, 1));
+        Assert.assertEquals(LocalDate.of(2020, 3, 1).toEpochDay(), Utils.toEpochDay(2020, 3, 1));
+        Assert.assertEquals(LocalDate.of(-1, 12, 31).toEpochDay(), Utils.toEpochDay(-1, 12, 31));
+    }
+
+    @Test
+    public void checkLengthOfMonth() {
+        for (int year = 1896; year <= 2404; year++) {
+            for (int month = 1; month <= 12; month++) {
+                Assert.assertEquals(YearMonth.of(year, month).lengthOfMonth(), Utils.lengthOfMonth(year, month));
+            }
+        }
+    }
+
+    @Test
+    public void checkToCents() {
+        Assert.assertEquals(500000L, Utils.toCents(5000F));
+        Assert.assertEquals(123456L, Utils.toCents(1234.56F));
+        Assert.assertEquals(-1549L, Utils.toCents(-15.49F));
+    }
+
+    @Test
+    public void checkDivide() {
+        long[] divisors = {-10, -4, -3, 3, 4, 10};
+        RoundingMode[] roundingModes = {RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+                RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+        for (RoundingMode roundingMode : roundingModes) {
+            for (long dividend = -45; dividend <= 45; dividend++) {
+                for (long divisor : divisors) {
+                    long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, roundingMode).longValueExact();
+                    Assert.assertEquals(expected, Utils.divide(dividend, divisor, roundingMode));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void checkDivideUnnecessaryRounding() {
+        Assert.assertEquals(4L, Utils.divide(12, 3, RoundingMode.UNNECESSARY));
+        Assertions.assertThrows(ArithmeticException.class, () -> Utils.divide(13, 3, RoundingMode.UNNECESSARY));
+    }
+
 }